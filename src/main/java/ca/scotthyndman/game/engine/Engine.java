@@ -1,18 +1,25 @@
 package ca.scotthyndman.game.engine;
 
+import java.io.File;
 import java.util.Map.Entry;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import ca.scotthyndman.game.engine.config.EngineConfig;
+import ca.scotthyndman.game.engine.config.HeadlessGameSettings;
 import ca.scotthyndman.game.engine.entity.Env;
 import ca.scotthyndman.game.engine.event.EventManager;
+import ca.scotthyndman.game.engine.job.JobSystem;
+import ca.scotthyndman.game.engine.profile.Profiler;
+import ca.scotthyndman.game.engine.scene.TransformStore;
 import ca.scotthyndman.game.engine.scripting.ScriptManager;
 import ca.scotthyndman.game.engine.state.InGameState;
 import ca.scotthyndman.game.engine.state.LoadingGameState;
 import ca.scotthyndman.game.engine.state.ShutdownGameState;
+import ca.scotthyndman.game.engine.texture.TextureAtlas;
 
 import com.jme.system.DisplaySystem;
+import com.jme.system.GameSettings;
 import com.jme.util.resource.ResourceLocatorTool;
 import com.jme.util.resource.SimpleResourceLocator;
 import com.jmex.game.StandardGame;
@@ -26,12 +33,13 @@ public class Engine {
 	//
 
 	/**
-	 * The game mode.
+	 * The game mode. A headless game has no display and renders nothing; the scene graph, animations, events and
+	 * scripts run as usual, as fast as they can, which is useful on servers and for automated benchmarks.
 	 * 
 	 * @author scottyhyndman
 	 */
 	public static enum GameMode {
-		RELEASE, DEBUG;
+		RELEASE, DEBUG, HEADLESS;
 	}
 
 	//
@@ -66,6 +74,7 @@ public class Engine {
 		System.out.println("Shutting down");
 		instance.game.shutdown();
 		instance.scriptManager.shutdown();
+		instance.jobSystem.shutdown();
 	}
 
 	//
@@ -80,7 +89,11 @@ public class Engine {
 
 	private EventManager eventManager;
 
-	private boolean paused = false;
+	private JobSystem jobSystem;
+
+	private Profiler profiler = new Profiler();
+
+	private volatile boolean paused = false;
 
 	public Engine(EngineConfig config) throws Exception {
 		// VARIABLE SETUP
@@ -93,42 +106,72 @@ public class Engine {
 		// RESOURCE SETUP
 		initializeResourcePaths();
 
+		// START THE JOB SYSTEM
+		this.jobSystem = new JobSystem(config.getJobThreads());
+		profiler.setEnabled(config.isProfiling() || config.isTrackingAllocations());
+		profiler.setTrackingAllocations(config.isTrackingAllocations());
+		profiler.setAllocationBudget(config.getAllocationBudget());
+
+		// CREATE THE ENV
+		createEnvironment();
+
 		// CREATE AND START THE GAME
 		this.game = createGame();
 
 		// START THE DISPLAY SYSTEM
-		startDisplaySystem();
-
-		// CREATE THE ENV
-		createEnvironment();
+		if (!isHeadless()) {
+			startDisplaySystem();
+		}
 	}
 
 	/**
 	 * Starts the game engine.
 	 * 
+	 * @param state
+	 *            the loading screen, or <code>null</code> for none, as in a headless game
 	 * @throws Exception
 	 */
 	public void start(LoadingGameState state) throws Exception {
 		// START EVENT MANAGER
-		state.increment("Starting Event Subsystem");
+		increment(state, "Starting Event Subsystem");
 		this.eventManager = createEventManager();
+
+		// PACK TEXTURES
+		if (config.isTextureAtlas()) {
+			increment(state, "Packing Textures");
+			Env.getInstance().setTextureAtlas(createTextureAtlas());
+		}
 		
 		// START SCRIPTING
-		state.increment("Loading Scripts");
+		increment(state, "Loading Scripts");
 		this.scriptManager = createScriptManager();
 	}
 
 	/**
 	 * Runs the game.
+	 * 
+	 * @param state
+	 *            the loading screen, or <code>null</code> for none
 	 */
 	public void runGame(LoadingGameState state) throws Exception {
 		String gameScript = config.getGameScript();
 		InGameState inGameState = new InGameState(InGameState.class.getName(), gameScript, state);
 		GameStateManager.getInstance().attachChild(inGameState);
-		state.setProgress(1f);
+		if (state != null) {
+			state.setProgress(1f);
+		}
 		inGameState.setActive(true);
 	}
 
+	/**
+	 * Moves the loading screen on to the next step, if there is one. A headless game can't show one.
+	 */
+	private static void increment(LoadingGameState state, String step) {
+		if (state != null) {
+			state.increment(step);
+		}
+	}
+
 	/**
 	 * Sets up the loggers.
 	 */
@@ -144,7 +187,14 @@ public class Engine {
 		//
 		// Build and start the game.
 		//
-		StandardGame game = new StandardGame(config.getWindowTitle(), GameType.GRAPHICAL, config,
+		GameType type = GameType.GRAPHICAL;
+		GameSettings settings = config;
+		if (isHeadless()) {
+			// No display, and no frame cap. The game gets settings of its own, so the config keeps its frame rate.
+			type = GameType.HEADLESS;
+			settings = new HeadlessGameSettings(config);
+		}
+		StandardGame game = new StandardGame(config.getWindowTitle(), type, settings,
 				Thread.getDefaultUncaughtExceptionHandler());
 		game.start();
 
@@ -184,6 +234,18 @@ public class Engine {
 	private void createEnvironment() {
 		Env env = Env.getInstance();
 		env.setGameMode(config.getGameMode());
+		if (config.isUseTransformStore()) {
+			env.setTransformStore(new TransformStore(2048));
+		}
+	}
+
+	/**
+	 * Packs the small textures into an atlas, or reads the atlas packed by an earlier run.
+	 */
+	private TextureAtlas createTextureAtlas() throws Exception {
+		String path = config.getResourcePaths().get(ResourceLocatorTool.TYPE_TEXTURE);
+		return TextureAtlas.load(Engine.class.getClassLoader().getResource(path), new File(config
+				.getAtlasCacheDirectory()), config.getAtlasPageSize(), jobSystem);
 	}
 
 	/**
@@ -218,10 +280,31 @@ public class Engine {
 		return eventManager;
 	}
 
+	/**
+	 * Returns the job system, which runs engine work on worker threads.
+	 */
+	public JobSystem getJobSystem() {
+		return jobSystem;
+	}
+
+	/**
+	 * Returns the profiler, which measures the parts of each frame when it is on.
+	 */
+	public Profiler getProfiler() {
+		return profiler;
+	}
+
 	public EngineConfig getConfig() {
 		return config;
 	}
 
+	/**
+	 * Returns <code>true</code> if the game runs without a display.
+	 */
+	public boolean isHeadless() {
+		return config.getGameMode() == GameMode.HEADLESS;
+	}
+
 	//
 	// ======== SINGLETON
 	//
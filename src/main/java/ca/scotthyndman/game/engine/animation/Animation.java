@@ -64,8 +64,15 @@ public abstract class Animation implements Finishable {
 	private int numLoops;
 	private int loopDelay;
 
+	/* package-private */static final long NANOS_PER_MILLI = 1000000L;
+
 	private int elapsedTime;
 
+	/**
+	 * The nanoseconds past {@link #elapsedTime}, from 0 to 999999.
+	 */
+	private int elapsedNanos;
+
 	public Animation(int duration) {
 		this(duration, null, 0);
 	}
@@ -190,6 +197,13 @@ public abstract class Animation implements Finishable {
 		return elapsedTime;
 	}
 
+	/**
+	 * Returns the current time, in nanoseconds.
+	 */
+	public final long getTimeNanos() {
+		return elapsedTime * NANOS_PER_MILLI + elapsedNanos;
+	}
+
 	private final int getAnimTime() {
 		return getAnimTime(elapsedTime);
 	}
@@ -202,7 +216,7 @@ public abstract class Animation implements Finishable {
 			} else {
 				int total = getTotalDuration() - startDelay;
 				if (animTime >= total) {
-					animTime -= total + duration + loopDelay;
+					animTime -= total - duration;
 				} else {
 					animTime %= (duration + loopDelay);
 				}
@@ -281,47 +295,102 @@ public abstract class Animation implements Finishable {
 		setTime(0);
 	}
 
+	/**
+	 * Moves to the specified time without updating the state, and returns the animation time the state should show
+	 * there: 0 before the start, the duration at the end of a loop or of the animation, and the eased time within the
+	 * current loop otherwise. Used by {@link Timeline#seek(int, boolean)}.
+	 */
+	/* package-private */final int seekTime(int newTime) {
+		this.elapsedTime = newTime;
+		this.elapsedNanos = 0;
+		switch (getSection()) {
+		case SECTION_START_DELAY:
+			return 0;
+		case SECTION_ANIMATION:
+			int animTime = getAnimTime();
+			if (easing != null) {
+				animTime = easing.ease(animTime, duration);
+			}
+			return animTime;
+		default:
+			return duration;
+		}
+	}
+
+	/**
+	 * Advances this animation by a whole number of milliseconds. Same as
+	 * {@code updateAnimationNanos(elapsedTime * 1000000L)}.
+	 */
 	public boolean updateAnimation(int elapsedTime) {
-		return updateAnimation(elapsedTime, false);
+		return updateAnimationNanos(elapsedTime * NANOS_PER_MILLI, false);
+	}
+
+	/**
+	 * Advances this animation by the specified number of nanoseconds. Time that doesn't add up to a whole millisecond
+	 * is kept for the next update rather than lost, and animations that support it (see
+	 * {@link #updatePreciseState(double)}) show the fraction.
+	 * 
+	 * @return true if the state changed.
+	 */
+	public boolean updateAnimationNanos(long elapsedNanos) {
+		return updateAnimationNanos(elapsedNanos, false);
 	}
 
 	/* package private */boolean updateAnimation(int elapsedTime, boolean parentLooped) {
+		return updateAnimationNanos(elapsedTime * NANOS_PER_MILLI, parentLooped);
+	}
+
+	/* package private */boolean updateAnimationNanos(long elapsedNanos, boolean parentLooped) {
+		long nanos = this.elapsedNanos + elapsedNanos;
+		long millis = nanos / NANOS_PER_MILLI;
+		int fraction = (int) (nanos - millis * NANOS_PER_MILLI);
+		if (fraction < 0) {
+			fraction += NANOS_PER_MILLI;
+			millis--;
+		}
+
+		int elapsedTime = (int) millis;
 		int newTime = this.elapsedTime + elapsedTime;
 		int oldLoop = getAnimLoop(this.elapsedTime);
 		int newLoop = getAnimLoop(newTime);
 		if (oldLoop != newLoop && elapsedTime > 0) {
 			// Trigger events
 			for (int i = oldLoop; i < newLoop; i++) {
-				if (!setTime(getLoopStartTime(i + 1))) {
+				if (!setTime(getLoopStartTime(i + 1), 0)) {
 					updateState(duration);
 				}
 			}
-			if (this.elapsedTime != newTime) {
-				setTime(newTime);
+			if (this.elapsedTime != newTime || fraction != 0) {
+				setTime(newTime, fraction);
 			}
 			return true;
 		} else if (parentLooped) {
-			if (!setTime(newTime)) {
+			if (!setTime(newTime, fraction)) {
 				updateState(duration);
 			}
 			return true;
 		} else {
-			return setTime(newTime);
+			return setTime(newTime, fraction);
 		}
 	}
 
 	private final boolean setTime(int newTime) {
+		return setTime(newTime, 0);
+	}
+
+	private final boolean setTime(int newTime, int newNanos) {
 		// Takes care of special case where elapsedTime, startDelay and duration are 0
 		int oldState = (elapsedTime <= 0) ? SECTION_START_DELAY : getSection();
 		this.elapsedTime = newTime;
+		this.elapsedNanos = newNanos;
 		int newState = getSection();
 
 		if (newState == SECTION_ANIMATION) {
-			int animTime = getAnimTime();
+			double animTime = getAnimTime() + (double) newNanos / NANOS_PER_MILLI;
 			if (easing != null) {
 				animTime = easing.ease(animTime, duration);
 			}
-			updateState(animTime);
+			updatePreciseState(animTime);
 			return true;
 		} else if ((newState == SECTION_LOOP_DELAY && oldState != SECTION_LOOP_DELAY)
 				|| (newState == SECTION_START_DELAY && oldState == SECTION_ANIMATION)) {
@@ -342,4 +411,15 @@ public abstract class Animation implements Finishable {
 	 */
 	protected abstract void updateState(int animTime);
 
+	/**
+	 * Updates the state for an animation time that may fall between two milliseconds. By default the time is rounded
+	 * and passed to {@link #updateState(int)}; subclasses that can show the fraction override this method.
+	 * 
+	 * @param animTime
+	 *            The animation time, typically from 0 to {@link #getDuration()}.
+	 */
+	protected void updatePreciseState(double animTime) {
+		updateState((int) Math.round(animTime));
+	}
+
 }
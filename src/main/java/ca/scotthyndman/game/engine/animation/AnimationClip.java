@@ -0,0 +1,199 @@
+package ca.scotthyndman.game.engine.animation;
+
+import java.util.ArrayList;
+
+/**
+ * An immutable description of an animation of one or more {@link Real}s, built once and shared by everything that
+ * plays it. The clip refers to its properties by target number; {@link #play(Real...)} binds the targets to actual
+ * properties and returns a {@link ClipPlayback} that holds the time, so playing a clip on another entity doesn't copy
+ * the tweens.
+ *
+ * <pre>
+ * // Target 0 is the x property, 1 is y
+ * AnimationClip hop = new AnimationClip.Builder()
+ * 		.animate(1, 0, -40, 250, Easing.REGULAR_OUT)
+ * 		.animate(1, -40, 0, 250, Easing.REGULAR_IN, 250)
+ * 		.build();
+ *
+ * timeline.add(hop.play(sprite.x, sprite.y));
+ * </pre>
+ *
+ * The channels are kept in packed arrays, sorted by start time.
+ */
+public final class AnimationClip {
+
+	/* package-private */final int[] targets;
+	/* package-private */final int[] starts;
+	/* package-private */final int[] durations;
+	/* package-private */final float[] fromValues;
+	/* package-private */final float[] toValues;
+	/* package-private */final Easing[] easings;
+
+	/**
+	 * Which channels start from the target's value when the clip is played, or <code>null</code> if none do.
+	 */
+	/* package-private */final boolean[] fromCurrent;
+
+	private final int targetCount;
+	private final int duration;
+
+	private AnimationClip(ArrayList<Channel> channels) {
+		int count = channels.size();
+		targets = new int[count];
+		starts = new int[count];
+		durations = new int[count];
+		fromValues = new float[count];
+		toValues = new float[count];
+		easings = new Easing[count];
+
+		boolean[] current = null;
+		int targetCount = 0;
+		int duration = 0;
+		for (int i = 0; i < count; i++) {
+			Channel channel = channels.get(i);
+			targets[i] = channel.target;
+			starts[i] = channel.start;
+			durations[i] = channel.duration;
+			fromValues[i] = channel.fromValue;
+			toValues[i] = channel.toValue;
+			easings[i] = channel.easing;
+			if (channel.fromCurrent) {
+				if (current == null) {
+					current = new boolean[count];
+				}
+				current[i] = true;
+			}
+			targetCount = Math.max(targetCount, channel.target + 1);
+			duration = Math.max(duration, channel.start + channel.duration);
+		}
+		this.fromCurrent = current;
+		this.targetCount = targetCount;
+		this.duration = duration;
+	}
+
+	/**
+	 * Returns the number of properties the clip animates, one more than the highest target number.
+	 */
+	public int getTargetCount() {
+		return targetCount;
+	}
+
+	/**
+	 * Returns the number of tweens in the clip.
+	 */
+	public int getChannelCount() {
+		return targets.length;
+	}
+
+	/**
+	 * Returns the time at which the last tween ends, in milliseconds.
+	 */
+	public int getDuration() {
+		return duration;
+	}
+
+	/**
+	 * Starts playing this clip on the given properties. The returned playback is updated like any other
+	 * {@link Animation}, usually by adding it to a {@link Timeline}. Tweens added with
+	 * {@link Builder#animateTo(int, float, int)} start from the value their property has now.
+	 *
+	 * @param targets
+	 *            the properties, by target number. The array is not copied.
+	 * @throws IllegalArgumentException
+	 *             if there are fewer properties than {@link #getTargetCount()}.
+	 */
+	public ClipPlayback play(Real... targets) {
+		return new ClipPlayback(this, targets);
+	}
+
+	/**
+	 * One tween, while the clip is being built.
+	 */
+	private static final class Channel {
+
+		final int target;
+		final int start;
+		final int duration;
+		final float fromValue;
+		final float toValue;
+		final boolean fromCurrent;
+		final Easing easing;
+
+		Channel(int target, int start, int duration, float fromValue, float toValue, boolean fromCurrent,
+				Easing easing) {
+			this.target = target;
+			this.start = start;
+			this.duration = duration;
+			this.fromValue = fromValue;
+			this.toValue = toValue;
+			this.fromCurrent = fromCurrent;
+			this.easing = easing;
+		}
+	}
+
+	/**
+	 * Collects the tweens of an {@link AnimationClip}. The methods mirror the convenience methods of
+	 * {@link Timeline}, with a target number in place of the property.
+	 */
+	public static final class Builder {
+
+		private final ArrayList<Channel> channels = new ArrayList<Channel>();
+
+		public Builder set(int target, float value) {
+			return set(target, value, 0);
+		}
+
+		public Builder set(int target, float value, int delay) {
+			return add(new Channel(target, delay, 0, value, value, false, null));
+		}
+
+		public Builder animate(int target, float fromValue, float toValue, int duration) {
+			return animate(target, fromValue, toValue, duration, null, 0);
+		}
+
+		public Builder animate(int target, float fromValue, float toValue, int duration, Easing easing) {
+			return animate(target, fromValue, toValue, duration, easing, 0);
+		}
+
+		public Builder animate(int target, float fromValue, float toValue, int duration, Easing easing,
+				int startDelay) {
+			return add(new Channel(target, startDelay, duration, fromValue, toValue, false, easing));
+		}
+
+		public Builder animateTo(int target, float toValue, int duration) {
+			return animateTo(target, toValue, duration, null, 0);
+		}
+
+		public Builder animateTo(int target, float toValue, int duration, Easing easing) {
+			return animateTo(target, toValue, duration, easing, 0);
+		}
+
+		public Builder animateTo(int target, float toValue, int duration, Easing easing, int startDelay) {
+			return add(new Channel(target, startDelay, duration, 0, toValue, true, easing));
+		}
+
+		private Builder add(Channel channel) {
+			if (channel.target < 0) {
+				throw new IllegalArgumentException("Target numbers can't be negative");
+			}
+			if (channel.start < 0 || channel.duration < 0) {
+				throw new IllegalArgumentException("Times can't be negative");
+			}
+
+			// Keep the channels sorted by start time, in the order they were added
+			int i = channels.size();
+			while (i > 0 && channels.get(i - 1).start > channel.start) {
+				i--;
+			}
+			channels.add(i, channel);
+			return this;
+		}
+
+		/**
+		 * Creates the clip. The builder can be reused afterwards; the clip doesn't see later changes.
+		 */
+		public AnimationClip build() {
+			return new AnimationClip(channels);
+		}
+	}
+}
@@ -0,0 +1,576 @@
+package ca.scotthyndman.game.engine.animation;
+
+import ca.scotthyndman.game.engine.scene.ParallelUpdater;
+
+/**
+ * Evaluates the behaviors of many properties, and any number of {@link Timeline}s, in one pass per frame.
+ * <p>
+ * Properties are added with {@link #add(Property)}, after which their own {@link Property#update(int)} does nothing.
+ * Their behaviors are kept in batches by type, so that the common cases ({@link FloatTween}, {@link IntTween},
+ * {@link ColorTween} and {@link FloatConstantChange}) are evaluated by tight loops without going through
+ * {@link PropertyBehavior}. When a property is given a new behavior it moves to the matching batch on its own.
+ * <p>
+ * Behaviors that finish, or that are replaced, are dropped from their batch in bulk at the end of the frame. Finished
+ * timelines are kept, and skipped, until they are removed, so that a timeline rewound after it finished plays again.
+ * <p>
+ * Bindings are kept in a {@link BindingGraph}. They are evaluated last, once the animated sources have their values
+ * for the frame, and a binding whose source changes between updates catches up on the next one.
+ * <p>
+ * Given a {@link ParallelUpdater}, the system advances the tweens and constant changes of each batch on several
+ * threads, and then sets the properties and finishes the behaviors on the calling thread, in order, so listeners still
+ * run on one thread. Timelines, bindings and other behaviors are always evaluated on the calling thread.
+ * <p>
+ * {@link Real}s kept in a {@link ca.scotthyndman.game.engine.scene.TransformStore} are written while their batch is
+ * advanced, straight into the store's columns, so that only their listeners are left for the calling thread. A
+ * listener may therefore see the new value of a property whose own listeners haven't been told yet.
+ */
+public class AnimationSystem {
+
+	private final Batch floatTweens = new Batch(true);
+	private final Batch intTweens = new Batch(false);
+	private final Batch colorTweens = new Batch(false);
+	private final Batch floatChanges = new Batch(true);
+	private final Batch others = new Batch(false);
+	private final BindingGraph bindings = new BindingGraph(this);
+
+	private Timeline[] timelines = new Timeline[16];
+	private int timelineCount;
+
+	private CoalescingListener[] coalescingListeners = new CoalescingListener[0];
+
+	/**
+	 * Advances the batches on several threads, or <code>null</code> if they are advanced on one.
+	 */
+	private ParallelUpdater parallel;
+
+	/**
+	 * The time the batches are being advanced by.
+	 */
+	private long stepNanos;
+
+	//
+	// Registration
+	//
+
+	/**
+	 * Hands a property's behavior over to this system. The property stays managed by this system until it is
+	 * {@link #remove(Property) removed}, even while it has no behavior.
+	 */
+	public synchronized <T> void add(Property<T> property) {
+		if (property.system != null && property.system != this) {
+			property.system.remove(property);
+		}
+		property.system = this;
+
+		PropertyBehavior<T> b = property.getBehavior();
+		if (b == property.systemBehavior) {
+			return;
+		}
+		if (property.systemBehavior instanceof Binding) {
+			bindings.bindingReplaced();
+		}
+		property.systemBehavior = b;
+		if (b == null) {
+			return;
+		}
+
+		if (b instanceof FloatTween && property instanceof Real) {
+			floatTweens.add(property, b);
+		} else if (b instanceof IntTween && property instanceof Int) {
+			intTweens.add(property, b);
+		} else if (b instanceof ColorTween && property instanceof Color) {
+			colorTweens.add(property, b);
+		} else if (b instanceof FloatConstantChange && property instanceof Real) {
+			floatChanges.add(property, b);
+		} else if (b instanceof Binding) {
+			bindings.add((Binding<?>) b);
+		} else {
+			others.add(property, b);
+		}
+	}
+
+	/**
+	 * Gives a property back its own {@link Property#update(int)}. Its behavior, if any, is kept.
+	 */
+	public synchronized void remove(Property<?> property) {
+		if (property.system == this) {
+			if (property.systemBehavior instanceof Binding) {
+				bindings.bindingReplaced();
+			}
+			property.system = null;
+			property.systemBehavior = null;
+		}
+	}
+
+	/**
+	 * Adds a timeline. It is updated every frame until it is removed; while it is finished and playing forwards, it is
+	 * skipped.
+	 */
+	public synchronized void add(Timeline timeline) {
+		for (int i = 0; i < timelineCount; i++) {
+			if (timelines[i] == timeline) {
+				return;
+			}
+		}
+		if (timelineCount == timelines.length) {
+			Timeline[] t = new Timeline[timelineCount * 2];
+			System.arraycopy(timelines, 0, t, 0, timelineCount);
+			timelines = t;
+		}
+		timelines[timelineCount++] = timeline;
+	}
+
+	/**
+	 * Removes a timeline.
+	 */
+	public synchronized void remove(Timeline timeline) {
+		for (int i = 0; i < timelineCount; i++) {
+			if (timelines[i] == timeline) {
+				timelines[i] = null;
+			}
+		}
+		compactTimelines();
+	}
+
+	/**
+	 * Adds a listener to be flushed at the end of every update, once the animations and bindings have run.
+	 */
+	public synchronized void add(CoalescingListener listener) {
+		for (int i = 0; i < coalescingListeners.length; i++) {
+			if (coalescingListeners[i] == listener) {
+				return;
+			}
+		}
+		CoalescingListener[] list = new CoalescingListener[coalescingListeners.length + 1];
+		System.arraycopy(coalescingListeners, 0, list, 0, coalescingListeners.length);
+		list[coalescingListeners.length] = listener;
+		coalescingListeners = list;
+	}
+
+	/**
+	 * Removes a listener added with {@link #add(CoalescingListener)}. It isn't flushed.
+	 */
+	public synchronized void remove(CoalescingListener listener) {
+		for (int i = 0; i < coalescingListeners.length; i++) {
+			if (coalescingListeners[i] == listener) {
+				CoalescingListener[] list = new CoalescingListener[coalescingListeners.length - 1];
+				System.arraycopy(coalescingListeners, 0, list, 0, i);
+				System.arraycopy(coalescingListeners, i + 1, list, i, list.length - i);
+				coalescingListeners = list;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Sets the updater whose threads advance the batches, or <code>null</code> to advance them on the calling thread.
+	 * With an updater, each behavior must drive a single property, since the behaviors are advanced side by side.
+	 */
+	public synchronized void setParallelUpdater(ParallelUpdater parallel) {
+		this.parallel = parallel;
+	}
+
+	//
+	// Updating
+	//
+
+	/**
+	 * Advances every behavior and timeline by the specified time.
+	 * 
+	 * @param elapsedTime
+	 *            the time since the last update, in milliseconds
+	 */
+	public void update(int elapsedTime) {
+		updateNanos(elapsedTime * Animation.NANOS_PER_MILLI);
+	}
+
+	/**
+	 * Advances every behavior and timeline by the specified time.
+	 * 
+	 * @param elapsedNanos
+	 *            the time since the last update, in nanoseconds
+	 */
+	public synchronized void updateNanos(long elapsedNanos) {
+		updateFloatTweens(elapsedNanos);
+		updateIntTweens(elapsedNanos);
+		updateColorTweens(elapsedNanos);
+		updateFloatChanges(elapsedNanos);
+		updateOthers(elapsedNanos);
+		updateTimelines(elapsedNanos);
+		bindings.update();
+		for (int i = 0; i < coalescingListeners.length; i++) {
+			coalescingListeners[i].flush();
+		}
+	}
+
+	private void updateFloatTweens(long elapsedNanos) {
+		advance(floatTweens, elapsedNanos);
+		Property<?>[] properties = floatTweens.properties;
+		PropertyBehavior<?>[] behaviors = floatTweens.behaviors;
+		boolean[] changed = floatTweens.changed;
+		boolean[] written = floatTweens.written;
+		int size = floatTweens.size;
+		int removed = 0;
+		floatTweens.beginApply();
+		for (int i = 0; i < size; i++) {
+			Real real = (Real) properties[i];
+			FloatTween tween = (FloatTween) behaviors[i];
+			if (isStale(real, tween)) {
+				properties[i] = null;
+				removed++;
+				continue;
+			}
+
+			if (written[i]) {
+				real.fireChange();
+			} else if (changed[i]) {
+				real.setFloat(tween.getFloatValue());
+			}
+			if (tween.isFinished()) {
+				finish(real, tween);
+				properties[i] = null;
+				removed++;
+			}
+		}
+		floatTweens.endApply(removed > 0);
+	}
+
+	private void updateIntTweens(long elapsedNanos) {
+		advance(intTweens, elapsedNanos);
+		Property<?>[] properties = intTweens.properties;
+		PropertyBehavior<?>[] behaviors = intTweens.behaviors;
+		boolean[] changed = intTweens.changed;
+		int size = intTweens.size;
+		int removed = 0;
+		intTweens.beginApply();
+		for (int i = 0; i < size; i++) {
+			Int property = (Int) properties[i];
+			IntTween tween = (IntTween) behaviors[i];
+			if (isStale(property, tween)) {
+				properties[i] = null;
+				removed++;
+				continue;
+			}
+
+			if (changed[i]) {
+				property.setInt(tween.getIntValue());
+			}
+			if (tween.isFinished()) {
+				finish(property, tween);
+				properties[i] = null;
+				removed++;
+			}
+		}
+		intTweens.endApply(removed > 0);
+	}
+
+	private void updateColorTweens(long elapsedNanos) {
+		advance(colorTweens, elapsedNanos);
+		Property<?>[] properties = colorTweens.properties;
+		PropertyBehavior<?>[] behaviors = colorTweens.behaviors;
+		boolean[] changed = colorTweens.changed;
+		int size = colorTweens.size;
+		int removed = 0;
+		colorTweens.beginApply();
+		for (int i = 0; i < size; i++) {
+			Color color = (Color) properties[i];
+			ColorTween tween = (ColorTween) behaviors[i];
+			if (isStale(color, tween)) {
+				properties[i] = null;
+				removed++;
+				continue;
+			}
+
+			if (changed[i]) {
+				color.setValue(tween.getValue());
+			}
+			if (tween.isFinished()) {
+				finish(color, tween);
+				properties[i] = null;
+				removed++;
+			}
+		}
+		colorTweens.endApply(removed > 0);
+	}
+
+	private void updateFloatChanges(long elapsedNanos) {
+		advance(floatChanges, elapsedNanos);
+		Property<?>[] properties = floatChanges.properties;
+		PropertyBehavior<?>[] behaviors = floatChanges.behaviors;
+		boolean[] changed = floatChanges.changed;
+		boolean[] written = floatChanges.written;
+		int size = floatChanges.size;
+		int removed = 0;
+		floatChanges.beginApply();
+		for (int i = 0; i < size; i++) {
+			Real real = (Real) properties[i];
+			FloatConstantChange change = (FloatConstantChange) behaviors[i];
+			if (isStale(real, change)) {
+				properties[i] = null;
+				removed++;
+				continue;
+			}
+
+			if (written[i]) {
+				real.fireChange();
+			} else if (changed[i]) {
+				real.setFloat(change.getFloatValue());
+			}
+			if (change.isFinished()) {
+				finish(real, change);
+				properties[i] = null;
+				removed++;
+			}
+		}
+		floatChanges.endApply(removed > 0);
+	}
+
+	/**
+	 * Advances the behaviors of a batch, noting which changed. Nothing else is touched, so that the batch can be split
+	 * between threads.
+	 */
+	private void advance(Batch batch, long elapsedNanos) {
+		stepNanos = elapsedNanos;
+		if (parallel == null) {
+			batch.run(0, batch.size);
+		} else {
+			parallel.forEach(batch.size, batch);
+		}
+	}
+
+	private void updateOthers(long elapsedNanos) {
+		Property<?>[] properties = others.properties;
+		PropertyBehavior<?>[] behaviors = others.behaviors;
+		int size = others.size;
+		int removed = 0;
+		others.beginApply();
+		for (int i = 0; i < size; i++) {
+			Property<?> property = properties[i];
+			PropertyBehavior<?> b = behaviors[i];
+			if (isStale(property, b)) {
+				properties[i] = null;
+				removed++;
+				continue;
+			}
+
+			property.updateBehavior(elapsedNanos);
+			if (property.getBehavior() != b) {
+				properties[i] = null;
+				removed++;
+				if (property.systemBehavior == b) {
+					property.systemBehavior = null;
+				}
+			}
+		}
+		others.endApply(removed > 0);
+	}
+
+	private void updateTimelines(long elapsedNanos) {
+		for (int i = 0; i < timelineCount; i++) {
+			Timeline timeline = timelines[i];
+			if (!timeline.isFinished() || timeline.getPlaySpeed() < 0) {
+				timeline.updateAnimationNanos(elapsedNanos, false);
+			}
+		}
+	}
+
+	private void compactTimelines() {
+		int j = 0;
+		for (int i = 0; i < timelineCount; i++) {
+			if (timelines[i] != null) {
+				timelines[j++] = timelines[i];
+			}
+		}
+		for (int i = j; i < timelineCount; i++) {
+			timelines[i] = null;
+		}
+		timelineCount = j;
+	}
+
+	/**
+	 * Returns <code>true</code> if a batch entry no longer describes the property, because the property was removed
+	 * from this system or given another behavior.
+	 */
+	private boolean isStale(Property<?> property, PropertyBehavior<?> b) {
+		return property.system != this || property.getBehavior() != b;
+	}
+
+	private static <T> void finish(Property<T> property, PropertyBehavior<T> b) {
+		property.behaviorFinished(b);
+		if (property.systemBehavior == b) {
+			property.systemBehavior = null;
+		}
+	}
+
+	//
+	// Statistics
+	//
+
+	/**
+	 * Returns the number of property behaviors being evaluated.
+	 */
+	public synchronized int getBehaviorCount() {
+		return floatTweens.size + intTweens.size + colorTweens.size + floatChanges.size + others.size
+				+ bindings.size();
+	}
+
+	/**
+	 * Returns the number of timelines being updated.
+	 */
+	public synchronized int getTimelineCount() {
+		return timelineCount;
+	}
+
+	/* package-private */BindingGraph getBindings() {
+		return bindings;
+	}
+
+	/**
+	 * A list of property/behavior pairs, kept in parallel arrays, with whether each behavior changed when it was last
+	 * advanced.
+	 * <p>
+	 * A batch of {@link FloatBehavior}s may write their values into the stored {@link Real}s as it advances them. Those
+	 * entries are marked written rather than changed, and only need their listeners told.
+	 * <p>
+	 * While the batch's properties are being set, listeners may hand the system new behaviors that belong in the same
+	 * batch. The loop setting the properties holds on to the arrays, so those are kept aside and appended once it is
+	 * done.
+	 */
+	private final class Batch implements ParallelUpdater.Slice {
+
+		Property<?>[] properties = new Property<?>[64];
+		PropertyBehavior<?>[] behaviors = new PropertyBehavior<?>[64];
+		boolean[] changed = new boolean[64];
+		boolean[] written = new boolean[64];
+		int size;
+
+		/**
+		 * <code>true</code> if the behaviors are {@link FloatBehavior}s of {@link Real}s, whose values may be written
+		 * as they are advanced.
+		 */
+		private final boolean writesStorage;
+
+		/**
+		 * <code>true</code> while the properties are being set.
+		 */
+		private boolean applying;
+
+		/**
+		 * The pairs added while the properties were being set.
+		 */
+		private Property<?>[] pendingProperties = new Property<?>[8];
+		private PropertyBehavior<?>[] pendingBehaviors = new PropertyBehavior<?>[8];
+		private int pendingSize;
+
+		Batch(boolean writesStorage) {
+			this.writesStorage = writesStorage;
+		}
+
+		void add(Property<?> property, PropertyBehavior<?> behavior) {
+			if (applying) {
+				if (pendingSize == pendingProperties.length) {
+					Property<?>[] p = new Property<?>[pendingSize * 2];
+					PropertyBehavior<?>[] b = new PropertyBehavior<?>[pendingSize * 2];
+					System.arraycopy(pendingProperties, 0, p, 0, pendingSize);
+					System.arraycopy(pendingBehaviors, 0, b, 0, pendingSize);
+					pendingProperties = p;
+					pendingBehaviors = b;
+				}
+				pendingProperties[pendingSize] = property;
+				pendingBehaviors[pendingSize] = behavior;
+				pendingSize++;
+				return;
+			}
+
+			if (size == properties.length) {
+				Property<?>[] p = new Property<?>[size * 2];
+				PropertyBehavior<?>[] b = new PropertyBehavior<?>[size * 2];
+				boolean[] c = new boolean[size * 2];
+				boolean[] w = new boolean[size * 2];
+				System.arraycopy(properties, 0, p, 0, size);
+				System.arraycopy(behaviors, 0, b, 0, size);
+				System.arraycopy(changed, 0, c, 0, size);
+				System.arraycopy(written, 0, w, 0, size);
+				properties = p;
+				behaviors = b;
+				changed = c;
+				written = w;
+			}
+			properties[size] = property;
+			behaviors[size] = behavior;
+			size++;
+		}
+
+		/**
+		 * Called before the properties are set from the behaviors.
+		 */
+		void beginApply() {
+			applying = true;
+		}
+
+		/**
+		 * Called once the properties have been set: drops the entries set to <code>null</code> if there are any, and
+		 * then appends the pairs added in the meantime.
+		 */
+		void endApply(boolean removed) {
+			applying = false;
+			if (removed) {
+				compact();
+			}
+			for (int i = 0; i < pendingSize; i++) {
+				add(pendingProperties[i], pendingBehaviors[i]);
+				pendingProperties[i] = null;
+				pendingBehaviors[i] = null;
+			}
+			pendingSize = 0;
+		}
+
+		/**
+		 * Advances the behaviors in a range by {@link AnimationSystem#stepNanos}, skipping stale entries. Values of
+		 * stored {@link Real}s go straight into their store's column.
+		 */
+		public void run(int from, int to) {
+			long nanos = stepNanos;
+			for (int i = from; i < to; i++) {
+				PropertyBehavior<?> b = behaviors[i];
+				boolean c = !isStale(properties[i], b) && b.updateAnimationNanos(nanos);
+				boolean w = false;
+				if (c && writesStorage) {
+					Real real = (Real) properties[i];
+					float[] storage = real.storage;
+					if (storage != null) {
+						int k = real.storageIndex;
+						float value = ((FloatBehavior) b).getFloatValue();
+						w = storage[k] != value;
+						storage[k] = value;
+						c = false;
+					}
+				}
+				changed[i] = c;
+				written[i] = w;
+			}
+		}
+
+		/**
+		 * Removes the entries whose property was set to <code>null</code>, keeping the others in order.
+		 */
+		void compact() {
+			int j = 0;
+			while (j < size && properties[j] != null) {
+				j++;
+			}
+			for (int i = j + 1; i < size; i++) {
+				if (properties[i] != null) {
+					properties[j] = properties[i];
+					behaviors[j] = behaviors[i];
+					j++;
+				}
+			}
+			for (int i = j; i < size; i++) {
+				properties[i] = null;
+				behaviors[i] = null;
+			}
+			size = j;
+		}
+	}
+}
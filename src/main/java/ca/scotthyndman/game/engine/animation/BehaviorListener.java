@@ -0,0 +1,19 @@
+package ca.scotthyndman.game.engine.animation;
+
+/**
+ * A {@link PropertyListener} that also wants to know when a {@link Property} is given a new {@link PropertyBehavior}.
+ * This is useful for owners that only update their properties while they are animating.
+ *
+ * @see Property#setBehavior(PropertyBehavior)
+ */
+public interface BehaviorListener extends PropertyListener {
+
+	/**
+	 * Notifies that a property's behavior has changed. The new behavior may be <code>null</code>.
+	 *
+	 * @param property
+	 *            the property whose behavior has changed.
+	 */
+	public void onBehaviorChange(Property property);
+
+}
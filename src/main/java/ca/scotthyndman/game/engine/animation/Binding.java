@@ -14,6 +14,13 @@ package ca.scotthyndman.game.engine.animation;
 	private final BindFunction<T> customFunction;
 	private final int function;
 
+	// Set while the target is managed by an AnimationSystem; see BindingGraph
+	/* package-private */BindingGraph graph;
+	/* package-private */boolean dirty;
+	/* package-private */int depth;
+	/* package-private */int mark;
+	/* package-private */int index;
+
 	/* package-private */Binding(Property<T> target, BindFunction function) {
 		this.target = target;
 		this.source = null;
@@ -22,7 +29,15 @@ package ca.scotthyndman.game.engine.animation;
 		this.function = FUNCTION_CUSTOM;
 	}
 
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the source is already bound, directly or through other properties, to the target. Bidirectional
+	 *             bindings are meant to point at each other and aren't checked.
+	 */
 	/* package-private */Binding(Property<T> target, Property<T> source, boolean bidirectional) {
+		if (!bidirectional && source != target && BindingGraph.createsCycle(target, source)) {
+			throw new IllegalArgumentException("Binding would create a cycle");
+		}
 		this.target = target;
 		this.source = source;
 		this.bidirectional = bidirectional;
@@ -38,17 +53,24 @@ package ca.scotthyndman.game.engine.animation;
 		return bidirectional;
 	}
 
-	public Property getSource() {
+	public Property<T> getSource() {
 		return source;
 	}
 
-	public Property getTarget() {
+	public Property<T> getTarget() {
 		return target;
 	}
 
 	public void onPropertyChange(Property property) {
 		if (target.getBehavior() != this) {
 			source.removeListener(this);
+		} else if (graph != null) {
+			graph.markDirty(this);
+		} else if (function == FUNCTION_NONE && source instanceof Real && target instanceof Real) {
+			// Without boxing
+			((Real) target).setFloat(((Real) source).get());
+		} else if (function == FUNCTION_NONE && source instanceof Int && target instanceof Int) {
+			((Int) target).setInt(((Int) source).get());
 		} else {
 			target.setValue(getValue());
 		}
@@ -58,6 +80,10 @@ package ca.scotthyndman.game.engine.animation;
 		return true;
 	}
 
+	public boolean updateAnimationNanos(long elapsedNanos) {
+		return true;
+	}
+
 	public void fastForward() {
 		// Do nothing
 	}
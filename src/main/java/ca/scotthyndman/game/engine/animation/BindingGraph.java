@@ -0,0 +1,277 @@
+package ca.scotthyndman.game.engine.animation;
+
+/**
+ * The bindings of the properties managed by an {@link AnimationSystem}. Instead of pushing a new value down the chain
+ * as soon as a source changes, a binding in the graph is only marked dirty, and the graph evaluates the dirty
+ * bindings once per frame, sources before the properties bound to them. A property that several changes reach in
+ * one frame is therefore set once, and long chains don't recurse.
+ * <p>
+ * A binding has a single source, so the bindings form a forest: each one is ordered by its depth, the number of
+ * bindings between it and an unbound property. The order is recomputed when bindings are added.
+ */
+/* package-private */final class BindingGraph {
+
+	private final AnimationSystem system;
+
+	private Binding<?>[] bindings = new Binding<?>[64];
+	private int size;
+
+	/**
+	 * <code>true</code> if bindings were added since the order was last computed.
+	 */
+	private boolean orderDirty;
+
+	/**
+	 * <code>true</code> if a binding was marked dirty, or replaced, since the last update. A binding marked dirty during
+	 * an update, after the binding being evaluated, is evaluated by the same update and doesn't count.
+	 */
+	private boolean changed;
+
+	/**
+	 * The index of the binding being evaluated, or -1 outside of an update.
+	 */
+	private int evaluating = -1;
+
+	/**
+	 * Bindings to functions, which are evaluated every frame.
+	 */
+	private int functionCount;
+
+	// Scratch space for computing the depths
+	private int stamp;
+	private Binding[] path = new Binding[16];
+
+	/* package-private */BindingGraph(AnimationSystem system) {
+		this.system = system;
+	}
+
+	/**
+	 * Adds a binding, which is evaluated on the next update.
+	 */
+	/* package-private */void add(Binding<?> binding) {
+		if (binding.graph == this) {
+			return;
+		}
+		if (size == bindings.length) {
+			Binding<?>[] b = new Binding<?>[size * 2];
+			System.arraycopy(bindings, 0, b, 0, size);
+			bindings = b;
+		}
+		binding.index = size;
+		bindings[size++] = binding;
+		binding.graph = this;
+		binding.dirty = true;
+		if (binding.getSource() == null) {
+			functionCount++;
+		}
+		orderDirty = true;
+		changed = true;
+	}
+
+	/**
+	 * Called by a binding whose source changed.
+	 */
+	/* package-private */void markDirty(Binding<?> binding) {
+		binding.dirty = true;
+		if (evaluating < 0 || binding.index <= evaluating) {
+			changed = true;
+		}
+	}
+
+	/**
+	 * Called when a property in the graph is given another behavior or leaves the system, so that its binding is
+	 * dropped on the next update.
+	 */
+	/* package-private */void bindingReplaced() {
+		changed = true;
+	}
+
+	/* package-private */int size() {
+		return size;
+	}
+
+	/**
+	 * Returns <code>true</code> if the next update has bindings to evaluate or drop.
+	 */
+	/* package-private */boolean isChanged() {
+		return changed || functionCount > 0;
+	}
+
+	/**
+	 * Evaluates the dirty bindings, in order, and drops the ones that no longer belong to their property.
+	 */
+	/* package-private */void update() {
+		if (orderDirty) {
+			sort();
+		}
+		if (!changed && functionCount == 0) {
+			return;
+		}
+
+		changed = false;
+		int removed = 0;
+		try {
+			for (int i = 0; i < size; i++) {
+				evaluating = i;
+				Binding<?> b = bindings[i];
+				if (!isLive(b)) {
+					drop(b);
+					bindings[i] = null;
+					removed++;
+				} else if (b.dirty) {
+					evaluate(b);
+				}
+			}
+		} finally {
+			evaluating = -1;
+		}
+		if (removed > 0) {
+			compact();
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the binding still belongs to its property, which is still in the system.
+	 */
+	private boolean isLive(Binding<?> binding) {
+		Property<?> target = binding.getTarget();
+		return target.system == system && target.getBehavior() == binding;
+	}
+
+	private <T> void drop(Binding<T> binding) {
+		binding.graph = null;
+		Property<T> target = binding.getTarget();
+		if (target.systemBehavior == binding) {
+			target.systemBehavior = null;
+		}
+		if (binding.getSource() == null) {
+			functionCount--;
+		}
+	}
+
+	private static <T> void evaluate(Binding<T> binding) {
+		Property<T> target = binding.getTarget();
+		Property<T> source = binding.getSource();
+		binding.dirty = source == null;
+		if (source instanceof Real && target instanceof Real) {
+			((Real) target).setFloat(((Real) source).get());
+		} else {
+			target.applyBehaviorValue(binding);
+		}
+	}
+
+	private void compact() {
+		int j = 0;
+		for (int i = 0; i < size; i++) {
+			if (bindings[i] != null) {
+				bindings[i].index = j;
+				bindings[j++] = bindings[i];
+			}
+		}
+		for (int i = j; i < size; i++) {
+			bindings[i] = null;
+		}
+		size = j;
+	}
+
+	//
+	// Ordering
+	//
+
+	/**
+	 * Orders the bindings by depth with a counting sort, keeping the order they were added in among equals.
+	 */
+	private void sort() {
+		orderDirty = false;
+		stamp++;
+		int maxDepth = 0;
+		for (int i = 0; i < size; i++) {
+			computeDepth(bindings[i]);
+			maxDepth = Math.max(maxDepth, bindings[i].depth);
+		}
+
+		int[] starts = new int[maxDepth + 2];
+		for (int i = 0; i < size; i++) {
+			starts[bindings[i].depth + 1]++;
+		}
+		for (int d = 1; d < starts.length; d++) {
+			starts[d] += starts[d - 1];
+		}
+		Binding<?>[] sorted = new Binding<?>[bindings.length];
+		for (int i = 0; i < size; i++) {
+			int index = starts[bindings[i].depth]++;
+			bindings[i].index = index;
+			sorted[index] = bindings[i];
+		}
+		bindings = sorted;
+	}
+
+	/**
+	 * Sets the depth of a binding and of the bindings above it that haven't been visited yet, without recursing.
+	 */
+	private void computeDepth(Binding binding) {
+		int n = 0;
+		Binding current = binding;
+		while (current != null && current.mark != stamp) {
+			current.mark = stamp;
+			current.depth = -1;
+			if (n == path.length) {
+				Binding[] p = new Binding[n * 2];
+				System.arraycopy(path, 0, p, 0, n);
+				path = p;
+			}
+			path[n++] = current;
+			current = parentOf(current);
+		}
+
+		// The depth of the binding the walk stopped at; -1 at the top, or when bidirectional bindings form a loop
+		int depth = current == null ? -1 : current.depth;
+		while (n > 0) {
+			Binding b = path[--n];
+			path[n] = null;
+			b.depth = ++depth;
+		}
+	}
+
+	/**
+	 * Returns the binding of the property the specified binding is bound to, if any.
+	 */
+	private static Binding parentOf(Binding binding) {
+		Property source = binding.getSource();
+		if (source == null) {
+			return null;
+		}
+		PropertyBehavior b = source.getBehavior();
+		return b instanceof Binding ? (Binding) b : null;
+	}
+
+	/**
+	 * Returns <code>true</code> if binding the target to the source would make the target depend on itself, that is,
+	 * if following the bindings up from the source leads back to the target.
+	 */
+	/* package-private */static boolean createsCycle(Property target, Property source) {
+		// Two walkers, so that a loop of bidirectional bindings above the source doesn't trap us
+		Property slow = source;
+		Property fast = source;
+		while (true) {
+			for (int i = 0; i < 2; i++) {
+				if (fast == target) {
+					return true;
+				}
+				fast = sourceOf(fast);
+				if (fast == null) {
+					return false;
+				}
+			}
+			slow = sourceOf(slow);
+			if (slow == fast) {
+				return false;
+			}
+		}
+	}
+
+	private static Property sourceOf(Property property) {
+		PropertyBehavior b = property.getBehavior();
+		return b instanceof Binding ? ((Binding) b).getSource() : null;
+	}
+}
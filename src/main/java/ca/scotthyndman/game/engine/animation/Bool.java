@@ -50,6 +50,9 @@ public final class Bool extends Property<Boolean> {
 
 	/**
 	 * Binds this property to the specified property. If this property is given a new behavior, the binding is broken.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the specified property is already bound to this one, directly or through other properties
 	 */
 	public void bindTo(Bool property) {
 		setBehavior(new Binding(this, property, false));
@@ -0,0 +1,94 @@
+package ca.scotthyndman.game.engine.animation;
+
+/**
+ * One play of an {@link AnimationClip} on a set of {@link Real}s. It holds only the playback state - the time, the
+ * loops and the bound properties - and reads everything else from the shared clip.
+ *
+ * @see AnimationClip#play(Real...)
+ */
+public final class ClipPlayback extends Animation {
+
+	private final AnimationClip clip;
+	private final Real[] targets;
+
+	/**
+	 * The clip's start values, or a copy with the values captured for tweens that start from the current value.
+	 */
+	private final float[] fromValues;
+
+	private double lastAnimTime;
+
+	/* package-private */ClipPlayback(AnimationClip clip, Real[] targets) {
+		super(clip.getDuration());
+		if (targets.length < clip.getTargetCount()) {
+			throw new IllegalArgumentException("The clip animates " + clip.getTargetCount() + " properties, but "
+					+ targets.length + " were given");
+		}
+
+		this.clip = clip;
+		this.targets = targets;
+
+		boolean[] fromCurrent = clip.fromCurrent;
+		if (fromCurrent == null) {
+			fromValues = clip.fromValues;
+		} else {
+			fromValues = new float[fromCurrent.length];
+			for (int i = 0; i < fromCurrent.length; i++) {
+				fromValues[i] = fromCurrent[i] ? targets[clip.targets[i]].get() : clip.fromValues[i];
+			}
+		}
+	}
+
+	public AnimationClip getClip() {
+		return clip;
+	}
+
+	protected void updateState(int animTime) {
+		updatePreciseState(animTime);
+	}
+
+	/**
+	 * Applies the tweens whose window lies between the last time and this one. As in {@link Timeline#seek}, running
+	 * tweens win over finished ones, which win over ones that haven't started.
+	 */
+	protected void updatePreciseState(double animTime) {
+		int[] channelTargets = clip.targets;
+		int[] starts = clip.starts;
+		int[] durations = clip.durations;
+		int count = channelTargets.length;
+		double low = Math.min(lastAnimTime, animTime);
+
+		// Tweens rewound to before their start, latest first so that earlier ones set the value
+		if (animTime < lastAnimTime) {
+			for (int i = count - 1; i >= 0; i--) {
+				if (animTime < starts[i] && lastAnimTime >= starts[i]) {
+					targets[channelTargets[i]].setFloat(fromValues[i]);
+				}
+			}
+		}
+
+		// Finished tweens
+		for (int i = 0; i < count; i++) {
+			int end = starts[i] + durations[i];
+			if (animTime >= end && end >= low) {
+				targets[channelTargets[i]].setFloat(clip.toValues[i]);
+			}
+		}
+
+		// Running tweens
+		for (int i = 0; i < count; i++) {
+			int start = starts[i];
+			if (animTime >= start && animTime < start + durations[i]) {
+				float t = (float) ((animTime - start) / durations[i]);
+				Easing easing = clip.easings[i];
+				if (easing != null) {
+					t = easing.ease(t);
+				}
+				float from = fromValues[i];
+				targets[channelTargets[i]].setFloat(from + (clip.toValues[i] - from) * t);
+			}
+		}
+
+		lastAnimTime = animTime;
+	}
+}
@@ -0,0 +1,123 @@
+package ca.scotthyndman.game.engine.animation;
+
+/**
+ * A listener that collects property changes and passes them on to another listener when {@link #flush()} is called,
+ * at most once per property. A listener that only needs to know what changed during a frame, such as a display of
+ * property values, can be wrapped in one of these so that a property changing many times a frame reaches it once.
+ * <p>
+ * Add the CoalescingListener to the properties in place of the listener it wraps, and call {@link #flush()} once per
+ * frame, or hand it to {@link AnimationSystem#add(CoalescingListener)} to have it flushed after the animations have
+ * run. Properties are delivered in the order they first changed. Collecting and delivering doesn't allocate once the
+ * internal tables have grown to the number of properties that change in a frame.
+ */
+public class CoalescingListener implements PropertyListener {
+
+	private final PropertyListener listener;
+
+	/**
+	 * The properties that changed since the last flush, in order, and the ones being delivered by the current flush.
+	 */
+	private Property[] pending = new Property[16];
+	private Property[] delivering = new Property[16];
+	private int pendingCount;
+
+	/**
+	 * An open addressing set of the pending properties, to find duplicates. Its length is a power of two.
+	 */
+	private Property[] table = new Property[32];
+
+	public CoalescingListener(PropertyListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Returns the listener changes are passed on to.
+	 */
+	public PropertyListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Returns the number of properties that changed since the last flush.
+	 */
+	public int getPendingCount() {
+		return pendingCount;
+	}
+
+	public void onPropertyChange(Property property) {
+		// Most often the same property changes again
+		if (pendingCount > 0 && pending[pendingCount - 1] == property) {
+			return;
+		}
+
+		int mask = table.length - 1;
+		int i = hash(property) & mask;
+		while (table[i] != null) {
+			if (table[i] == property) {
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		table[i] = property;
+
+		if (pendingCount == pending.length) {
+			Property[] p = new Property[pendingCount * 2];
+			System.arraycopy(pending, 0, p, 0, pendingCount);
+			pending = p;
+		}
+		pending[pendingCount++] = property;
+
+		// Keep the table at most half full
+		if (pendingCount * 2 > table.length) {
+			rehash(table.length * 2);
+		}
+	}
+
+	/**
+	 * Passes each property that changed since the last flush on to the wrapped listener. Changes made by the listener
+	 * while it is being called are kept for the next flush.
+	 */
+	public void flush() {
+		int count = pendingCount;
+		if (count == 0) {
+			return;
+		}
+
+		// Swap the lists, so that changes made during delivery go to an empty one
+		Property[] batch = pending;
+		if (delivering.length < batch.length) {
+			delivering = new Property[batch.length];
+		}
+		pending = delivering;
+		delivering = batch;
+		pendingCount = 0;
+		for (int i = 0; i < table.length; i++) {
+			table[i] = null;
+		}
+
+		for (int i = 0; i < count; i++) {
+			Property property = batch[i];
+			batch[i] = null;
+			listener.onPropertyChange(property);
+		}
+	}
+
+	private void rehash(int size) {
+		Property[] t = new Property[size];
+		int mask = size - 1;
+		for (int j = 0; j < pendingCount; j++) {
+			Property property = pending[j];
+			int i = hash(property) & mask;
+			while (t[i] != null) {
+				i = (i + 1) & mask;
+			}
+			t[i] = property;
+		}
+		table = t;
+	}
+
+	private static int hash(Property property) {
+		int h = System.identityHashCode(property);
+		return h ^ (h >>> 16);
+	}
+}
@@ -19,8 +19,25 @@ public class Color extends Property<ColorRGBA> {
 		this(null, argbColor);
 	}
 
+	/**
+	 * Creates a color with the specified listener. The color is copied, so later changes to <code>argbColor</code> do
+	 * not affect this property.
+	 */
 	public Color(PropertyListener listener, ColorRGBA argbColor) {
-		super(listener, argbColor);
+		super(listener, new ColorRGBA(argbColor));
+	}
+
+	/**
+	 * Copies the specified color into this property's own {@link ColorRGBA}, alerting the listeners if it changed.
+	 * Behaviors like {@link ColorTween} reuse their value between frames, so it is never kept by reference.
+	 */
+	@Override
+	protected void setValue(ColorRGBA value) {
+		ColorRGBA current = super.getValue();
+		if (!current.equals(value)) {
+			current.set(value);
+			fireChange();
+		}
 	}
 
 	//
@@ -37,12 +54,32 @@ public class Color extends Property<ColorRGBA> {
 	}
 
 	/**
-	 * Gets the packed, 32-bit ARGB value of this color.
+	 * Sets this color from a packed, 32-bit ARGB value, without allocating.
+	 */
+	public void set(int argb) {
+		ColorRGBA current = super.getValue();
+		if (current.asIntARGB() != argb) {
+			current.fromIntARGB(argb);
+			fireChange();
+		}
+		setBehavior(null);
+	}
+
+	/**
+	 * Gets the value of this color. The instance belongs to this property and is updated in place as the color
+	 * changes; copy it if you need to keep it.
 	 */
 	public ColorRGBA get() {
 		return super.getValue();
 	}
 
+	/**
+	 * Gets the packed, 32-bit ARGB value of this color.
+	 */
+	public int getARGB() {
+		return get().asIntARGB();
+	}
+
 	public String toString() {
 		return get().toString();
 	}
@@ -71,6 +108,9 @@ public class Color extends Property<ColorRGBA> {
 
 	/**
 	 * Binds this property to the specified property. If this property is given a new behavior, the binding is broken.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the specified property is already bound to this one, directly or through other properties
 	 */
 	public void bindTo(Color property) {
 		setBehavior(new Binding(this, property, false));
@@ -96,41 +136,61 @@ public class Color extends Property<ColorRGBA> {
 	 * Animates this Int from the one value (fromValue) to another (toValue). Any previous animations are stopped.
 	 */
 	public void animate(ColorRGBA fromARGB, ColorRGBA toARGB, int duration) {
-		setBehavior(new Tween<ColorRGBA>(fromARGB, toARGB, duration));
+		setBehavior(new ColorTween(fromARGB, toARGB, duration));
 	}
 
 	/**
 	 * Animates this Int from the one value (fromValue) to another (toValue). Any previous animations are stopped.
 	 */
 	public void animate(ColorRGBA fromARGB, ColorRGBA toARGB, int duration, Easing easing) {
-		setBehavior(new Tween<ColorRGBA>(fromARGB, toARGB, duration, easing));
+		setBehavior(new ColorTween(fromARGB, toARGB, duration, easing));
 	}
 
 	/**
 	 * Animates this Int from the one value (fromValue) to another (toValue). Any previous animations are stopped.
 	 */
 	public void animate(ColorRGBA fromARGB, ColorRGBA toARGB, int duration, Easing easing, int startDelay) {
-		setBehavior(new Tween<ColorRGBA>(fromARGB, toARGB, duration, easing, startDelay));
+		setBehavior(new ColorTween(fromARGB, toARGB, duration, easing, startDelay));
 	}
 
 	/**
 	 * Animates this Int from the current value to the specified value. Any previous animations are stopped.
 	 */
 	public void animateTo(ColorRGBA toARGB, int duration) {
-		setBehavior(new Tween<ColorRGBA>(get(), toARGB, duration));
+		setBehavior(new ColorTween(get(), toARGB, duration));
 	}
 
 	/**
 	 * Animates this Int from the current value to the specified value. Any previous animations are stopped.
 	 */
 	public void animateTo(ColorRGBA toARGB, int duration, Easing easing) {
-		setBehavior(new Tween<ColorRGBA>(get(), toARGB, duration, easing));
+		setBehavior(new ColorTween(get(), toARGB, duration, easing));
 	}
 
 	/**
 	 * Animates this Int from the current value to the specified value. Any previous animations are stopped.
 	 */
 	public void animateTo(ColorRGBA toARGB, int duration, Easing easing, int startDelay) {
-		setBehavior(new Tween<ColorRGBA>(get(), toARGB, duration, easing, startDelay));
+		setBehavior(new ColorTween(get(), toARGB, duration, easing, startDelay));
+	}
+
+	/**
+	 * Changes this color at a constant rate. Any previous animations are stopped.
+	 * 
+	 * @param step
+	 *            the change per second of each component
+	 */
+	public void constant(ColorRGBA step) {
+		setBehavior(new ColorConstantChange(get(), step));
+	}
+
+	/**
+	 * Changes this color at a constant rate, after a delay. Any previous animations are stopped.
+	 * 
+	 * @param step
+	 *            the change per second of each component
+	 */
+	public void constant(ColorRGBA step, int startDelay) {
+		setBehavior(new ColorConstantChange(get(), step, startDelay));
 	}
 }
@@ -0,0 +1,53 @@
+package ca.scotthyndman.game.engine.animation;
+
+import com.jme.renderer.ColorRGBA;
+
+/**
+ * A {@link ConstantChange} for colors that keeps its components in primitive fields and updates the same
+ * {@link ColorRGBA} every frame, so that a {@link Color} changing at a constant rate does not allocate. Neither the
+ * start color nor the step is modified.
+ * <p>
+ * The instance returned by {@link #getValue()} is reused; copy it if you need to keep it.
+ */
+public class ColorConstantChange extends Animation implements PropertyBehavior<ColorRGBA> {
+
+	private final float stepR, stepG, stepB, stepA;
+	private final ColorRGBA value;
+
+	private double lastTime;
+
+	/**
+	 * @param fromValue
+	 *            the starting color
+	 * @param step
+	 *            the change per second of each component
+	 */
+	public ColorConstantChange(ColorRGBA fromValue, ColorRGBA step) {
+		this(fromValue, step, 0);
+	}
+
+	public ColorConstantChange(ColorRGBA fromValue, ColorRGBA step, int startDelay) {
+		super(Integer.MAX_VALUE / 2, null, startDelay);
+		stepR = step.r;
+		stepG = step.g;
+		stepB = step.b;
+		stepA = step.a;
+		value = new ColorRGBA(fromValue);
+		lastTime = 0;
+	}
+
+	protected void updateState(int animTime) {
+		updatePreciseState(animTime);
+	}
+
+	protected void updatePreciseState(double animTime) {
+		float seconds = (float) ((animTime - lastTime) / 1000);
+		value.set(value.r + stepR * seconds, value.g + stepG * seconds, value.b + stepB * seconds, value.a + stepA
+				* seconds);
+		lastTime = animTime;
+	}
+
+	public final ColorRGBA getValue() {
+		return value;
+	}
+}
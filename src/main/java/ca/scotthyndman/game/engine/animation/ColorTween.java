@@ -0,0 +1,60 @@
+package ca.scotthyndman.game.engine.animation;
+
+import com.jme.renderer.ColorRGBA;
+
+/**
+ * A {@link Tween} between two colors. The end points are copied into primitive fields when the tween is created, and
+ * every frame is interpolated into the same {@link ColorRGBA}, so that animating a {@link Color} does not allocate.
+ * <p>
+ * The instance returned by {@link #getValue()} is reused; copy it if you need to keep it.
+ */
+public class ColorTween extends Animation implements PropertyBehavior<ColorRGBA> {
+
+	private final float fromR, fromG, fromB, fromA;
+	private final float toR, toG, toB, toA;
+	private final ColorRGBA value;
+
+	public ColorTween(ColorRGBA fromValue, ColorRGBA toValue, int duration) {
+		this(fromValue, toValue, duration, null, 0);
+	}
+
+	public ColorTween(ColorRGBA fromValue, ColorRGBA toValue, int duration, Easing easing) {
+		this(fromValue, toValue, duration, easing, 0);
+	}
+
+	public ColorTween(ColorRGBA fromValue, ColorRGBA toValue, int duration, Easing easing, int startDelay) {
+		super(duration, easing, startDelay);
+		fromR = fromValue.r;
+		fromG = fromValue.g;
+		fromB = fromValue.b;
+		fromA = fromValue.a;
+		toR = toValue.r;
+		toG = toValue.g;
+		toB = toValue.b;
+		toA = toValue.a;
+		value = new ColorRGBA(fromR, fromG, fromB, fromA);
+	}
+
+	protected void updateState(int animTime) {
+		updatePreciseState(animTime);
+	}
+
+	protected void updatePreciseState(double animTime) {
+		int duration = getDuration();
+		if (duration == 0) {
+			if (animTime < 0) {
+				value.set(fromR, fromG, fromB, fromA);
+			} else {
+				value.set(toR, toG, toB, toA);
+			}
+		} else {
+			float f = (float) (animTime / duration);
+			value.set(fromR + (toR - fromR) * f, fromG + (toG - fromG) * f, fromB + (toB - fromB) * f, fromA
+					+ (toA - fromA) * f);
+		}
+	}
+
+	public final ColorRGBA getValue() {
+		return value;
+	}
+}
@@ -7,7 +7,7 @@ public class ConstantChange<T> extends Animation implements PropertyBehavior<T>
 	private final Interpolator<T> interpolator;
 	private T value;
 
-	int lastTime;
+	double lastTime;
 
 	public ConstantChange(T fromValue, T step) {
 		this(fromValue, step, 0);
@@ -25,8 +25,12 @@ public class ConstantChange<T> extends Animation implements PropertyBehavior<T>
 	}
 
 	protected void updateState(int animTime) {
-		int elapsed = animTime - lastTime;
-		value = interpolator.interpolate(value, interpolator.add(value, step), (float) elapsed / 1000);
+		updatePreciseState(animTime);
+	}
+
+	protected void updatePreciseState(double animTime) {
+		double elapsed = animTime - lastTime;
+		value = interpolator.interpolate(value, interpolator.add(value, step), (float) (elapsed / 1000));
 		lastTime = animTime;
 	}
 
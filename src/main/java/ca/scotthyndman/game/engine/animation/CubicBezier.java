@@ -0,0 +1,137 @@
+package ca.scotthyndman.game.engine.animation;
+
+/**
+ * An {@link Easing} defined by a cubic Bezier curve from (0, 0) to (1, 1), like the CSS
+ * <code>cubic-bezier(x1, y1, x2, y2)</code> timing function. The curve is baked into a lookup
+ * table when it is created, since solving it for a time is comparatively expensive.
+ */
+public class CubicBezier extends Easing
+{
+
+    public static final CubicBezier EASE = new CubicBezier(0.25, 0.1, 0.25, 1);
+    public static final CubicBezier EASE_IN = new CubicBezier(0.42, 0, 1, 1);
+    public static final CubicBezier EASE_OUT = new CubicBezier(0, 0, 0.58, 1);
+    public static final CubicBezier EASE_IN_OUT = new CubicBezier(0.42, 0, 0.58, 1);
+
+    private static final int NEWTON_ITERATIONS = 8;
+    private static final double EPSILON = 1e-7;
+
+    private final double x1;
+    private final double y1;
+    private final double x2;
+    private final double y2;
+
+    /*
+     * Polynomial coefficients, so that x(t) = ((ax * t + bx) * t + cx) * t, and likewise for y.
+     */
+    private final double ax;
+    private final double bx;
+    private final double cx;
+    private final double ay;
+    private final double by;
+    private final double cy;
+
+    /**
+     * Creates an easing from the two control points of a Bezier curve.
+     *
+     * @throws IllegalArgumentException
+     *             if x1 or x2 is outside 0 to 1, which would make the curve go back in time.
+     */
+    public CubicBezier(double x1, double y1, double x2, double y2)
+    {
+        if (x1 < 0 || x1 > 1 || x2 < 0 || x2 > 1)
+        {
+            throw new IllegalArgumentException("x1 and x2 must be from 0 to 1");
+        }
+
+        this.x1 = x1;
+        this.y1 = y1;
+        this.x2 = x2;
+        this.y2 = y2;
+
+        cx = 3 * x1;
+        bx = 3 * (x2 - x1) - cx;
+        ax = 1 - cx - bx;
+        cy = 3 * y1;
+        by = 3 * (y2 - y1) - cy;
+        ay = 1 - cy - by;
+
+        bake();
+    }
+
+    public final double getX1()
+    {
+        return x1;
+    }
+
+    public final double getY1()
+    {
+        return y1;
+    }
+
+    public final double getX2()
+    {
+        return x2;
+    }
+
+    public final double getY2()
+    {
+        return y2;
+    }
+
+    protected double ease(double t)
+    {
+        double s = solve(t);
+        return ((ay * s + by) * s + cy) * s;
+    }
+
+    /**
+     * Finds the curve parameter whose x is the given time. Newton's method converges in a few
+     * steps for most curves; bisection takes over where the slope is too flat for it.
+     */
+    private double solve(double x)
+    {
+        double t = x;
+        for (int i = 0; i < NEWTON_ITERATIONS; i++)
+        {
+            double error = ((ax * t + bx) * t + cx) * t - x;
+            if (Math.abs(error) < EPSILON)
+            {
+                return t;
+            }
+            double slope = (3 * ax * t + 2 * bx) * t + cx;
+            if (Math.abs(slope) < EPSILON)
+            {
+                break;
+            }
+            t -= error / slope;
+        }
+
+        double low = 0;
+        double high = 1;
+        t = x;
+        while (low < high)
+        {
+            double value = ((ax * t + bx) * t + cx) * t;
+            if (Math.abs(value - x) < EPSILON)
+            {
+                break;
+            }
+            if (value < x)
+            {
+                low = t;
+            }
+            else
+            {
+                high = t;
+            }
+            double next = (low + high) / 2;
+            if (next == t)
+            {
+                break;
+            }
+            t = next;
+        }
+        return t;
+    }
+}
@@ -37,10 +37,31 @@ public class Easing
     public static final Easing ELASTIC_OUT = new Easing(TYPE_OUT, FUNCTION_ELASTIC);
     public static final Easing ELASTIC_IN_OUT = new Easing(TYPE_IN_OUT, FUNCTION_ELASTIC);
 
+    /**
+     * The number of steps in a lookup table made by {@link #bake()}.
+     */
+    public static final int DEFAULT_RESOLUTION = 1024;
+
+    /*
+     * The polynomial curves cost a few multiplies, which is cheaper than a table lookup. The
+     * elastic curves call Math.sin, so they are baked up front.
+     */
+    static
+    {
+        ELASTIC_IN.bake();
+        ELASTIC_OUT.bake();
+        ELASTIC_IN_OUT.bake();
+    }
+
     private final int type;
     private final int function;
     private final float strength;
 
+    /**
+     * Samples of the curve from 0 to 1, or null if the curve is evaluated every time.
+     */
+    private float[] table;
+
     protected Easing()
     {
         this(TYPE_IN, FUNCTION_LINEAR);
@@ -64,6 +85,15 @@ public class Easing
     }
 
     public final int ease(int time, int duration)
+    {
+        return (int) Math.round(ease((double) time, (double) duration));
+    }
+
+    /**
+     * Eases a time that isn't a whole number of milliseconds. Same as {@link #ease(int, int)},
+     * without rounding the result.
+     */
+    public final double ease(double time, double duration)
     {
         if (time <= 0 || duration <= 0)
         {
@@ -74,7 +104,113 @@ public class Easing
             return duration;
         }
 
-        final double t = (double) time / duration;
+        final double t = time / duration;
+        final float[] samples = table;
+        if (samples != null)
+        {
+            return sample(samples, (float) t) * duration;
+        }
+        return easeFraction(t) * duration;
+    }
+
+    /**
+     * Eases a fraction of the duration, from 0 to 1, and returns the eased fraction. The result
+     * can fall outside 0 to 1 for curves that overshoot, like {@link #BACK_IN}.
+     */
+    public final float ease(float t)
+    {
+        if (t <= 0)
+        {
+            return 0;
+        }
+        else if (t >= 1)
+        {
+            return 1;
+        }
+
+        final float[] samples = table;
+        if (samples != null)
+        {
+            return sample(samples, t);
+        }
+        return (float) easeFraction(t);
+    }
+
+    //
+    // Lookup tables
+    //
+
+    /**
+     * Samples this curve into a lookup table of {@link #DEFAULT_RESOLUTION} steps. See
+     * {@link #bake(int)}.
+     * 
+     * @return this easing.
+     */
+    public final Easing bake()
+    {
+        return bake(DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * Samples this curve into a lookup table, which is used from then on instead of evaluating
+     * the curve. Values between two samples are interpolated linearly. This pays off for curves
+     * that are expensive to evaluate, such as the elastic ones, which are baked when this class is
+     * loaded.
+     * 
+     * @param resolution
+     *            the number of steps between 0 and 1.
+     * @return this easing.
+     */
+    public final Easing bake(int resolution)
+    {
+        if (resolution < 1)
+        {
+            throw new IllegalArgumentException("resolution must be at least 1");
+        }
+
+        float[] samples = new float[resolution + 1];
+        for (int i = 0; i <= resolution; i++)
+        {
+            samples[i] = (float) easeFraction((double) i / resolution);
+        }
+        table = samples;
+        return this;
+    }
+
+    /**
+     * Drops the lookup table, if any, so that the curve is evaluated again.
+     */
+    public final void unbake()
+    {
+        table = null;
+    }
+
+    /**
+     * Returns true if this easing uses a lookup table.
+     */
+    public final boolean isBaked()
+    {
+        return table != null;
+    }
+
+    private static float sample(float[] samples, float t)
+    {
+        final int last = samples.length - 1;
+        final float x = t * last;
+        final int i = (int) x;
+        if (i >= last)
+        {
+            return samples[last];
+        }
+        final float a = samples[i];
+        return a + (samples[i + 1] - a) * (x - i);
+    }
+
+    /**
+     * Evaluates the curve, including its type and strength, for a fraction from 0 to 1.
+     */
+    private double easeFraction(double t)
+    {
         double easedT;
 
         switch (type)
@@ -109,7 +245,7 @@ public class Easing
             easedT = strength * easedT + (1 - strength) * t;
         }
 
-        return (int) Math.round(easedT * duration);
+        return easedT;
     }
 
     protected double ease(double t)
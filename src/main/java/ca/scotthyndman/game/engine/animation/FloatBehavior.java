@@ -0,0 +1,15 @@
+package ca.scotthyndman.game.engine.animation;
+
+/**
+ * A {@link PropertyBehavior} for float values that can hand over its value without boxing it.
+ * 
+ * @see Real
+ */
+public interface FloatBehavior extends PropertyBehavior<Float> {
+
+	/**
+	 * Returns this behavior's current value.
+	 */
+	public float getFloatValue();
+
+}
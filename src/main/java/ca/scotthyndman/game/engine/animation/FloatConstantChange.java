@@ -0,0 +1,57 @@
+package ca.scotthyndman.game.engine.animation;
+
+/**
+ * A {@link ConstantChange} for floats that keeps its value in a primitive field, so that a {@link Real} changing at a
+ * constant rate does not allocate.
+ */
+public class FloatConstantChange extends Animation implements FloatBehavior {
+
+	private final float fromValue;
+	private final float step;
+	private float value;
+
+	private double lastTime;
+
+	/**
+	 * @param fromValue
+	 *            the starting value
+	 * @param step
+	 *            the change per second
+	 */
+	public FloatConstantChange(float fromValue, float step) {
+		this(fromValue, step, 0);
+	}
+
+	public FloatConstantChange(float fromValue, float step, int startDelay) {
+		super(Integer.MAX_VALUE / 2, null, startDelay);
+		this.fromValue = fromValue;
+		this.step = step;
+		this.value = fromValue;
+		this.lastTime = 0;
+	}
+
+	protected void updateState(int animTime) {
+		updatePreciseState(animTime);
+	}
+
+	protected void updatePreciseState(double animTime) {
+		value += step * (float) ((animTime - lastTime) / 1000);
+		lastTime = animTime;
+	}
+
+	public final float getFromValue() {
+		return fromValue;
+	}
+
+	public final float getStep() {
+		return step;
+	}
+
+	public final float getFloatValue() {
+		return value;
+	}
+
+	public final Float getValue() {
+		return value;
+	}
+}
@@ -0,0 +1,56 @@
+package ca.scotthyndman.game.engine.animation;
+
+/**
+ * A {@link Tween} between two floats that interpolates into a primitive field, so that animating a {@link Real} does
+ * not allocate.
+ */
+public class FloatTween extends Animation implements FloatBehavior {
+
+	private final float fromValue;
+	private final float toValue;
+	private float value;
+
+	public FloatTween(float fromValue, float toValue, int duration) {
+		this(fromValue, toValue, duration, null, 0);
+	}
+
+	public FloatTween(float fromValue, float toValue, int duration, Easing easing) {
+		this(fromValue, toValue, duration, easing, 0);
+	}
+
+	public FloatTween(float fromValue, float toValue, int duration, Easing easing, int startDelay) {
+		super(duration, easing, startDelay);
+		this.fromValue = fromValue;
+		this.toValue = toValue;
+		this.value = fromValue;
+	}
+
+	protected void updateState(int animTime) {
+		updatePreciseState(animTime);
+	}
+
+	protected void updatePreciseState(double animTime) {
+		int duration = getDuration();
+		if (duration == 0) {
+			value = animTime < 0 ? fromValue : toValue;
+		} else {
+			value = fromValue + (toValue - fromValue) * (float) (animTime / duration);
+		}
+	}
+
+	public final float getFromValue() {
+		return fromValue;
+	}
+
+	public final float getToValue() {
+		return toValue;
+	}
+
+	public final float getFloatValue() {
+		return value;
+	}
+
+	public final Float getValue() {
+		return value;
+	}
+}
@@ -7,6 +7,11 @@ package ca.scotthyndman.game.engine.animation;
 public class Int extends Property<Integer>
 {
 
+    /**
+     * The value, kept unboxed so that animating doesn't allocate.
+     */
+    private int value;
+
     /**
      * Constructs a new Int object with no listener and the value of zero.
      */
@@ -38,12 +43,50 @@ public class Int extends Property<Integer>
      */
     public Int(PropertyListener listener, int value)
     {
-        super(listener, value);
+        super(listener, null);
+        this.value = value;
+    }
+
+    @Override
+    protected Integer getValue()
+    {
+        return value;
+    }
+
+    @Override
+    protected void setValue(Integer value)
+    {
+        setInt(value.intValue());
+    }
+
+    @Override
+    protected void applyBehaviorValue(PropertyBehavior<Integer> behavior)
+    {
+        if (behavior instanceof IntBehavior)
+        {
+            setInt(((IntBehavior) behavior).getIntValue());
+        }
+        else
+        {
+            super.applyBehaviorValue(behavior);
+        }
+    }
+
+    /**
+     * Sets the value without touching the behavior, alerting the listeners if it changed.
+     */
+    /* package-private */final void setInt(int value)
+    {
+        if (this.value != value)
+        {
+            this.value = value;
+            fireChange();
+        }
     }
 
     public int get()
     {
-        return super.getValue();
+        return value;
     }
 
     public String toString()
@@ -96,7 +139,7 @@ public class Int extends Property<Integer>
      */
     public void set(int value)
     {
-        setValue(value);
+        setInt(value);
         setBehavior(null);
     }
 
@@ -115,6 +158,10 @@ public class Int extends Property<Integer>
     /**
      * Binds this property to the specified property. If this property is given a new behavior, the
      * binding is broken.
+     * 
+     * @throws IllegalArgumentException
+     *             if the specified property is already bound to this one, directly or through other
+     *             properties
      */
     public void bindTo(Int property)
     {
@@ -134,6 +181,10 @@ public class Int extends Property<Integer>
     /**
      * Binds this property to the specified property. If this property is given a new behavior, the
      * binding is broken.
+     * 
+     * @throws IllegalArgumentException
+     *             if the specified property is already bound to this one, directly or through other
+     *             properties
      */
     public void bindTo(Real property)
     {
@@ -163,7 +214,7 @@ public class Int extends Property<Integer>
      */
     public void animate(int fromValue, int toValue, int duration)
     {
-        setBehavior(new Tween(fromValue, toValue, duration));
+        setBehavior(new IntTween(fromValue, toValue, duration));
     }
 
     /**
@@ -172,7 +223,7 @@ public class Int extends Property<Integer>
      */
     public void animate(int fromValue, int toValue, int duration, Easing easing)
     {
-        setBehavior(new Tween(fromValue, toValue, duration, easing));
+        setBehavior(new IntTween(fromValue, toValue, duration, easing));
     }
 
     /**
@@ -181,7 +232,7 @@ public class Int extends Property<Integer>
      */
     public void animate(int fromValue, int toValue, int duration, Easing easing, int startDelay)
     {
-        setBehavior(new Tween(fromValue, toValue, duration, easing, startDelay));
+        setBehavior(new IntTween(fromValue, toValue, duration, easing, startDelay));
     }
 
     /**
@@ -190,7 +241,7 @@ public class Int extends Property<Integer>
      */
     public void animateTo(int toValue, int duration)
     {
-        setBehavior(new Tween(get(), toValue, duration));
+        setBehavior(new IntTween(get(), toValue, duration));
     }
 
     /**
@@ -199,7 +250,7 @@ public class Int extends Property<Integer>
      */
     public void animateTo(int toValue, int duration, Easing easing)
     {
-        setBehavior(new Tween(get(), toValue, duration, easing));
+        setBehavior(new IntTween(get(), toValue, duration, easing));
     }
 
     /**
@@ -208,6 +259,6 @@ public class Int extends Property<Integer>
      */
     public void animateTo(int toValue, int duration, Easing easing, int startDelay)
     {
-        setBehavior(new Tween(get(), toValue, duration, easing, startDelay));
+        setBehavior(new IntTween(get(), toValue, duration, easing, startDelay));
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package ca.scotthyndman.game.engine.animation;
+
+/**
+ * A {@link PropertyBehavior} for int values that can hand over its value without boxing it.
+ * 
+ * @see Int
+ */
+public interface IntBehavior extends PropertyBehavior<Integer> {
+
+	/**
+	 * Returns this behavior's current value.
+	 */
+	public int getIntValue();
+
+}
@@ -0,0 +1,56 @@
+package ca.scotthyndman.game.engine.animation;
+
+/**
+ * A {@link Tween} between two ints that interpolates into a primitive field, so that animating an {@link Int} does not
+ * allocate.
+ */
+public class IntTween extends Animation implements IntBehavior {
+
+	private final int fromValue;
+	private final int toValue;
+	private int value;
+
+	public IntTween(int fromValue, int toValue, int duration) {
+		this(fromValue, toValue, duration, null, 0);
+	}
+
+	public IntTween(int fromValue, int toValue, int duration, Easing easing) {
+		this(fromValue, toValue, duration, easing, 0);
+	}
+
+	public IntTween(int fromValue, int toValue, int duration, Easing easing, int startDelay) {
+		super(duration, easing, startDelay);
+		this.fromValue = fromValue;
+		this.toValue = toValue;
+		this.value = fromValue;
+	}
+
+	protected void updateState(int animTime) {
+		updatePreciseState(animTime);
+	}
+
+	protected void updatePreciseState(double animTime) {
+		int duration = getDuration();
+		if (duration == 0) {
+			value = animTime < 0 ? fromValue : toValue;
+		} else {
+			value = fromValue + (int) ((toValue - fromValue) * (animTime / duration));
+		}
+	}
+
+	public final int getFromValue() {
+		return fromValue;
+	}
+
+	public final int getToValue() {
+		return toValue;
+	}
+
+	public final int getIntValue() {
+		return value;
+	}
+
+	public final Integer getValue() {
+		return value;
+	}
+}
@@ -44,6 +44,19 @@ public abstract class Interpolator<T> {
 	 */
 	public abstract T interpolate(T start, T end, float fraction);
 
+	/**
+	 * Same as {@link #interpolate(Object, Object, float)}, but mutable values are written into <code>result</code>
+	 * instead of a new object. Immutable values are returned as usual.
+	 * 
+	 * @param result
+	 *            the object to write into, or <code>null</code> to create one. It is never written to if it is
+	 *            <code>start</code> or <code>end</code>.
+	 * @return the interpolated value, which is <code>result</code> for mutable values if it could be reused
+	 */
+	public T interpolate(T start, T end, float fraction, T result) {
+		return interpolate(start, end, fraction);
+	}
+
 	/**
 	 * This adds together two objects, and returns the sum.
 	 * 
@@ -122,23 +135,31 @@ public abstract class Interpolator<T> {
 	}
 
 	/**
-	 * Interpolates ints.
+	 * Interpolates colors. Neither argument is ever modified, so shared constants like {@link ColorRGBA#white} are safe
+	 * to pass in.
 	 * 
 	 * @author scottyhyndman
 	 */
 	private static class ColorRGBAInterpolator extends Interpolator<ColorRGBA> {
-		IntInterpolator intInterp = new IntInterpolator();
 
 		@Override
 		public ColorRGBA interpolate(ColorRGBA start, ColorRGBA end, float fraction) {
-			ColorRGBA ret = new ColorRGBA();
-			ret.interpolate(start, end, fraction);
-			return ret;
+			return interpolate(start, end, fraction, null);
+		}
+
+		@Override
+		public ColorRGBA interpolate(ColorRGBA start, ColorRGBA end, float fraction, ColorRGBA result) {
+			if (result == null || result == start || result == end) {
+				result = new ColorRGBA();
+			}
+			result.set(start.r + (end.r - start.r) * fraction, start.g + (end.g - start.g) * fraction, start.b
+					+ (end.b - start.b) * fraction, start.a + (end.a - start.a) * fraction);
+			return result;
 		}
 
 		@Override
 		public ColorRGBA add(ColorRGBA arg0, ColorRGBA arg1) {
-			return arg0.add(arg1);
+			return new ColorRGBA(arg0.r + arg1.r, arg0.g + arg1.g, arg0.b + arg1.b, arg0.a + arg1.a);
 		}
 	}
 }
@@ -0,0 +1,162 @@
+package ca.scotthyndman.game.engine.animation;
+
+/**
+ * A float behavior that passes through a series of keys, such as one axis of a motion path. The keys are kept in
+ * packed arrays (a time, a value and an optional easing per key) rather than as one {@link Tween} per segment, so a
+ * long track costs a few words per key.
+ * <p>
+ * Each segment runs from one key to the next and is eased by the easing of the key it starts at, or linearly if that
+ * easing is <code>null</code>. Two keys at the same time make the value jump. Before the first key the value is the
+ * first key's value, and the track is finished at the last key.
+ */
+public class KeyframeTrack extends Animation implements FloatBehavior {
+
+	private final int[] times;
+	private final float[] values;
+	private final Easing[] easings;
+
+	/**
+	 * The segment found by the last update. Playback mostly stays in the same segment or moves on to the next one, so
+	 * this is checked before searching.
+	 */
+	private int segment;
+
+	private float value;
+
+	/**
+	 * Creates a track that moves linearly between its keys.
+	 *
+	 * @see #KeyframeTrack(int[], float[], Easing[])
+	 */
+	public KeyframeTrack(int[] times, float[] values) {
+		this(times, values, null);
+	}
+
+	/**
+	 * Creates a track. The arrays are copied.
+	 *
+	 * @param times
+	 *            the time of each key, in milliseconds from the start of the track, in increasing order.
+	 * @param values
+	 *            the value at each key.
+	 * @param easings
+	 *            the easing of the segment that starts at each key, or <code>null</code> to move linearly between
+	 *            all keys. The last key's easing is not used.
+	 * @throws IllegalArgumentException
+	 *             if there are no keys, if the arrays are not the same length, or if the times are negative or
+	 *             decreasing.
+	 */
+	public KeyframeTrack(int[] times, float[] values, Easing[] easings) {
+		super(times.length == 0 ? 0 : times[times.length - 1]);
+
+		if (times.length == 0) {
+			throw new IllegalArgumentException("A track needs at least one key");
+		}
+		if (values.length != times.length || (easings != null && easings.length != times.length)) {
+			throw new IllegalArgumentException("There must be as many values and easings as times");
+		}
+		if (times[0] < 0) {
+			throw new IllegalArgumentException("Key times can't be negative");
+		}
+		for (int i = 1; i < times.length; i++) {
+			if (times[i] < times[i - 1]) {
+				throw new IllegalArgumentException("Key times must be in increasing order");
+			}
+		}
+
+		int count = times.length;
+		this.times = new int[count];
+		this.values = new float[count];
+		System.arraycopy(times, 0, this.times, 0, count);
+		System.arraycopy(values, 0, this.values, 0, count);
+		if (easings != null) {
+			this.easings = new Easing[count];
+			System.arraycopy(easings, 0, this.easings, 0, count);
+		} else {
+			this.easings = null;
+		}
+		this.value = values[0];
+	}
+
+	public final int getKeyCount() {
+		return times.length;
+	}
+
+	public final int getKeyTime(int index) {
+		return times[index];
+	}
+
+	public final float getKeyValue(int index) {
+		return values[index];
+	}
+
+	/**
+	 * Returns the easing of the segment starting at the key, or <code>null</code> if it is linear.
+	 */
+	public final Easing getKeyEasing(int index) {
+		return easings == null ? null : easings[index];
+	}
+
+	protected void updateState(int animTime) {
+		updatePreciseState(animTime);
+	}
+
+	protected void updatePreciseState(double animTime) {
+		int last = times.length - 1;
+		if (animTime <= times[0]) {
+			value = values[0];
+			return;
+		} else if (animTime >= times[last]) {
+			value = values[last];
+			return;
+		}
+
+		int i = findSegment(animTime);
+		float f = (float) ((animTime - times[i]) / (times[i + 1] - times[i]));
+		Easing easing = easings == null ? null : easings[i];
+		if (easing != null) {
+			f = easing.ease(f);
+		}
+		float from = values[i];
+		value = from + (values[i + 1] - from) * f;
+	}
+
+	/**
+	 * Returns the index of the key that starts the segment containing the time, which must be after the first key and
+	 * before the last.
+	 */
+	private int findSegment(double time) {
+		int i = segment;
+		if (time >= times[i]) {
+			if (time < times[i + 1]) {
+				return i;
+			}
+			if (i + 2 < times.length && time < times[i + 2]) {
+				segment = i + 1;
+				return segment;
+			}
+		}
+
+		// The last key at or before the time
+		int low = 0;
+		int high = times.length - 2;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (times[mid] <= time) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		segment = low;
+		return low;
+	}
+
+	public final float getFloatValue() {
+		return value;
+	}
+
+	public final Float getValue() {
+		return value;
+	}
+}
@@ -1,61 +1,121 @@
 package ca.scotthyndman.game.engine.animation;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * A PropertyListener for Properties with multiple listeners
  */
-class MultiListener implements PropertyListener
+class MultiListener implements BehaviorListener
 {
 
-    private List<PropertyListener> listeners;
+    /**
+     * The listeners. The array is never changed once it is set: adding or removing a listener
+     * replaces it, so a notification can walk it without copying, even if listeners remove
+     * themselves along the way.
+     */
+    private PropertyListener[] listeners;
+
+    /**
+     * The listeners that are also {@link BehaviorListener}s, rebuilt along with
+     * {@link #listeners}.
+     */
+    private BehaviorListener[] behaviorListeners;
 
     MultiListener(PropertyListener a, PropertyListener b)
     {
-        listeners = new ArrayList<PropertyListener>(2);
-        listeners.add(a);
-        listeners.add(b);
+        setListeners(new PropertyListener[] { a, b });
+    }
+
+    private void setListeners(PropertyListener[] list)
+    {
+        int count = 0;
+        for (int i = 0; i < list.length; i++)
+        {
+            if (list[i] instanceof BehaviorListener)
+            {
+                count++;
+            }
+        }
+        BehaviorListener[] behaviorList = new BehaviorListener[count];
+        count = 0;
+        for (int i = 0; i < list.length; i++)
+        {
+            if (list[i] instanceof BehaviorListener)
+            {
+                behaviorList[count++] = (BehaviorListener) list[i];
+            }
+        }
+
+        listeners = list;
+        behaviorListeners = behaviorList;
     }
 
+    /**
+     * Returns the listeners. The array is the one notifications walk, so it must not be
+     * modified.
+     */
     PropertyListener[] getListeners()
     {
-        PropertyListener[] array = new PropertyListener[listeners.size()];
-        listeners.toArray(array);
-        return array;
+        return listeners;
     }
 
     int size()
     {
-        return listeners.size();
+        return listeners.length;
     }
 
     PropertyListener get(int index)
     {
-        return (PropertyListener) listeners.get(index);
+        return listeners[index];
     }
 
     void addListener(PropertyListener listener)
     {
-        if (!listeners.contains(listener))
+        PropertyListener[] list = listeners;
+        for (int i = 0; i < list.length; i++)
         {
-            listeners.add(listener);
+            if (list[i].equals(listener))
+            {
+                return;
+            }
         }
+
+        PropertyListener[] newList = new PropertyListener[list.length + 1];
+        System.arraycopy(list, 0, newList, 0, list.length);
+        newList[list.length] = listener;
+        setListeners(newList);
     }
 
     void removeListener(PropertyListener listener)
     {
-        listeners.remove(listener);
+        PropertyListener[] list = listeners;
+        for (int i = 0; i < list.length; i++)
+        {
+            if (list[i].equals(listener))
+            {
+                PropertyListener[] newList = new PropertyListener[list.length - 1];
+                System.arraycopy(list, 0, newList, 0, i);
+                System.arraycopy(list, i + 1, newList, i, list.length - i - 1);
+                setListeners(newList);
+                return;
+            }
+        }
     }
 
     public void onPropertyChange(Property property)
     {
-        // Make a copy in case any of the listeners remove themselves
-        PropertyListener[] list = getListeners();
+        PropertyListener[] list = listeners;
         for (int i = 0; i < list.length; i++)
         {
             list[i].onPropertyChange(property);
         }
     }
 
+    public void onBehaviorChange(Property property)
+    {
+        BehaviorListener[] list = behaviorListeners;
+        for (int i = 0; i < list.length; i++)
+        {
+            list[i].onBehaviorChange(property);
+        }
+    }
+
 }
@@ -8,17 +8,40 @@ package ca.scotthyndman.game.engine.animation;
  */
 public abstract class Property<T> implements Finishable {
 
+	private static final PropertyListener[] NO_LISTENERS = new PropertyListener[0];
+
 	private PropertyBehavior<T> behavior;
 	private PropertyListener listener;
 	private String name;
+
+	/**
+	 * Whether {@link #listener} is a {@link BehaviorListener}, decided when it is set rather than on every behavior
+	 * change.
+	 */
+	private boolean behaviorListener;
+
+	/**
+	 * {@link #listener} alone in an array, made the first time {@link #getListeners()} needs it.
+	 */
+	private PropertyListener[] singleListener;
 	private T value;
 
+	/**
+	 * The system evaluating this property's behavior, or <code>null</code> if {@link #update(int)} does.
+	 */
+	/* package-private */AnimationSystem system;
+
+	/**
+	 * The behavior last handed to {@link #system}.
+	 */
+	/* package-private */PropertyBehavior<T> systemBehavior;
+
 	/**
 	 * Creates a property with the specified listener and initial value. The listener may be {@code null}. The behavior
 	 * is {@code null}.
 	 */
 	public Property(PropertyListener listener, T value) {
-		this.listener = listener;
+		setListener(listener);
 		this.value = value;
 	}
 
@@ -27,7 +50,7 @@ public abstract class Property<T> implements Finishable {
 	 * is {@code null}.
 	 */
 	public Property(PropertyListener listener, T value, String name) {
-		this.listener = listener;
+		setListener(listener);
 		this.value = value;
 		this.name = name;
 	}
@@ -44,16 +67,17 @@ public abstract class Property<T> implements Finishable {
 	/**
 	 * Sets the value for this property. If the new value is different from the old value, any listeners are alerted.
 	 * The behavior, if any, is not changed.
+	 * <p>
+	 * Subclasses that keep their value in primitive storage override this method and {@link #getValue()}, and call
+	 * {@link #fireChange()} themselves.
 	 * 
 	 * @param value
 	 *            the new value.
 	 */
-	protected final void setValue(T value) {
+	protected void setValue(T value) {
 		if (this.value != value) {
 			this.value = value;
-			if (listener != null) {
-				listener.onPropertyChange(this);
-			}
+			fireChange();
 		}
 	}
 
@@ -62,10 +86,30 @@ public abstract class Property<T> implements Finishable {
 	 * 
 	 * @return the value.
 	 */
-	protected final T getValue() {
+	protected T getValue() {
 		return value;
 	}
 
+	/**
+	 * Sets this property's value from a behavior. Subclasses with primitive storage override this to read the value
+	 * from primitive behaviors, like {@link FloatBehavior}, without boxing it.
+	 * 
+	 * @param behavior
+	 *            the behavior to take the value from.
+	 */
+	protected void applyBehaviorValue(PropertyBehavior<T> behavior) {
+		setValue(behavior.getValue());
+	}
+
+	/**
+	 * Alerts the listeners that this property's value has changed.
+	 */
+	protected final void fireChange() {
+		if (listener != null) {
+			listener.onPropertyChange(this);
+		}
+	}
+
 	/**
 	 * Sets the behavior for this property, which may be null. The value of this property is immediately set if {@code
 	 * behavior.update(0)} returns {@code true}.
@@ -81,7 +125,15 @@ public abstract class Property<T> implements Finishable {
 
 		// Set behavior and update value immediately
 		this.behavior = behavior;
-		update(0);
+		updateBehavior(0L);
+		if (system != null) {
+			system.add(this);
+		}
+
+		// Let the owner know, so it can schedule updates while the behavior runs
+		if (behaviorListener) {
+			((BehaviorListener) listener).onBehaviorChange(this);
+		}
 
 		// Inverse the bi-directional binding, if any.
 		if (bidirectionalBinding != null) {
@@ -110,17 +162,53 @@ public abstract class Property<T> implements Finishable {
 	}
 
 	/**
-	 * Returns a newly allocated array of all the listeners registered on this Editable.
+	 * Returns all the listeners registered on this Editable, without copying them. The array is shared: it is the one
+	 * this property notifies from, an array it keeps for a single listener, or an empty array shared by every property.
+	 * It is replaced rather than changed when listeners are added or removed, so callers must not modify it. To walk the
+	 * listeners one at a time, use {@link #getListenerCount()} and {@link #getListener(int)}.
 	 * 
-	 * @return all of this Editable's {@link PropertyListener}s or an empty array if no listeners are registered.
+	 * @return all of this Editable's {@link PropertyListener}s or an empty array if no listeners are registered. Not to
+	 *         be modified.
 	 */
 	public final PropertyListener[] getListeners() {
 		if (listener == null) {
-			return new PropertyListener[0];
+			return NO_LISTENERS;
 		} else if (listener instanceof MultiListener) {
 			return ((MultiListener) listener).getListeners();
 		} else {
-			return new PropertyListener[] { listener };
+			if (singleListener == null) {
+				singleListener = new PropertyListener[] { listener };
+			}
+			return singleListener;
+		}
+	}
+
+	/**
+	 * Returns the number of listeners registered on this Editable.
+	 */
+	public final int getListenerCount() {
+		if (listener == null) {
+			return 0;
+		} else if (listener instanceof MultiListener) {
+			return ((MultiListener) listener).size();
+		} else {
+			return 1;
+		}
+	}
+
+	/**
+	 * Returns one of the listeners registered on this Editable.
+	 * 
+	 * @param index
+	 *            from 0 to {@link #getListenerCount()} - 1
+	 */
+	public final PropertyListener getListener(int index) {
+		if (listener instanceof MultiListener) {
+			return ((MultiListener) listener).get(index);
+		} else if (listener != null && index == 0) {
+			return listener;
+		} else {
+			throw new IndexOutOfBoundsException("No listener at " + index);
 		}
 	}
 
@@ -135,11 +223,11 @@ public abstract class Property<T> implements Finishable {
 		if (listener == null || this.listener == listener) {
 			// Do nothing
 		} else if (this.listener == null) {
-			this.listener = listener;
+			setListener(listener);
 		} else if (this.listener instanceof MultiListener) {
 			((MultiListener) this.listener).addListener(listener);
 		} else {
-			this.listener = new MultiListener(this.listener, listener);
+			setListener(new MultiListener(this.listener, listener));
 		}
 	}
 
@@ -153,30 +241,56 @@ public abstract class Property<T> implements Finishable {
 	 */
 	public final void removeListener(PropertyListener listener) {
 		if (this.listener == listener) {
-			this.listener = null;
+			setListener(null);
 		} else if (this.listener instanceof MultiListener) {
 			MultiListener ml = ((MultiListener) this.listener);
 			ml.removeListener(listener);
 			if (ml.size() == 1) {
-				this.listener = ml.get(0);
+				setListener(ml.get(0));
 			}
 		}
 	}
 
+	private void setListener(PropertyListener listener) {
+		this.listener = listener;
+		this.behaviorListener = listener instanceof BehaviorListener;
+		this.singleListener = null;
+	}
+
 	/**
 	 * Updates this Editable, possibly modifying its value if it has a {@link PropertyBehavior}. This method should be
-	 * called once per frame, and a {@link pulpcore.sprite.Sprite} typically handles property updating.
+	 * called once per frame, and a {@link pulpcore.sprite.Sprite} typically handles property updating. Does nothing if
+	 * this property is managed by an {@link AnimationSystem}.
 	 * 
 	 * @param elapsedTime
 	 *            Elapsed time since the last update, in milliseconds.
 	 */
 	public final void update(int elapsedTime) {
+		updateNanos(elapsedTime * Animation.NANOS_PER_MILLI);
+	}
+
+	/**
+	 * Same as {@link #update(int)}, with the elapsed time in nanoseconds so that no fraction of a millisecond is lost.
+	 * 
+	 * @param elapsedNanos
+	 *            Elapsed time since the last update, in nanoseconds.
+	 */
+	public final void updateNanos(long elapsedNanos) {
+		if (system == null) {
+			updateBehavior(elapsedNanos);
+		}
+	}
+
+	/**
+	 * Updates the behavior, regardless of who is managing this property.
+	 */
+	/* package-private */final void updateBehavior(long elapsedNanos) {
 		if (behavior != null) {
 			// Make a copy in case the behavior reference is changed in update() or setValue()
 			PropertyBehavior<T> b = behavior;
-			boolean isActive = b.updateAnimation(elapsedTime);
+			boolean isActive = b.updateAnimationNanos(elapsedNanos);
 			if (isActive) {
-				setValue(b.getValue());
+				applyBehaviorValue(b);
 			}
 			if (behavior == b && b.isFinished()) {
 				behavior = null;
@@ -184,6 +298,23 @@ public abstract class Property<T> implements Finishable {
 		}
 	}
 
+	/**
+	 * Clears the behavior if it is still the specified one. Used by {@link AnimationSystem} once a behavior finishes.
+	 */
+	/* package-private */final void behaviorFinished(PropertyBehavior<T> b) {
+		if (behavior == b) {
+			behavior = null;
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if this property's behavior is evaluated by an {@link AnimationSystem}, in which case
+	 * {@link #update(int)} does nothing.
+	 */
+	public final boolean isManaged() {
+		return system != null;
+	}
+
 	/**
 	 * Checks if this property has a behavior and it is not finished animating.
 	 * 
@@ -214,7 +345,7 @@ public abstract class Property<T> implements Finishable {
 				// Make a copy in case the behavior reference is changed in fastForward()
 				PropertyBehavior<T> b = behavior;
 				b.fastForward();
-				setValue(b.getValue());
+				applyBehaviorValue(b);
 			}
 			behavior = null;
 		}
@@ -17,6 +17,15 @@ public interface PropertyBehavior<T>
      */
     public boolean updateAnimation(int elapsedTime);
 
+    /**
+     * Updates this PropertyBehavior and returns true if the update causes the value to change.
+     * 
+     * @param elapsedNanos
+     *            The amount of time to increment, in nanoseconds.
+     * @return true if the update causes the value to change.
+     */
+    public boolean updateAnimationNanos(long elapsedNanos);
+
     /**
      * Fast-forwards to the end of the PropertyBehavior if possible.
      */
@@ -5,6 +5,8 @@ import java.text.ParseException;
 
 import javax.swing.text.NumberFormatter;
 
+import ca.scotthyndman.game.engine.scene.TransformStore;
+
 /**
  * A Real is an fixed-point value (16 bits integer, 16 bits fraction) that can be animated over time. See
  * {@link pulpcore.math.CoreMath} for methods to convert between integers and fixed-point numbers.
@@ -13,6 +15,17 @@ public final class Real extends Property<Float> {
 
 	private static final NumberFormatter FORMATTER;
 
+	/**
+	 * The value, when this property isn't attached to a {@link TransformStore}.
+	 */
+	private float value;
+
+	/**
+	 * The {@link TransformStore} chunk holding the value, and where in it, or <code>null</code>.
+	 */
+	/* package-private */float[] storage;
+	/* package-private */int storageIndex;
+
 	public Real() {
 		this(null, 0);
 	}
@@ -42,7 +55,77 @@ public final class Real extends Property<Float> {
 	}
 
 	public Real(PropertyListener listener, float value) {
-		super(listener, value);
+		super(listener, null);
+		this.value = value;
+	}
+
+	//
+	// Storage
+	//
+
+	/**
+	 * Moves this property's value into a slot of a {@link TransformStore} column. The current value is copied into the
+	 * store, and from then on the store is this property's only storage.
+	 */
+	public void attachStorage(TransformStore store, int column, int slot) {
+		float v = get();
+		float[] chunk = store.getChunkOf(slot);
+		int index = TransformStore.index(column, slot);
+		chunk[index] = v;
+		storage = chunk;
+		storageIndex = index;
+	}
+
+	/**
+	 * Moves this property's value out of its {@link TransformStore}, if any, back into the property itself.
+	 */
+	public void detachStorage() {
+		if (storage != null) {
+			value = get();
+			storage = null;
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if this property's value lives in a {@link TransformStore}.
+	 */
+	public boolean isStorageAttached() {
+		return storage != null;
+	}
+
+	@Override
+	protected Float getValue() {
+		return get();
+	}
+
+	@Override
+	protected void setValue(Float value) {
+		setFloat(value.floatValue());
+	}
+
+	@Override
+	protected void applyBehaviorValue(PropertyBehavior<Float> behavior) {
+		if (behavior instanceof FloatBehavior) {
+			setFloat(((FloatBehavior) behavior).getFloatValue());
+		} else {
+			super.applyBehaviorValue(behavior);
+		}
+	}
+
+	/**
+	 * Sets the value without touching the behavior, alerting the listeners if it changed.
+	 */
+	/* package-private */final void setFloat(float value) {
+		float[] s = storage;
+		if (s == null) {
+			if (this.value != value) {
+				this.value = value;
+				fireChange();
+			}
+		} else if (s[storageIndex] != value) {
+			s[storageIndex] = value;
+			fireChange();
+		}
 	}
 
 	//
@@ -50,27 +133,28 @@ public final class Real extends Property<Float> {
 	//
 
 	public int getAsInt() {
-		return super.getValue().intValue();
+		return (int) get();
 	}
 
 	public int getAsIntFloor() {
-		return (int) Math.floor(super.getValue());
+		return (int) Math.floor(get());
 	}
 
 	public int getAsIntCeil() {
-		return (int) Math.ceil(super.getValue());
+		return (int) Math.ceil(get());
 	}
 
 	public int getAsIntRound() {
-		return (int) Math.round(super.getValue());
+		return (int) Math.round(get());
 	}
 
 	public float get() {
-		return super.getValue();
+		float[] s = storage;
+		return s == null ? value : s[storageIndex];
 	}
 
 	public String toString() {
-		Float f = super.getValue();
+		Float f = get();
 		try {
 			return FORMATTER.valueToString(f);
 		} catch (ParseException e) {
@@ -118,7 +202,7 @@ public final class Real extends Property<Float> {
 	 * Sets the value of this property. Any previous animations are stopped.
 	 */
 	public void set(int value) {
-		setValue(value);
+		setFloat(value);
 		setBehavior(null);
 	}
 
@@ -126,7 +210,7 @@ public final class Real extends Property<Float> {
 	 * Sets the value of this property. Any previous animations are stopped.
 	 */
 	public void set(float value) {
-		setValue(value);
+		setFloat(value);
 		setBehavior(null);
 	}
 
@@ -150,6 +234,9 @@ public final class Real extends Property<Float> {
 
 	/**
 	 * Binds this property to the specified property. If this property is given a new behavior, the binding is broken.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the specified property is already bound to this one, directly or through other properties
 	 */
 	public void bindTo(Int property) {
 		setBehavior(new Binding(this, property, false));
@@ -166,6 +253,9 @@ public final class Real extends Property<Float> {
 
 	/**
 	 * Binds this property to the specified property. If this property is given a new behavior, the binding is broken.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the specified property is already bound to this one, directly or through other properties
 	 */
 	public void bindTo(Real property) {
 		setBehavior(new Binding(this, property, false));
@@ -191,11 +281,11 @@ public final class Real extends Property<Float> {
 	//
 
 	public void constant(float step) {
-		setBehavior(new ConstantChange<Float>(getValue(), step));
+		setBehavior(new FloatConstantChange(get(), step));
 	}
 
 	public void constant(float step, int startDelay) {
-		setBehavior(new ConstantChange<Float>(getValue(), step, startDelay));
+		setBehavior(new FloatConstantChange(get(), step, startDelay));
 	}
 
 	//
@@ -206,42 +296,42 @@ public final class Real extends Property<Float> {
 	 * Animates this property from the one double (fromValue) to another (toValue). Any previous animations are stopped.
 	 */
 	public void animate(float fromValue, float toValue, int duration) {
-		setBehavior(new Tween<Float>(fromValue, toValue, duration));
+		setBehavior(new FloatTween(fromValue, toValue, duration));
 	}
 
 	/**
 	 * Animates this property from the one double (fromValue) to another (toValue). Any previous animations are stopped.
 	 */
 	public void animate(float fromValue, float toValue, int duration, Easing easing) {
-		setBehavior(new Tween<Float>(fromValue, toValue, duration, easing));
+		setBehavior(new FloatTween(fromValue, toValue, duration, easing));
 	}
 
 	/**
 	 * Animates this property from the one double (fromValue) to another (toValue). Any previous animations are stopped.
 	 */
 	public void animate(float fromValue, float toValue, int duration, Easing easing, int startDelay) {
-		setBehavior(new Tween<Float>(fromValue, toValue, duration, easing, startDelay));
+		setBehavior(new FloatTween(fromValue, toValue, duration, easing, startDelay));
 	}
 
 	/**
 	 * Animates this property from the current value to the specified double. Any previous animations are stopped.
 	 */
 	public void animateTo(float toValue, int duration) {
-		setBehavior(new Tween<Float>(get(), toValue, duration));
+		setBehavior(new FloatTween(get(), toValue, duration));
 	}
 
 	/**
 	 * Animates this property from the current value to the specified double. Any previous animations are stopped.
 	 */
 	public void animateTo(float toValue, int duration, Easing easing) {
-		setBehavior(new Tween<Float>(get(), toValue, duration, easing));
+		setBehavior(new FloatTween(get(), toValue, duration, easing));
 	}
 
 	/**
 	 * Animates this property from the current value to the specified double. Any previous animations are stopped.
 	 */
 	public void animateTo(float toValue, int duration, Easing easing, int startDelay) {
-		setBehavior(new Tween<Float>(get(), toValue, duration, easing, startDelay));
+		setBehavior(new FloatTween(get(), toValue, duration, easing, startDelay));
 	}
 
 	static {
@@ -0,0 +1,47 @@
+package ca.scotthyndman.game.engine.animation;
+
+/**
+ * Turns frame times in seconds, as handed out by jME, into the nanoseconds the animation engine works in. The part of a
+ * nanosecond that doesn't convert is carried over to the next frame, so no time is lost however long the game runs.
+ */
+public final class TimeBase {
+
+	private long totalNanos;
+	private double error;
+
+	/**
+	 * Advances this time base by a frame.
+	 * 
+	 * @param tpf
+	 *            the time per frame, in seconds
+	 * @return the length of the frame, in nanoseconds
+	 */
+	public long advance(float tpf) {
+		double exact = tpf * 1e9 + error;
+		long nanos = (long) Math.floor(exact);
+		error = exact - nanos;
+		totalNanos += nanos;
+		return nanos;
+	}
+
+	/**
+	 * Returns the time handed out so far, in nanoseconds.
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * Returns the time that has been passed in but not handed out yet, in nanoseconds. This is always less than one.
+	 */
+	public double getError() {
+		return error;
+	}
+
+	/**
+	 * Converts a time in seconds to the nearest nanosecond.
+	 */
+	public static long toNanos(float seconds) {
+		return Math.round(seconds * 1e9);
+	}
+}
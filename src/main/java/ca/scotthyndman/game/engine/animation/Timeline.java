@@ -1,6 +1,7 @@
 package ca.scotthyndman.game.engine.animation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import ca.scotthyndman.game.engine.animation.event.TimelineEvent;
 import ca.scotthyndman.game.engine.entity.Env;
@@ -23,13 +24,23 @@ public final class Timeline extends Animation implements Updatable {
 	private boolean playing;
 	private double playSpeed = 1;
 
-	// Remainder, in microseconds, of the play time. Used when playSpeed != 1.
-	private int remainderMicros;
+	// Remainder, in nanoseconds, of the play time. Used when playSpeed != 1.
+	private double remainderNanos;
 
 	private int lastAnimTime = 0;
 	private int lastTime;
 	private boolean lastParentLooped;
 
+	// Interval index over the children, sorted by start time, so that a frame only visits the children whose
+	// [startDelay, totalDuration] window it touches. Rebuilt lazily when the children change.
+	private boolean indexDirty = true;
+	private int[] indexOrder; // Child positions in animationList
+	private int[] indexStart;
+	private int[] indexEnd; // Inclusive, Integer.MAX_VALUE if looping forever
+	private int[] indexMaxEnd; // Largest end in the implicit subtree rooted at each position
+	private int[] visit; // The children to visit on this frame, in insertion order
+	private int visitCount;
+
 	public Timeline() {
 		this(null, 0);
 	}
@@ -54,7 +65,7 @@ public final class Timeline extends Animation implements Updatable {
 	}
 
 	private void calcDuration() {
-		// TODO: sort children by their getTotalDuration() ?
+		indexDirty = true;
 		int duration = 0;
 		for (int i = 0; i < animationList.size(); i++) {
 			Animation anim = (Animation) animationList.get(i);
@@ -105,56 +116,137 @@ public final class Timeline extends Animation implements Updatable {
 		return playing;
 	}
 
+	/**
+	 * Jumps to the specified time. Children are set straight to their state at that time, so seeking costs the same no
+	 * matter how far it jumps, and only children whose window lies between the current and the new time are touched.
+	 * <p>
+	 * Children that are now before their start get their starting value, finished ones their end value, and running
+	 * ones the value for the time. When several children animate the same property, running children win over
+	 * finished ones, which win over ones that haven't started. This is the state playing up to the time gives, except
+	 * after the timeline has looped: played, children that haven't started again hold their end value from the last
+	 * loop.
+	 * 
+	 * @param time
+	 *            the new time, in milliseconds, as returned by {@link #getTime()}
+	 * @param fireEvents
+	 *            if <code>true</code>, the {@link TimelineEvent}s passed over while seeking forward are run, otherwise
+	 *            they are skipped
+	 */
+	public void seek(int time, boolean fireEvents) {
+		int animTime = seekTime(time);
+		collectVisits(Math.min(lastAnimTime, animTime), Math.max(lastAnimTime, animTime));
+
+		// Children before their start, latest first so that earlier ones set the value
+		for (int v = visitCount - 1; v >= 0; v--) {
+			int i = visit[v];
+			if (animationList.get(i).getSection(animTime) == SECTION_START_DELAY) {
+				seekChild(i, animTime, fireEvents);
+			}
+		}
+
+		// Then finished children, then running ones
+		for (int v = 0; v < visitCount; v++) {
+			int i = visit[v];
+			if (animationList.get(i).getSection(animTime) == SECTION_LOOP_DELAY) {
+				seekChild(i, animTime, fireEvents);
+			}
+		}
+		for (int v = 0; v < visitCount; v++) {
+			int i = visit[v];
+			if (animationList.get(i).getSection(animTime) == SECTION_ANIMATION) {
+				seekChild(i, animTime, fireEvents);
+			}
+		}
+
+		remainderNanos = 0;
+		lastParentLooped = false;
+		lastAnimTime = animTime;
+		lastTime = getTime();
+	}
+
+	private void seekChild(int i, int animTime, boolean fireEvents) {
+		Animation anim = animationList.get(i);
+		if (anim instanceof Timeline) {
+			((Timeline) anim).seek(animTime, fireEvents);
+		} else if (anim instanceof TimelineEvent) {
+			if (fireEvents) {
+				anim.updateAnimationNanos(animTime * NANOS_PER_MILLI - anim.getTimeNanos(), false);
+			} else {
+				anim.seekTime(animTime);
+			}
+		} else {
+			anim.updateState(anim.seekTime(animTime));
+			if (anim instanceof PropertyBehavior) {
+				((Property) propertyList.get(i)).applyBehaviorValue((PropertyBehavior) anim);
+			}
+		}
+	}
+
 	public void update(Env env, float tpf) {
-		updateAnimation((int) (tpf * 1000), false);
+		updateAnimationNanos(Math.round(tpf * 1e9), false);
 	}
 
 	// @Override
-	boolean updateAnimation(int elapsedTime, boolean parentLooped) {
+	boolean updateAnimationNanos(long elapsedNanos, boolean parentLooped) {
 		if (!playing || playSpeed == 0) {
-			elapsedTime = 0;
+			elapsedNanos = 0;
 		} else if (playSpeed == -1) {
-			elapsedTime = -elapsedTime;
+			elapsedNanos = -elapsedNanos;
 		} else if (playSpeed != 1) {
-			long timeMicros = Math.round(elapsedTime * 1000L * playSpeed) + remainderMicros;
-			elapsedTime = (int) (timeMicros / 1000);
-			remainderMicros = (int) (timeMicros % 1000);
+			double timeNanos = elapsedNanos * playSpeed + remainderNanos;
+			elapsedNanos = (long) timeNanos;
+			remainderNanos = timeNanos - elapsedNanos;
 		}
 		lastParentLooped = parentLooped;
-		return super.updateAnimation(elapsedTime, parentLooped);
+		return super.updateAnimationNanos(elapsedNanos, parentLooped);
 	}
 
 	protected void updateState(int animTime) {
+		updatePreciseState(animTime);
+	}
+
+	protected void updatePreciseState(double preciseAnimTime) {
+		// Children are moved to this time, in nanoseconds
+		long target = Math.round(preciseAnimTime * NANOS_PER_MILLI);
+		int animTime = (int) Math.floor(preciseAnimTime);
+
 		int oldLoop = getAnimLoop(lastTime);
 		int newLoop = getAnimLoop(getTime());
-		boolean looped = lastParentLooped || (newLoop != oldLoop);
+		// Leaving the start delay isn't a loop: children that haven't started yet are left alone
+		boolean looped = lastParentLooped || (newLoop != oldLoop && oldLoop >= 0);
 		if (looped) {
 			for (int i = 0; i < animationList.size(); i++) {
 				Animation anim = (Animation) animationList.get(i);
-				boolean active = anim.updateAnimation(animTime - anim.getTime(), true);
+				boolean active = anim.updateAnimationNanos(target - anim.getTimeNanos(), true);
 				if (active && anim instanceof PropertyBehavior) {
-					((Property) propertyList.get(i)).setValue(((PropertyBehavior) anim).getValue());
+					((Property) propertyList.get(i)).applyBehaviorValue((PropertyBehavior) anim);
 				}
 			}
 		} else {
+			// Children whose window we didn't touch can't change state, so leave them be. Their time catches up the
+			// next time they are visited.
+			collectVisits(Math.min(lastAnimTime, animTime), Math.max(lastAnimTime, (int) Math.ceil(preciseAnimTime)));
+
 			// First, update those animations that were previously in SECTION_ANIMATION
-			for (int i = 0; i < animationList.size(); i++) {
+			for (int v = 0; v < visitCount; v++) {
+				int i = visit[v];
 				Animation anim = (Animation) animationList.get(i);
 				if (anim.getSection(lastAnimTime) == SECTION_ANIMATION) {
-					boolean active = anim.updateAnimation(animTime - anim.getTime(), false);
+					boolean active = anim.updateAnimationNanos(target - anim.getTimeNanos(), false);
 					if (active && anim instanceof PropertyBehavior) {
-						((Property) propertyList.get(i)).setValue(((PropertyBehavior) anim).getValue());
+						((Property) propertyList.get(i)).applyBehaviorValue((PropertyBehavior) anim);
 					}
 				}
 			}
 
 			// Next, update all other animations
-			for (int i = 0; i < animationList.size(); i++) {
+			for (int v = 0; v < visitCount; v++) {
+				int i = visit[v];
 				Animation anim = (Animation) animationList.get(i);
 				if (anim.getSection(lastAnimTime) != SECTION_ANIMATION) {
-					boolean active = anim.updateAnimation(animTime - anim.getTime(), false);
+					boolean active = anim.updateAnimationNanos(target - anim.getTimeNanos(), false);
 					if (active && anim instanceof PropertyBehavior) {
-						((Property) propertyList.get(i)).setValue(((PropertyBehavior) anim).getValue());
+						((Property) propertyList.get(i)).applyBehaviorValue((PropertyBehavior) anim);
 					}
 				}
 			}
@@ -164,6 +256,86 @@ public final class Timeline extends Animation implements Updatable {
 		lastTime = getTime();
 	}
 
+	//
+	// Interval index
+	//
+
+	/**
+	 * Fills {@link #visit} with the positions of the children whose window intersects [lo, hi], in insertion order.
+	 */
+	private void collectVisits(int lo, int hi) {
+		if (indexDirty) {
+			buildIndex();
+		}
+		visitCount = 0;
+		collect(0, animationList.size(), lo, hi);
+		if (visitCount > 1) {
+			Arrays.sort(visit, 0, visitCount);
+		}
+	}
+
+	private void collect(int l, int r, int lo, int hi) {
+		while (l < r) {
+			int mid = (l + r) >>> 1;
+			if (indexMaxEnd[mid] < lo) {
+				return;
+			}
+			collect(l, mid, lo, hi);
+			if (indexStart[mid] > hi) {
+				// Everything to the right starts later
+				return;
+			}
+			if (indexEnd[mid] >= lo) {
+				visit[visitCount++] = indexOrder[mid];
+			}
+			l = mid + 1;
+		}
+	}
+
+	/**
+	 * Sorts the children by start time, and computes the largest end time of each subtree. Like the duration, this
+	 * relies on children not changing their timing after they are added.
+	 */
+	private void buildIndex() {
+		int n = animationList.size();
+		if (indexOrder == null || indexOrder.length < n) {
+			int capacity = Math.max(16, n);
+			indexOrder = new int[capacity];
+			indexStart = new int[capacity];
+			indexEnd = new int[capacity];
+			indexMaxEnd = new int[capacity];
+			visit = new int[capacity];
+		}
+
+		// Sort by start, then by position, packed into longs
+		long[] keys = new long[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = ((long) animationList.get(i).getStartDelay() << 32) | i;
+		}
+		Arrays.sort(keys);
+
+		for (int i = 0; i < n; i++) {
+			int child = (int) keys[i];
+			Animation anim = animationList.get(child);
+			int total = anim.getTotalDuration();
+			indexOrder[i] = child;
+			indexStart[i] = anim.getStartDelay();
+			indexEnd[i] = total == LOOP_FOREVER ? Integer.MAX_VALUE : total;
+		}
+		buildMaxEnd(0, n);
+		indexDirty = false;
+	}
+
+	private int buildMaxEnd(int l, int r) {
+		if (l >= r) {
+			return Integer.MIN_VALUE;
+		}
+		int mid = (l + r) >>> 1;
+		int max = Math.max(indexEnd[mid], Math.max(buildMaxEnd(l, mid), buildMaxEnd(mid + 1, r)));
+		indexMaxEnd[mid] = max;
+		return max;
+	}
+
 	//
 	// Children
 	//
@@ -319,19 +491,19 @@ public final class Timeline extends Animation implements Updatable {
 	}
 
 	public void set(Int property, int value, int delay) {
-		add(property, new Tween<Integer>(property.get(), value, 0, null, delay));
+		add(property, new IntTween(property.get(), value, 0, null, delay));
 	}
 
 	public void set(Color property, ColorRGBA value, int delay) {
-		add(property, new Tween<ColorRGBA>(property.get(), value, 0, null, delay));
+		add(property, new ColorTween(property.get(), value, 0, null, delay));
 	}
 
 	public void set(Real property, float value, int delay) {
-		add(property, new Tween<Float>(property.get(), value, 0, null, delay));
+		add(property, new FloatTween(property.get(), value, 0, null, delay));
 	}
 
 	public void set(Real property, double value, int delay) {
-		add(property, new Tween<Float>(property.get(), (float) value, 0, null, delay));
+		add(property, new FloatTween(property.get(), (float) value, 0, null, delay));
 	}
 
 	public void setLocation(Positioned sprite, int x, int y, int delay) {
@@ -349,27 +521,27 @@ public final class Timeline extends Animation implements Updatable {
 	// 
 
 	public void animate(Int property, int fromValue, int toValue, int duration) {
-		add(property, new Tween<Integer>(fromValue, toValue, duration));
+		add(property, new IntTween(fromValue, toValue, duration));
 	}
 
 	public void animate(Int property, int fromValue, int toValue, int duration, Easing easing) {
-		add(property, new Tween<Integer>(fromValue, toValue, duration, easing));
+		add(property, new IntTween(fromValue, toValue, duration, easing));
 	}
 
 	public void animate(Int property, int fromValue, int toValue, int duration, Easing easing, int startDelay) {
-		add(property, new Tween<Integer>(fromValue, toValue, duration, easing, startDelay));
+		add(property, new IntTween(fromValue, toValue, duration, easing, startDelay));
 	}
 
 	public void animateTo(Int property, int toValue, int duration) {
-		add(property, new Tween<Integer>(property.get(), toValue, duration));
+		add(property, new IntTween(property.get(), toValue, duration));
 	}
 
 	public void animateTo(Int property, int toValue, int duration, Easing easing) {
-		add(property, new Tween<Integer>(property.get(), toValue, duration, easing));
+		add(property, new IntTween(property.get(), toValue, duration, easing));
 	}
 
 	public void animateTo(Int property, int toValue, int duration, Easing easing, int startDelay) {
-		add(property, new Tween<Integer>(property.get(), toValue, duration, easing, startDelay));
+		add(property, new IntTween(property.get(), toValue, duration, easing, startDelay));
 	}
 
 	//
@@ -377,28 +549,28 @@ public final class Timeline extends Animation implements Updatable {
 	//
 
 	public void animate(Color property, ColorRGBA fromARGB, ColorRGBA toARGB, int duration) {
-		add(property, new Tween<ColorRGBA>(fromARGB, toARGB, duration));
+		add(property, new ColorTween(fromARGB, toARGB, duration));
 	}
 
 	public void animate(Color property, ColorRGBA fromARGB, ColorRGBA toARGB, int duration, Easing easing) {
-		add(property, new Tween<ColorRGBA>(fromARGB, toARGB, duration, easing));
+		add(property, new ColorTween(fromARGB, toARGB, duration, easing));
 	}
 
 	public void animate(Color property, ColorRGBA fromARGB, ColorRGBA toARGB, int duration, Easing easing,
 			int startDelay) {
-		add(property, new Tween<ColorRGBA>(fromARGB, toARGB, duration, easing, startDelay));
+		add(property, new ColorTween(fromARGB, toARGB, duration, easing, startDelay));
 	}
 
 	public void animateTo(Color property, ColorRGBA toARGB, int duration) {
-		add(property, new Tween<ColorRGBA>(property.get(), toARGB, duration));
+		add(property, new ColorTween(property.get(), toARGB, duration));
 	}
 
 	public void animateTo(Color property, ColorRGBA toARGB, int duration, Easing easing) {
-		add(property, new Tween<ColorRGBA>(property.get(), toARGB, duration, easing));
+		add(property, new ColorTween(property.get(), toARGB, duration, easing));
 	}
 
 	public void animateTo(Color property, ColorRGBA toARGB, int duration, Easing easing, int startDelay) {
-		add(property, new Tween<ColorRGBA>(property.get(), toARGB, duration, easing, startDelay));
+		add(property, new ColorTween(property.get(), toARGB, duration, easing, startDelay));
 	}
 
 	//
@@ -406,27 +578,27 @@ public final class Timeline extends Animation implements Updatable {
 	//
 
 	public void animate(Real property, float fromValue, float toValue, int duration) {
-		add(property, new Tween<Float>(fromValue, toValue, duration));
+		add(property, new FloatTween(fromValue, toValue, duration));
 	}
 
 	public void animate(Real property, float fromValue, float toValue, int duration, Easing easing) {
-		add(property, new Tween<Float>(fromValue, toValue, duration, easing));
+		add(property, new FloatTween(fromValue, toValue, duration, easing));
 	}
 
 	public void animate(Real property, float fromValue, float toValue, int duration, Easing easing, int startDelay) {
-		add(property, new Tween<Float>(fromValue, toValue, duration, easing, startDelay));
+		add(property, new FloatTween(fromValue, toValue, duration, easing, startDelay));
 	}
 
 	public void animateTo(Real property, float toValue, int duration) {
-		add(property, new Tween<Float>(property.get(), toValue, duration));
+		add(property, new FloatTween(property.get(), toValue, duration));
 	}
 
 	public void animateTo(Real property, float toValue, int duration, Easing easing) {
-		add(property, new Tween<Float>(property.get(), toValue, duration, easing));
+		add(property, new FloatTween(property.get(), toValue, duration, easing));
 	}
 
 	public void animateTo(Real property, float toValue, int duration, Easing easing, int startDelay) {
-		add(property, new Tween<Float>(property.get(), toValue, duration, easing, startDelay));
+		add(property, new FloatTween(property.get(), toValue, duration, easing, startDelay));
 	}
 
 	//
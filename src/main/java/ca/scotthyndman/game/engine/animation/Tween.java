@@ -25,6 +25,10 @@ public class Tween<T> extends Animation implements PropertyBehavior<T> {
 	}
 
 	protected void updateState(int animTime) {
+		updatePreciseState(animTime);
+	}
+
+	protected void updatePreciseState(double animTime) {
 		if (getDuration() == 0) {
 			if (animTime < 0) {
 				value = fromValue;
@@ -32,7 +36,7 @@ public class Tween<T> extends Animation implements PropertyBehavior<T> {
 				value = toValue;
 			}
 		} else {
-			value = interpolator.interpolate(fromValue, toValue, (float) animTime / getDuration());
+			value = interpolator.interpolate(fromValue, toValue, (float) (animTime / getDuration()), value);
 		}
 	}
 
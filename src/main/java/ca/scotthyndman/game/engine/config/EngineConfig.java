@@ -5,6 +5,8 @@ import java.util.List;
 import java.util.Map;
 
 import ca.scotthyndman.game.engine.Engine.GameMode;
+import ca.scotthyndman.game.engine.scene.SpatialIndex;
+import ca.scotthyndman.game.engine.texture.TextureAtlas;
 import ca.scotthyndman.game.engine.util.CollectionUtil;
 
 import com.jme.system.PropertiesGameSettings;
@@ -22,6 +24,24 @@ public class EngineConfig extends PropertiesGameSettings {
 	private String gameScript;
 	private List<String> scriptLoadPaths;
 	private Map<String, String> resourcePaths = new HashMap<String, String>();
+	private boolean useTransformStore;
+	private boolean fixedTimestep;
+	private int simulationRate;
+	private int maxStepsPerFrame;
+	private boolean simulationThread;
+	private int updateThreads;
+	private int jobThreads;
+	private boolean profiling;
+	private boolean transformPass;
+	private boolean spriteBatching;
+	private boolean spatialIndex;
+	private float spatialIndexCellSize;
+	private boolean textureAtlas;
+	private int atlasPageSize;
+	private String atlasCacheDirectory;
+	private boolean trackingAllocations;
+	private long allocationBudget;
+	private int parallelThreshold;
 
 	public EngineConfig() {
 		this("pgs.properties");
@@ -35,6 +55,14 @@ public class EngineConfig extends PropertiesGameSettings {
 		setFramerate(60);
 		setWidth(800);
 		setHeight(600);
+		setSimulationRate(60);
+		setMaxStepsPerFrame(5);
+		setUpdateThreads(1);
+		setJobThreads(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+		setParallelThreshold(256);
+		setSpatialIndexCellSize(SpatialIndex.DEFAULT_CELL_SIZE);
+		setAtlasPageSize(TextureAtlas.DEFAULT_PAGE_SIZE);
+		setAtlasCacheDirectory("cache/atlas");
 		setScriptLoadPaths(CollectionUtil.list("src/main/ruby"));
 		addScriptLoadPaths("src/main/ruby/prototype");
 		addScriptLoadPaths("src/main/ruby/lib");
@@ -80,6 +108,223 @@ public class EngineConfig extends PropertiesGameSettings {
 		}
 	}
 
+	/**
+	 * Returns <code>true</code> if scene graph nodes keep their transforms in a shared
+	 * {@link ca.scotthyndman.game.engine.scene.TransformStore}.
+	 */
+	public boolean isUseTransformStore() {
+		return useTransformStore;
+	}
+
+	public void setUseTransformStore(boolean useTransformStore) {
+		this.useTransformStore = useTransformStore;
+	}
+
+	/**
+	 * Returns <code>true</code> if the game is simulated in steps of a fixed length, {@link #getSimulationRate()}
+	 * times a second, and rendered between the last two steps. Otherwise the simulation is advanced by the length of
+	 * each frame.
+	 */
+	public boolean isFixedTimestep() {
+		return fixedTimestep;
+	}
+
+	public void setFixedTimestep(boolean fixedTimestep) {
+		this.fixedTimestep = fixedTimestep;
+	}
+
+	/**
+	 * Returns the number of simulation steps per second, when {@link #isFixedTimestep()} is set.
+	 */
+	public int getSimulationRate() {
+		return simulationRate;
+	}
+
+	public void setSimulationRate(int simulationRate) {
+		this.simulationRate = simulationRate;
+	}
+
+	/**
+	 * Returns the most simulation steps run in one frame, when {@link #isFixedTimestep()} is set. Time that would need
+	 * more is dropped, so that a slow frame doesn't make the following frames slower.
+	 */
+	public int getMaxStepsPerFrame() {
+		return maxStepsPerFrame;
+	}
+
+	public void setMaxStepsPerFrame(int maxStepsPerFrame) {
+		this.maxStepsPerFrame = maxStepsPerFrame;
+	}
+
+	/**
+	 * Returns <code>true</code> if input, events, scripts and animation run on a simulation thread of their own, which
+	 * hands the scene over to the render thread once a frame. Scripts still only ever run on one thread.
+	 */
+	public boolean isSimulationThread() {
+		return simulationThread;
+	}
+
+	public void setSimulationThread(boolean simulationThread) {
+		this.simulationThread = simulationThread;
+	}
+
+	/**
+	 * Returns the number of worker threads in the engine's {@link ca.scotthyndman.game.engine.job.JobSystem}. By
+	 * default, one fewer than there are processors, leaving one for the render thread. The threads are only started
+	 * once there is work for them, such as a parallel scene update or packing the texture atlas.
+	 */
+	public int getJobThreads() {
+		return jobThreads;
+	}
+
+	public void setJobThreads(int jobThreads) {
+		this.jobThreads = jobThreads;
+	}
+
+	/**
+	 * Returns the number of threads the scene graph is updated with. With more than one, animations, nodes and subtrees
+	 * are updated in parallel, on the workers of the engine's job system; there are never more threads than it has
+	 * workers, plus one.
+	 */
+	public int getUpdateThreads() {
+		return updateThreads;
+	}
+
+	public void setUpdateThreads(int updateThreads) {
+		this.updateThreads = updateThreads;
+	}
+
+	/**
+	 * Returns the fewest nodes worth handing to an update thread, when {@link #getUpdateThreads()} is more than one.
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * Returns <code>true</code> if world transforms are brought up to date once a frame, only under the nodes that
+	 * changed. Otherwise each node updates its own as it changes, and the whole tree is updated again every frame. Off
+	 * by default: spatials with jME controllers, or moved other than through a node, must then be marked dirty by hand
+	 * (see {@link ca.scotthyndman.game.engine.scene.TransformPass}), or they stop updating.
+	 */
+	public boolean isTransformPass() {
+		return transformPass;
+	}
+
+	public void setTransformPass(boolean transformPass) {
+		this.transformPass = transformPass;
+	}
+
+	/**
+	 * Returns <code>true</code> if graphics are drawn in batches, one draw for each run of graphics with the same
+	 * texture and blend mode. Batched graphics aren't lit. Off by default.
+	 */
+	public boolean isSpriteBatching() {
+		return spriteBatching;
+	}
+
+	public void setSpriteBatching(boolean spriteBatching) {
+		this.spriteBatching = spriteBatching;
+	}
+
+	/**
+	 * Returns <code>true</code> if the nodes in the scene are kept in a
+	 * {@link ca.scotthyndman.game.engine.scene.SpatialIndex}, so that scripts can find the nodes at a point or near
+	 * one without looking at every node. Off by default.
+	 */
+	public boolean isSpatialIndex() {
+		return spatialIndex;
+	}
+
+	public void setSpatialIndex(boolean spatialIndex) {
+		this.spatialIndex = spatialIndex;
+	}
+
+	/**
+	 * Returns the width and height of the spatial index's cells, in world units.
+	 */
+	public float getSpatialIndexCellSize() {
+		return spatialIndexCellSize;
+	}
+
+	public void setSpatialIndexCellSize(float spatialIndexCellSize) {
+		this.spatialIndexCellSize = spatialIndexCellSize;
+	}
+
+	/**
+	 * Returns <code>true</code> if the small textures are packed into an atlas when the game loads, so that graphics
+	 * showing different images can share a sprite batch. Off by default.
+	 */
+	public boolean isTextureAtlas() {
+		return textureAtlas;
+	}
+
+	public void setTextureAtlas(boolean textureAtlas) {
+		this.textureAtlas = textureAtlas;
+	}
+
+	/**
+	 * Returns the width and height of the atlas pages, in pixels.
+	 */
+	public int getAtlasPageSize() {
+		return atlasPageSize;
+	}
+
+	public void setAtlasPageSize(int atlasPageSize) {
+		this.atlasPageSize = atlasPageSize;
+	}
+
+	/**
+	 * Returns the directory the atlas is cached in, between runs of the game.
+	 */
+	public String getAtlasCacheDirectory() {
+		return atlasCacheDirectory;
+	}
+
+	public void setAtlasCacheDirectory(String atlasCacheDirectory) {
+		this.atlasCacheDirectory = atlasCacheDirectory;
+	}
+
+	/**
+	 * Returns <code>true</code> if the profiler starts switched on. It can be switched at any time, from the console's
+	 * <code>profile</code> command.
+	 */
+	public boolean isProfiling() {
+		return profiling;
+	}
+
+	public void setProfiling(boolean profiling) {
+		this.profiling = profiling;
+	}
+
+	/**
+	 * Returns <code>true</code> if the profiler starts switched on and measuring the bytes allocated in each part of
+	 * the frame, where the JVM can tell.
+	 */
+	public boolean isTrackingAllocations() {
+		return trackingAllocations;
+	}
+
+	public void setTrackingAllocations(boolean trackingAllocations) {
+		this.trackingAllocations = trackingAllocations;
+	}
+
+	/**
+	 * Returns the bytes a frame may allocate before it is logged, when {@link #isTrackingAllocations()} is set, or 0
+	 * for no limit.
+	 */
+	public long getAllocationBudget() {
+		return allocationBudget;
+	}
+
+	public void setAllocationBudget(long allocationBudget) {
+		this.allocationBudget = allocationBudget;
+	}
+
 	public Map<String, String> getResourcePaths() {
 		return resourcePaths;
 	}
@@ -0,0 +1,222 @@
+package ca.scotthyndman.game.engine.config;
+
+import java.io.IOException;
+
+import com.jme.system.GameSettings;
+
+/**
+ * The settings a headless game is started with: the engine's own settings, except that the frame rate isn't capped.
+ * Changes made through these settings go to the engine's, but the frame rate stays uncapped, so the engine's config
+ * keeps the rate it was given.
+ *
+ * @author scottyhyndman
+ */
+public class HeadlessGameSettings implements GameSettings {
+
+	private final GameSettings settings;
+
+	public HeadlessGameSettings(GameSettings settings) {
+		this.settings = settings;
+	}
+
+	/**
+	 * Returns -1, for no frame cap.
+	 */
+	public int getFramerate() {
+		return -1;
+	}
+
+	/**
+	 * Does nothing; a headless game is never capped.
+	 */
+	public void setFramerate(int framerate) {
+	}
+
+	//
+	// Everything else is the engine's
+	//
+
+	public String getDefaultSettingsWidgetImage() {
+		return settings.getDefaultSettingsWidgetImage();
+	}
+
+	public String getRenderer() {
+		return settings.getRenderer();
+	}
+
+	public void setRenderer(String renderer) {
+		settings.setRenderer(renderer);
+	}
+
+	public int getWidth() {
+		return settings.getWidth();
+	}
+
+	public void setWidth(int width) {
+		settings.setWidth(width);
+	}
+
+	public int getHeight() {
+		return settings.getHeight();
+	}
+
+	public void setHeight(int height) {
+		settings.setHeight(height);
+	}
+
+	public int getDepth() {
+		return settings.getDepth();
+	}
+
+	public void setDepth(int depth) {
+		settings.setDepth(depth);
+	}
+
+	public int getFrequency() {
+		return settings.getFrequency();
+	}
+
+	public void setFrequency(int frequency) {
+		settings.setFrequency(frequency);
+	}
+
+	public boolean isVerticalSync() {
+		return settings.isVerticalSync();
+	}
+
+	public void setVerticalSync(boolean verticalSync) {
+		settings.setVerticalSync(verticalSync);
+	}
+
+	public boolean isFullscreen() {
+		return settings.isFullscreen();
+	}
+
+	public void setFullscreen(boolean fullscreen) {
+		settings.setFullscreen(fullscreen);
+	}
+
+	public int getDepthBits() {
+		return settings.getDepthBits();
+	}
+
+	public void setDepthBits(int depthBits) {
+		settings.setDepthBits(depthBits);
+	}
+
+	public int getAlphaBits() {
+		return settings.getAlphaBits();
+	}
+
+	public void setAlphaBits(int alphaBits) {
+		settings.setAlphaBits(alphaBits);
+	}
+
+	public int getStencilBits() {
+		return settings.getStencilBits();
+	}
+
+	public void setStencilBits(int stencilBits) {
+		settings.setStencilBits(stencilBits);
+	}
+
+	public int getSamples() {
+		return settings.getSamples();
+	}
+
+	public void setSamples(int samples) {
+		settings.setSamples(samples);
+	}
+
+	public boolean isMusic() {
+		return settings.isMusic();
+	}
+
+	public void setMusic(boolean music) {
+		settings.setMusic(music);
+	}
+
+	public boolean isSFX() {
+		return settings.isSFX();
+	}
+
+	public void setSFX(boolean sfx) {
+		settings.setSFX(sfx);
+	}
+
+	public void clear() throws IOException {
+		settings.clear();
+	}
+
+	public void set(String name, String value) {
+		settings.set(name, value);
+	}
+
+	public void setBoolean(String name, boolean value) {
+		settings.setBoolean(name, value);
+	}
+
+	public void setInt(String name, int value) {
+		settings.setInt(name, value);
+	}
+
+	public void setLong(String name, long value) {
+		settings.setLong(name, value);
+	}
+
+	public void setFloat(String name, float value) {
+		settings.setFloat(name, value);
+	}
+
+	public void setDouble(String name, double value) {
+		settings.setDouble(name, value);
+	}
+
+	public void setByteArray(String name, byte[] bytes) {
+		settings.setByteArray(name, bytes);
+	}
+
+	public void setObject(String name, Object obj) {
+		settings.setObject(name, obj);
+	}
+
+	public String get(String name, String defaultValue) {
+		return settings.get(name, defaultValue);
+	}
+
+	public boolean getBoolean(String name, boolean defaultValue) {
+		return settings.getBoolean(name, defaultValue);
+	}
+
+	public int getInt(String name, int defaultValue) {
+		return settings.getInt(name, defaultValue);
+	}
+
+	public long getLong(String name, long defaultValue) {
+		return settings.getLong(name, defaultValue);
+	}
+
+	public float getFloat(String name, float defaultValue) {
+		return settings.getFloat(name, defaultValue);
+	}
+
+	public double getDouble(String name, double defaultValue) {
+		return settings.getDouble(name, defaultValue);
+	}
+
+	public byte[] getByteArray(String name, byte[] defaultValue) {
+		return settings.getByteArray(name, defaultValue);
+	}
+
+	public Object getObject(String name, Object defaultValue) {
+		return settings.getObject(name, defaultValue);
+	}
+
+	public boolean isNew() {
+		return settings.isNew();
+	}
+
+	public void save() throws IOException {
+		settings.save();
+	}
+}
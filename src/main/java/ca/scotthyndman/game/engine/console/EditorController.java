@@ -33,6 +33,7 @@ import org.jruby.Ruby;
 import ca.scotthyndman.game.engine.console.command.ClearOutputCommand;
 import ca.scotthyndman.game.engine.console.command.Command;
 import ca.scotthyndman.game.engine.console.command.ExecutionResult;
+import ca.scotthyndman.game.engine.console.command.ProfileCommand;
 import ca.scotthyndman.game.engine.console.command.ReloadCommand;
 import ca.scotthyndman.game.engine.console.command.RunRubyCommand;
 import ca.scotthyndman.game.engine.scripting.ScriptManager;
@@ -158,6 +159,7 @@ public class EditorController implements KeyListener {
 	private void initCommandMap() {
 		commandMap.put("clear", new ClearOutputCommand());
 		commandMap.put("reload", new ReloadCommand());
+		commandMap.put("profile", new ProfileCommand());
 	}
 
 	/**
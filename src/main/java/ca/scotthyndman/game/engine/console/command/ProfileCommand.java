@@ -0,0 +1,49 @@
+package ca.scotthyndman.game.engine.console.command;
+
+import org.jruby.Ruby;
+
+import ca.scotthyndman.game.engine.Engine;
+import ca.scotthyndman.game.engine.console.EditorController;
+import ca.scotthyndman.game.engine.profile.AllocationTracker;
+import ca.scotthyndman.game.engine.profile.Profiler;
+
+/**
+ * Shows the frame profile. <code>profile on</code> and <code>profile off</code> switch the profiler,
+ * <code>profile alloc</code> switches allocation tracking, and <code>profile reset</code> forgets the frames recorded
+ * so far.
+ * 
+ * @author scottyhyndman
+ */
+public class ProfileCommand extends Command {
+
+	@Override
+	public ExecutionResult execute(Ruby runtime, String command, EditorController controller) {
+		Profiler profiler = Engine.getInstance().getProfiler();
+		String[] parts = command.trim().split("\\s+");
+		String option = parts.length > 1 ? parts[1] : "";
+
+		if (option.equals("on")) {
+			profiler.setEnabled(true);
+			return new ExecutionResult("Profiling on");
+		} else if (option.equals("off")) {
+			profiler.setEnabled(false);
+			return new ExecutionResult("Profiling off");
+		} else if (option.equals("alloc")) {
+			if (!AllocationTracker.isSupported()) {
+				return new ExecutionResult(true, "This JVM can't measure allocations");
+			}
+			profiler.setTrackingAllocations(!profiler.isTrackingAllocations());
+			return new ExecutionResult("Allocation tracking " + (profiler.isTrackingAllocations() ? "on" : "off"));
+		} else if (option.equals("reset")) {
+			profiler.reset();
+			return new ExecutionResult("Profile reset");
+		} else if (option.length() > 0) {
+			return new ExecutionResult(true, "Usage: profile [on|off|alloc|reset]");
+		}
+
+		if (!profiler.isEnabled()) {
+			return new ExecutionResult("Profiling is off; 'profile on' switches it on");
+		}
+		return new ExecutionResult(profiler.report());
+	}
+}
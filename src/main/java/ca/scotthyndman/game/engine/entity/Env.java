@@ -1,9 +1,19 @@
 package ca.scotthyndman.game.engine.entity;
 
 import ca.scotthyndman.game.engine.Engine.GameMode;
+import ca.scotthyndman.game.engine.animation.AnimationSystem;
 import ca.scotthyndman.game.engine.input.InputState;
+import ca.scotthyndman.game.engine.scene.RenderStateCache;
 import ca.scotthyndman.game.engine.scene.RootNode;
+import ca.scotthyndman.game.engine.scene.SnapshotBuffer;
+import ca.scotthyndman.game.engine.scene.SpatialIndex;
+import ca.scotthyndman.game.engine.scene.SpriteBatch;
+import ca.scotthyndman.game.engine.scene.TransformPass;
+import ca.scotthyndman.game.engine.scene.TransformStore;
 import ca.scotthyndman.game.engine.scene.UpdateManager;
+import ca.scotthyndman.game.engine.texture.TextureAtlas;
+
+import com.jme.system.DisplaySystem;
 
 /**
  * Represents the current state of the game.
@@ -32,6 +42,46 @@ public class Env {
 	 */
 	private UpdateManager updateManager;
 
+	/**
+	 * The store for scene graph transforms, or <code>null</code> if nodes keep their own.
+	 */
+	private TransformStore transformStore;
+
+	/**
+	 * Evaluates the behaviors of the properties in the scene graph.
+	 */
+	private AnimationSystem animationSystem;
+
+	/**
+	 * Carries the scene graph to the render thread, or <code>null</code> if the simulation runs on the render thread.
+	 */
+	private SnapshotBuffer snapshotBuffer;
+
+	/**
+	 * Updates the world transforms of what changed, once a frame, or <code>null</code> if nodes update their own.
+	 */
+	private TransformPass transformPass;
+
+	/**
+	 * Draws the graphics in batches, or <code>null</code> if each draws itself.
+	 */
+	private SpriteBatch spriteBatch;
+
+	/**
+	 * Finds the nodes in a part of the world, or <code>null</code> if the nodes aren't indexed.
+	 */
+	private SpatialIndex spatialIndex;
+
+	/**
+	 * The small textures, packed into pages, or <code>null</code> if each texture is loaded on its own.
+	 */
+	private TextureAtlas textureAtlas;
+
+	/**
+	 * The render states shared by the nodes, created when first needed.
+	 */
+	private RenderStateCache renderStateCache;
+
 	/**
 	 * <code>true</code> if we're in debug mode.
 	 */
@@ -71,6 +121,14 @@ public class Env {
 		this.gameMode = mode;
 	}
 
+	/**
+	 * Returns <code>true</code> if the game runs without a display, in which case there is no renderer and nothing
+	 * creates render states.
+	 */
+	public boolean isHeadless() {
+		return gameMode == GameMode.HEADLESS;
+	}
+
 	/**
 	 * Gets the update manager.
 	 */
@@ -85,6 +143,116 @@ public class Env {
 		this.updateManager = updateManager;
 	}
 
+	/**
+	 * Gets the store for scene graph transforms, or <code>null</code> if nodes keep their own.
+	 */
+	public TransformStore getTransformStore() {
+		return transformStore;
+	}
+
+	/**
+	 * Sets the store for scene graph transforms.
+	 */
+	public void setTransformStore(TransformStore transformStore) {
+		this.transformStore = transformStore;
+	}
+
+	/**
+	 * Gets the system that evaluates the behaviors of the properties in the scene graph.
+	 */
+	public AnimationSystem getAnimationSystem() {
+		return animationSystem;
+	}
+
+	/**
+	 * Sets the system that evaluates the behaviors of the properties in the scene graph.
+	 */
+	public void setAnimationSystem(AnimationSystem animationSystem) {
+		this.animationSystem = animationSystem;
+	}
+
+	/**
+	 * Gets the buffer that carries the scene graph to the render thread, or <code>null</code> if the simulation runs on
+	 * the render thread.
+	 */
+	public SnapshotBuffer getSnapshotBuffer() {
+		return snapshotBuffer;
+	}
+
+	/**
+	 * Sets the buffer that carries the scene graph to the render thread.
+	 */
+	public void setSnapshotBuffer(SnapshotBuffer snapshotBuffer) {
+		this.snapshotBuffer = snapshotBuffer;
+	}
+
+	/**
+	 * Gets the pass that updates the world transforms of what changed, once a frame, or <code>null</code> if nodes
+	 * update their own as they change.
+	 */
+	public TransformPass getTransformPass() {
+		return transformPass;
+	}
+
+	/**
+	 * Sets the pass that updates the world transforms of what changed.
+	 */
+	public void setTransformPass(TransformPass transformPass) {
+		this.transformPass = transformPass;
+	}
+
+	/**
+	 * Gets the batch that draws the graphics, or <code>null</code> if each graphic draws itself.
+	 */
+	public SpriteBatch getSpriteBatch() {
+		return spriteBatch;
+	}
+
+	/**
+	 * Sets the batch that draws the graphics created from now on.
+	 */
+	public void setSpriteBatch(SpriteBatch spriteBatch) {
+		this.spriteBatch = spriteBatch;
+	}
+
+	/**
+	 * Gets the index that finds the nodes at a point or in an area, or <code>null</code> if the nodes aren't indexed.
+	 */
+	public SpatialIndex getSpatialIndex() {
+		return spatialIndex;
+	}
+
+	/**
+	 * Sets the index the nodes attached from now on join.
+	 */
+	public void setSpatialIndex(SpatialIndex spatialIndex) {
+		this.spatialIndex = spatialIndex;
+	}
+
+	/**
+	 * Gets the atlas the graphics take their textures from, or <code>null</code> if each texture is loaded on its own.
+	 */
+	public TextureAtlas getTextureAtlas() {
+		return textureAtlas;
+	}
+
+	/**
+	 * Sets the atlas the graphics created from now on take their textures from.
+	 */
+	public void setTextureAtlas(TextureAtlas textureAtlas) {
+		this.textureAtlas = textureAtlas;
+	}
+
+	/**
+	 * Gets the render states shared by the nodes, or <code>null</code> if the game is headless.
+	 */
+	public synchronized RenderStateCache getRenderStateCache() {
+		if (renderStateCache == null && !isHeadless()) {
+			renderStateCache = new RenderStateCache(DisplaySystem.getDisplaySystem().getRenderer());
+		}
+		return renderStateCache;
+	}
+
 	/**
 	 * Returns the object that keeps track of the states of the user input devices.
 	 */
@@ -99,6 +99,14 @@ public class EventManager implements ActionHandlerManager<ActionHandler<Event>>
 		}
 	}
 
+	/**
+	 * Returns <code>true</code> if any handler listens for the named event, so that callers can skip building events
+	 * nobody will see.
+	 */
+	public boolean hasHandlers(String eventName) {
+		return handlers.containsKey(eventName) || persistentHandlers.containsKey(eventName);
+	}
+
 	/**
 	 * Updates the EventManager, and sends out a tick event.
 	 * 
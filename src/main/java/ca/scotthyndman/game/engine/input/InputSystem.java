@@ -53,6 +53,11 @@ public class InputSystem implements ActionHandlerManager {
 	 */
 	List<AbstractController> controllers = new ArrayList<AbstractController>();
 
+	/**
+	 * Receives each event read from the controllers' queues.
+	 */
+	private final Event event = new Event();
+
 	/**
 	 * A map between component identifiers and game "actions".
 	 */
@@ -84,8 +89,13 @@ public class InputSystem implements ActionHandlerManager {
 			}
 		}
 
-		controllers.add(mouse);
-		controllers.add(keyboard);
+		// A headless machine may have neither
+		if (mouse != null) {
+			controllers.add(mouse);
+		}
+		if (keyboard != null) {
+			controllers.add(keyboard);
+		}
 
 		System.out.println(mouse);
 
@@ -174,20 +184,20 @@ public class InputSystem implements ActionHandlerManager {
 		//
 		// Update the mouse state
 		//
-		float x = mouse.getX().getPollData();
-		float y = mouse.getY().getPollData();
-		if (mouse.getX().isRelative())
-			inputState.translateMousePosition(x, y);
-		else
-			inputState.setMousePosition(x, y);
+		if (mouse != null) {
+			float x = mouse.getX().getPollData();
+			float y = mouse.getY().getPollData();
+			if (mouse.getX().isRelative())
+				inputState.translateMousePosition(x, y);
+			else
+				inputState.setMousePosition(x, y);
+		}
 
 		//
 		// Go through each of the controllers, submitting events.
 		//
-		for (AbstractController ctrl : controllers) {
-			EventQueue queue = ctrl.getEventQueue();
-			Event event = new Event();
-
+		for (int i = 0, len = controllers.size(); i < len; i++) {
+			EventQueue queue = controllers.get(i).getEventQueue();
 			while (queue.getNextEvent(event)) {
 				//
 				// Check if we have actions associated with this
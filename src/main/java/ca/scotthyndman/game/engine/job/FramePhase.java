@@ -0,0 +1,19 @@
+package ca.scotthyndman.game.engine.job;
+
+/**
+ * A point in the frame by which a job must be finished. The game waits at each phase for the jobs submitted with it.
+ * 
+ * @author scottyhyndman
+ */
+public enum FramePhase {
+
+	/**
+	 * The end of the simulation: after input, events, scripts and animation, before the scene is handed on to be drawn.
+	 */
+	SIMULATION,
+
+	/**
+	 * The start of drawing.
+	 */
+	RENDER;
+}
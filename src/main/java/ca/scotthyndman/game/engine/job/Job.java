@@ -0,0 +1,188 @@
+package ca.scotthyndman.game.engine.job;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A piece of work run by a {@link JobSystem}. A job runs once all the jobs it was set to run {@link #after(Job)} have
+ * finished; if one of those failed, the job doesn't run and fails too. A job given a {@link FramePhase} must be
+ * finished by that point in the frame.
+ * <p>
+ * Jobs are timed by type, see {@link JobSystem#getStats()}. The type should name the kind of work, like
+ * <code>"texture decode"</code>, not the particular job.
+ * 
+ * @author scottyhyndman
+ */
+public abstract class Job {
+
+	private final String type;
+	private FramePhase phase;
+
+	/**
+	 * The unfinished dependencies, plus one until the job is submitted.
+	 */
+	private final AtomicInteger pending = new AtomicInteger(1);
+
+	/**
+	 * The jobs waiting for this one, or <code>null</code> once it has finished.
+	 */
+	private ArrayList<Job> dependents = new ArrayList<Job>(0);
+
+	private volatile boolean done;
+	private volatile Throwable failure;
+
+	/* package-private */JobSystem system;
+
+	/**
+	 * Creates a new job.
+	 * 
+	 * @param type
+	 *            the kind of work, under which the job is timed
+	 * @throws IllegalArgumentException
+	 *             if the type is <code>null</code>
+	 */
+	protected Job(String type) {
+		if (type == null) {
+			throw new IllegalArgumentException("A job needs a type");
+		}
+		this.type = type;
+	}
+
+	/**
+	 * Does the work. Called on one of the job system's threads, or on a thread waiting for jobs to finish.
+	 */
+	protected abstract void run() throws Exception;
+
+	//
+	// ======== SETTING UP
+	//
+
+	/**
+	 * Runs this job after another one has finished. Must be called before this job is submitted.
+	 * 
+	 * @return this job
+	 * @throws IllegalStateException
+	 *             if this job has been submitted
+	 */
+	public Job after(Job dependency) {
+		if (system != null) {
+			throw new IllegalStateException("Job already submitted: " + this);
+		}
+
+		synchronized (dependency) {
+			if (dependency.dependents != null) {
+				pending.incrementAndGet();
+				dependency.dependents.add(this);
+				return this;
+			}
+		}
+		if (dependency.failure != null && failure == null) {
+			failure = dependency.failure;
+		}
+		return this;
+	}
+
+	/**
+	 * Makes the job one the game waits for at a point in the frame. Must be called before the job is submitted.
+	 * 
+	 * @return this job
+	 * @throws IllegalStateException
+	 *             if this job has been submitted
+	 */
+	public Job during(FramePhase phase) {
+		if (system != null) {
+			throw new IllegalStateException("Job already submitted: " + this);
+		}
+		this.phase = phase;
+		return this;
+	}
+
+	//
+	// ======== PROPERTIES
+	//
+
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the point in the frame the job must be finished by, or <code>null</code> if the game doesn't wait for it.
+	 */
+	public FramePhase getPhase() {
+		return phase;
+	}
+
+	/**
+	 * Returns <code>true</code> if the job has run, or has failed.
+	 */
+	public boolean isDone() {
+		return done;
+	}
+
+	/**
+	 * Returns what the job, or one of its dependencies, threw, or <code>null</code>.
+	 */
+	public Throwable getFailure() {
+		return failure;
+	}
+
+	@Override
+	public String toString() {
+		return type;
+	}
+
+	//
+	// ======== RUNNING
+	//
+
+	/**
+	 * Called when a dependency finishes, and once on submission. Returns <code>true</code> if the job is now ready to
+	 * run.
+	 */
+	/* package-private */boolean release(Throwable dependencyFailure) {
+		if (dependencyFailure != null && failure == null) {
+			failure = dependencyFailure;
+		}
+		return pending.decrementAndGet() == 0;
+	}
+
+	/**
+	 * Runs the job, unless a dependency failed, and returns the nanoseconds it took.
+	 */
+	/* package-private */long execute() {
+		if (failure != null) {
+			return 0;
+		}
+
+		long start = System.nanoTime();
+		try {
+			run();
+		} catch (Throwable t) {
+			failure = t;
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Marks the job done and returns the jobs that were waiting for it.
+	 */
+	/* package-private */ArrayList<Job> finish() {
+		ArrayList<Job> waiting;
+		synchronized (this) {
+			waiting = dependents;
+			dependents = null;
+			done = true;
+			notifyAll();
+		}
+		return waiting;
+	}
+
+	/**
+	 * Waits until the job is done, or for at most the given time.
+	 */
+	/* package-private */synchronized void waitFor(long millis) throws InterruptedException {
+		if (!done) {
+			wait(millis);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package ca.scotthyndman.game.engine.job;
+
+/**
+ * Timing counters for one type of job.
+ * 
+ * @author scottyhyndman
+ */
+public final class JobStats {
+
+	private final String type;
+	private long count;
+	private long failures;
+	private long totalNanos;
+	private long maxNanos;
+
+	/* package-private */JobStats(String type) {
+		this.type = type;
+	}
+
+	/* package-private */synchronized void record(long nanos, boolean failed) {
+		count++;
+		if (failed) {
+			failures++;
+		}
+		totalNanos += nanos;
+		if (nanos > maxNanos) {
+			maxNanos = nanos;
+		}
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the number of jobs of this type that have finished.
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the number of jobs of this type that failed, or didn't run because a dependency failed.
+	 */
+	public synchronized long getFailures() {
+		return failures;
+	}
+
+	/**
+	 * Returns the time spent running jobs of this type, in nanoseconds.
+	 */
+	public synchronized long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * Returns the longest a job of this type took, in nanoseconds.
+	 */
+	public synchronized long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/**
+	 * Returns the average time a job of this type took, in nanoseconds.
+	 */
+	public synchronized long getAverageNanos() {
+		return count == 0 ? 0 : totalNanos / count;
+	}
+
+	/**
+	 * Zeroes the counters.
+	 */
+	public synchronized void reset() {
+		count = 0;
+		failures = 0;
+		totalNanos = 0;
+		maxNanos = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%s: %d jobs, %.3f ms total, %.3f ms average, %.3f ms max", type, count,
+				totalNanos / 1e6, getAverageNanos() / 1e6, maxNanos / 1e6);
+	}
+}
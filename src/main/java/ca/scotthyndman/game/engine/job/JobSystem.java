@@ -0,0 +1,352 @@
+package ca.scotthyndman.game.engine.job;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Runs the engine's background and per-frame work on a fixed set of worker threads. Each worker keeps its own queue
+ * of jobs, and when it runs out, steals from the others. Jobs submitted from outside the workers go on a shared queue.
+ * <p>
+ * A thread waiting for a job ({@link #await(Job)}) or a frame phase ({@link #awaitPhase(FramePhase)}) runs jobs
+ * itself while it waits, so a system without workers still gets its work done, on the waiting thread. Without workers,
+ * a job that nobody waits for doesn't run.
+ * <p>
+ * A job that fails is counted in its {@link JobStats}, and fails the jobs that depend on it. The first failure of a
+ * frame phase is also thrown by the next {@link #awaitPhase(FramePhase)}, so that per-frame work can't fail unseen.
+ * <p>
+ * The workers are started when the first job is submitted, so a game that never hands out work has no idle threads.
+ * <p>
+ * Scripts still run on the script manager's own thread, and GL work on the render thread through jME's task queues;
+ * neither can move to other threads.
+ * 
+ * @author scottyhyndman
+ */
+public class JobSystem {
+
+	private final Worker[] workers;
+	private final ConcurrentLinkedQueue<Job> shared = new ConcurrentLinkedQueue<Job>();
+	private volatile boolean running = true;
+	private boolean started;
+
+	/**
+	 * Bumped whenever a job is queued, so that a worker going idle can tell whether it missed one.
+	 */
+	private final AtomicInteger version = new AtomicInteger();
+	private final AtomicInteger sleeping = new AtomicInteger();
+	private final Object idle = new Object();
+
+	/**
+	 * The unfinished jobs of each phase.
+	 */
+	private final AtomicInteger[] outstanding;
+
+	/**
+	 * The first failure of each phase since it was last waited for.
+	 */
+	private final AtomicReferenceArray<Throwable> phaseFailures;
+
+	private final ConcurrentHashMap<String, JobStats> stats = new ConcurrentHashMap<String, JobStats>();
+
+	/**
+	 * Creates a job system.
+	 * 
+	 * @param workerCount
+	 *            the number of worker threads. With none, jobs run on the threads that wait for them.
+	 * @throws IllegalArgumentException
+	 *             if the count is negative
+	 */
+	public JobSystem(int workerCount) {
+		if (workerCount < 0) {
+			throw new IllegalArgumentException("The worker count can't be negative, was " + workerCount);
+		}
+
+		outstanding = new AtomicInteger[FramePhase.values().length];
+		for (int i = 0; i < outstanding.length; i++) {
+			outstanding[i] = new AtomicInteger();
+		}
+		phaseFailures = new AtomicReferenceArray<Throwable>(outstanding.length);
+
+		workers = new Worker[workerCount];
+		for (int i = 0; i < workerCount; i++) {
+			workers[i] = new Worker(i);
+		}
+	}
+
+	/**
+	 * Returns the number of worker threads.
+	 */
+	public int getWorkerCount() {
+		return workers.length;
+	}
+
+	/**
+	 * Returns <code>true</code> once the workers have been started, by the first job submitted.
+	 */
+	public synchronized boolean isStarted() {
+		return started;
+	}
+
+	/**
+	 * Stops the workers once they finish the job in hand. Jobs still queued don't run.
+	 */
+	public void shutdown() {
+		synchronized (this) {
+			running = false;
+		}
+		synchronized (idle) {
+			idle.notifyAll();
+		}
+	}
+
+	//
+	// ======== SUBMITTING AND WAITING
+	//
+
+	/**
+	 * Submits a job, which runs as soon as its dependencies have finished.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the job has already been submitted
+	 */
+	public void submit(Job job) {
+		if (job.system != null) {
+			throw new IllegalStateException("Job already submitted: " + job);
+		}
+		job.system = this;
+		if (workers.length > 0) {
+			startWorkers();
+		}
+		if (job.getPhase() != null) {
+			outstanding[job.getPhase().ordinal()].incrementAndGet();
+		}
+		if (job.release(null)) {
+			enqueue(job);
+		}
+	}
+
+	/**
+	 * Waits for a job to finish, running jobs in the meantime.
+	 */
+	public void await(Job job) {
+		while (!job.isDone()) {
+			if (!runOne()) {
+				try {
+					job.waitFor(1);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Waits for the jobs of a frame phase, including any submitted while waiting, running jobs in the meantime.
+	 * 
+	 * @throws RuntimeException
+	 *             the first failure of a job of the phase since the phase was last waited for, wrapped unless it is
+	 *             unchecked. The phase's other jobs have all finished by then.
+	 */
+	public void awaitPhase(FramePhase phase) {
+		AtomicInteger count = outstanding[phase.ordinal()];
+		while (count.get() > 0) {
+			if (!runOne()) {
+				synchronized (count) {
+					if (count.get() > 0) {
+						try {
+							count.wait(1);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							return;
+						}
+					}
+				}
+			}
+		}
+
+		Throwable failure = phaseFailures.getAndSet(phase.ordinal(), null);
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error) {
+			throw (Error) failure;
+		} else if (failure != null) {
+			throw new RuntimeException(failure);
+		}
+	}
+
+	/**
+	 * Returns the number of unfinished jobs of a frame phase.
+	 */
+	public int getOutstanding(FramePhase phase) {
+		return outstanding[phase.ordinal()].get();
+	}
+
+	//
+	// ======== STATISTICS
+	//
+
+	/**
+	 * Returns the timing counters of every type of job run so far.
+	 */
+	public Collection<JobStats> getStats() {
+		return Collections.unmodifiableCollection(stats.values());
+	}
+
+	/**
+	 * Returns the timing counters of a type of job, or <code>null</code> if none has run.
+	 */
+	public JobStats getStats(String type) {
+		return stats.get(type);
+	}
+
+	//
+	// ======== SCHEDULING
+	//
+
+	private synchronized void startWorkers() {
+		if (!started && running) {
+			started = true;
+			for (Worker worker : workers) {
+				worker.start();
+			}
+		}
+	}
+
+	private void enqueue(Job job) {
+		// Without workers the job waits on the shared queue for a thread to await it
+		Thread thread = Thread.currentThread();
+		if (thread instanceof Worker && ((Worker) thread).system() == this) {
+			((Worker) thread).queue.push(job);
+		} else {
+			shared.add(job);
+		}
+
+		version.incrementAndGet();
+		if (sleeping.get() > 0) {
+			synchronized (idle) {
+				idle.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Runs a queued job on the calling thread, if there is one.
+	 */
+	private boolean runOne() {
+		Thread thread = Thread.currentThread();
+		Worker self = thread instanceof Worker && ((Worker) thread).system() == this ? (Worker) thread : null;
+		Job job = take(self);
+		if (job == null) {
+			return false;
+		}
+		execute(job);
+		return true;
+	}
+
+	/**
+	 * Takes a job: the worker's own newest, then the oldest shared, then the oldest of another worker's.
+	 */
+	private Job take(Worker self) {
+		Job job;
+		if (self != null && (job = self.queue.pop()) != null) {
+			return job;
+		}
+		if ((job = shared.poll()) != null) {
+			return job;
+		}
+
+		int start = self == null ? 0 : self.index + 1;
+		for (int i = 0; i < workers.length; i++) {
+			Worker victim = workers[(start + i) % workers.length];
+			if (victim != self && (job = victim.queue.steal()) != null) {
+				return job;
+			}
+		}
+		return null;
+	}
+
+	private void execute(Job job) {
+		long nanos = job.execute();
+		Throwable failure = job.getFailure();
+
+		JobStats s = stats.get(job.getType());
+		if (s == null) {
+			JobStats created = new JobStats(job.getType());
+			s = stats.putIfAbsent(job.getType(), created);
+			if (s == null) {
+				s = created;
+			}
+		}
+		s.record(nanos, failure != null);
+
+		ArrayList<Job> waiting = job.finish();
+		for (int i = 0, len = waiting.size(); i < len; i++) {
+			Job dependent = waiting.get(i);
+			if (dependent.release(failure)) {
+				enqueue(dependent);
+			}
+		}
+
+		if (job.getPhase() != null) {
+			if (failure != null) {
+				phaseFailures.compareAndSet(job.getPhase().ordinal(), null, failure);
+			}
+			AtomicInteger count = outstanding[job.getPhase().ordinal()];
+			if (count.decrementAndGet() == 0) {
+				synchronized (count) {
+					count.notifyAll();
+				}
+			}
+		}
+	}
+
+	//
+	// ======== WORKERS
+	//
+
+	private final class Worker extends Thread {
+
+		final int index;
+		final WorkQueue queue = new WorkQueue();
+
+		Worker(int index) {
+			super("Job worker " + (index + 1));
+			this.index = index;
+			setDaemon(true);
+		}
+
+		JobSystem system() {
+			return JobSystem.this;
+		}
+
+		@Override
+		public void run() {
+			while (running) {
+				int seen = version.get();
+				Job job = take(this);
+				if (job != null) {
+					execute(job);
+					continue;
+				}
+
+				synchronized (idle) {
+					sleeping.incrementAndGet();
+					try {
+						if (running && version.get() == seen) {
+							idle.wait();
+						}
+					} catch (InterruptedException e) {
+						return;
+					} finally {
+						sleeping.decrementAndGet();
+					}
+				}
+			}
+		}
+	}
+}
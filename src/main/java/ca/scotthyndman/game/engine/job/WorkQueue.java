@@ -0,0 +1,55 @@
+package ca.scotthyndman.game.engine.job;
+
+/**
+ * The jobs of one worker thread. The worker takes the job it pushed last, which is likely still in its cache; other
+ * threads steal the oldest.
+ * 
+ * @author scottyhyndman
+ */
+/* package-private */final class WorkQueue {
+
+	private Job[] jobs = new Job[64];
+	private int head;
+	private int size;
+
+	synchronized void push(Job job) {
+		if (size == jobs.length) {
+			Job[] grown = new Job[jobs.length * 2];
+			for (int i = 0; i < size; i++) {
+				grown[i] = jobs[(head + i) % jobs.length];
+			}
+			jobs = grown;
+			head = 0;
+		}
+		jobs[(head + size) % jobs.length] = job;
+		size++;
+	}
+
+	/**
+	 * Takes the newest job, or returns <code>null</code>. Called by the owner.
+	 */
+	synchronized Job pop() {
+		if (size == 0) {
+			return null;
+		}
+		size--;
+		int i = (head + size) % jobs.length;
+		Job job = jobs[i];
+		jobs[i] = null;
+		return job;
+	}
+
+	/**
+	 * Takes the oldest job, or returns <code>null</code>. Called by other threads.
+	 */
+	synchronized Job steal() {
+		if (size == 0) {
+			return null;
+		}
+		Job job = jobs[head];
+		jobs[head] = null;
+		head = (head + 1) % jobs.length;
+		size--;
+		return job;
+	}
+}
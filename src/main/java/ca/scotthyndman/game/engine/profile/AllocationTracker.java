@@ -0,0 +1,77 @@
+package ca.scotthyndman.game.engine.profile;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reads the number of bytes the current thread has allocated, where the JVM can tell. HotSpot can, through its
+ * extension of the thread MX bean; on other JVMs {@link #isSupported()} is <code>false</code> and nothing is measured.
+ * 
+ * @author scottyhyndman
+ */
+public final class AllocationTracker {
+
+	private static final com.sun.management.ThreadMXBean BEAN;
+
+	/**
+	 * The bytes that reading the count allocates itself, if any.
+	 */
+	private static final long OVERHEAD;
+
+	static {
+		com.sun.management.ThreadMXBean bean = null;
+		try {
+			java.lang.management.ThreadMXBean standard = ManagementFactory.getThreadMXBean();
+			if (standard instanceof com.sun.management.ThreadMXBean) {
+				bean = (com.sun.management.ThreadMXBean) standard;
+				if (!bean.isThreadAllocatedMemorySupported()) {
+					bean = null;
+				} else if (!bean.isThreadAllocatedMemoryEnabled()) {
+					bean.setThreadAllocatedMemoryEnabled(true);
+				}
+			}
+		} catch (LinkageError e) {
+			bean = null;
+		} catch (RuntimeException e) {
+			// Unsupported, or not allowed
+			bean = null;
+		}
+		BEAN = bean;
+
+		long overhead = 0;
+		if (BEAN != null) {
+			long id = Thread.currentThread().getId();
+			overhead = Long.MAX_VALUE;
+			for (int i = 0; i < 1000; i++) {
+				long before = BEAN.getThreadAllocatedBytes(id);
+				long after = BEAN.getThreadAllocatedBytes(id);
+				overhead = Math.min(overhead, after - before);
+			}
+		}
+		OVERHEAD = overhead;
+	}
+
+	private AllocationTracker() {
+	}
+
+	/**
+	 * Returns <code>true</code> if allocations can be measured on this JVM.
+	 */
+	public static boolean isSupported() {
+		return BEAN != null;
+	}
+
+	/**
+	 * Returns the number of bytes the current thread has allocated so far, or 0 if that can't be measured.
+	 */
+	public static long getAllocatedBytes() {
+		return BEAN == null ? 0 : BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Returns the bytes allocated between two readings of {@link #getAllocatedBytes()}, less what the readings
+	 * themselves allocate.
+	 */
+	public static long between(long before, long after) {
+		return Math.max(0, after - before - OVERHEAD);
+	}
+}
@@ -0,0 +1,186 @@
+package ca.scotthyndman.game.engine.profile;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The time spent in one part of the frame, and, when the profiler tracks allocations, the bytes allocated. Spans are
+ * added up over a frame, and the totals of the last frames are kept in ring buffers allocated up front, from which the
+ * percentiles are worked out.
+ * 
+ * @author scottyhyndman
+ */
+public final class ProfileSection {
+
+	private final String name;
+
+	/**
+	 * The time spent so far in the current frame.
+	 */
+	private final AtomicLong current = new AtomicLong();
+	private final AtomicLong currentBytes = new AtomicLong();
+
+	/**
+	 * The totals of the last frames, oldest first from <code>next</code> once the ring is full.
+	 */
+	private final long[] frames;
+	private final long[] frameBytes;
+	private int next;
+	private int count;
+
+	/* package-private */ProfileSection(String name, int history) {
+		this.name = name;
+		this.frames = new long[history];
+		this.frameBytes = new long[history];
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Adds a span to the current frame.
+	 */
+	/* package-private */void add(long nanos) {
+		current.addAndGet(nanos);
+	}
+
+	/**
+	 * Adds allocated bytes to the current frame.
+	 */
+	/* package-private */void addBytes(long bytes) {
+		currentBytes.addAndGet(bytes);
+	}
+
+	/**
+	 * Returns the bytes allocated so far in the current frame.
+	 */
+	/* package-private */long getCurrentBytes() {
+		return currentBytes.get();
+	}
+
+	/**
+	 * Moves the current frame's totals into the rings.
+	 */
+	/* package-private */synchronized void endFrame() {
+		frames[next] = current.getAndSet(0);
+		frameBytes[next] = currentBytes.getAndSet(0);
+		next = (next + 1) % frames.length;
+		if (count < frames.length) {
+			count++;
+		}
+	}
+
+	/**
+	 * Returns the number of frames recorded, up to the length of the history.
+	 */
+	public synchronized int getFrameCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the total of the most recent frame, in nanoseconds.
+	 */
+	public synchronized long getLast() {
+		return count == 0 ? 0 : frames[(next + frames.length - 1) % frames.length];
+	}
+
+	/**
+	 * Returns the average over the recorded frames, in nanoseconds.
+	 */
+	public synchronized long getAverage() {
+		if (count == 0) {
+			return 0;
+		}
+		long sum = 0;
+		for (int i = 0; i < count; i++) {
+			sum += frames[i];
+		}
+		return sum / count;
+	}
+
+	/**
+	 * Returns the bytes allocated in the most recent frame.
+	 */
+	public synchronized long getLastBytes() {
+		return count == 0 ? 0 : frameBytes[(next + frames.length - 1) % frames.length];
+	}
+
+	/**
+	 * Returns the average bytes allocated over the recorded frames.
+	 */
+	public synchronized long getAverageBytes() {
+		if (count == 0) {
+			return 0;
+		}
+		long sum = 0;
+		for (int i = 0; i < count; i++) {
+			sum += frameBytes[i];
+		}
+		return sum / count;
+	}
+
+	/**
+	 * Returns the most bytes allocated in any of the recorded frames.
+	 */
+	public synchronized long getMaxBytes() {
+		long max = 0;
+		for (int i = 0; i < count; i++) {
+			max = Math.max(max, frameBytes[i]);
+		}
+		return max;
+	}
+
+	/**
+	 * Returns the time below which the given fraction of the recorded frames fall, in nanoseconds.
+	 * 
+	 * @param fraction
+	 *            between 0 and 1; 0.95 is the 95th percentile
+	 */
+	public long getPercentile(double fraction) {
+		long[] sorted;
+		synchronized (this) {
+			if (count == 0) {
+				return 0;
+			}
+			sorted = new long[count];
+			System.arraycopy(frames, 0, sorted, 0, count);
+		}
+		Arrays.sort(sorted);
+		return percentile(sorted, fraction);
+	}
+
+	/**
+	 * Returns the 50th, 95th and 99th percentiles, in nanoseconds, sorting the frames once.
+	 */
+	public long[] getPercentiles() {
+		long[] sorted;
+		synchronized (this) {
+			if (count == 0) {
+				return new long[3];
+			}
+			sorted = new long[count];
+			System.arraycopy(frames, 0, sorted, 0, count);
+		}
+		Arrays.sort(sorted);
+		return new long[] { percentile(sorted, 0.5), percentile(sorted, 0.95), percentile(sorted, 0.99) };
+	}
+
+	/**
+	 * Forgets the recorded frames.
+	 */
+	public synchronized void reset() {
+		current.set(0);
+		currentBytes.set(0);
+		next = 0;
+		count = 0;
+	}
+
+	/**
+	 * The nearest-rank percentile of sorted values.
+	 */
+	private static long percentile(long[] sorted, double fraction) {
+		int rank = (int) Math.ceil(fraction * sorted.length);
+		return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+	}
+}
@@ -0,0 +1,440 @@
+package ca.scotthyndman.game.engine.profile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Measures where the time in a frame goes. Code marks a span with {@link #start()} and {@link #end(ProfileSection,
+ * long)}; the spans of each section are added up over the frame, and {@link #endFrame()} records the totals. The last
+ * frames of each section are kept, for averages and percentiles.
+ * <p>
+ * When the profiler is off, which is the default, {@link #start()} returns 0 without reading the clock and
+ * {@link #end(ProfileSection, long)} returns right away, so the marks can be left in place.
+ * <p>
+ * The profiler can also track the bytes each section allocates, where the JVM can measure it (see
+ * {@link AllocationTracker}), and log the frames that allocate more than a budget. That costs more than timing, so it
+ * is switched on separately.
+ * <p>
+ * A game that simulates on a thread of its own has two timelines, whose frames begin and end apart: the render
+ * thread's, kept by this profiler, and the simulation thread's, kept by {@link #getSimulationProfiler()}. The
+ * simulation timeline is switched on and off along with this one, and shares its allocation budget; each timeline
+ * checks its own frames against the budget.
+ * 
+ * <pre>
+ * long start = profiler.start();
+ * input.update(tpf);
+ * profiler.end(inputSection, start);
+ * </pre>
+ * 
+ * @author scottyhyndman
+ */
+public class Profiler {
+
+	/**
+	 * The number of frames kept by default.
+	 */
+	public static final int DEFAULT_HISTORY = 300;
+
+	private final int history;
+	private volatile boolean enabled;
+
+	/**
+	 * The profiler whose switches this one follows: itself, or the one whose simulation timeline this is.
+	 */
+	private final Profiler owner;
+
+	/**
+	 * The simulation thread's timeline, or <code>null</code> until it is asked for.
+	 */
+	private volatile Profiler simulation;
+
+	/**
+	 * What a frame is called in the log: "Frame", or "Simulation frame".
+	 */
+	private final String frameName;
+
+	/**
+	 * The sections by name, and in the order they were added.
+	 */
+	private final ConcurrentHashMap<String, ProfileSection> sectionsByName = new ConcurrentHashMap<String, ProfileSection>();
+	private volatile ProfileSection[] sections = new ProfileSection[0];
+
+	/**
+	 * The sections of each type of updatable.
+	 */
+	private final ConcurrentHashMap<Class<?>, ProfileSection> sectionsByType = new ConcurrentHashMap<Class<?>, ProfileSection>();
+
+	/**
+	 * The whole frame, from one call to {@link #endFrame()} to the next.
+	 */
+	private final ProfileSection frame;
+	private long frameStart;
+
+	private static final Logger logger = Logger.getLogger(Profiler.class.getName());
+
+	private volatile boolean trackingAllocations;
+	private volatile long allocationBudget;
+	private long frameStartBytes;
+	private long framesOverBudget;
+
+	/**
+	 * The allocated bytes at the start of each open span, on each thread.
+	 */
+	private final ThreadLocal<ByteMarks> byteMarks = new ThreadLocal<ByteMarks>() {
+		@Override
+		protected ByteMarks initialValue() {
+			return new ByteMarks();
+		}
+	};
+
+	public Profiler() {
+		this(DEFAULT_HISTORY);
+	}
+
+	/**
+	 * Creates a profiler.
+	 * 
+	 * @param history
+	 *            the number of frames to keep
+	 * @throws IllegalArgumentException
+	 *             if the history is less than one frame
+	 */
+	public Profiler(int history) {
+		this(history, null);
+	}
+
+	private Profiler(int history, Profiler owner) {
+		if (history < 1) {
+			throw new IllegalArgumentException("The history must be at least one frame, was " + history);
+		}
+		this.history = history;
+		this.owner = owner == null ? this : owner;
+		this.frameName = owner == null ? "Frame" : "Simulation frame";
+		this.frame = getSection("frame");
+	}
+
+	/**
+	 * Returns the timeline of the simulation thread, adding it if need be. Its frames are ended by that thread, apart
+	 * from the render thread's. On the simulation timeline itself, returns itself.
+	 */
+	public Profiler getSimulationProfiler() {
+		if (owner != this) {
+			return this;
+		}
+		Profiler s = simulation;
+		if (s == null) {
+			synchronized (this) {
+				s = simulation;
+				if (s == null) {
+					s = simulation = new Profiler(history, this);
+				}
+			}
+		}
+		return s;
+	}
+
+	//
+	// ======== SWITCHING ON AND OFF
+	//
+
+	public boolean isEnabled() {
+		return owner.enabled;
+	}
+
+	/**
+	 * Switches the profiler, and its simulation timeline, on or off. Can be called from any thread.
+	 */
+	public void setEnabled(boolean enabled) {
+		owner.enabled = enabled;
+	}
+
+	public boolean isTrackingAllocations() {
+		return owner.trackingAllocations;
+	}
+
+	/**
+	 * Switches allocation tracking on or off, on both timelines. Has no effect unless the profiler is on, and
+	 * {@link AllocationTracker#isSupported()}.
+	 */
+	public void setTrackingAllocations(boolean trackingAllocations) {
+		owner.trackingAllocations = trackingAllocations && AllocationTracker.isSupported();
+	}
+
+	/**
+	 * Returns the bytes a frame may allocate before it is logged, or 0 for no limit. The render and simulation
+	 * timelines each check their own frames, since each thread allocates apart.
+	 */
+	public long getAllocationBudget() {
+		return owner.allocationBudget;
+	}
+
+	public void setAllocationBudget(long allocationBudget) {
+		owner.allocationBudget = allocationBudget;
+	}
+
+	/**
+	 * Returns the number of frames of this timeline that went over the allocation budget.
+	 */
+	public synchronized long getFramesOverBudget() {
+		return framesOverBudget;
+	}
+
+	//
+	// ======== MEASURING
+	//
+
+	/**
+	 * Returns the section with the given name, adding it if need be. Sections are kept for good, so callers should hold
+	 * on to the ones they use.
+	 */
+	public ProfileSection getSection(String name) {
+		ProfileSection section = sectionsByName.get(name);
+		if (section == null) {
+			synchronized (this) {
+				section = sectionsByName.get(name);
+				if (section == null) {
+					section = new ProfileSection(name, history);
+					ProfileSection[] grown = new ProfileSection[sections.length + 1];
+					System.arraycopy(sections, 0, grown, 0, sections.length);
+					grown[sections.length] = section;
+					sections = grown;
+					sectionsByName.put(name, section);
+				}
+			}
+		}
+		return section;
+	}
+
+	/**
+	 * Returns the section for updating objects of the given type, named after the class.
+	 */
+	public ProfileSection getSection(Class<?> type) {
+		ProfileSection section = sectionsByType.get(type);
+		if (section == null) {
+			String name = type.getSimpleName();
+			section = getSection("update " + (name.length() == 0 ? type.getName() : name));
+			sectionsByType.put(type, section);
+		}
+		return section;
+	}
+
+	/**
+	 * Starts a span. Returns the time, or 0 if the profiler is off.
+	 */
+	public long start() {
+		if (!owner.enabled) {
+			return 0;
+		}
+		if (owner.trackingAllocations) {
+			byteMarks.get().push(AllocationTracker.getAllocatedBytes());
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Ends a span begun with {@link #start()}, adding it to a section.
+	 */
+	public void end(ProfileSection section, long start) {
+		if (start != 0) {
+			section.add(System.nanoTime() - start);
+			if (owner.trackingAllocations) {
+				ByteMarks marks = byteMarks.get();
+				if (marks.depth > 0) {
+					section.addBytes(AllocationTracker.between(marks.pop(), AllocationTracker.getAllocatedBytes()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Ends a span and starts the next one at the same moment. Returns the new start, or 0 if the profiler is off.
+	 */
+	public long split(ProfileSection section, long start) {
+		if (start == 0) {
+			return 0;
+		}
+		long now = System.nanoTime();
+		section.add(now - start);
+		if (owner.trackingAllocations) {
+			ByteMarks marks = byteMarks.get();
+			if (marks.depth > 0) {
+				long bytes = AllocationTracker.getAllocatedBytes();
+				section.addBytes(AllocationTracker.between(marks.pop(), bytes));
+				marks.push(AllocationTracker.getAllocatedBytes());
+			}
+		}
+		return now;
+	}
+
+	/**
+	 * Records the totals of the frame that just ended, and starts the next. Called once a frame, by the thread whose
+	 * timeline this is.
+	 */
+	public void endFrame() {
+		if (!owner.enabled) {
+			frameStart = 0;
+			return;
+		}
+
+		boolean tracking = owner.trackingAllocations;
+		long bytes = tracking ? AllocationTracker.getAllocatedBytes() : 0;
+		long now = System.nanoTime();
+		if (frameStart != 0) {
+			frame.add(now - frameStart);
+			if (tracking && frameStartBytes != 0) {
+				long allocated = AllocationTracker.between(frameStartBytes, bytes);
+				frame.addBytes(allocated);
+				long budget = owner.allocationBudget;
+				if (budget > 0 && allocated > budget) {
+					overBudget(allocated, budget);
+				}
+			}
+
+			ProfileSection[] s = sections;
+			for (int i = 0; i < s.length; i++) {
+				s[i].endFrame();
+			}
+		}
+		frameStart = now;
+
+		// Spans left open by switching tracking on or off mid-frame are dropped
+		byteMarks.get().depth = 0;
+		frameStartBytes = tracking ? AllocationTracker.getAllocatedBytes() : 0;
+	}
+
+	/**
+	 * Logs a frame that went over the allocation budget, with the sections that allocated the most.
+	 */
+	private void overBudget(long allocated, long budget) {
+		synchronized (this) {
+			framesOverBudget++;
+		}
+
+		ProfileSection[] s = sections;
+		ProfileSection[] worst = new ProfileSection[3];
+		for (int i = 0; i < s.length; i++) {
+			if (s[i] == frame) {
+				continue;
+			}
+			ProfileSection section = s[i];
+			for (int j = 0; j < worst.length && section != null; j++) {
+				if (worst[j] == null || section.getCurrentBytes() > worst[j].getCurrentBytes()) {
+					ProfileSection displaced = worst[j];
+					worst[j] = section;
+					section = displaced;
+				}
+			}
+		}
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(frameName).append(" allocated ").append(allocated).append(" bytes, over the budget of ").append(budget);
+		for (int i = 0; i < worst.length; i++) {
+			if (worst[i] != null && worst[i].getCurrentBytes() > 0) {
+				sb.append(i == 0 ? "; " : ", ").append(worst[i].getName()).append(": ")
+						.append(worst[i].getCurrentBytes());
+			}
+		}
+		logger.warning(sb.toString());
+	}
+
+	//
+	// ======== RESULTS
+	//
+
+	/**
+	 * Returns the sections, in the order they were added.
+	 */
+	public List<ProfileSection> getSections() {
+		List<ProfileSection> list = new ArrayList<ProfileSection>();
+		Collections.addAll(list, sections);
+		return list;
+	}
+
+	/**
+	 * Forgets the recorded frames of every section, on both timelines.
+	 */
+	public void reset() {
+		ProfileSection[] s = sections;
+		for (int i = 0; i < s.length; i++) {
+			s[i].reset();
+		}
+		frameStart = 0;
+		synchronized (this) {
+			framesOverBudget = 0;
+		}
+
+		Profiler sim = simulation;
+		if (sim != null) {
+			sim.reset();
+		}
+	}
+
+	/**
+	 * Returns a table of the sections that took any time, slowest first, in milliseconds. The simulation timeline, if
+	 * any, follows in a table of its own.
+	 */
+	public String report() {
+		List<ProfileSection> list = getSections();
+		final long[][] percentiles = new long[list.size()][];
+		for (int i = 0; i < list.size(); i++) {
+			percentiles[i] = list.get(i).getPercentiles();
+		}
+
+		List<Integer> order = new ArrayList<Integer>();
+		for (int i = 0; i < list.size(); i++) {
+			if (percentiles[i][2] > 0) {
+				order.add(i);
+			}
+		}
+		Collections.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				long pa = percentiles[a][1], pb = percentiles[b][1];
+				return pa < pb ? 1 : pa > pb ? -1 : 0;
+			}
+		});
+
+		boolean tracking = owner.trackingAllocations;
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-40s %9s %9s %9s", "section (ms)", "p50", "p95", "p99"));
+		sb.append(tracking ? String.format(" %12s%n", "bytes/frame") : String.format("%n"));
+		for (int i : order) {
+			ProfileSection section = list.get(i);
+			sb.append(String.format("%-40s %9.3f %9.3f %9.3f", section.getName(), percentiles[i][0] / 1e6,
+					percentiles[i][1] / 1e6, percentiles[i][2] / 1e6));
+			sb.append(tracking ? String.format(" %12d%n", section.getAverageBytes()) : String.format("%n"));
+		}
+		sb.append(String.format("%d frames", frame.getFrameCount()));
+
+		Profiler sim = simulation;
+		if (sim != null) {
+			sb.append(String.format("%n%nsimulation thread%n")).append(sim.report());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * A stack of allocation counts, one per open span.
+	 */
+	private static final class ByteMarks {
+
+		long[] marks = new long[16];
+		int depth;
+
+		void push(long bytes) {
+			if (depth == marks.length) {
+				long[] grown = new long[marks.length * 2];
+				System.arraycopy(marks, 0, grown, 0, depth);
+				marks = grown;
+			}
+			marks[depth++] = bytes;
+		}
+
+		long pop() {
+			return marks[--depth];
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package ca.scotthyndman.game.engine.scene;
+
+import com.jme.renderer.Renderer;
+import com.jme.scene.state.BlendState;
+
+/**
+ * How a {@link Graphic} is blended with what is behind it.
+ * 
+ * @author scottyhyndman
+ */
+public enum BlendMode {
+
+	/**
+	 * Drawn over what is behind, by its alpha.
+	 */
+	ALPHA(BlendState.DestinationFunction.OneMinusSourceAlpha),
+
+	/**
+	 * Added to what is behind, by its alpha. Good for glows and sparks.
+	 */
+	ADDITIVE(BlendState.DestinationFunction.One);
+
+	private final BlendState.DestinationFunction destination;
+
+	private BlendMode(BlendState.DestinationFunction destination) {
+		this.destination = destination;
+	}
+
+	/**
+	 * Sets up a blend state to blend this way.
+	 */
+	public void apply(BlendState state) {
+		state.setBlendEnabled(true);
+		state.setSourceFunction(BlendState.SourceFunction.SourceAlpha);
+		state.setDestinationFunction(destination);
+		state.setTestEnabled(true);
+		state.setTestFunction(BlendState.TestFunction.GreaterThan);
+		state.setEnabled(true);
+	}
+
+	/**
+	 * Creates a blend state that blends this way.
+	 */
+	public BlendState createState(Renderer renderer) {
+		BlendState state = renderer.createBlendState();
+		apply(state);
+		return state;
+	}
+}
@@ -3,14 +3,23 @@ package ca.scotthyndman.game.engine.scene;
 import java.net.URL;
 
 import ca.scotthyndman.game.engine.animation.Real;
+import ca.scotthyndman.game.engine.entity.Env;
+import ca.scotthyndman.game.engine.texture.AtlasRegion;
+import ca.scotthyndman.game.engine.texture.TextureAtlas;
 
 import com.jme.image.Texture;
 import com.jme.scene.Spatial;
-import com.jme.scene.shape.Quad;
 import com.jme.scene.state.TextureState;
 import com.jme.util.TextureManager;
 import com.jme.util.resource.ResourceLocatorTool;
 
+/**
+ * A positioned that shows a texture on a quad. If the game has a {@link TextureAtlas} holding the texture, the graphic
+ * shows its region of the atlas page instead. If the game has a {@link SpriteBatch}, the batch draws the graphic, and
+ * the graphic has no render states of its own.
+ * 
+ * @author scottyhyndman
+ */
 public class Graphic extends Positioned {
 
 	/**
@@ -23,6 +32,11 @@ public class Graphic extends Positioned {
 	 */
 	private TextureState textureState;
 
+	/**
+	 * The region of the atlas page the graphic shows, or <code>null</code> if it shows the whole texture.
+	 */
+	private AtlasRegion region;
+
 	/**
 	 * Creates a new graphic.
 	 * 
@@ -44,8 +58,27 @@ public class Graphic extends Positioned {
 	 *            the y coordinate
 	 */
 	public Graphic(String textureName, float x, float y) {
-		this(TextureManager.loadTexture(urlForPath(textureName), Texture.MinificationFilter.BilinearNoMipMaps,
-				Texture.MagnificationFilter.Bilinear, 1.0f, true), x, y);
+		this(textureName, regionFor(textureName), x, y);
+	}
+
+	private Graphic(String textureName, AtlasRegion region, float x, float y) {
+		this(region != null ? region.getTexture() : TextureManager.loadTexture(urlForPath(textureName),
+				Texture.MinificationFilter.BilinearNoMipMaps, Texture.MagnificationFilter.Bilinear, 1.0f, true), region,
+				x, y);
+	}
+
+	/**
+	 * Creates a new graphic showing a texture packed in an atlas.
+	 * 
+	 * @param region
+	 *            the texture's region of the atlas
+	 * @param x
+	 *            the x coordinate
+	 * @param y
+	 *            the y coordinate
+	 */
+	public Graphic(AtlasRegion region, float x, float y) {
+		this(region.getTexture(), region, x, y);
 	}
 
 	/**
@@ -59,23 +92,37 @@ public class Graphic extends Positioned {
 	 *            the y coordinate
 	 */
 	public Graphic(Texture texture, float x, float y) {
+		this(texture, null, x, y);
+	}
+
+	private Graphic(Texture texture, AtlasRegion region, float x, float y) {
 		super("", x, y);
 
-		name = texture.getTextureKey().getLocation().getFile();
+		if (region != null) {
+			name = region.getName();
+		} else {
+			name = texture.getTextureKey().getLocation().getFile();
+		}
 		name = name.substring(name.lastIndexOf('/') + 1);
-		
-		
+
 		this.texture = texture;
-		textureState = renderer.createTextureState();
-		textureState.setTexture(texture);
+		this.region = region;
+		SpriteQuad quad = (SpriteQuad) spatial;
+		quad.texture = texture;
 
 		// Get the width and height
-		float width = texture.getImage().getWidth();
-		float height = texture.getImage().getHeight();
+		float width = region != null ? region.getWidth() : texture.getImage().getWidth();
+		float height = region != null ? region.getHeight() : texture.getImage().getHeight();
 
 		// Create the quad that displays the texture
-		((Quad) spatial).resize(width, height);
-		spatial.setRenderState(textureState);
+		quad.resize(width, height);
+		if (region != null) {
+			quad.setRegion(region.getU0(), region.getV0(), region.getU1(), region.getV1());
+		}
+		if (renderer != null && !quad.batched) {
+			textureState = Env.getInstance().getRenderStateCache().getTextureState(texture);
+			spatial.setRenderState(textureState);
+		}
 
 		// Update geometry
 		spatial.updateGeometricState(0, true);
@@ -87,21 +134,84 @@ public class Graphic extends Positioned {
 	 */
 	@Override
 	protected Spatial constructSpatial(Real x, Real y) {
-		Quad spatial = new Quad(this.name);
+		SpriteQuad spatial = new SpriteQuad(this.name, Env.getInstance().getSpriteBatch() != null);
 		spatial.setLocalTranslation(x.get(), y.get(), 0f);
 		spatial.updateGeometricState(0f, true);
 
-		enableAlpha(spatial);
+		if (!spatial.batched) {
+			enableAlpha(spatial);
+		}
 		return spatial;
 	}
-	
+
 	/**
-	 * Returns the texture.
+	 * Shows the graphic at an alpha: through the batch's vertex colors when it is batched, otherwise through its own.
+	 */
+	@Override
+	protected void showAlpha(float alpha) {
+		SpriteQuad quad = (SpriteQuad) spatial;
+		quad.alpha = alpha;
+		if (!quad.batched) {
+			super.showAlpha(alpha);
+		}
+	}
+
+	@Override
+	protected float getHalfWidth() {
+		return ((SpriteQuad) spatial).halfWidth;
+	}
+
+	@Override
+	protected float getHalfHeight() {
+		return ((SpriteQuad) spatial).halfHeight;
+	}
+
+	/**
+	 * Returns how the graphic is blended with what is behind it.
+	 */
+	public BlendMode getBlendMode() {
+		return ((SpriteQuad) spatial).blendMode;
+	}
+
+	/**
+	 * Sets how the graphic is blended with what is behind it.
+	 */
+	public void setBlendMode(final BlendMode blendMode) {
+		SnapshotBuffer.changeScene(new Runnable() {
+			public void run() {
+				SpriteQuad quad = (SpriteQuad) spatial;
+				quad.blendMode = blendMode;
+				if (renderer != null && !quad.batched) {
+					quad.setRenderState(Env.getInstance().getRenderStateCache().getBlendState(blendMode));
+					quad.updateRenderState();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Returns the texture, which is an atlas page if the graphic shows a region of an atlas.
 	 */
 	public Texture getTexture() {
 		return texture;
 	}
 
+	/**
+	 * Returns the region of the atlas the graphic shows, or <code>null</code> if it shows a whole texture.
+	 */
+	public AtlasRegion getRegion() {
+		return region;
+	}
+
+	/**
+	 * Returns the region of the game's atlas holding a texture, or <code>null</code> if there is no atlas, or the
+	 * texture isn't in it.
+	 */
+	private static AtlasRegion regionFor(String textureName) {
+		TextureAtlas atlas = Env.getInstance().getTextureAtlas();
+		return atlas == null ? null : atlas.getRegion(textureName);
+	}
+
 	/**
 	 * Returns the URL for a texture path.
 	 * 
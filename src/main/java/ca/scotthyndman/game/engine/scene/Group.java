@@ -68,6 +68,19 @@ public class Group extends Positioned implements Iterable<Positioned> {
 		return spatial;
 	}
 
+	/**
+	 * Fades the nodes under the group with it, as a group's spatial has no vertex color of its own.
+	 */
+	@Override
+	protected void showAlpha(float alpha) {
+		super.showAlpha(alpha);
+		if (children != null) {
+			for (int i = 0, len = children.size(); i < len; i++) {
+				children.get(i).setParentAlpha(alpha);
+			}
+		}
+	}
+
 	//
 	// ======== POSITIONED LIST
 	//
@@ -124,7 +137,7 @@ public class Group extends Positioned implements Iterable<Positioned> {
 	 * Adds a Sprite to this Group. The Sprite is added so it appears above all other sprites in this Group. If this
 	 * Sprite already belongs to a Group, it is first removed from that Group before added to this one.
 	 */
-	public void add(Positioned sprite) {
+	public void add(final Positioned sprite) {
 		System.out.println(this + ", " + sprite);
 		if (children == null) {
 			children = new ArrayList<Positioned>(4);
@@ -138,7 +151,16 @@ public class Group extends Positioned implements Iterable<Positioned> {
 		children.add(sprite);
 		sprite.setParent(this);
 		sprite.rooted = rooted;
-		((Node) getContent()).attachChild(sprite.getTopNode());
+		SnapshotBuffer snapshots = Env.getInstance().getSnapshotBuffer();
+		if (snapshots == null) {
+			attachSpatial(sprite, -1);
+		} else {
+			snapshots.invokeLater(new Runnable() {
+				public void run() {
+					attachSpatial(sprite, -1);
+				}
+			});
+		}
 
 		UpdateManager mgr = Env.getInstance().getUpdateManager();
 		if (parent == null) {
@@ -154,7 +176,7 @@ public class Group extends Positioned implements Iterable<Positioned> {
 	 * is greater than or equal to {@link #size()}, the sprite is inserted at position {@link #size()} (the top in the
 	 * z-order).
 	 */
-	public void add(int index, Positioned sprite) {
+	public void add(final int index, final Positioned sprite) {
 		if (children == null) {
 			children = new ArrayList<Positioned>(4);
 		}
@@ -165,8 +187,18 @@ public class Group extends Positioned implements Iterable<Positioned> {
 		}
 
 		children.add(index, sprite);
+		sprite.setParent(this);
 		sprite.rooted = rooted;
-		((Node) getContent()).attachChildAt(sprite.getTopNode(), index);
+		SnapshotBuffer snapshots = Env.getInstance().getSnapshotBuffer();
+		if (snapshots == null) {
+			attachSpatial(sprite, index);
+		} else {
+			snapshots.invokeLater(new Runnable() {
+				public void run() {
+					attachSpatial(sprite, index);
+				}
+			});
+		}
 
 		UpdateManager mgr = Env.getInstance().getUpdateManager();
 		if (parent == null) {
@@ -184,18 +216,27 @@ public class Group extends Positioned implements Iterable<Positioned> {
 	/**
 	 * Removes a spatial from this Group.
 	 */
-	public void remove(Positioned sprite, boolean updateChange) {
+	public void remove(final Positioned sprite, boolean updateChange) {
 		if (children == null) {
 			return;
 		}
 
-		int index = children.indexOf(sprite);
+		final int index = children.indexOf(sprite);
 		if (index != -1) {
 			children.remove(index);
 			sprite.setParent(null);
 			sprite.rooted = false;
-			((Node) getContent()).detachChildAt(index);
-			
+			SnapshotBuffer snapshots = Env.getInstance().getSnapshotBuffer();
+			if (snapshots == null) {
+				detachSpatial(sprite, index);
+			} else {
+				snapshots.invokeLater(new Runnable() {
+					public void run() {
+						detachSpatial(sprite, index);
+					}
+				});
+			}
+
 			if (updateChange) {
 				UpdateManager mgr = Env.getInstance().getUpdateManager();
 				mgr.updatableWasRemoved(sprite);
@@ -219,8 +260,75 @@ public class Group extends Positioned implements Iterable<Positioned> {
 			mgr.updatableWasRemoved(p);
 		}
 
+		SnapshotBuffer snapshots = Env.getInstance().getSnapshotBuffer();
+		if (snapshots == null) {
+			detachSpatials(children);
+			children.clear();
+			return;
+		}
+
+		final List<Positioned> removed = new ArrayList<Positioned>(children);
 		children.clear();
+		snapshots.invokeLater(new Runnable() {
+			public void run() {
+				detachSpatials(removed);
+			}
+		});
+	}
+
+	//
+	// ======== SPATIALS
+	//
+	// With a snapshot buffer these run on the render thread
+	//
+
+	/**
+	 * Attaches a child's spatial to this group's, at an index or, if the index is negative, on top.
+	 */
+	private void attachSpatial(Positioned sprite, int index) {
+		if (index < 0) {
+			((Node) getContent()).attachChild(sprite.getTopNode());
+		} else {
+			((Node) getContent()).attachChildAt(sprite.getTopNode(), index);
+		}
+		sprite.attached();
+	}
+
+	/**
+	 * Detaches the spatial of the child that was at an index.
+	 */
+	private void detachSpatial(Positioned sprite, int index) {
+		((Node) getContent()).detachChildAt(index);
+		sprite.detached();
+		boundsChanged();
+	}
+
+	/**
+	 * Detaches the spatials of all the children, which were the ones given.
+	 */
+	private void detachSpatials(List<Positioned> removed) {
 		((Node) getContent()).detachAllChildren();
+		for (int i = 0, len = removed.size(); i < len; i++) {
+			removed.get(i).detached();
+		}
+		boundsChanged();
+	}
+
+	/**
+	 * Swaps the spatials of two children.
+	 */
+	private void swapSpatials(int a, int b) {
+		((Node) getContent()).swapChildren(a, b);
+	}
+
+	/**
+	 * Called when a child is detached, so that the frame's transform pass, if any, refreshes this group's bounds.
+	 */
+	private void boundsChanged() {
+		TransformPass pass = Env.getInstance().getTransformPass();
+		if (pass != null) {
+			pass.markBoundsDirty((Node) getContent());
+		}
 	}
 
 	/**
@@ -231,7 +339,7 @@ public class Group extends Positioned implements Iterable<Positioned> {
 	 * @param relative
 	 */
 	private void move(Positioned sprite, int position, boolean relative) {
-		int oldPosition = children.indexOf(sprite);
+		final int oldPosition = children.indexOf(sprite);
 		if (oldPosition != -1) {
 			if (relative) {
 				position += oldPosition;
@@ -248,7 +356,17 @@ public class Group extends Positioned implements Iterable<Positioned> {
 				children.remove(oldPosition);
 				children.add(oldPosition, c1);
 
-				((Node) getContent()).swapChildren(position, oldPosition);
+				SnapshotBuffer snapshots = Env.getInstance().getSnapshotBuffer();
+				if (snapshots == null) {
+					swapSpatials(position, oldPosition);
+				} else {
+					final int newPosition = position;
+					snapshots.invokeLater(new Runnable() {
+						public void run() {
+							swapSpatials(newPosition, oldPosition);
+						}
+					});
+				}
 			}
 		}
 	}
@@ -0,0 +1,301 @@
+package ca.scotthyndman.game.engine.scene;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import ca.scotthyndman.game.engine.entity.Env;
+import ca.scotthyndman.game.engine.job.Job;
+import ca.scotthyndman.game.engine.job.JobSystem;
+
+import com.jme.scene.Node;
+import com.jme.scene.Spatial;
+
+/**
+ * Spreads the scene graph update over several threads. An {@link UpdateScheduler} given one of these evaluates the
+ * properties and local transforms of its nodes in parallel, in slices of at least {@link #getThreshold()} nodes, and
+ * then finishes the nodes that need it - new pivots, render states - one at a time, in order.
+ * {@link #updateGeometricState(Node, float)} then computes the world transforms, handing out the subtrees under the
+ * root, and under any group with at least {@link #getThreshold()} children, to different threads.
+ * <p>
+ * Nodes are updated independently of one another, so the results don't depend on the number of threads. Properties
+ * bound to properties of other nodes must be managed by an
+ * {@link ca.scotthyndman.game.engine.animation.AnimationSystem}, which evaluates them before the nodes are updated.
+ * <p>
+ * An {@link ca.scotthyndman.game.engine.animation.AnimationSystem} given the updater advances its behaviors on the same
+ * threads.
+ * <p>
+ * The simulation and render threads may share an updater; they take turns with its threads.
+ *
+ * @author scottyhyndman
+ */
+public class ParallelUpdater {
+
+	/**
+	 * The fewest subtrees worth handing to a thread, in {@link #updateSubtrees(List, float)}.
+	 */
+	private static final int SUBTREES_PER_SLICE = 16;
+
+	private final JobSystem jobs;
+	private final boolean ownsJobs;
+	private final int threadCount;
+	private final int threshold;
+
+	private final ArrayList<SliceJob> slices = new ArrayList<SliceJob>();
+
+	/**
+	 * Whether each class of node seen so far can be updated in parallel.
+	 */
+	private final HashMap<Class<?>, Boolean> parallelTypes = new HashMap<Class<?>, Boolean>();
+
+	/**
+	 * The subtrees handed out by {@link #updateGeometricState(Node, float)}, and the groups split to get them.
+	 */
+	private final ArrayList<Spatial> subtrees = new ArrayList<Spatial>();
+	private final ArrayList<Node> split = new ArrayList<Node>();
+
+	/**
+	 * Creates a new updater with threads of its own.
+	 *
+	 * @param threadCount
+	 *            the number of threads to update with, including the one calling the updater
+	 * @param threshold
+	 *            the fewest nodes worth handing to a thread
+	 * @throws IllegalArgumentException
+	 *             if either number is less than one
+	 */
+	public ParallelUpdater(int threadCount, int threshold) {
+		// Checked again below, but before the job system is made
+		this(threadCount < 1 || threshold < 1 ? null : new JobSystem(threadCount - 1), threadCount, threshold, true);
+	}
+
+	/**
+	 * Creates a new updater that runs on the workers of a job system.
+	 *
+	 * @param threadCount
+	 *            the most threads to update with, including the one calling the updater
+	 * @param threshold
+	 *            the fewest nodes worth handing to a thread
+	 * @throws IllegalArgumentException
+	 *             if either number is less than one
+	 */
+	public ParallelUpdater(JobSystem jobs, int threadCount, int threshold) {
+		this(jobs, threadCount, threshold, false);
+	}
+
+	private ParallelUpdater(JobSystem jobs, int threadCount, int threshold, boolean ownsJobs) {
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("At least one thread is needed, was " + threadCount);
+		}
+		if (threshold < 1) {
+			throw new IllegalArgumentException("The threshold must be at least 1, was " + threshold);
+		}
+
+		this.jobs = jobs;
+		this.ownsJobs = ownsJobs;
+		this.threadCount = Math.min(threadCount, jobs.getWorkerCount() + 1);
+		this.threshold = threshold;
+	}
+
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	public int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Stops the threads, if the updater has its own.
+	 */
+	public void shutdown() {
+		if (ownsJobs) {
+			jobs.shutdown();
+		}
+	}
+
+	//
+	// ======== UPDATING NODES
+	//
+
+	/**
+	 * Runs the first part of the update of the listed nodes, in parallel.
+	 *
+	 * @param finish
+	 *            filled in with whether each node needs the second part of its update
+	 */
+	/* package-private */synchronized void updateState(final List<Positioned> nodes, final UpdateScheduler scheduler,
+			final boolean[] serial, final boolean[] finish, final float tpf) {
+		forEach(nodes.size(), threshold, new Slice() {
+			public void run(int from, int to) {
+				for (int i = from; i < to; i++) {
+					Positioned p = nodes.get(i);
+					finish[i] = !serial[i] && p.scheduler == scheduler && p.updateState(tpf);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Returns <code>true</code> if the node can be updated in parallel, that is, if its class doesn't override
+	 * {@link Positioned#update(Env, float)}. Called on one thread only.
+	 */
+	/* package-private */boolean canUpdateInParallel(Positioned positioned) {
+		Class<?> type = positioned.getClass();
+		Boolean safe = parallelTypes.get(type);
+		if (safe == null) {
+			try {
+				safe = type.getMethod("update", Env.class, float.class).getDeclaringClass() == Positioned.class;
+			} catch (NoSuchMethodException e) {
+				safe = false;
+			}
+			parallelTypes.put(type, safe);
+		}
+		return safe;
+	}
+
+	//
+	// ======== UPDATING WORLD TRANSFORMS
+	//
+
+	/**
+	 * Updates the world transforms and bounds of a scene graph, like
+	 * <code>root.updateGeometricState(tpf, true)</code>. The subtrees under the root and under large groups are updated
+	 * in parallel; the jME controllers of the root and of the groups split up aren't run.
+	 */
+	public synchronized void updateGeometricState(Node root, final float tpf) {
+		if (threadCount == 1 || root.getQuantity() == 0) {
+			root.updateGeometricState(tpf, true);
+			return;
+		}
+
+		// Top down, so that the split groups' world transforms are ready before their children need them
+		root.updateWorldVectors();
+		split.add(root);
+		for (int i = 0; i < split.size(); i++) {
+			List<Spatial> children = split.get(i).getChildren();
+			for (int j = 0, len = children.size(); j < len; j++) {
+				Spatial child = children.get(j);
+				if (child instanceof Node && ((Node) child).getQuantity() >= threshold) {
+					child.updateWorldVectors();
+					split.add((Node) child);
+				} else {
+					subtrees.add(child);
+				}
+			}
+		}
+
+		forEach(subtrees.size(), 1, new Slice() {
+			public void run(int from, int to) {
+				for (int i = from; i < to; i++) {
+					subtrees.get(i).updateGeometricState(tpf, false);
+				}
+			}
+		});
+
+		// Bottom up, so that each group's bound takes in its children's
+		for (int i = split.size() - 1; i >= 0; i--) {
+			split.get(i).updateWorldBound();
+		}
+		subtrees.clear();
+		split.clear();
+	}
+
+	/**
+	 * Updates the world transforms and bounds of subtrees that don't overlap, like
+	 * <code>updateGeometricState(tpf, false)</code> on each, sharing them out between threads. Their ancestors' bounds
+	 * are left to the caller.
+	 */
+	public synchronized void updateSubtrees(final List<Spatial> roots, final float tpf) {
+		forEach(roots.size(), SUBTREES_PER_SLICE, new Slice() {
+			public void run(int from, int to) {
+				for (int i = from; i < to; i++) {
+					roots.get(i).updateGeometricState(tpf, false);
+				}
+			}
+		});
+	}
+
+	//
+	// ======== SLICING
+	//
+
+	/**
+	 * A piece of work over a range of indices.
+	 */
+	public interface Slice {
+		void run(int from, int to);
+	}
+
+	/**
+	 * Runs a piece of work over the indices up to count, in slices of at least {@link #getThreshold()}. The work on
+	 * one index must not touch another's. Used by the {@link ca.scotthyndman.game.engine.animation.AnimationSystem}
+	 * to advance its batches of behaviors.
+	 */
+	public synchronized void forEach(int count, Slice slice) {
+		forEach(count, threshold, slice);
+	}
+
+	/**
+	 * Divides the indices up to count into contiguous slices of at least the minimum size, one per thread at most, and
+	 * runs them in parallel. The calling thread runs the last slice.
+	 */
+	private void forEach(int count, int minimum, Slice slice) {
+		int sliceCount = Math.min(threadCount, count / minimum);
+		if (sliceCount <= 1) {
+			slice.run(0, count);
+			return;
+		}
+
+		int from = 0;
+		for (int i = 0; i < sliceCount - 1; i++) {
+			int end = (int) ((long) count * (i + 1) / sliceCount);
+			SliceJob job = new SliceJob(slice, from, end);
+			slices.add(job);
+			jobs.submit(job);
+			from = end;
+		}
+
+		Throwable failure = null;
+		try {
+			slice.run(from, count);
+		} catch (Throwable t) {
+			failure = t;
+		}
+		for (int i = 0; i < slices.size(); i++) {
+			SliceJob job = slices.get(i);
+			jobs.await(job);
+			if (failure == null) {
+				failure = job.getFailure();
+			}
+		}
+		slices.clear();
+
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error) {
+			throw (Error) failure;
+		} else if (failure != null) {
+			throw new RuntimeException(failure);
+		}
+	}
+
+	private static final class SliceJob extends Job {
+
+		private final Slice slice;
+		private final int from;
+		private final int to;
+
+		SliceJob(Slice slice, int from, int to) {
+			super("scene update");
+			this.slice = slice;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void run() {
+			slice.run(from, to);
+		}
+	}
+}
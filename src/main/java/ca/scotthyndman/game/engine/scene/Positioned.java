@@ -1,9 +1,11 @@
 package ca.scotthyndman.game.engine.scene;
 
+import ca.scotthyndman.game.engine.animation.AnimationSystem;
+import ca.scotthyndman.game.engine.animation.BehaviorListener;
 import ca.scotthyndman.game.engine.animation.Bool;
 import ca.scotthyndman.game.engine.animation.Property;
-import ca.scotthyndman.game.engine.animation.PropertyListener;
 import ca.scotthyndman.game.engine.animation.Real;
+import ca.scotthyndman.game.engine.animation.TimeBase;
 import ca.scotthyndman.game.engine.console.bean.Editable;
 import ca.scotthyndman.game.engine.entity.Env;
 
@@ -12,10 +14,9 @@ import com.jme.math.Quaternion;
 import com.jme.math.Vector3f;
 import com.jme.renderer.ColorRGBA;
 import com.jme.renderer.Renderer;
+import com.jme.scene.Geometry;
 import com.jme.scene.Node;
 import com.jme.scene.Spatial;
-import com.jme.scene.state.BlendState;
-import com.jme.scene.state.MaterialState;
 import com.jme.system.DisplaySystem;
 
 /**
@@ -24,7 +25,7 @@ import com.jme.system.DisplaySystem;
  * 
  * @author scottyhyndman
  */
-public abstract class Positioned implements PropertyListener, Updatable {
+public abstract class Positioned implements BehaviorListener, Updatable {
 
 	//
 	// ======== ANIMATABLE PROPERTIES
@@ -90,7 +91,11 @@ public abstract class Positioned implements PropertyListener, Updatable {
 	// ======== MEMBERS
 	//
 
-	protected final Renderer renderer = DisplaySystem.getDisplaySystem().getRenderer();
+	/**
+	 * The renderer, or <code>null</code> if the game is headless.
+	 */
+	protected final Renderer renderer = Env.getInstance().isHeadless() ? null : DisplaySystem.getDisplaySystem()
+			.getRenderer();
 	@Editable
 	public String name;
 	protected Group parent;
@@ -99,9 +104,107 @@ public abstract class Positioned implements PropertyListener, Updatable {
 	protected boolean dirtyCenter = false;
 	protected boolean dirtyGeometry = false;
 	protected boolean dirtyAlpha = false;
+	protected boolean dirtyVisible = false;
 	protected boolean rooted = false;
 	protected Quaternion quaternion;
-	protected MaterialState materialState;
+
+	/**
+	 * The color of the spatial's vertices, which carries the node's alpha, or <code>null</code> if alpha isn't enabled
+	 * or the spatial isn't a {@link Geometry}.
+	 */
+	protected ColorRGBA color;
+
+	/**
+	 * <code>true</code> once the spatial has its shared material and blend states.
+	 */
+	private boolean alphaEnabled = false;
+
+	/**
+	 * The node's own alpha, as last shown, and the alphas of the groups above it multiplied together. The node is shown
+	 * at the two multiplied. Only touched by the thread that owns the spatials.
+	 */
+	private float ownAlpha = 1f, parentAlpha = 1f;
+
+	/**
+	 * The scheduler this node is registered with, or <code>null</code> if it isn't being updated.
+	 */
+	/* package-private */UpdateScheduler scheduler;
+
+	/**
+	 * <code>true</code> if this node is scheduled for an update on the next frame.
+	 */
+	/* package-private */boolean scheduled = false;
+
+	/**
+	 * This node's place on its scheduler's list of nodes to update, while it is {@link #scheduled}.
+	 */
+	/* package-private */int scheduledIndex;
+
+	/**
+	 * The scheduler step in which this node's geometry last changed, when the scheduler is interpolating.
+	 */
+	/* package-private */int movedStep;
+
+	/**
+	 * <code>true</code> if this node is on its scheduler's list of nodes to interpolate.
+	 */
+	/* package-private */boolean interpolated = false;
+
+	/**
+	 * The geometry this node was last updated with, and the geometry before that, which rendering interpolates
+	 * between when the game runs in fixed steps.
+	 */
+	private float geometryX, geometryY, geometryAngle, geometryScaleX, geometryScaleY;
+	private float previousX, previousY, previousAngle, previousScaleX, previousScaleY;
+	private boolean hasGeometry = false;
+
+	/**
+	 * <code>true</code> if the geometry changed during the current update.
+	 */
+	private boolean moved = false;
+
+	/**
+	 * The buffer that carries this node's state to the render thread, or <code>null</code> if the node updates its
+	 * spatial itself.
+	 */
+	/* package-private */SnapshotBuffer snapshots;
+
+	/**
+	 * The spatial index this node is in, or <code>null</code>, its entry there, and whether it is marked for the
+	 * index's next update.
+	 */
+	/* package-private */SpatialIndex spatialIndex;
+	/* package-private */int indexEntry = -1;
+	/* package-private */boolean indexDirty = false;
+
+	/**
+	 * The geometry on display, while a snapshot buffer carries it to the render thread.
+	 */
+	/* package-private */float shownX, shownY, shownAngle, shownScaleX, shownScaleY;
+
+	/**
+	 * The state last applied to the spatial from a snapshot, and the rotation built from it. Only touched by the render
+	 * thread.
+	 */
+	private float appliedX = Float.NaN, appliedY, appliedAngle, appliedScaleX, appliedScaleY;
+	private float appliedCenterX, appliedCenterY, appliedAlpha = Float.NaN;
+	private boolean appliedVisible = true;
+	private Quaternion appliedRotation;
+
+	/**
+	 * The store holding this node's transform properties, or <code>null</code>.
+	 */
+	protected TransformStore transformStore;
+
+	/**
+	 * This node's slot in the transform store, or -1.
+	 */
+	protected int transformSlot = -1;
+
+	/**
+	 * The system evaluating this node's property behaviors, or <code>null</code> if the node updates them itself.
+	 */
+	protected AnimationSystem animationSystem;
 
 	//
 	// ======== CONSTRUCTION
@@ -180,8 +283,8 @@ public abstract class Positioned implements PropertyListener, Updatable {
 	 * Gets the spatial that should be used if you want to reposition the subtree elsewhere.
 	 */
 	public Spatial getTopNode() {
-		if (dirtyCenter && pivotNode == null) {
-			buildPivotNode(0);
+		if (dirtyCenter && pivotNode == null && Env.getInstance().getSnapshotBuffer() == null) {
+			buildPivotNode(centerX.get(), centerY.get(), quaternion, 0);
 			dirtyCenter = false;
 		}
 
@@ -195,6 +298,105 @@ public abstract class Positioned implements PropertyListener, Updatable {
 		return spatial;
 	}
 
+	//
+	// ======== TRANSFORM STORAGE
+	//
+
+	/**
+	 * Moves this node's animatable properties into a slot of the specified store. Does nothing if they're already
+	 * there.
+	 */
+	public void attachTransformStore(TransformStore store) {
+		if (transformStore == store) {
+			return;
+		}
+		detachTransformStore();
+
+		int slot = store.allocate(this);
+		x.attachStorage(store, TransformStore.X, slot);
+		y.attachStorage(store, TransformStore.Y, slot);
+		scaleX.attachStorage(store, TransformStore.SCALE_X, slot);
+		scaleY.attachStorage(store, TransformStore.SCALE_Y, slot);
+		centerX.attachStorage(store, TransformStore.CENTER_X, slot);
+		centerY.attachStorage(store, TransformStore.CENTER_Y, slot);
+		angle.attachStorage(store, TransformStore.ANGLE, slot);
+		alpha.attachStorage(store, TransformStore.ALPHA, slot);
+
+		transformStore = store;
+		transformSlot = slot;
+	}
+
+	/**
+	 * Moves this node's animatable properties out of their transform store, if any, and gives the slot back.
+	 */
+	public void detachTransformStore() {
+		if (transformStore == null) {
+			return;
+		}
+
+		x.detachStorage();
+		y.detachStorage();
+		scaleX.detachStorage();
+		scaleY.detachStorage();
+		centerX.detachStorage();
+		centerY.detachStorage();
+		angle.detachStorage();
+		alpha.detachStorage();
+
+		transformStore.release(transformSlot);
+		transformStore = null;
+		transformSlot = -1;
+	}
+
+	/**
+	 * Returns this node's slot in its transform store, or -1 if it doesn't have one.
+	 */
+	public int getTransformSlot() {
+		return transformSlot;
+	}
+
+	/**
+	 * Hands the behaviors of this node's transform properties over to an animation system.
+	 */
+	public void attachAnimationSystem(AnimationSystem system) {
+		if (animationSystem == system) {
+			return;
+		}
+		detachAnimationSystem();
+
+		system.add(x);
+		system.add(y);
+		system.add(scaleX);
+		system.add(scaleY);
+		system.add(centerX);
+		system.add(centerY);
+		system.add(angle);
+		system.add(alpha);
+
+		animationSystem = system;
+	}
+
+	/**
+	 * Takes the behaviors of this node's transform properties back from its animation system, if any.
+	 */
+	public void detachAnimationSystem() {
+		if (animationSystem == null) {
+			return;
+		}
+
+		animationSystem.remove(x);
+		animationSystem.remove(y);
+		animationSystem.remove(scaleX);
+		animationSystem.remove(scaleY);
+		animationSystem.remove(centerX);
+		animationSystem.remove(centerY);
+		animationSystem.remove(angle);
+		animationSystem.remove(alpha);
+
+		animationSystem = null;
+		requestUpdate();
+	}
+
 	//
 	// ======== LISTENING TO CHANGES
 	//
@@ -216,6 +418,47 @@ public abstract class Positioned implements PropertyListener, Updatable {
 		if (!dirtyAlpha && property == alpha) {
 			dirtyAlpha = true;
 		}
+
+		if (!dirtyVisible && property == visible) {
+			dirtyVisible = true;
+		}
+
+		requestUpdate();
+	}
+
+	/**
+	 * Called when a property is given a new behavior.
+	 */
+	public void onBehaviorChange(Property property) {
+		requestUpdate();
+	}
+
+	//
+	// ======== SCHEDULING
+	//
+
+	/**
+	 * Asks this node's scheduler, if any, to update it on the next frame.
+	 */
+	protected final void requestUpdate() {
+		UpdateScheduler s = scheduler;
+		if (s != null && !scheduled) {
+			s.schedule(this);
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if any of the properties updated by {@link #update(Env, float)} still have an
+	 * unfinished behavior. Properties managed by an {@link AnimationSystem} don't count, as their changes schedule an
+	 * update on their own.
+	 */
+	public boolean isAnimating() {
+		return isAnimating(x) || isAnimating(y) || isAnimating(scaleX) || isAnimating(scaleY) || isAnimating(angle)
+				|| isAnimating(centerX) || isAnimating(centerY) || isAnimating(alpha);
+	}
+
+	private static boolean isAnimating(Property property) {
+		return property.isAnimating() && !property.isManaged();
 	}
 
 	//
@@ -226,25 +469,63 @@ public abstract class Positioned implements PropertyListener, Updatable {
 	 * Updates the entity.
 	 */
 	public void update(Env env, float tpf) {
-		int tpfms = (int) (tpf * 1000);
+		updateState(tpf);
+		finishUpdate(tpf, true);
+	}
+
+	/**
+	 * The first part of an update: evaluates this node's properties and moves its spatial. This touches nothing but
+	 * the node and its own spatial, so different nodes can do it at the same time.
+	 * 
+	 * @return <code>true</code> if {@link #finishUpdate(float, boolean)} has work left to do
+	 */
+	/* package-private */boolean updateState(float tpf) {
+		long nanos = TimeBase.toNanos(tpf);
+
+		x.updateNanos(nanos);
+		y.updateNanos(nanos);
+		scaleX.updateNanos(nanos);
+		scaleY.updateNanos(nanos);
+		angle.updateNanos(nanos);
+		centerX.updateNanos(nanos);
+		centerY.updateNanos(nanos);
+		alpha.updateNanos(nanos);
+
+		if (!hasGeometry) {
+			// The first update doesn't interpolate from wherever the node was built
+			captureGeometry();
+			hasGeometry = true;
+		}
 
-		x.update(tpfms);
-		y.update(tpfms);
-		scaleX.update(tpfms);
-		scaleY.update(tpfms);
-		angle.update(tpfms);
-		centerX.update(tpfms);
-		centerY.update(tpfms);
-		alpha.update(tpfms);
+		//
+		// A pivot spatial has to be in place before the geometry is applied, and building one changes the parent, so
+		// that is left to the second part.
+		//
+		if (dirtyGeometry && !(dirtyCenter && snapshots == null)) {
+			moveGeometry();
+			dirtyGeometry = false;
+			moved = true;
+		}
 
+		return dirtyCenter || dirtyGeometry || moved || dirtyAlpha || dirtyVisible;
+	}
+
+	/**
+	 * The second part of an update, run one node at a time: builds the pivot, updates render states and tells the
+	 * scheduler about the move.
+	 * 
+	 * @param updateWorld
+	 *            <code>true</code> to update the spatial's world transform and bounds as well
+	 */
+	/* package-private */void finishUpdate(float tpf, boolean updateWorld) {
 		//
-		// First, build a pivot spatial if required.
+		// First, build a pivot spatial if required. With a snapshot buffer the render thread does this.
 		//
-		if (dirtyCenter) {
+		if (dirtyCenter && snapshots == null) {
 			if (pivotNode == null) {
-				buildPivotNode(tpf);
+				buildPivotNode(centerX.get(), centerY.get(), quaternion, tpf);
 			} else {
-				updatePivot(tpf);
+				updatePivot(centerX.get(), centerY.get(), quaternion, tpf);
 			}
 		}
 
@@ -252,65 +533,335 @@ public abstract class Positioned implements PropertyListener, Updatable {
 		// Update differently depending on whether we have a pivot or not.
 		//
 		if (dirtyGeometry) {
-			quaternion.fromAngleAxis(FastMath.DEG_TO_RAD * angle.get(), Vector3f.UNIT_Z);
-
-			if (pivotNode != null) {
-				updateGeometryWithPivot(tpf);
-			} else {
-				updateGeometryWithoutPivot(tpf);
+			moveGeometry();
+			moved = true;
+		}
+		if (moved) {
+			UpdateScheduler s = scheduler;
+			if (s != null) {
+				s.moved(this);
 			}
 		}
 
-		//
-		// Update alpha
-		//
-		if (dirtyAlpha) {
-			if (materialState == null) {
-				enableAlpha(spatial);
+		if (snapshots == null) {
+			//
+			// Update alpha and visibility
+			//
+			if (dirtyAlpha) {
+				updateAlpha(alpha.get());
+			}
+			if (dirtyVisible) {
+				updateVisibility(visible.get());
 			}
 
-			materialState.getDiffuse().a = alpha.get();
-			spatial.updateRenderState();
+			//
+			// Bring the world transform up to date, now or in the frame's transform pass
+			//
+			TransformPass pass = Env.getInstance().getTransformPass();
+			if (pass != null) {
+				if (moved || dirtyCenter) {
+					pass.markDirty(pivotNode == null ? spatial : pivotNode);
+				}
+			} else if (updateWorld) {
+				spatial.updateGeometricState(tpf, true); // bubbles up
+			}
+			if (moved || dirtyCenter) {
+				markIndexDirty();
+			}
 		}
 
-		//
-		// Force an update on the spatial
-		//
-		spatial.updateGeometricState(tpf, true); // bubbles up
-
 		//
 		// Set dirty states back to normal
 		//
 		dirtyCenter = false;
 		dirtyGeometry = false;
 		dirtyAlpha = false;
+		dirtyVisible = false;
+		moved = false;
+	}
+
+	private void moveGeometry() {
+		previousX = geometryX;
+		previousY = geometryY;
+		previousAngle = geometryAngle;
+		previousScaleX = geometryScaleX;
+		previousScaleY = geometryScaleY;
+		captureGeometry();
+
+		applyGeometry(geometryX, geometryY, geometryAngle, geometryScaleX, geometryScaleY);
+	}
+
+	/**
+	 * Applies state published by the simulation thread to the spatial, when a {@link SnapshotBuffer} is in use. Only
+	 * what changed since the last snapshot is applied. Called on the render thread.
+	 */
+	/* package-private */void applySnapshot(float x, float y, float angle, float scaleX, float scaleY, float centerX,
+			float centerY, float alpha, boolean visible) {
+		boolean centered = centerX != appliedCenterX || centerY != appliedCenterY;
+		boolean moved = centered || x != appliedX || y != appliedY || angle != appliedAngle || scaleX != appliedScaleX
+				|| scaleY != appliedScaleY;
+		if (!moved && alpha == appliedAlpha && visible == appliedVisible) {
+			return;
+		}
+
+		if (appliedRotation == null) {
+			appliedRotation = new Quaternion();
+		}
+		if (moved) {
+			appliedRotation.fromAngleAxis(FastMath.DEG_TO_RAD * angle, Vector3f.UNIT_Z);
+		}
+		if (centered) {
+			if (pivotNode == null) {
+				buildPivotNode(centerX, centerY, appliedRotation, 0);
+			} else {
+				updatePivot(centerX, centerY, appliedRotation, 0);
+			}
+		}
+		if (moved) {
+			if (pivotNode != null) {
+				updateGeometryWithPivot(x, y, scaleX, scaleY, centerX, centerY, appliedRotation);
+			} else {
+				updateGeometryWithoutPivot(x, y, scaleX, scaleY, appliedRotation);
+			}
+		}
+		if (alpha != appliedAlpha) {
+			updateAlpha(alpha);
+		}
+		if (visible != appliedVisible) {
+			updateVisibility(visible);
+		}
+		TransformPass pass = Env.getInstance().getTransformPass();
+		if (pass == null) {
+			spatial.updateGeometricState(0, true);
+		} else if (moved) {
+			pass.markDirty(pivotNode == null ? spatial : pivotNode);
+		}
+		if (moved) {
+			markIndexDirty();
+		}
+
+		appliedX = x;
+		appliedY = y;
+		appliedAngle = angle;
+		appliedScaleX = scaleX;
+		appliedScaleY = scaleY;
+		appliedCenterX = centerX;
+		appliedCenterY = centerY;
+		appliedAlpha = alpha;
+		appliedVisible = visible;
+	}
+
+	/**
+	 * Shows the node at an alpha, faded by the groups above it.
+	 */
+	protected void updateAlpha(float alpha) {
+		ownAlpha = alpha;
+		showAlpha(alpha * parentAlpha);
+	}
+
+	/**
+	 * Fades the node by the alphas of the groups above it, multiplied together.
+	 */
+	/* package-private */void setParentAlpha(float alpha) {
+		if (parentAlpha != alpha) {
+			parentAlpha = alpha;
+			showAlpha(ownAlpha * alpha);
+		}
+	}
+
+	/**
+	 * Returns the alpha the node is shown at, its own faded by the groups above it.
+	 */
+	/* package-private */float getShownAlpha() {
+		return ownAlpha * parentAlpha;
+	}
+
+	/**
+	 * Shows the node at an alpha, already faded by its groups, through its vertex color. The render states are left
+	 * alone. A spatial that isn't a geometry, like a group's, has no vertices; a group passes its alpha down to the
+	 * nodes under it instead.
+	 */
+	protected void showAlpha(float alpha) {
+		if (renderer == null) {
+			return;
+		}
+		if (!alphaEnabled) {
+			enableAlpha(spatial);
+		}
+
+		if (color != null) {
+			color.a = alpha;
+		}
+	}
+
+	private void updateVisibility(boolean visible) {
+		spatial.setCullHint(visible ? Spatial.CullHint.Inherit : Spatial.CullHint.Always);
 	}
 
 	//
 	// ======== UPDATING GEOMETRY
 	//
 
+	/**
+	 * Shows this node between the geometry it had before its last update and the geometry it has now, while the game
+	 * runs in fixed steps.
+	 *
+	 * @param alpha
+	 *            how far between the two, from 0 to 1. At 1 the node shows the geometry it has now.
+	 */
+	/* package-private */void interpolateGeometry(float alpha) {
+		if (alpha >= 1f) {
+			applyGeometry(geometryX, geometryY, geometryAngle, geometryScaleX, geometryScaleY);
+		} else {
+			applyGeometry(previousX + (geometryX - previousX) * alpha, previousY + (geometryY - previousY) * alpha,
+					previousAngle + (geometryAngle - previousAngle) * alpha, previousScaleX
+							+ (geometryScaleX - previousScaleX) * alpha, previousScaleY
+							+ (geometryScaleY - previousScaleY) * alpha);
+		}
+
+		TransformPass pass = Env.getInstance().getTransformPass();
+		if (pass != null && snapshots == null) {
+			pass.markDirty(pivotNode == null ? spatial : pivotNode);
+		}
+		if (snapshots == null) {
+			markIndexDirty();
+		}
+	}
+
+	/**
+	 * Called when this node's spatial joins a new parent, so that the frame's transform pass, if any, places it, and so
+	 * that it joins the spatial index if it is now in the scene. Called on the thread that owns the spatials.
+	 */
+	/* package-private */void attached() {
+		setParentAlpha(parent == null ? 1f : parent.getShownAlpha());
+		TransformPass pass = Env.getInstance().getTransformPass();
+		if (pass != null) {
+			pass.markDirty(pivotNode == null ? spatial : pivotNode);
+		}
+		SpatialIndex index = Env.getInstance().getSpatialIndex();
+		if (index != null && isInScene()) {
+			index.add(this);
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if this node is in the scene, which is when the top group above it, or the node itself,
+	 * is attached to the {@link RootNode}.
+	 */
+	/* package-private */boolean isInScene() {
+		Positioned top = this;
+		while (top.parent != null) {
+			top = top.parent;
+		}
+		return top.rooted;
+	}
+
+	/**
+	 * Called when this node's spatial leaves its parent, so that it, and the nodes under it, leave the spatial index.
+	 * Called on the thread that owns the spatials.
+	 */
+	/* package-private */void detached() {
+		if (parent == null) {
+			setParentAlpha(1f);
+		}
+		SpatialIndex index = Env.getInstance().getSpatialIndex();
+		if (index != null) {
+			index.remove(this);
+		}
+	}
+
+	/**
+	 * Marks this node for the spatial index's next update, once its world bounds have changed. A group marks itself
+	 * though it isn't indexed, so that the nodes under it are refreshed. A subclass whose size changes calls this too.
+	 */
+	protected void markIndexDirty() {
+		SpatialIndex index = Env.getInstance().getSpatialIndex();
+		if (index != null) {
+			index.markDirty(this);
+		}
+	}
+
+	/**
+	 * Returns half the width of what this node shows, before it is scaled or rotated, for the spatial index. Zero, a
+	 * point, unless a subclass knows its size.
+	 */
+	protected float getHalfWidth() {
+		return 0;
+	}
+
+	/**
+	 * Returns half the height of what this node shows, before it is scaled or rotated, for the spatial index.
+	 */
+	protected float getHalfHeight() {
+		return 0;
+	}
+
+	private void captureGeometry() {
+		geometryX = x.get();
+		geometryY = y.get();
+		geometryAngle = angle.get();
+		geometryScaleX = scaleX.get();
+		geometryScaleY = scaleY.get();
+	}
+
+	/**
+	 * Makes this node's spatial show the given geometry, or, with a snapshot buffer, records it for the next snapshot.
+	 */
+	private void applyGeometry(float x, float y, float angle, float scaleX, float scaleY) {
+		if (snapshots != null) {
+			shownX = x;
+			shownY = y;
+			shownAngle = angle;
+			shownScaleX = scaleX;
+			shownScaleY = scaleY;
+			return;
+		}
+
+		quaternion.fromAngleAxis(FastMath.DEG_TO_RAD * angle, Vector3f.UNIT_Z);
+
+		if (pivotNode != null) {
+			updateGeometryWithPivot(x, y, scaleX, scaleY, centerX.get(), centerY.get(), quaternion);
+		} else {
+			updateGeometryWithoutPivot(x, y, scaleX, scaleY, quaternion);
+		}
+	}
+
+	/**
+	 * Called when this node joins a snapshot buffer, to show the geometry it has now.
+	 */
+	/* package-private */void showCurrentGeometry() {
+		captureGeometry();
+		previousX = geometryX;
+		previousY = geometryY;
+		previousAngle = geometryAngle;
+		previousScaleX = geometryScaleX;
+		previousScaleY = geometryScaleY;
+		hasGeometry = true;
+		applyGeometry(geometryX, geometryY, geometryAngle, geometryScaleX, geometryScaleY);
+	}
+
 	/**
 	 * Pivot is responsible for rotation. The spatial is responsible for translation.
 	 */
-	private void updateGeometryWithPivot(float tpf) {
+	private void updateGeometryWithPivot(float x, float y, float scaleX, float scaleY, float centerX, float centerY,
+			Quaternion rotation) {
 		// System.out.println("update w/ pivot");
 		// System.out.println("top: " + getTopNode().getWorldTranslation());
 		// System.out.println("content: " + getContentNode().getLocalTranslation());
 		// System.out.println("graphic: " + getContentNode().getChild(0).getWorldTranslation());
 
-		pivotNode.setLocalTranslation(x.get() + centerX.get(), y.get() + centerY.get(), 0);
-		pivotNode.setLocalRotation(quaternion);
-		spatial.setLocalScale(new Vector3f(scaleX.get(), scaleY.get(), 0f));
+		pivotNode.setLocalTranslation(x + centerX, y + centerY, 0);
+		pivotNode.setLocalRotation(rotation);
+		spatial.getLocalScale().set(scaleX, scaleY, 0f);
 	}
 
 	/**
 	 * The spatial is responsible for both translation and rotation.
 	 */
-	private void updateGeometryWithoutPivot(float tpf) {
-		spatial.setLocalTranslation(x.get(), y.get(), 0);
-		spatial.setLocalRotation(quaternion);
-		spatial.setLocalScale(new Vector3f(scaleX.get(), scaleY.get(), 0f));
+	private void updateGeometryWithoutPivot(float x, float y, float scaleX, float scaleY, Quaternion rotation) {
+		spatial.setLocalTranslation(x, y, 0);
+		spatial.setLocalRotation(rotation);
+		spatial.getLocalScale().set(scaleX, scaleY, 0f);
 	}
 
 	//
@@ -320,17 +871,17 @@ public abstract class Positioned implements PropertyListener, Updatable {
 	/**
 	 * Updates the pivot point.
 	 */
-	private void updatePivot(float tpf) {
+	private void updatePivot(float centerX, float centerY, Quaternion rotation, float tpf) {
 		// 1. Determine the center point's location relative to the spatial's parent
-		Vector3f rel = getCenterRelativeToParent(spatial.getParent());
+		Vector3f rel = getCenterRelativeToParent(spatial.getParent(), centerX, centerY);
 		System.out.println("centerRelativeToParent: " + rel);
 
 		// 2. Set the pivot's location and apply rotation
 		pivotNode.setLocalTranslation(rel);
-		pivotNode.setLocalRotation(quaternion);
+		pivotNode.setLocalRotation(rotation);
 
 		// 3. Translate the spatial by negative center point.
-		spatial.setLocalTranslation(-centerX.get(), -centerY.get(), 0);
+		spatial.setLocalTranslation(-centerX, -centerY, 0);
 
 		// 4. Update the bounds
 		spatial.updateGeometricState(tpf, true);
@@ -339,7 +890,7 @@ public abstract class Positioned implements PropertyListener, Updatable {
 	/**
 	 * Builds a pivot spatial and attaches the spatial correctly.
 	 */
-	private void buildPivotNode(float tpf) {
+	private void buildPivotNode(float centerX, float centerY, Quaternion rotation, float tpf) {
 		// Do we have a parent?
 		Node parent = spatial.getParent();
 		boolean hasParent = parent != null;
@@ -348,11 +899,11 @@ public abstract class Positioned implements PropertyListener, Updatable {
 		pivotNode = new Node("pivot");
 
 		// 2. Determine the center point's location relative to the spatial's parent
-		Vector3f rel = getCenterRelativeToParent(parent);
+		Vector3f rel = getCenterRelativeToParent(parent, centerX, centerY);
 
 		// 3. Set the pivot's location and apply rotation
 		pivotNode.setLocalTranslation(rel);
-		pivotNode.setLocalRotation(quaternion);
+		pivotNode.setLocalRotation(rotation);
 
 		// 4. If the spatial has a parent, overwrite its position with the pivot
 		if (hasParent) {
@@ -363,7 +914,7 @@ public abstract class Positioned implements PropertyListener, Updatable {
 
 		// 5. Remove the spatial's rotation and translate it by negative center point.
 		spatial.setLocalRotation(new Quaternion());
-		spatial.setLocalTranslation(-centerX.get(), -centerY.get(), 0);
+		spatial.setLocalTranslation(-centerX, -centerY, 0);
 
 		// 6. Add the spatial to the pivot spatial.
 		pivotNode.attachChild(spatial);
@@ -372,9 +923,9 @@ public abstract class Positioned implements PropertyListener, Updatable {
 		spatial.updateGeometricState(tpf, true);
 	}
 
-	private Vector3f getCenterRelativeToParent(Node parent) {
+	private Vector3f getCenterRelativeToParent(Node parent, float centerX, float centerY) {
 		// 2. Determine the pivot's world location (center point transformed)
-		Vector3f in = new Vector3f(centerX.get(), centerY.get(), 0);
+		Vector3f in = new Vector3f(centerX, centerY, 0);
 		Vector3f out = new Vector3f();
 		spatial.localToWorld(in, out);
 
@@ -392,38 +943,26 @@ public abstract class Positioned implements PropertyListener, Updatable {
 	//
 
 	/**
-	 * Enabled alpha support on the spatial.
+	 * Enabled alpha support on the spatial: gives it the shared material and blend states, and, if it is a geometry, a
+	 * vertex color of its own to carry the alpha. Does nothing if the game is headless.
 	 */
 	protected void enableAlpha(Spatial spatial) {
-		// the sphere material taht will be modified to make the sphere look opaque then transparent then opaque and so
-		// on
-		float opacityAmount = alpha.get();
-		materialState = renderer.createMaterialState();
-		materialState.setAmbient(new ColorRGBA(0.0f, 0.0f, 0.0f, opacityAmount));
-		materialState.setDiffuse(new ColorRGBA(0.1f, 0.5f, 0.8f, opacityAmount));
-		materialState.setSpecular(new ColorRGBA(1.0f, 1.0f, 1.0f, opacityAmount));
-		materialState.setShininess(128.0f);
-		materialState.setEmissive(new ColorRGBA(0.0f, 0.0f, 0.0f, opacityAmount));
-		materialState.setEnabled(true);
-
-		// IMPORTANT: this is used to handle the internal sphere faces when setting them to transparent, try commenting
-		// this line to see what happens
-		materialState.setMaterialFace(MaterialState.MaterialFace.FrontAndBack);
-
-		spatial.setRenderState(materialState);
-		spatial.updateRenderState();
-
-		// To handle transparency: a BlendState
-		final BlendState alphaState = renderer.createBlendState();
-		alphaState.setBlendEnabled(true);
-		alphaState.setSourceFunction(BlendState.SourceFunction.SourceAlpha);
-		alphaState.setDestinationFunction(BlendState.DestinationFunction.OneMinusSourceAlpha);
-		alphaState.setTestEnabled(true);
-		alphaState.setTestFunction(BlendState.TestFunction.GreaterThan);
-		alphaState.setEnabled(true);
+		if (renderer == null) {
+			return;
+		}
 
-		spatial.setRenderState(alphaState);
+		// The material takes its diffuse color, and so its alpha, from the vertex color. Both faces are lit, so that
+		// the faces inside a transparent shape show.
+		RenderStateCache cache = Env.getInstance().getRenderStateCache();
+		spatial.setRenderState(cache.getMaterialState());
+		spatial.setRenderState(cache.getBlendState(BlendMode.ALPHA));
+		if (spatial instanceof Geometry) {
+			color = new ColorRGBA(RenderStateCache.DEFAULT_DIFFUSE);
+			color.a = alpha.get();
+			((Geometry) spatial).setDefaultColor(color);
+		}
 		spatial.updateRenderState();
+		alphaEnabled = true;
 	}
 	
 	//
@@ -0,0 +1,150 @@
+package ca.scotthyndman.game.engine.scene;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+import com.jme.image.Texture;
+import com.jme.renderer.ColorRGBA;
+import com.jme.renderer.Renderer;
+import com.jme.scene.state.BlendState;
+import com.jme.scene.state.MaterialState;
+import com.jme.scene.state.TextureState;
+
+/**
+ * Hands out render states shared by every node that asks for the same parameters, instead of a new state per node. A
+ * state from the cache must never be changed; a node that needs different parameters asks for another state.
+ * <p>
+ * Nodes that fade do it through their vertex color, which the {@link #getMaterialState() default material} takes as its
+ * diffuse color, so changing a node's alpha doesn't need a render state of its own, or a render state update.
+ * 
+ * @author scottyhyndman
+ */
+public class RenderStateCache {
+
+	/**
+	 * The diffuse color of the default material, which nodes give their vertices.
+	 */
+	public static final ColorRGBA DEFAULT_DIFFUSE = new ColorRGBA(0.1f, 0.5f, 0.8f, 1f);
+
+	private static final ColorRGBA DEFAULT_AMBIENT = new ColorRGBA(0f, 0f, 0f, 1f);
+	private static final ColorRGBA DEFAULT_SPECULAR = new ColorRGBA(1f, 1f, 1f, 1f);
+	private static final ColorRGBA DEFAULT_EMISSIVE = new ColorRGBA(0f, 0f, 0f, 1f);
+	private static final float DEFAULT_SHININESS = 128f;
+
+	private final Renderer renderer;
+
+	private final BlendState[] blendStates = new BlendState[BlendMode.values().length];
+	private final HashMap<MaterialKey, MaterialState> materialStates = new HashMap<MaterialKey, MaterialState>();
+	private final IdentityHashMap<Texture, TextureState> textureStates = new IdentityHashMap<Texture, TextureState>();
+
+	public RenderStateCache(Renderer renderer) {
+		this.renderer = renderer;
+	}
+
+	/**
+	 * Returns the blend state for a blend mode.
+	 */
+	public synchronized BlendState getBlendState(BlendMode mode) {
+		BlendState state = blendStates[mode.ordinal()];
+		if (state == null) {
+			state = createBlendState(mode);
+			blendStates[mode.ordinal()] = state;
+		}
+		return state;
+	}
+
+	/**
+	 * Returns the material every node gets: lit, both faces, with its diffuse color taken from the vertex colors.
+	 */
+	public MaterialState getMaterialState() {
+		return getMaterialState(DEFAULT_AMBIENT, DEFAULT_SPECULAR, DEFAULT_EMISSIVE, DEFAULT_SHININESS);
+	}
+
+	/**
+	 * Returns a material with its diffuse color taken from the vertex colors.
+	 */
+	public synchronized MaterialState getMaterialState(ColorRGBA ambient, ColorRGBA specular, ColorRGBA emissive,
+			float shininess) {
+		MaterialKey key = new MaterialKey(ambient, specular, emissive, shininess);
+		MaterialState state = materialStates.get(key);
+		if (state == null) {
+			state = createMaterialState();
+			state.setAmbient(new ColorRGBA(ambient));
+			state.setSpecular(new ColorRGBA(specular));
+			state.setEmissive(new ColorRGBA(emissive));
+			state.setShininess(shininess);
+			state.setColorMaterial(MaterialState.ColorMaterial.Diffuse);
+			state.setMaterialFace(MaterialState.MaterialFace.FrontAndBack);
+			state.setEnabled(true);
+			materialStates.put(key, state);
+		}
+		return state;
+	}
+
+	/**
+	 * Returns a texture state showing a texture.
+	 */
+	public synchronized TextureState getTextureState(Texture texture) {
+		TextureState state = textureStates.get(texture);
+		if (state == null) {
+			state = createTextureState();
+			state.setTexture(texture);
+			state.setEnabled(true);
+			textureStates.put(texture, state);
+		}
+		return state;
+	}
+
+	//
+	// ======== CREATING STATES
+	//
+
+	protected BlendState createBlendState(BlendMode mode) {
+		return mode.createState(renderer);
+	}
+
+	protected MaterialState createMaterialState() {
+		return renderer.createMaterialState();
+	}
+
+	protected TextureState createTextureState() {
+		return renderer.createTextureState();
+	}
+
+	/**
+	 * Returns the number of states created so far.
+	 */
+	public synchronized int size() {
+		int count = materialStates.size() + textureStates.size();
+		for (BlendState state : blendStates) {
+			if (state != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * The parameters of a material, copied so that later changes to the colors passed in don't change the key.
+	 */
+	private static final class MaterialKey {
+
+		private final float[] values;
+
+		MaterialKey(ColorRGBA ambient, ColorRGBA specular, ColorRGBA emissive, float shininess) {
+			values = new float[] { ambient.r, ambient.g, ambient.b, ambient.a, specular.r, specular.g, specular.b,
+					specular.a, emissive.r, emissive.g, emissive.b, emissive.a, shininess };
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof MaterialKey && Arrays.equals(values, ((MaterialKey) o).values);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(values);
+		}
+	}
+}
@@ -3,6 +3,8 @@ package ca.scotthyndman.game.engine.scene;
 import java.util.ArrayList;
 import java.util.List;
 
+import ca.scotthyndman.game.engine.entity.Env;
+
 import com.jme.renderer.ColorRGBA;
 import com.jme.renderer.Renderer;
 import com.jme.scene.Node;
@@ -35,6 +37,10 @@ public class RootNode extends Node {
 		setRenderQueueMode(Renderer.QUEUE_ORTHO);
 		setCullHint(Spatial.CullHint.Never);
 
+		if (Env.getInstance().isHeadless()) {
+			return;
+		}
+
 		LightState ls = display.getRenderer().createLightState();
 		ls.setEnabled(true);
 		ls.setGlobalAmbient(new ColorRGBA(1f, 0.3f, 0.2f, 1f));
@@ -44,12 +50,29 @@ public class RootNode extends Node {
 		updateRenderState();
 	}
 
-	public int attachChild(Positioned child) {
+	/**
+	 * Adds a node to the top of the scene. If the game has a {@link SnapshotBuffer}, the node's spatial is attached by
+	 * the render thread, and the number returned is the number of nodes added to the root.
+	 */
+	public int attachChild(final Positioned child) {
 		try {
 			children.add(child);
-			return super.attachChild(child.getTopNode());
-		} finally {
+			// Before it's attached, so that the nodes under it know they are in the scene
 			child.rooted = true;
+			SnapshotBuffer snapshots = Env.getInstance().getSnapshotBuffer();
+			if (snapshots != null) {
+				snapshots.invokeLater(new Runnable() {
+					public void run() {
+						RootNode.super.attachChild(child.getTopNode());
+						child.attached();
+					}
+				});
+				return children.size();
+			}
+			int count = super.attachChild(child.getTopNode());
+			child.attached();
+			return count;
+		} finally {
 			if (child instanceof Group) {
 				updateManager.groupWasAdded((Group) child);
 			} else {
@@ -58,12 +81,54 @@ public class RootNode extends Node {
 		}
 	}
 
+	/**
+	 * Draws the scene. With a sprite batch the batch draws it, so that its batches go in between the rest of the scene
+	 * in scene order.
+	 */
+	@Override
+	public void draw(Renderer r) {
+		SpriteBatch batch = Env.getInstance().getSpriteBatch();
+		if (batch != null) {
+			batch.onDraw(r);
+		} else {
+			super.draw(r);
+		}
+	}
+
+	/**
+	 * Removes every node from the scene. If the game has a {@link SnapshotBuffer}, the spatials are detached by the
+	 * render thread.
+	 */
 	@Override
 	public void detachAllChildren() {
-		super.detachAllChildren();
-		for (Positioned child : children) {
+		final Positioned[] removed = children.toArray(new Positioned[children.size()]);
+		children.clear();
+		for (Positioned child : removed) {
 			System.out.println("removing " + child);
+			child.rooted = false;
 			updateManager.updatableWasRemoved(child);
 		}
+
+		SnapshotBuffer snapshots = Env.getInstance().getSnapshotBuffer();
+		if (snapshots == null) {
+			detachSpatials(removed);
+		} else {
+			snapshots.invokeLater(new Runnable() {
+				public void run() {
+					detachSpatials(removed);
+				}
+			});
+		}
+	}
+
+	private void detachSpatials(Positioned[] removed) {
+		super.detachAllChildren();
+		TransformPass pass = Env.getInstance().getTransformPass();
+		if (pass != null) {
+			pass.markBoundsDirty(this);
+		}
+		for (Positioned child : removed) {
+			child.detached();
+		}
 	}
 }
@@ -0,0 +1,267 @@
+package ca.scotthyndman.game.engine.scene;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import ca.scotthyndman.game.engine.entity.Env;
+
+/**
+ * Carries the state of the scene graph from the simulation thread to the render thread, when the game runs its
+ * simulation on a thread of its own. Once a frame the simulation thread {@link #publish()}es a snapshot of every
+ * registered node's transform, alpha and visibility, and the render thread {@link #apply()}s the latest snapshot to the
+ * jME spatials. The nodes' properties are only ever touched by the simulation thread, and the spatials only by the
+ * render thread.
+ * <p>
+ * Each side owns a snapshot, and a third is handed between them with an atomic swap, so neither side ever waits for
+ * the other. If the simulation publishes faster than the render thread draws, the render thread skips to the latest
+ * snapshot; since every snapshot holds the whole scene, nothing is lost.
+ * <p>
+ * Changes to the shape of the scene graph, like adding a node to a group, are passed to {@link #invokeLater(Runnable)}
+ * and run by the render thread just before it applies the snapshot of the frame that made them.
+ * <p>
+ * Nodes may be registered and unregistered from any thread, like the thread running console scripts; the list of nodes
+ * is locked while a snapshot is taken.
+ *
+ * @author scottyhyndman
+ */
+public class SnapshotBuffer {
+
+	/**
+	 * The number of floats kept per node.
+	 */
+	private static final int STRIDE = 8;
+
+	//
+	// ======== SIMULATION THREAD
+	//
+
+	/**
+	 * The nodes in the snapshots. Guarded by itself.
+	 */
+	private final ArrayList<Positioned> nodes = new ArrayList<Positioned>(256);
+
+	/**
+	 * The snapshot being filled.
+	 */
+	private Snapshot back = new Snapshot();
+
+	/**
+	 * The number of snapshots published. Only the simulation thread writes it, but {@link #invokeLater(Runnable)} reads
+	 * it on any thread.
+	 */
+	private volatile long sequence;
+
+	//
+	// ======== SHARED
+	//
+
+	/**
+	 * The latest snapshot, or one the render thread has finished with.
+	 */
+	private final AtomicReference<Snapshot> published = new AtomicReference<Snapshot>(new Snapshot());
+
+	/**
+	 * Changes to the scene graph, in the order they were made, each with the frame that made it.
+	 */
+	private final ConcurrentLinkedQueue<Task> tasks = new ConcurrentLinkedQueue<Task>();
+
+	//
+	// ======== RENDER THREAD
+	//
+
+	/**
+	 * The snapshot last applied.
+	 */
+	private Snapshot front = new Snapshot();
+
+	//
+	// ======== REGISTRATION
+	//
+
+	/**
+	 * Adds a node to the snapshots. From now on the node leaves its spatial to the render thread. Called on any
+	 * thread.
+	 */
+	public void register(Positioned positioned) {
+		SnapshotBuffer old = positioned.snapshots;
+		if (old == this) {
+			return;
+		}
+		if (old != null) {
+			old.unregister(positioned);
+		}
+
+		synchronized (nodes) {
+			positioned.snapshots = this;
+			positioned.showCurrentGeometry();
+			nodes.add(positioned);
+		}
+	}
+
+	/**
+	 * Removes a node from the snapshots. Called on any thread.
+	 */
+	public void unregister(Positioned positioned) {
+		synchronized (nodes) {
+			if (positioned.snapshots != this) {
+				return;
+			}
+
+			positioned.snapshots = null;
+			nodes.remove(positioned);
+		}
+	}
+
+	/**
+	 * Returns the number of registered nodes.
+	 */
+	public int getNodeCount() {
+		synchronized (nodes) {
+			return nodes.size();
+		}
+	}
+
+	//
+	// ======== SIMULATION THREAD
+	//
+
+	/**
+	 * Runs a change to the scene graph on the render thread, before it applies the snapshot of the current frame.
+	 * Called on the simulation thread, or on any thread that changes the scene, like the thread running console
+	 * scripts.
+	 */
+	public void invokeLater(Runnable task) {
+		tasks.add(new Task(sequence + 1, task));
+	}
+
+	/**
+	 * Takes a snapshot of the registered nodes and hands it to the render thread. Called on the simulation thread, at
+	 * the end of each frame.
+	 */
+	public void publish() {
+		Snapshot s = back;
+		synchronized (nodes) {
+			s.fill(nodes);
+		}
+		s.sequence = ++sequence;
+		back = published.getAndSet(s);
+	}
+
+	/**
+	 * Returns the number of snapshots published.
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	//
+	// ======== RENDER THREAD
+	//
+
+	/**
+	 * Applies the latest snapshot to the spatials, after running the changes made up to its frame. Does nothing if no
+	 * snapshot was published since the last call. Called on the render thread.
+	 *
+	 * @return <code>true</code> if a new snapshot was applied
+	 */
+	public boolean apply() {
+		if (published.get().sequence <= front.sequence) {
+			return false;
+		}
+		front = published.getAndSet(front);
+
+		Snapshot s = front;
+		Task task;
+		while ((task = tasks.peek()) != null && task.sequence <= s.sequence) {
+			tasks.poll();
+			task.runnable.run();
+		}
+
+		Positioned[] n = s.nodes;
+		float[] v = s.values;
+		boolean[] visible = s.visible;
+		for (int i = 0, j = 0; i < s.size; i++, j += STRIDE) {
+			n[i].applySnapshot(v[j], v[j + 1], v[j + 2], v[j + 3], v[j + 4], v[j + 5], v[j + 6], v[j + 7],
+					visible[i]);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the sequence number of the snapshot last applied. Called on the render thread.
+	 */
+	public long getAppliedSequence() {
+		return front.sequence;
+	}
+
+	/**
+	 * Makes a change to the jME scene graph: right away, or, if the game has a snapshot buffer, on the render thread
+	 * before it applies the snapshot of the current frame.
+	 */
+	public static void changeScene(Runnable change) {
+		SnapshotBuffer buffer = Env.getInstance().getSnapshotBuffer();
+		if (buffer == null) {
+			change.run();
+		} else {
+			buffer.invokeLater(change);
+		}
+	}
+
+	//
+	// ======== SNAPSHOTS
+	//
+
+	/**
+	 * The state of the registered nodes at the end of a frame.
+	 */
+	private static final class Snapshot {
+
+		long sequence;
+		int size;
+		Positioned[] nodes = new Positioned[256];
+		float[] values = new float[256 * STRIDE];
+		boolean[] visible = new boolean[256];
+
+		void fill(ArrayList<Positioned> list) {
+			int count = list.size();
+			if (nodes.length < count) {
+				int capacity = Math.max(count, nodes.length * 2);
+				nodes = new Positioned[capacity];
+				values = new float[capacity * STRIDE];
+				visible = new boolean[capacity];
+			}
+
+			for (int i = 0, j = 0; i < count; i++, j += STRIDE) {
+				Positioned p = list.get(i);
+				nodes[i] = p;
+				values[j] = p.shownX;
+				values[j + 1] = p.shownY;
+				values[j + 2] = p.shownAngle;
+				values[j + 3] = p.shownScaleX;
+				values[j + 4] = p.shownScaleY;
+				values[j + 5] = p.centerX.get();
+				values[j + 6] = p.centerY.get();
+				values[j + 7] = p.alpha.get();
+				visible[i] = p.visible.get();
+			}
+
+			// Let go of nodes that have been removed
+			for (int i = count; i < size; i++) {
+				nodes[i] = null;
+			}
+			size = count;
+		}
+	}
+
+	private static final class Task {
+
+		final long sequence;
+		final Runnable runnable;
+
+		Task(long sequence, Runnable runnable) {
+			this.sequence = sequence;
+			this.runnable = runnable;
+		}
+	}
+}
@@ -0,0 +1,748 @@
+package ca.scotthyndman.game.engine.scene;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.jme.math.Quaternion;
+import com.jme.math.Vector3f;
+import com.jme.scene.Spatial;
+
+/**
+ * Finds the nodes at a point, in a rectangle, within a radius or nearest a point, without looking at every node. Each
+ * node other than a {@link Group} is indexed by the box around its world bounds while it is attached to a group or the
+ * root; a group's bounds are those of its children.
+ * <p>
+ * The index is a loose grid. A node whose box is no larger than a cell is kept in the cell holding the center of its
+ * box, so its box reaches at most half a cell into the cells around; a query looks that much further. Larger nodes are
+ * kept apart and checked by every query.
+ * <p>
+ * Nodes {@link #markDirty(Positioned) mark} themselves when they move, and {@link #update()} refreshes the boxes of the
+ * marked nodes, and of the nodes under marked groups, once a frame, after the world transforms are brought up to date.
+ * The queries answer for the world as it was at the last update. Boxes are axis aligned: a rotated node is found by
+ * points near its corners that are outside it.
+ *
+ * @author scottyhyndman
+ */
+public class SpatialIndex {
+
+	/**
+	 * The width and height of a cell, in world units, unless another is given.
+	 */
+	public static final float DEFAULT_CELL_SIZE = 128f;
+
+	/**
+	 * The number of cells below which empty cells are always kept.
+	 */
+	private static final int MIN_TRIMMED_CELLS = 64;
+
+	private final float cellSize;
+	private final float inverseCellSize;
+
+	/**
+	 * How far a box can reach outside the cell holding its center.
+	 */
+	private final float loose;
+
+	//
+	// ======== ENTRIES
+	//
+
+	/**
+	 * The indexed nodes, by entry, and the boxes around them, as minimum x, minimum y, maximum x and maximum y.
+	 */
+	private Positioned[] nodes = new Positioned[256];
+	private float[] boxes = new float[256 * 4];
+
+	/**
+	 * The cell each entry is in, or <code>-1</code> if it is too large for one, and where in that cell's list it is.
+	 */
+	private int[] cellOf = new int[256];
+	private int[] positionOf = new int[256];
+
+	/**
+	 * The entries free for reuse, and one past the highest entry used.
+	 */
+	private int[] free = new int[16];
+	private int freeCount;
+	private int entryCount;
+	private int size;
+
+	/**
+	 * The entries too large for a cell.
+	 */
+	private int[] oversized = new int[16];
+	private int oversizedCount;
+
+	//
+	// ======== CELLS
+	//
+
+	/**
+	 * The cells, and an open addressed table from their coordinates, packed into a long, to their indices. Cells are
+	 * kept when they empty, so that nodes moving back and forth don't make and drop them, until more than half of them
+	 * are empty; {@link #update()} then drops the empty ones.
+	 */
+	private Cell[] cells = new Cell[64];
+	private int cellCount;
+	private int emptyCellCount;
+	private long[] tableKeys = new long[128];
+	private int[] tableCells = new int[128];
+
+	/**
+	 * The bounds of the coordinates of the cells.
+	 */
+	private int minCellX = Integer.MAX_VALUE, minCellY = Integer.MAX_VALUE;
+	private int maxCellX = Integer.MIN_VALUE, maxCellY = Integer.MIN_VALUE;
+
+	//
+	// ======== UPDATES AND QUERIES
+	//
+
+	/**
+	 * The nodes marked since the last update.
+	 */
+	private final ArrayList<Positioned> dirty = new ArrayList<Positioned>(256);
+
+	/**
+	 * The best entries found so far by {@link #nearest(float, float, int, List)}, nearest first.
+	 */
+	private int[] nearestEntries = new int[16];
+	private float[] nearestDistances = new float[16];
+	private int nearestCount;
+
+	/**
+	 * Creates an index with cells {@link #DEFAULT_CELL_SIZE} across.
+	 */
+	public SpatialIndex() {
+		this(DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * Creates an index.
+	 *
+	 * @param cellSize
+	 *            the width and height of a cell, in world units. About the size of the larger common sprites works
+	 *            best.
+	 * @throws IllegalArgumentException
+	 *             if the cell size isn't positive
+	 */
+	public SpatialIndex(float cellSize) {
+		if (!(cellSize > 0)) {
+			throw new IllegalArgumentException("The cell size must be positive, was " + cellSize);
+		}
+
+		this.cellSize = cellSize;
+		this.inverseCellSize = 1 / cellSize;
+		this.loose = cellSize / 2;
+		Arrays.fill(tableCells, -1);
+	}
+
+	public float getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Returns the number of indexed nodes.
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of cells, including empty ones not yet dropped.
+	 */
+	public synchronized int getCellCount() {
+		return cellCount;
+	}
+
+	/**
+	 * Returns <code>true</code> if the node is in this index.
+	 */
+	public synchronized boolean contains(Positioned positioned) {
+		return positioned.spatialIndex == this;
+	}
+
+	//
+	// ======== MAINTENANCE
+	//
+
+	/**
+	 * Adds a node to the index, at its current world bounds, and marks it for the next update. Groups aren't indexed;
+	 * adding one adds the nodes under it. Nodes are added when they are attached, on the thread that owns the spatials.
+	 */
+	public synchronized void add(Positioned positioned) {
+		if (positioned instanceof Group) {
+			Group group = (Group) positioned;
+			for (int i = 0, len = group.size(); i < len; i++) {
+				add(group.get(i));
+			}
+			return;
+		}
+		if (positioned.spatialIndex == this) {
+			return;
+		}
+		if (positioned.spatialIndex != null) {
+			positioned.spatialIndex.remove(positioned);
+		}
+
+		int entry = allocate();
+		nodes[entry] = positioned;
+		positioned.spatialIndex = this;
+		positioned.indexEntry = entry;
+		size++;
+
+		computeBox(positioned, boxes, entry * 4);
+		place(entry);
+		markDirty(positioned);
+	}
+
+	/**
+	 * Removes a node from the index. Removing a group removes the nodes under it.
+	 */
+	public synchronized void remove(Positioned positioned) {
+		if (positioned instanceof Group) {
+			Group group = (Group) positioned;
+			for (int i = 0, len = group.size(); i < len; i++) {
+				remove(group.get(i));
+			}
+			return;
+		}
+		if (positioned.spatialIndex != this) {
+			return;
+		}
+
+		int entry = positioned.indexEntry;
+		unplace(entry);
+		nodes[entry] = null;
+		positioned.spatialIndex = null;
+		positioned.indexEntry = -1;
+		size--;
+
+		if (freeCount == free.length) {
+			free = grow(free, freeCount * 2);
+		}
+		free[freeCount++] = entry;
+	}
+
+	/**
+	 * Marks a node whose world bounds changed. A group marks the nodes under it. Called on the thread that owns the
+	 * spatials.
+	 */
+	public synchronized void markDirty(Positioned positioned) {
+		if (!positioned.indexDirty) {
+			positioned.indexDirty = true;
+			dirty.add(positioned);
+		}
+	}
+
+	/**
+	 * Refreshes the boxes of the nodes marked since the last update, and drops the empty cells if more than half of the
+	 * cells are empty. Called once a frame, after the world transforms are brought up to date.
+	 */
+	public synchronized void update() {
+		for (int i = 0, len = dirty.size(); i < len; i++) {
+			Positioned positioned = dirty.get(i);
+			positioned.indexDirty = false;
+			refresh(positioned);
+		}
+		dirty.clear();
+
+		if (cellCount > MIN_TRIMMED_CELLS && emptyCellCount * 2 > cellCount) {
+			dropEmptyCells();
+		}
+	}
+
+	private void refresh(Positioned positioned) {
+		if (positioned instanceof Group) {
+			Group group = (Group) positioned;
+			for (int i = 0, len = group.size(); i < len; i++) {
+				refresh(group.get(i));
+			}
+		} else if (positioned.spatialIndex == this) {
+			int entry = positioned.indexEntry;
+			computeBox(positioned, boxes, entry * 4);
+			int cell = cellFor(entry);
+			if (cell != cellOf[entry]) {
+				unplace(entry);
+				place(entry, cell);
+			}
+		}
+	}
+
+	/**
+	 * Computes the box around the node's world bounds: its size, scaled and rotated by the world transform of its
+	 * content, about the content's world translation.
+	 */
+	private static void computeBox(Positioned positioned, float[] box, int offset) {
+		Spatial spatial = positioned.getContent();
+		Vector3f t = spatial.getWorldTranslation();
+		Vector3f s = spatial.getWorldScale();
+		Quaternion q = spatial.getWorldRotation();
+
+		float hw = positioned.getHalfWidth() * Math.abs(s.x);
+		float hh = positioned.getHalfHeight() * Math.abs(s.y);
+		float ex = hw, ey = hh;
+		if (q.x != 0 || q.y != 0 || q.z != 0) {
+			// The upper left of the rotation matrix
+			float m00 = 1 - 2 * (q.y * q.y + q.z * q.z);
+			float m01 = 2 * (q.x * q.y - q.w * q.z);
+			float m10 = 2 * (q.x * q.y + q.w * q.z);
+			float m11 = 1 - 2 * (q.x * q.x + q.z * q.z);
+			ex = Math.abs(m00) * hw + Math.abs(m01) * hh;
+			ey = Math.abs(m10) * hw + Math.abs(m11) * hh;
+		}
+
+		box[offset] = t.x - ex;
+		box[offset + 1] = t.y - ey;
+		box[offset + 2] = t.x + ex;
+		box[offset + 3] = t.y + ey;
+	}
+
+	//
+	// ======== QUERIES
+	//
+
+	/**
+	 * Returns the nodes whose boxes hold a point.
+	 */
+	public List<Positioned> queryPoint(float x, float y) {
+		return queryPoint(x, y, new ArrayList<Positioned>());
+	}
+
+	/**
+	 * Adds the nodes whose boxes hold a point to a list, and returns the list.
+	 */
+	public synchronized List<Positioned> queryPoint(float x, float y, List<Positioned> results) {
+		return query(x, y, x, y, x, y, -1, results);
+	}
+
+	/**
+	 * Returns the nodes whose boxes overlap a rectangle.
+	 */
+	public List<Positioned> queryRect(float minX, float minY, float maxX, float maxY) {
+		return queryRect(minX, minY, maxX, maxY, new ArrayList<Positioned>());
+	}
+
+	/**
+	 * Adds the nodes whose boxes overlap a rectangle to a list, and returns the list.
+	 */
+	public synchronized List<Positioned> queryRect(float minX, float minY, float maxX, float maxY,
+			List<Positioned> results) {
+		return query(minX, minY, maxX, maxY, 0, 0, -1, results);
+	}
+
+	/**
+	 * Returns the nodes whose boxes come within a distance of a point.
+	 */
+	public List<Positioned> queryRadius(float x, float y, float radius) {
+		return queryRadius(x, y, radius, new ArrayList<Positioned>());
+	}
+
+	/**
+	 * Adds the nodes whose boxes come within a distance of a point to a list, and returns the list.
+	 */
+	public synchronized List<Positioned> queryRadius(float x, float y, float radius, List<Positioned> results) {
+		return query(x - radius, y - radius, x + radius, y + radius, x, y, radius * radius, results);
+	}
+
+	/**
+	 * Returns up to <code>k</code> nodes whose boxes are nearest a point, nearest first. Nodes whose boxes hold the
+	 * point are at distance zero.
+	 */
+	public List<Positioned> nearest(float x, float y, int k) {
+		return nearest(x, y, k, new ArrayList<Positioned>(Math.max(0, Math.min(k, 64))));
+	}
+
+	/**
+	 * Adds up to <code>k</code> nodes whose boxes are nearest a point to a list, nearest first, and returns the list.
+	 */
+	public synchronized List<Positioned> nearest(float x, float y, int k, List<Positioned> results) {
+		if (k <= 0 || size == 0) {
+			return results;
+		}
+		if (nearestEntries.length < k) {
+			nearestEntries = new int[k];
+			nearestDistances = new float[k];
+		}
+		nearestCount = 0;
+
+		if (cellCount > 0 && !nearestByRings(x, y, k)) {
+			// The point is far from the cells in use, so that searching outwards looks up more cells than there are
+			nearestCount = 0;
+			for (int c = 0; c < cellCount; c++) {
+				offerNearest(cells[c], x, y, k);
+			}
+		}
+		for (int i = 0; i < oversizedCount; i++) {
+			offerNearest(oversized[i], x, y, k);
+		}
+
+		for (int i = 0; i < nearestCount; i++) {
+			results.add(nodes[nearestEntries[i]]);
+		}
+		return results;
+	}
+
+	/**
+	 * Searches the cells in rings around the point, nearest first, until no entry further out can be nearer than those
+	 * found. Gives up, returning <code>false</code>, once it has looked up more cells than are in use.
+	 */
+	private boolean nearestByRings(float x, float y, int k) {
+		int cx = cellCoordinate(x);
+		int cy = cellCoordinate(y);
+		int rings = Math.max(Math.max(cx - minCellX, maxCellX - cx), Math.max(cy - minCellY, maxCellY - cy));
+		long lookups = 0;
+		for (int d = 0; d <= rings; d++) {
+			// Any entry in this ring or further out is at least this far from the point
+			float beyond = (d - 1) * cellSize - loose;
+			if (nearestCount == k && beyond > 0 && nearestDistances[k - 1] <= beyond * beyond) {
+				break;
+			}
+			if (d == 0) {
+				offerNearest(findCell(cx, cy), x, y, k);
+				continue;
+			}
+
+			lookups += 8 * d;
+			if (lookups > cellCount) {
+				return false;
+			}
+			for (int i = -d; i <= d; i++) {
+				offerNearest(findCell(cx + i, cy - d), x, y, k);
+				offerNearest(findCell(cx + i, cy + d), x, y, k);
+			}
+			for (int j = -d + 1; j <= d - 1; j++) {
+				offerNearest(findCell(cx - d, cy + j), x, y, k);
+				offerNearest(findCell(cx + d, cy + j), x, y, k);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the entries overlapping a rectangle to the results. If <code>radiusSquared</code> isn't negative, the
+	 * entries must also come within its root of (<code>px</code>, <code>py</code>).
+	 */
+	private List<Positioned> query(float minX, float minY, float maxX, float maxY, float px, float py,
+			float radiusSquared, List<Positioned> results) {
+		for (int i = 0; i < oversizedCount; i++) {
+			collect(oversized[i], minX, minY, maxX, maxY, px, py, radiusSquared, results);
+		}
+		if (cellCount == 0) {
+			return results;
+		}
+
+		int fromX = Math.max(cellCoordinate(minX - loose), minCellX);
+		int fromY = Math.max(cellCoordinate(minY - loose), minCellY);
+		int toX = Math.min(cellCoordinate(maxX + loose), maxCellX);
+		int toY = Math.min(cellCoordinate(maxY + loose), maxCellY);
+		if (fromX > toX || fromY > toY) {
+			return results;
+		}
+
+		if ((long) (toX - fromX + 1) * (toY - fromY + 1) > cellCount) {
+			// Fewer cells are in use than the rectangle covers
+			for (int c = 0; c < cellCount; c++) {
+				Cell cell = cells[c];
+				if (cell.x >= fromX && cell.x <= toX && cell.y >= fromY && cell.y <= toY) {
+					collect(cell, minX, minY, maxX, maxY, px, py, radiusSquared, results);
+				}
+			}
+		} else {
+			for (int cy = fromY; cy <= toY; cy++) {
+				for (int cx = fromX; cx <= toX; cx++) {
+					Cell cell = findCell(cx, cy);
+					if (cell != null) {
+						collect(cell, minX, minY, maxX, maxY, px, py, radiusSquared, results);
+					}
+				}
+			}
+		}
+		return results;
+	}
+
+	private void collect(Cell cell, float minX, float minY, float maxX, float maxY, float px, float py,
+			float radiusSquared, List<Positioned> results) {
+		int[] entries = cell.entries;
+		for (int i = 0, len = cell.size; i < len; i++) {
+			collect(entries[i], minX, minY, maxX, maxY, px, py, radiusSquared, results);
+		}
+	}
+
+	private void collect(int entry, float minX, float minY, float maxX, float maxY, float px, float py,
+			float radiusSquared, List<Positioned> results) {
+		float[] b = boxes;
+		int o = entry * 4;
+		if (b[o] > maxX || b[o + 2] < minX || b[o + 1] > maxY || b[o + 3] < minY) {
+			return;
+		}
+		if (radiusSquared >= 0 && distanceSquared(entry, px, py) > radiusSquared) {
+			return;
+		}
+		results.add(nodes[entry]);
+	}
+
+	private void offerNearest(Cell cell, float x, float y, int k) {
+		if (cell == null) {
+			return;
+		}
+		int[] entries = cell.entries;
+		for (int i = 0, len = cell.size; i < len; i++) {
+			offerNearest(entries[i], x, y, k);
+		}
+	}
+
+	/**
+	 * Keeps an entry among the nearest found so far, if it is nearer than the furthest of them.
+	 */
+	private void offerNearest(int entry, float x, float y, int k) {
+		float distance = distanceSquared(entry, x, y);
+		if (nearestCount == k && distance >= nearestDistances[k - 1]) {
+			return;
+		}
+
+		int i = nearestCount < k ? nearestCount++ : k - 1;
+		for (; i > 0 && nearestDistances[i - 1] > distance; i--) {
+			nearestEntries[i] = nearestEntries[i - 1];
+			nearestDistances[i] = nearestDistances[i - 1];
+		}
+		nearestEntries[i] = entry;
+		nearestDistances[i] = distance;
+	}
+
+	/**
+	 * Returns the square of the distance from a point to an entry's box, zero if the box holds the point.
+	 */
+	private float distanceSquared(int entry, float x, float y) {
+		float[] b = boxes;
+		int o = entry * 4;
+		float dx = x < b[o] ? b[o] - x : x > b[o + 2] ? x - b[o + 2] : 0;
+		float dy = y < b[o + 1] ? b[o + 1] - y : y > b[o + 3] ? y - b[o + 3] : 0;
+		return dx * dx + dy * dy;
+	}
+
+	//
+	// ======== PLACING ENTRIES IN CELLS
+	//
+
+	private int allocate() {
+		if (freeCount > 0) {
+			return free[--freeCount];
+		}
+		if (entryCount == nodes.length) {
+			int capacity = entryCount * 2;
+			Positioned[] n = new Positioned[capacity];
+			System.arraycopy(nodes, 0, n, 0, entryCount);
+			nodes = n;
+			float[] b = new float[capacity * 4];
+			System.arraycopy(boxes, 0, b, 0, entryCount * 4);
+			boxes = b;
+			cellOf = grow(cellOf, capacity);
+			positionOf = grow(positionOf, capacity);
+		}
+		return entryCount++;
+	}
+
+	/**
+	 * Returns the index of the cell an entry belongs in, making the cell if needed, or <code>-1</code> if the entry is
+	 * too large for a cell.
+	 */
+	private int cellFor(int entry) {
+		float[] b = boxes;
+		int o = entry * 4;
+		if (b[o + 2] - b[o] > cellSize || b[o + 3] - b[o + 1] > cellSize) {
+			return -1;
+		}
+		return cellIndex(cellCoordinate((b[o] + b[o + 2]) / 2), cellCoordinate((b[o + 1] + b[o + 3]) / 2));
+	}
+
+	private void place(int entry) {
+		place(entry, cellFor(entry));
+	}
+
+	private void place(int entry, int cell) {
+		cellOf[entry] = cell;
+		if (cell == -1) {
+			if (oversizedCount == oversized.length) {
+				oversized = grow(oversized, oversizedCount * 2);
+			}
+			positionOf[entry] = oversizedCount;
+			oversized[oversizedCount++] = entry;
+		} else {
+			Cell c = cells[cell];
+			if (c.size == 0) {
+				emptyCellCount--;
+			}
+			if (c.size == c.entries.length) {
+				c.entries = grow(c.entries, c.size * 2);
+			}
+			positionOf[entry] = c.size;
+			c.entries[c.size++] = entry;
+		}
+	}
+
+	/**
+	 * Takes an entry out of its cell, moving the cell's last entry into its place.
+	 */
+	private void unplace(int entry) {
+		int position = positionOf[entry];
+		int[] entries;
+		int last;
+		if (cellOf[entry] == -1) {
+			entries = oversized;
+			last = --oversizedCount;
+		} else {
+			Cell c = cells[cellOf[entry]];
+			entries = c.entries;
+			last = --c.size;
+			if (last == 0) {
+				emptyCellCount++;
+			}
+		}
+
+		int moved = entries[last];
+		entries[position] = moved;
+		positionOf[moved] = position;
+	}
+
+	private int cellCoordinate(float v) {
+		return (int) Math.floor(v * inverseCellSize);
+	}
+
+	/**
+	 * Returns the cell at the given coordinates, or <code>null</code> if it was never used.
+	 */
+	private Cell findCell(int x, int y) {
+		long key = key(x, y);
+		int mask = tableKeys.length - 1;
+		for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+			int cell = tableCells[i];
+			if (cell == -1) {
+				return null;
+			}
+			if (tableKeys[i] == key) {
+				return cells[cell];
+			}
+		}
+	}
+
+	/**
+	 * Returns the index of the cell at the given coordinates, making it if it was never used.
+	 */
+	private int cellIndex(int x, int y) {
+		long key = key(x, y);
+		int mask = tableKeys.length - 1;
+		int i = hash(key) & mask;
+		for (; tableCells[i] != -1; i = (i + 1) & mask) {
+			if (tableKeys[i] == key) {
+				return tableCells[i];
+			}
+		}
+
+		if (cellCount == cells.length) {
+			Cell[] c = new Cell[cellCount * 2];
+			System.arraycopy(cells, 0, c, 0, cellCount);
+			cells = c;
+		}
+		int index = cellCount++;
+		cells[index] = new Cell(x, y);
+		emptyCellCount++;
+		tableKeys[i] = key;
+		tableCells[i] = index;
+		if (cellCount * 2 > tableKeys.length) {
+			rehash();
+		}
+
+		minCellX = Math.min(minCellX, x);
+		minCellY = Math.min(minCellY, y);
+		maxCellX = Math.max(maxCellX, x);
+		maxCellY = Math.max(maxCellY, y);
+		return index;
+	}
+
+	/**
+	 * Drops the empty cells, renumbering the others, and shrinks the bounds and the table to the cells left.
+	 */
+	private void dropEmptyCells() {
+		int j = 0;
+		minCellX = minCellY = Integer.MAX_VALUE;
+		maxCellX = maxCellY = Integer.MIN_VALUE;
+		for (int c = 0; c < cellCount; c++) {
+			Cell cell = cells[c];
+			if (cell.size == 0) {
+				continue;
+			}
+			for (int i = 0; i < cell.size; i++) {
+				cellOf[cell.entries[i]] = j;
+			}
+			cells[j++] = cell;
+			minCellX = Math.min(minCellX, cell.x);
+			minCellY = Math.min(minCellY, cell.y);
+			maxCellX = Math.max(maxCellX, cell.x);
+			maxCellY = Math.max(maxCellY, cell.y);
+		}
+		for (int c = j; c < cellCount; c++) {
+			cells[c] = null;
+		}
+		cellCount = j;
+		emptyCellCount = 0;
+
+		int capacity = 128;
+		while (cellCount * 2 > capacity) {
+			capacity *= 2;
+		}
+		rehash(capacity);
+	}
+
+	private void rehash() {
+		rehash(tableKeys.length * 2);
+	}
+
+	private void rehash(int capacity) {
+		tableKeys = new long[capacity];
+		tableCells = new int[capacity];
+		Arrays.fill(tableCells, -1);
+		int mask = capacity - 1;
+		for (int c = 0; c < cellCount; c++) {
+			long key = key(cells[c].x, cells[c].y);
+			int i = hash(key) & mask;
+			while (tableCells[i] != -1) {
+				i = (i + 1) & mask;
+			}
+			tableKeys[i] = key;
+			tableCells[i] = c;
+		}
+	}
+
+	private static long key(int x, int y) {
+		return ((long) x << 32) | (y & 0xffffffffL);
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private static int[] grow(int[] array, int capacity) {
+		int[] a = new int[capacity];
+		System.arraycopy(array, 0, a, 0, array.length);
+		return a;
+	}
+
+	/**
+	 * The entries whose box centers are in a square of the grid.
+	 */
+	private static final class Cell {
+
+		final int x;
+		final int y;
+		int[] entries = new int[8];
+		int size;
+
+		Cell(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+	}
+}
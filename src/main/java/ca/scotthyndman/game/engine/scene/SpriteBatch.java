@@ -0,0 +1,362 @@
+package ca.scotthyndman.game.engine.scene;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+
+import ca.scotthyndman.game.engine.entity.Env;
+
+import com.jme.image.Texture;
+import com.jme.math.Quaternion;
+import com.jme.math.Vector3f;
+import com.jme.renderer.Renderer;
+import com.jme.scene.Node;
+import com.jme.scene.Spatial;
+import com.jme.scene.TexCoords;
+import com.jme.scene.TriMesh;
+import com.jme.scene.state.BlendState;
+import com.jme.scene.state.TextureState;
+import com.jme.system.DisplaySystem;
+import com.jme.util.geom.BufferUtils;
+
+/**
+ * Draws {@link Graphic}s in batches, one draw per run of graphics that share a texture and {@link BlendMode}, instead
+ * of one per graphic. Once a frame, after the world transforms are up to date, {@link #build(Node)} walks the scene in
+ * drawing order, skipping hidden subtrees, and writes the corners of each visible graphic's quad, already in world
+ * space, into one set of vertex, texture coordinate and color arrays. Each run of graphics is then copied to a mesh of
+ * its own, which is reused from frame to frame.
+ * <p>
+ * Alpha goes into the vertex colors, so graphics drawn by a batch have no render states of their own, and changing their
+ * alpha is as cheap as moving them. They aren't lit. Graphics with different textures that are drawn one after the
+ * other end up in different batches, and so do graphics with anything the batch doesn't draw, like text or an
+ * unbatched graphic, between them; drawing order is always kept.
+ * <p>
+ * When there is a batch, the {@link RootNode} has it draw the whole scene: its batches, and between them the rest of the
+ * scene, in the order they were built in. Only graphics created while the batch is in the {@link Env} are drawn by it.
+ * 
+ * @author scottyhyndman
+ */
+public class SpriteBatch extends Node {
+
+	static final long serialVersionUID = 1L;
+
+	private static final int VERTEX_FLOATS = 12;
+	private static final int TEXCOORD_FLOATS = 8;
+	private static final int COLOR_FLOATS = 16;
+
+	/**
+	 * The renderer, or <code>null</code> if the game is headless.
+	 */
+	private final Renderer renderer = Env.getInstance().isHeadless() ? null : DisplaySystem.getDisplaySystem()
+			.getRenderer();
+
+	/**
+	 * The quads of the frame, in world space.
+	 */
+	private float[] vertices = new float[256 * VERTEX_FLOATS];
+	private float[] texCoords = new float[256 * TEXCOORD_FLOATS];
+	private float[] colors = new float[256 * COLOR_FLOATS];
+
+	/**
+	 * The meshes of the batches, in drawing order. Those past the batch count are hidden.
+	 */
+	private final ArrayList<BatchMesh> meshes = new ArrayList<BatchMesh>();
+
+	/**
+	 * What the batch draws, in drawing order: the meshes of the batches, and between them the parts of the scene that
+	 * aren't batched.
+	 */
+	private final ArrayList<Spatial> drawOrder = new ArrayList<Spatial>();
+
+	private int spriteCount;
+	private int batchCount;
+
+	/**
+	 * The run being built.
+	 */
+	private Texture runTexture;
+	private BlendMode runMode;
+	private int runStart;
+
+	private final Vector3f axisX = new Vector3f();
+	private final Vector3f axisY = new Vector3f();
+
+	public SpriteBatch() {
+		super("sprite batch");
+		setRenderQueueMode(Renderer.QUEUE_ORTHO);
+		setLightCombineMode(Spatial.LightCombineMode.Off);
+		setCullHint(Spatial.CullHint.Never);
+	}
+
+	/**
+	 * Returns the number of graphics in the last batches built.
+	 */
+	public int getSpriteCount() {
+		return spriteCount;
+	}
+
+	/**
+	 * Returns the number of batches last built, which is the number of draws they take.
+	 */
+	public int getBatchCount() {
+		return batchCount;
+	}
+
+	/**
+	 * Returns the texture of one of the last batches built.
+	 */
+	public Texture getBatchTexture(int batch) {
+		return meshes.get(batch).texture;
+	}
+
+	/**
+	 * Returns the number of graphics in one of the last batches built.
+	 */
+	public int getBatchSize(int batch) {
+		return meshes.get(batch).size;
+	}
+
+	/* package-private */FloatBuffer getVertexBuffer(int batch) {
+		return meshes.get(batch).vertexBuffer;
+	}
+
+	/* package-private */FloatBuffer getColorBuffer(int batch) {
+		return meshes.get(batch).colorBuffer;
+	}
+
+	/* package-private */FloatBuffer getTexCoordBuffer(int batch) {
+		return meshes.get(batch).texCoordBuffer;
+	}
+
+	/* package-private */int getDrawCount() {
+		return drawOrder.size();
+	}
+
+	/**
+	 * Returns the spatial drawn at a point of the drawing order, which is either the mesh of a batch or part of the
+	 * scene.
+	 */
+	/* package-private */Spatial getDrawn(int index) {
+		return drawOrder.get(index);
+	}
+
+	/* package-private */TriMesh getBatchMesh(int batch) {
+		return meshes.get(batch).mesh;
+	}
+
+	//
+	// ======== BUILDING
+	//
+
+	/**
+	 * Builds the batches for the visible graphics under a node. Called on the render thread, once the world transforms
+	 * are up to date.
+	 */
+	public void build(Node root) {
+		spriteCount = 0;
+		batchCount = 0;
+		runTexture = null;
+		runMode = null;
+		runStart = 0;
+		drawOrder.clear();
+
+		collect(root);
+		endRun();
+
+		for (int i = 0, len = meshes.size(); i < len; i++) {
+			meshes.get(i).mesh.setCullHint(i < batchCount ? Spatial.CullHint.Never : Spatial.CullHint.Always);
+		}
+	}
+
+	private void collect(Node node) {
+		for (int i = 0, len = node.getQuantity(); i < len; i++) {
+			Spatial child = node.getChild(i);
+			if (child.getCullHint() == Spatial.CullHint.Always || child == this) {
+				continue;
+			}
+			if (child instanceof SpriteQuad && ((SpriteQuad) child).batched) {
+				SpriteQuad quad = (SpriteQuad) child;
+				if (quad.alpha > 0f && quad.texture != null) {
+					add(quad);
+				}
+			} else if (child instanceof Node) {
+				collect((Node) child);
+			} else {
+				// Drawn by itself, so the graphics before it have to be drawn first
+				endRun();
+				drawOrder.add(child);
+			}
+		}
+	}
+
+	/**
+	 * Writes a quad's corners, in the order of a jME {@link com.jme.scene.shape.Quad}, starting a new run if its
+	 * texture or blend mode differs from the last one's.
+	 */
+	private void add(SpriteQuad quad) {
+		if (quad.texture != runTexture || quad.blendMode != runMode) {
+			endRun();
+			runTexture = quad.texture;
+			runMode = quad.blendMode;
+		}
+
+		int i = spriteCount++;
+		if (i * VERTEX_FLOATS == vertices.length) {
+			grow();
+		}
+
+		Vector3f t = quad.getWorldTranslation();
+		Vector3f s = quad.getWorldScale();
+		Quaternion r = quad.getWorldRotation();
+		r.mult(axisX.set(s.x * quad.halfWidth, 0, 0), axisX);
+		r.mult(axisY.set(0, s.y * quad.halfHeight, 0), axisY);
+
+		float[] v = vertices;
+		int j = i * VERTEX_FLOATS;
+		corner(v, j, t, -1, 1);
+		corner(v, j + 3, t, -1, -1);
+		corner(v, j + 6, t, 1, -1);
+		corner(v, j + 9, t, 1, 1);
+
+		float[] tc = texCoords;
+		j = i * TEXCOORD_FLOATS;
+		tc[j] = quad.u0;
+		tc[j + 1] = quad.v1;
+		tc[j + 2] = quad.u0;
+		tc[j + 3] = quad.v0;
+		tc[j + 4] = quad.u1;
+		tc[j + 5] = quad.v0;
+		tc[j + 6] = quad.u1;
+		tc[j + 7] = quad.v1;
+
+		float[] c = colors;
+		float a = quad.alpha;
+		for (j = i * COLOR_FLOATS; j < (i + 1) * COLOR_FLOATS; j += 4) {
+			c[j] = 1f;
+			c[j + 1] = 1f;
+			c[j + 2] = 1f;
+			c[j + 3] = a;
+		}
+	}
+
+	private void corner(float[] v, int j, Vector3f t, float x, float y) {
+		v[j] = t.x + x * axisX.x + y * axisY.x;
+		v[j + 1] = t.y + x * axisX.y + y * axisY.y;
+		v[j + 2] = t.z + x * axisX.z + y * axisY.z;
+	}
+
+	private void grow() {
+		int capacity = vertices.length / VERTEX_FLOATS * 2;
+		float[] v = new float[capacity * VERTEX_FLOATS];
+		System.arraycopy(vertices, 0, v, 0, vertices.length);
+		vertices = v;
+		float[] tc = new float[capacity * TEXCOORD_FLOATS];
+		System.arraycopy(texCoords, 0, tc, 0, texCoords.length);
+		texCoords = tc;
+		float[] c = new float[capacity * COLOR_FLOATS];
+		System.arraycopy(colors, 0, c, 0, colors.length);
+		colors = c;
+	}
+
+	/**
+	 * Copies the run of graphics since the last one into the next mesh.
+	 */
+	private void endRun() {
+		int size = spriteCount - runStart;
+		if (size == 0) {
+			return;
+		}
+
+		if (batchCount == meshes.size()) {
+			BatchMesh mesh = new BatchMesh();
+			meshes.add(mesh);
+			attachChild(mesh.mesh);
+		}
+		BatchMesh mesh = meshes.get(batchCount++);
+		mesh.fill(vertices, texCoords, colors, runStart, size);
+		if (mesh.texture != runTexture || mesh.mode != runMode) {
+			mesh.texture = runTexture;
+			mesh.mode = runMode;
+			if (renderer != null) {
+				RenderStateCache cache = Env.getInstance().getRenderStateCache();
+				mesh.setStates(cache.getTextureState(runTexture), cache.getBlendState(runMode));
+			}
+		}
+		drawOrder.add(mesh.mesh);
+		runStart = spriteCount;
+	}
+
+	//
+	// ======== DRAWING
+	//
+
+	/**
+	 * Draws what was last built, in order: the batches, and the parts of the scene between them.
+	 */
+	@Override
+	public void draw(Renderer r) {
+		for (int i = 0, len = drawOrder.size(); i < len; i++) {
+			drawOrder.get(i).onDraw(r);
+		}
+	}
+
+	//
+	// ======== MESHES
+	//
+
+	/**
+	 * A mesh drawing one batch, and the buffers it draws from, which only ever grow.
+	 */
+	private final class BatchMesh {
+
+		final TriMesh mesh = new TriMesh("batch");
+		FloatBuffer vertexBuffer;
+		FloatBuffer texCoordBuffer;
+		FloatBuffer colorBuffer;
+		IntBuffer indexBuffer;
+		int capacity;
+		int size;
+
+		Texture texture;
+		BlendMode mode;
+
+		BatchMesh() {
+			mesh.setCullHint(Spatial.CullHint.Never);
+		}
+
+		void fill(float[] vertices, float[] texCoords, float[] colors, int start, int size) {
+			if (size > capacity) {
+				allocate(Math.max(size, capacity * 2));
+			}
+			this.size = size;
+
+			vertexBuffer.clear();
+			vertexBuffer.put(vertices, start * VERTEX_FLOATS, size * VERTEX_FLOATS).flip();
+			texCoordBuffer.clear();
+			texCoordBuffer.put(texCoords, start * TEXCOORD_FLOATS, size * TEXCOORD_FLOATS).flip();
+			colorBuffer.clear();
+			colorBuffer.put(colors, start * COLOR_FLOATS, size * COLOR_FLOATS).flip();
+			indexBuffer.limit(size * 6);
+		}
+
+		private void allocate(int capacity) {
+			this.capacity = capacity;
+			vertexBuffer = BufferUtils.createFloatBuffer(capacity * VERTEX_FLOATS);
+			texCoordBuffer = BufferUtils.createFloatBuffer(capacity * TEXCOORD_FLOATS);
+			colorBuffer = BufferUtils.createFloatBuffer(capacity * COLOR_FLOATS);
+			indexBuffer = BufferUtils.createIntBuffer(capacity * 6);
+			for (int i = 0; i < capacity; i++) {
+				int b = i * 4;
+				indexBuffer.put(b).put(b + 1).put(b + 2).put(b).put(b + 2).put(b + 3);
+			}
+			indexBuffer.flip();
+			mesh.reconstruct(vertexBuffer, null, colorBuffer, new TexCoords(texCoordBuffer), indexBuffer);
+		}
+
+		void setStates(TextureState textureState, BlendState blendState) {
+			mesh.setRenderState(textureState);
+			mesh.setRenderState(blendState);
+			mesh.updateRenderState();
+		}
+	}
+}
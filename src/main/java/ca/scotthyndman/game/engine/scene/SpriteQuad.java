@@ -0,0 +1,80 @@
+package ca.scotthyndman.game.engine.scene;
+
+import java.nio.FloatBuffer;
+
+import com.jme.image.Texture;
+import com.jme.renderer.Renderer;
+import com.jme.scene.TexCoords;
+import com.jme.scene.shape.Quad;
+
+/**
+ * The quad of a {@link Graphic}. When the graphic is drawn by a {@link SpriteBatch} the quad stays in the scene graph,
+ * for its transforms, bounds and visibility, but doesn't draw itself.
+ * 
+ * @author scottyhyndman
+ */
+/* package-private */class SpriteQuad extends Quad {
+
+	static final long serialVersionUID = 1L;
+
+	/**
+	 * <code>true</code> if a sprite batch draws this quad.
+	 */
+	final boolean batched;
+
+	Texture texture;
+	BlendMode blendMode = BlendMode.ALPHA;
+
+	/**
+	 * The alpha last applied to the quad.
+	 */
+	float alpha = 1f;
+
+	/**
+	 * Half the size of the quad, which is centered on its origin.
+	 */
+	float halfWidth = 0.5f, halfHeight = 0.5f;
+
+	/**
+	 * The part of the texture shown.
+	 */
+	float u0 = 0f, v0 = 0f, u1 = 1f, v1 = 1f;
+
+	SpriteQuad(String name, boolean batched) {
+		super(name);
+		this.batched = batched;
+	}
+
+	@Override
+	public void resize(float width, float height) {
+		super.resize(width, height);
+		halfWidth = width / 2;
+		halfHeight = height / 2;
+	}
+
+	/**
+	 * Shows part of the texture, like a region of an atlas page.
+	 */
+	void setRegion(float u0, float v0, float u1, float v1) {
+		this.u0 = u0;
+		this.v0 = v0;
+		this.u1 = u1;
+		this.v1 = v1;
+
+		// A batch writes its own texture coordinates
+		TexCoords coords = batched ? null : getTextureCoords(0);
+		if (coords != null) {
+			FloatBuffer b = coords.coords;
+			b.clear();
+			b.put(u0).put(v1).put(u0).put(v0).put(u1).put(v0).put(u1).put(v1);
+			b.flip();
+		}
+	}
+
+	@Override
+	public void draw(Renderer r) {
+		if (!batched) {
+			super.draw(r);
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package ca.scotthyndman.game.engine.scene;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+import com.jme.scene.Node;
+import com.jme.scene.Spatial;
+
+/**
+ * Brings the world transforms and bounds of the scene graph up to date once a frame, touching only what changed. Nodes
+ * whose local transform changes, or that join a new parent, {@link #markDirty(Spatial) mark} their top spatial dirty;
+ * at the end of the frame {@link #update(Node, float)} recomputes the world transforms of the dirty subtrees, top
+ * down, skipping any subtree already inside another, and then the bounds of their ancestors, bottom up, each ancestor
+ * once.
+ * <p>
+ * Spatials changed outside of {@link Positioned}s, and spatials with jME controllers, must be marked each frame they
+ * need updating, or {@link #markAllDirty()} used to update the whole tree.
+ * 
+ * @author scottyhyndman
+ */
+public class TransformPass {
+
+	/**
+	 * The dirty spatials, as a set and in the order they were marked.
+	 */
+	private final IdentityHashMap<Spatial, Boolean> dirty = new IdentityHashMap<Spatial, Boolean>();
+	private final ArrayList<Spatial> dirtyList = new ArrayList<Spatial>(256);
+
+	/**
+	 * Nodes whose bounds alone are stale, like a group that lost a child.
+	 */
+	private final ArrayList<Node> boundsList = new ArrayList<Node>();
+
+	/**
+	 * The ancestors whose bounds need refreshing, by depth below the root.
+	 */
+	private final IdentityHashMap<Spatial, Boolean> stale = new IdentityHashMap<Spatial, Boolean>();
+	private final ArrayList<ArrayList<Node>> staleByDepth = new ArrayList<ArrayList<Node>>();
+
+	/**
+	 * The dirty subtrees the last pass updated.
+	 */
+	private final ArrayList<Spatial> subtrees = new ArrayList<Spatial>(256);
+
+	private boolean all = true;
+
+	/**
+	 * Whether the last pass updated the whole tree.
+	 */
+	private boolean lastWasFull;
+
+	/**
+	 * Updates the world transforms of the subtrees, on several threads, or <code>null</code> to update on the calling
+	 * thread.
+	 */
+	private ParallelUpdater parallel;
+
+	/**
+	 * Marks a spatial whose local transform changed, or that was attached to a new parent. Its subtree is updated by
+	 * the next pass. Called on the render thread.
+	 */
+	public void markDirty(Spatial spatial) {
+		if (dirty.put(spatial, Boolean.TRUE) == null) {
+			dirtyList.add(spatial);
+		}
+	}
+
+	/**
+	 * Marks a node whose bounds are stale though no transform changed, like a node that lost a child. Called on the
+	 * render thread.
+	 */
+	public void markBoundsDirty(Node node) {
+		boundsList.add(node);
+	}
+
+	/**
+	 * Makes the next pass update the whole tree.
+	 */
+	public void markAllDirty() {
+		all = true;
+	}
+
+	public void setParallelUpdater(ParallelUpdater parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Returns the number of subtrees the last pass updated, or -1 if it updated the whole tree.
+	 */
+	public int getLastSubtreeCount() {
+		return lastWasFull ? -1 : subtrees.size();
+	}
+
+	/**
+	 * Updates the world transforms and bounds of what changed under the root since the last pass. Dirty spatials that
+	 * aren't under the root are skipped, and updated when they are attached to it.
+	 */
+	public void update(Node root, float tpf) {
+		subtrees.clear();
+		lastWasFull = all;
+		if (all) {
+			if (parallel != null) {
+				parallel.updateGeometricState(root, tpf);
+			} else {
+				root.updateGeometricState(tpf, true);
+			}
+			all = false;
+			clear();
+			return;
+		}
+
+		//
+		// 1. Find the dirty subtrees that aren't inside another, and the ancestors above them
+		//
+		for (int i = 0, len = dirtyList.size(); i < len; i++) {
+			Spatial spatial = dirtyList.get(i);
+			int depth = depthBelow(root, spatial);
+			if (depth >= 0) {
+				subtrees.add(spatial);
+				markAncestorsStale(spatial.getParent(), depth - 1);
+			}
+		}
+		for (int i = 0, len = boundsList.size(); i < len; i++) {
+			Node node = boundsList.get(i);
+			int depth = depthBelow(root, node);
+			if (depth >= 0) {
+				markAncestorsStale(node, depth);
+			}
+		}
+
+		//
+		// 2. Top down through each subtree. The subtrees don't overlap, so they can be updated in parallel.
+		//
+		if (parallel != null) {
+			parallel.updateSubtrees(subtrees, tpf);
+		} else {
+			for (int i = 0, len = subtrees.size(); i < len; i++) {
+				subtrees.get(i).updateGeometricState(tpf, false);
+			}
+		}
+
+		//
+		// 3. Bottom up through the ancestors, deepest first
+		//
+		for (int d = staleByDepth.size() - 1; d >= 0; d--) {
+			ArrayList<Node> nodes = staleByDepth.get(d);
+			for (int i = 0, len = nodes.size(); i < len; i++) {
+				nodes.get(i).updateWorldBound();
+			}
+			nodes.clear();
+		}
+
+		clear();
+	}
+
+	private void clear() {
+		dirty.clear();
+		dirtyList.clear();
+		boundsList.clear();
+		stale.clear();
+		for (int d = 0; d < staleByDepth.size(); d++) {
+			staleByDepth.get(d).clear();
+		}
+	}
+
+	/**
+	 * Returns how many levels below the root the spatial is, or -1 if it isn't under the root, or if one of its
+	 * ancestors is dirty too.
+	 */
+	private int depthBelow(Node root, Spatial spatial) {
+		int depth = 0;
+		Spatial s = spatial;
+		while (s != root) {
+			s = s.getParent();
+			if (s == null || dirty.containsKey(s)) {
+				return -1;
+			}
+			depth++;
+		}
+		return depth;
+	}
+
+	/**
+	 * Queues a node and its ancestors up to the root to have their bounds refreshed, stopping at the first one already
+	 * queued.
+	 */
+	private void markAncestorsStale(Node node, int depth) {
+		for (; depth >= 0; node = node.getParent(), depth--) {
+			if (stale.put(node, Boolean.TRUE) != null) {
+				return;
+			}
+			while (staleByDepth.size() <= depth) {
+				staleByDepth.add(new ArrayList<Node>());
+			}
+			staleByDepth.get(depth).add(node);
+		}
+	}
+}
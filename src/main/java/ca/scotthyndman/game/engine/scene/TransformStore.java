@@ -0,0 +1,189 @@
+package ca.scotthyndman.game.engine.scene;
+
+import ca.scotthyndman.game.engine.animation.Real;
+
+/**
+ * Keeps the animatable transform properties of many {@link Positioned} nodes in primitive columns, one column per
+ * property and one slot per node. The node's {@link Real}s become views over their slot, so bulk passes over every
+ * node's x, alpha etc. can run as plain loops over a <code>float[]</code>.
+ * <p>
+ * The slots are kept in chunks of {@link #CHUNK_SIZE}. A chunk holds every column for its slots, one column after the
+ * other, so column <code>c</code> of slot <code>s</code> is at
+ * <code>getChunk(s / CHUNK_SIZE)[c * CHUNK_SIZE + s % CHUNK_SIZE]</code> (see {@link #index(int, int)}). Chunks
+ * never move once they are allocated, so a view may hold on to its chunk, and a write made while the store grows is
+ * never lost. The list of chunks is replaced, not changed, when the store grows, so it can be read from any thread.
+ * <p>
+ * The store is opt-in (see {@link ca.scotthyndman.game.engine.config.EngineConfig#setUseTransformStore(boolean)}).
+ * Nodes take a slot while they are part of the game, and give it back when they are removed.
+ */
+public class TransformStore {
+
+	public static final int X = 0;
+	public static final int Y = 1;
+	public static final int SCALE_X = 2;
+	public static final int SCALE_Y = 3;
+	public static final int CENTER_X = 4;
+	public static final int CENTER_Y = 5;
+	public static final int ANGLE = 6;
+	public static final int ALPHA = 7;
+
+	/**
+	 * The number of columns.
+	 */
+	public static final int COLUMN_COUNT = 8;
+
+	/**
+	 * The number of slots in a chunk.
+	 */
+	public static final int CHUNK_SIZE = 256;
+
+	private static final int CHUNK_SHIFT = 8;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/**
+	 * The chunks, in slot order, and their owners. Only ever replaced, under the store's lock.
+	 */
+	private volatile float[][] chunks;
+	private volatile Positioned[][] owners;
+
+	/**
+	 * The number of slots handed out so far. Written after the chunk holding them is published.
+	 */
+	private volatile int size;
+
+	private int[] freeSlots;
+	private int freeCount;
+
+	/**
+	 * Creates a new store.
+	 *
+	 * @param initialCapacity
+	 *            the number of slots to allocate up front
+	 */
+	public TransformStore(int initialCapacity) {
+		int chunkCount = Math.max(1, (initialCapacity + CHUNK_MASK) >> CHUNK_SHIFT);
+		float[][] c = new float[chunkCount][];
+		Positioned[][] o = new Positioned[chunkCount][];
+		for (int i = 0; i < chunkCount; i++) {
+			c[i] = new float[COLUMN_COUNT * CHUNK_SIZE];
+			o[i] = new Positioned[CHUNK_SIZE];
+		}
+		owners = o;
+		chunks = c;
+		freeSlots = new int[16];
+	}
+
+	/**
+	 * Takes a slot for the specified node.
+	 *
+	 * @return the slot
+	 */
+	public synchronized int allocate(Positioned owner) {
+		int slot;
+		if (freeCount > 0) {
+			slot = freeSlots[--freeCount];
+		} else {
+			slot = size;
+			if ((slot >> CHUNK_SHIFT) == chunks.length) {
+				grow();
+			}
+		}
+		owners[slot >> CHUNK_SHIFT][slot & CHUNK_MASK] = owner;
+		if (slot == size) {
+			size = slot + 1;
+		}
+		return slot;
+	}
+
+	/**
+	 * Gives a slot back to the store.
+	 */
+	public synchronized void release(int slot) {
+		owners[slot >> CHUNK_SHIFT][slot & CHUNK_MASK] = null;
+		if (freeCount == freeSlots.length) {
+			int[] slots = new int[freeCount * 2];
+			System.arraycopy(freeSlots, 0, slots, 0, freeCount);
+			freeSlots = slots;
+		}
+		freeSlots[freeCount++] = slot;
+	}
+
+	/**
+	 * Adds a chunk. The existing chunks are kept as they are, and the new lists are published once they are complete.
+	 */
+	private void grow() {
+		int n = chunks.length;
+		float[][] c = new float[n + 1][];
+		Positioned[][] o = new Positioned[n + 1][];
+		System.arraycopy(chunks, 0, c, 0, n);
+		System.arraycopy(owners, 0, o, 0, n);
+		c[n] = new float[COLUMN_COUNT * CHUNK_SIZE];
+		o[n] = new Positioned[CHUNK_SIZE];
+		owners = o;
+		chunks = c;
+	}
+
+	/**
+	 * Returns a chunk. Its slots run from <code>chunk * CHUNK_SIZE</code>; those up to {@link #getSize()} are valid,
+	 * but may be free.
+	 */
+	public float[] getChunk(int chunk) {
+		return chunks[chunk];
+	}
+
+	/**
+	 * Returns the chunk holding a slot.
+	 */
+	public float[] getChunkOf(int slot) {
+		return chunks[slot >> CHUNK_SHIFT];
+	}
+
+	/**
+	 * Returns the number of chunks holding the slots handed out so far.
+	 */
+	public int getChunkCount() {
+		return (size + CHUNK_MASK) >> CHUNK_SHIFT;
+	}
+
+	/**
+	 * Returns where a column of a slot is kept in the slot's chunk.
+	 *
+	 * @param column
+	 *            one of the column constants, like {@link #X}
+	 */
+	public static int index(int column, int slot) {
+		return column * CHUNK_SIZE + (slot & CHUNK_MASK);
+	}
+
+	/**
+	 * Returns a value of a slot.
+	 *
+	 * @param column
+	 *            one of the column constants, like {@link #X}
+	 */
+	public float get(int column, int slot) {
+		return chunks[slot >> CHUNK_SHIFT][index(column, slot)];
+	}
+
+	/**
+	 * Returns the node that owns a slot, or <code>null</code> if the slot is free.
+	 */
+	public Positioned getOwner(int slot) {
+		return owners[slot >> CHUNK_SHIFT][slot & CHUNK_MASK];
+	}
+
+	/**
+	 * Returns the number of slots that have ever been handed out. Bulk passes should loop up to this number, and skip
+	 * free slots.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of slots in use.
+	 */
+	public synchronized int getSlotCount() {
+		return size - freeCount;
+	}
+}
@@ -0,0 +1,281 @@
+package ca.scotthyndman.game.engine.scene;
+
+import java.util.ArrayList;
+
+import ca.scotthyndman.game.engine.entity.Env;
+
+/**
+ * Keeps track of the {@link Positioned} nodes that need updating on the next frame. Nodes enrol themselves when one of
+ * their properties changes value or is given a new behavior, and stay enrolled for as long as they are animating. Idle
+ * nodes are never visited.
+ *
+ * @author scottyhyndman
+ */
+public class UpdateScheduler {
+
+	/**
+	 * Nodes to update on the next frame.
+	 */
+	private ArrayList<Positioned> active = new ArrayList<Positioned>(256);
+
+	/**
+	 * Nodes being updated on the current frame. Swapped with {@link #active} at the start of each frame.
+	 */
+	private ArrayList<Positioned> updating = new ArrayList<Positioned>(256);
+
+	/**
+	 * The number of registered nodes.
+	 */
+	private int registered;
+
+	/**
+	 * <code>true</code> if nodes are shown between their last two updates, see {@link #interpolate(float)}.
+	 */
+	private boolean interpolating;
+
+	/**
+	 * The number of updates so far.
+	 */
+	private int step;
+
+	/**
+	 * Nodes whose geometry changed since the last interpolation, or that are showing interpolated geometry.
+	 */
+	private ArrayList<Positioned> moved = new ArrayList<Positioned>(256);
+
+	/**
+	 * Shares out the updates between threads, or <code>null</code>.
+	 */
+	private ParallelUpdater parallel;
+
+	/**
+	 * For each node being updated in parallel, whether it needs the second part of its update, and whether it has to be
+	 * updated on the calling thread instead.
+	 */
+	private boolean[] finish = new boolean[0];
+	private boolean[] serial = new boolean[0];
+
+	/**
+	 * Registers a node with this scheduler. The node is updated on the next frame, and from then on whenever it asks to
+	 * be.
+	 */
+	public synchronized void register(Positioned positioned) {
+		if (positioned.scheduler == this) {
+			return;
+		}
+		if (positioned.scheduler != null) {
+			positioned.scheduler.unregister(positioned);
+		}
+
+		positioned.scheduler = this;
+		registered++;
+		schedule(positioned);
+	}
+
+	/**
+	 * Unregisters a node, so that it is no longer updated.
+	 */
+	public synchronized void unregister(Positioned positioned) {
+		if (positioned.scheduler != this) {
+			return;
+		}
+
+		if (positioned.scheduled) {
+			// A node being updated is no longer on the active list, and is skipped by the update instead
+			int i = positioned.scheduledIndex;
+			int last = active.size() - 1;
+			if (i <= last && active.get(i) == positioned) {
+				Positioned moved = active.remove(last);
+				if (i != last) {
+					active.set(i, moved);
+					moved.scheduledIndex = i;
+				}
+			}
+			positioned.scheduled = false;
+		}
+		positioned.scheduler = null;
+		registered--;
+	}
+
+	/**
+	 * Schedules a registered node for an update on the next frame. Does nothing if the node is already scheduled.
+	 */
+	public synchronized void schedule(Positioned positioned) {
+		if (!positioned.scheduled && positioned.scheduler == this) {
+			positioned.scheduled = true;
+			positioned.scheduledIndex = active.size();
+			active.add(positioned);
+		}
+	}
+
+	/**
+	 * Updates all the scheduled nodes. Nodes that are still animating afterwards are scheduled again.
+	 * <p>
+	 * With a {@link ParallelUpdater}, and enough nodes to share out, the nodes' properties and local transforms are
+	 * updated in parallel. World transforms are then left to {@link ParallelUpdater#updateGeometricState}. Nodes
+	 * whose class overrides {@link Positioned#update(Env, float)}, such as nodes written in Ruby, are updated one at a
+	 * time afterwards.
+	 */
+	public void update(Env env, float tpf) {
+		ArrayList<Positioned> list;
+		ParallelUpdater parallel;
+		synchronized (this) {
+			step++;
+
+			list = active;
+			active = updating;
+			updating = list;
+
+			int len = list.size();
+			parallel = this.parallel;
+			if (parallel == null || parallel.getThreadCount() == 1 || len < parallel.getThreshold() * 2) {
+				for (int i = 0; i < len; i++) {
+					list.get(i).scheduled = false;
+				}
+
+				for (int i = 0; i < len; i++) {
+					Positioned p = list.get(i);
+					if (p.scheduler != this) {
+						continue;
+					}
+
+					p.update(env, tpf);
+					if (p.isAnimating()) {
+						schedule(p);
+					}
+				}
+
+				list.clear();
+				return;
+			}
+
+			if (finish.length < len) {
+				finish = new boolean[Math.max(len, finish.length * 2)];
+				serial = new boolean[finish.length];
+			}
+			for (int i = 0; i < len; i++) {
+				// The nodes stay marked as scheduled, so that changes they make to themselves don't schedule them
+				serial[i] = !parallel.canUpdateInParallel(list.get(i));
+			}
+		}
+
+		// Outside the lock, so that the update threads can schedule other nodes
+		parallel.updateState(list, this, serial, finish, tpf);
+
+		synchronized (this) {
+			int len = list.size();
+			for (int i = 0; i < len; i++) {
+				Positioned p = list.get(i);
+				if (p.scheduler == this) {
+					p.scheduled = false;
+				}
+			}
+
+			for (int i = 0; i < len; i++) {
+				Positioned p = list.get(i);
+				if (p.scheduler != this) {
+					continue;
+				}
+
+				if (serial[i]) {
+					p.update(env, tpf);
+				} else if (finish[i]) {
+					p.finishUpdate(tpf, false);
+				}
+				if (p.isAnimating()) {
+					schedule(p);
+				}
+			}
+
+			list.clear();
+		}
+	}
+
+	/**
+	 * Sets the updater that shares out the updates between threads, or <code>null</code> to update on the calling
+	 * thread only.
+	 */
+	public synchronized void setParallelUpdater(ParallelUpdater parallel) {
+		this.parallel = parallel;
+	}
+
+	public synchronized ParallelUpdater getParallelUpdater() {
+		return parallel;
+	}
+
+	/**
+	 * Called by a node whose geometry changed during an update.
+	 */
+	/* package-private */void moved(Positioned positioned) {
+		if (!interpolating) {
+			return;
+		}
+
+		positioned.movedStep = step;
+		if (!positioned.interpolated) {
+			positioned.interpolated = true;
+			moved.add(positioned);
+		}
+	}
+
+	/**
+	 * Sets whether nodes are shown between their last two updates. This is used when the game is simulated in fixed
+	 * steps, to render the time between them; {@link #interpolate(float)} is then called after each frame's steps.
+	 */
+	public synchronized void setInterpolating(boolean interpolating) {
+		if (!interpolating) {
+			for (int i = 0; i < moved.size(); i++) {
+				Positioned p = moved.get(i);
+				p.interpolateGeometry(1f);
+				p.interpolated = false;
+			}
+			moved.clear();
+		}
+		this.interpolating = interpolating;
+	}
+
+	public synchronized boolean isInterpolating() {
+		return interpolating;
+	}
+
+	/**
+	 * Shows the nodes that moved in the last update between the geometry they had before it and the geometry they have
+	 * now. Nodes that didn't move are shown as they are.
+	 *
+	 * @param alpha
+	 *            how far between the last update and the next one the frame is, from 0 to 1
+	 */
+	public synchronized void interpolate(float alpha) {
+		ArrayList<Positioned> list = moved;
+		int len = list.size();
+		int kept = 0;
+		for (int i = 0; i < len; i++) {
+			Positioned p = list.get(i);
+			if (p.movedStep == step && p.scheduler == this) {
+				p.interpolateGeometry(alpha);
+				list.set(kept++, p);
+			} else {
+				// Still showing where it was between two earlier updates
+				p.interpolateGeometry(1f);
+				p.interpolated = false;
+			}
+		}
+		for (int i = len - 1; i >= kept; i--) {
+			list.remove(i);
+		}
+	}
+
+	/**
+	 * Returns the number of nodes scheduled for the next frame.
+	 */
+	public synchronized int getScheduledCount() {
+		return active.size();
+	}
+
+	/**
+	 * Returns the number of registered nodes.
+	 */
+	public synchronized int getRegisteredCount() {
+		return registered;
+	}
+}
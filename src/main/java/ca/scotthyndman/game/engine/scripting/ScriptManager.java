@@ -174,7 +174,9 @@ public abstract class ScriptManager {
 		ScriptManager mgr;
 		switch (mode) {
 		case RELEASE:
+		case HEADLESS:
 			mgr = new ReleaseScriptManager();
+			break;
 		case DEBUG:
 		default:
 			mgr = new DebugScriptManager();
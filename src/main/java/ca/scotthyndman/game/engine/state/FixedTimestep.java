@@ -0,0 +1,127 @@
+package ca.scotthyndman.game.engine.state;
+
+/**
+ * Divides the time that passes between frames into simulation steps of a fixed length. Each frame the game hands in
+ * the length of the frame, and runs as many steps as {@link #advance(long)} returns; time that doesn't make a whole
+ * step is carried over to the next frame, and {@link #getAlpha()} tells how far the display is between the last two
+ * steps.
+ * <p>
+ * Time is counted in whole nanoseconds, so the steps the game runs depend only on the frame times handed in, and every
+ * step is exactly as long as the others.
+ * <p>
+ * To keep a slow frame from causing more steps, which make the next frame slower still, at most
+ * {@link #getMaxStepsPerFrame()} steps are run per frame. Time beyond that is dropped, and the game runs slower than
+ * real time until it catches up.
+ *
+ * @author scottyhyndman
+ */
+public final class FixedTimestep {
+
+	private final long stepNanos;
+	private final float stepSeconds;
+	private final int maxStepsPerFrame;
+
+	/**
+	 * Time handed in but not yet used up by a step, in nanoseconds. Always less than a step between frames.
+	 */
+	private long accumulator;
+
+	private long stepCount;
+	private long droppedNanos;
+
+	/**
+	 * Creates a new time step.
+	 *
+	 * @param rate
+	 *            the number of steps per second
+	 * @param maxStepsPerFrame
+	 *            the most steps to run in one frame
+	 * @throws IllegalArgumentException
+	 *             if either number is less than one
+	 */
+	public FixedTimestep(int rate, int maxStepsPerFrame) {
+		if (rate < 1) {
+			throw new IllegalArgumentException("The simulation rate must be at least 1, was " + rate);
+		}
+		if (maxStepsPerFrame < 1) {
+			throw new IllegalArgumentException("At least one step per frame is needed, was " + maxStepsPerFrame);
+		}
+
+		this.stepNanos = Math.round(1e9 / rate);
+		this.stepSeconds = (float) (stepNanos / 1e9);
+		this.maxStepsPerFrame = maxStepsPerFrame;
+	}
+
+	/**
+	 * Advances by a frame.
+	 *
+	 * @param frameNanos
+	 *            the length of the frame, in nanoseconds
+	 * @return the number of steps to run, between 0 and {@link #getMaxStepsPerFrame()}
+	 */
+	public int advance(long frameNanos) {
+		accumulator += frameNanos;
+		long steps = accumulator / stepNanos;
+		if (steps > maxStepsPerFrame) {
+			// Keep the part of a step the frame ended in, and drop the steps we can't afford
+			long kept = accumulator % stepNanos;
+			droppedNanos += accumulator - kept - maxStepsPerFrame * stepNanos;
+			accumulator = kept;
+			steps = maxStepsPerFrame;
+		} else {
+			accumulator -= steps * stepNanos;
+		}
+
+		stepCount += steps;
+		return (int) steps;
+	}
+
+	/**
+	 * Returns how far the time handed in so far is between the last step and the next one, from 0 to just under 1.
+	 * Rendering interpolates between the last two simulated states by this much.
+	 */
+	public float getAlpha() {
+		return (float) ((double) accumulator / stepNanos);
+	}
+
+	/**
+	 * Returns the length of a step, in nanoseconds.
+	 */
+	public long getStepNanos() {
+		return stepNanos;
+	}
+
+	/**
+	 * Returns the length of a step, in seconds. This is the time per frame the simulation is updated with.
+	 */
+	public float getStepSeconds() {
+		return stepSeconds;
+	}
+
+	public int getMaxStepsPerFrame() {
+		return maxStepsPerFrame;
+	}
+
+	/**
+	 * Returns the number of steps handed out since this time step was created or reset.
+	 */
+	public long getStepCount() {
+		return stepCount;
+	}
+
+	/**
+	 * Returns the time dropped by the limit on steps per frame, in nanoseconds.
+	 */
+	public long getDroppedNanos() {
+		return droppedNanos;
+	}
+
+	/**
+	 * Forgets the time carried over and the counts.
+	 */
+	public void reset() {
+		accumulator = 0;
+		stepCount = 0;
+		droppedNanos = 0;
+	}
+}
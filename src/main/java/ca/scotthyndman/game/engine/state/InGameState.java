@@ -4,18 +4,35 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.Vector;
 import java.util.concurrent.Callable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import ca.scotthyndman.game.engine.Engine;
+import ca.scotthyndman.game.engine.animation.AnimationSystem;
+import ca.scotthyndman.game.engine.animation.TimeBase;
+import ca.scotthyndman.game.engine.animation.Timeline;
+import ca.scotthyndman.game.engine.config.EngineConfig;
 import ca.scotthyndman.game.engine.entity.Env;
 import ca.scotthyndman.game.engine.event.EventManager;
 import ca.scotthyndman.game.engine.input.InputSystem;
+import ca.scotthyndman.game.engine.job.FramePhase;
+import ca.scotthyndman.game.engine.job.JobSystem;
+import ca.scotthyndman.game.engine.profile.ProfileSection;
+import ca.scotthyndman.game.engine.profile.Profiler;
 import ca.scotthyndman.game.engine.scene.Graphic;
 import ca.scotthyndman.game.engine.scene.Group;
+import ca.scotthyndman.game.engine.scene.ParallelUpdater;
 import ca.scotthyndman.game.engine.scene.Positioned;
 import ca.scotthyndman.game.engine.scene.RootNode;
 import ca.scotthyndman.game.engine.scene.SGEvent;
+import ca.scotthyndman.game.engine.scene.SnapshotBuffer;
+import ca.scotthyndman.game.engine.scene.SpatialIndex;
+import ca.scotthyndman.game.engine.scene.SpriteBatch;
+import ca.scotthyndman.game.engine.scene.TransformPass;
+import ca.scotthyndman.game.engine.scene.TransformStore;
 import ca.scotthyndman.game.engine.scene.Updatable;
 import ca.scotthyndman.game.engine.scene.UpdateManager;
+import ca.scotthyndman.game.engine.scene.UpdateScheduler;
 import ca.scotthyndman.game.engine.scripting.ScriptEngine;
 import ca.scotthyndman.game.engine.scripting.ScriptManager;
 
@@ -35,6 +52,14 @@ import com.jmex.game.state.load.TransitionGameState;
  */
 public class InGameState extends BasicGameState implements UpdateManager {
 
+	private static final Logger logger = Logger.getLogger(InGameState.class.getName());
+
+	/**
+	 * The shortest time the simulation thread takes over a frame, when neither a fixed time step nor a frame rate sets
+	 * one, so that it doesn't spin a core.
+	 */
+	private static final long MIN_SIMULATION_FRAME_NANOS = 1000000L;
+
 	/**
 	 * Display system.
 	 */
@@ -58,7 +83,80 @@ public class InGameState extends BasicGameState implements UpdateManager {
 	/**
 	 * A list of updatables that are notified on every frame.
 	 */
-	private Vector<Updatable> updatables = new Vector<Updatable>(2000);;
+	private Vector<Updatable> updatables = new Vector<Updatable>(64);
+
+	/**
+	 * Evaluates property behaviors and timelines, before the scene graph is updated.
+	 */
+	private AnimationSystem animationSystem = new AnimationSystem();
+
+	/**
+	 * Converts frame times for the animation system without losing fractions of a millisecond.
+	 */
+	private TimeBase timeBase = new TimeBase();
+
+	/**
+	 * Updates scene graph nodes, but only the ones that have changed or are animating.
+	 */
+	private UpdateScheduler scheduler = new UpdateScheduler();
+
+	/**
+	 * Divides frames into simulation steps, or <code>null</code> if the game is simulated a frame at a time.
+	 */
+	private FixedTimestep timestep;
+
+	/**
+	 * Carries the scene to the render thread when the simulation runs on a thread of its own, otherwise
+	 * <code>null</code>.
+	 */
+	private SnapshotBuffer snapshots;
+
+	private Thread simulationThread;
+	private volatile boolean simulating;
+
+	/**
+	 * What stopped the simulation thread, rethrown by the render thread on its next update.
+	 */
+	private volatile Throwable simulationFailure;
+
+	/**
+	 * Runs engine work on other threads. Each frame waits for the jobs of its {@link FramePhase}s.
+	 */
+	private JobSystem jobs;
+
+	/**
+	 * Measures the parts of each frame. The spans are cheap to mark even when it is on, and free when it is off.
+	 */
+	private Profiler profiler;
+
+	/**
+	 * Measures the simulation's frames: the profiler's simulation timeline with a simulation thread, or else the
+	 * profiler itself.
+	 */
+	private Profiler simulationProfiler;
+	private ProfileSection inputSection, eventSection, updatableSection, animationSection, sceneSection,
+			interpolateSection, simulationJobsSection, jobsSection, snapshotSection, worldSection, indexSection,
+			batchSection, renderSection;
+
+	/**
+	 * Updates the world transforms of what changed, or <code>null</code> if the whole tree is updated every frame.
+	 */
+	private TransformPass transforms;
+
+	/**
+	 * Draws the graphics in batches, or <code>null</code> if each draws itself.
+	 */
+	private SpriteBatch spriteBatch;
+
+	/**
+	 * Finds the nodes in a part of the world, or <code>null</code> if the nodes aren't indexed.
+	 */
+	private SpatialIndex spatialIndex;
+
+	/**
+	 * Updates the scene graph on several threads, or <code>null</code> if it is updated on one.
+	 */
+	private ParallelUpdater parallel;
 
 	/**
 	 * The script containing game logic.
@@ -67,6 +165,9 @@ public class InGameState extends BasicGameState implements UpdateManager {
 
 	/**
 	 * Constructs a new {@link InGameState}.
+	 * 
+	 * @param transition
+	 *            the loading screen, moved on as the state is set up, or <code>null</code> for none
 	 */
 	public InGameState(String name, String gameScript, TransitionGameState transition) {
 		super(name);
@@ -74,15 +175,60 @@ public class InGameState extends BasicGameState implements UpdateManager {
 		this.eventManager = Engine.getInstance().getEventManager();
 		this.scriptManager = Engine.getInstance().getScriptManager();
 
+		this.jobs = Engine.getInstance().getJobSystem();
+		EngineConfig config = Engine.getInstance().getConfig();
+		this.profiler = Engine.getInstance().getProfiler();
+		this.simulationProfiler = config.isSimulationThread() ? profiler.getSimulationProfiler() : profiler;
+		inputSection = simulationProfiler.getSection("input");
+		eventSection = simulationProfiler.getSection("events");
+		updatableSection = simulationProfiler.getSection("updatables");
+		animationSection = simulationProfiler.getSection("animation");
+		sceneSection = simulationProfiler.getSection("scene update");
+		interpolateSection = simulationProfiler.getSection("interpolation");
+		simulationJobsSection = simulationProfiler.getSection("waiting for jobs");
+		jobsSection = profiler.getSection("waiting for jobs");
+		snapshotSection = profiler.getSection("snapshot");
+		worldSection = profiler.getSection("world transforms");
+		indexSection = profiler.getSection("spatial index");
+		batchSection = profiler.getSection("sprite batch");
+		renderSection = profiler.getSection("render");
+
+		if (config.isFixedTimestep()) {
+			timestep = new FixedTimestep(config.getSimulationRate(), config.getMaxStepsPerFrame());
+			scheduler.setInterpolating(true);
+		}
+		if (config.isSimulationThread()) {
+			snapshots = new SnapshotBuffer();
+			Env.getInstance().setSnapshotBuffer(snapshots);
+		}
+		if (config.getUpdateThreads() > 1) {
+			parallel = new ParallelUpdater(jobs, config.getUpdateThreads(), config.getParallelThreshold());
+			scheduler.setParallelUpdater(parallel);
+			animationSystem.setParallelUpdater(parallel);
+		}
+		if (config.isTransformPass()) {
+			transforms = new TransformPass();
+			transforms.setParallelUpdater(parallel);
+			Env.getInstance().setTransformPass(transforms);
+		}
+		if (config.isSpriteBatching() && !Env.getInstance().isHeadless()) {
+			spriteBatch = new SpriteBatch();
+			Env.getInstance().setSpriteBatch(spriteBatch);
+		}
+		if (config.isSpatialIndex()) {
+			spatialIndex = new SpatialIndex(config.getSpatialIndexCellSize());
+			Env.getInstance().setSpatialIndex(spatialIndex);
+		}
+
 		// 1. SET UP THE ROOT NODE
 
 		buildRootNode();
-		transition.increment();
+		increment(transition);
 
 		// 2. INITIALIZE INPUT
 
 		initInput();
-		transition.increment();
+		increment(transition);
 
 		// // 3. START UP THE EVENT ENGINE
 		//
@@ -92,18 +238,28 @@ public class InGameState extends BasicGameState implements UpdateManager {
 		// 4. UPDATE THE ROOT NODE
 
 		updateRootNode();
-		transition.increment();
+		increment(transition);
 
 		// 5. START UP SCRIPTING SUPPORT
 
 		initScripts();
-		transition.increment();
+		increment(transition);
 	}
 
 	Graphic g;
 
+	private static void increment(TransitionGameState transition) {
+		if (transition != null) {
+			transition.increment();
+		}
+	}
+
 	private void buildRootNode() {
 		rootNode = new RootNode(this);
+		if (Env.getInstance().isHeadless()) {
+			return;
+		}
+
 		ZBufferState buf = display.getRenderer().createZBufferState();
 		buf.setEnabled(true);
 		buf.setFunction(ZBufferState.TestFunction.LessThanOrEqualTo);
@@ -117,6 +273,7 @@ public class InGameState extends BasicGameState implements UpdateManager {
 
 	private void initScripts() {
 		Env.getInstance().setUpdateManager(this);
+		Env.getInstance().setAnimationSystem(animationSystem);
 		Env.getInstance().setRootNode((RootNode) rootNode);
 
 		ScriptEngine engine = scriptManager.getEngine();
@@ -150,6 +307,10 @@ public class InGameState extends BasicGameState implements UpdateManager {
 		// Reset timer
 		Timer.getTimer().reset();
 
+		if (Env.getInstance().isHeadless()) {
+			return;
+		}
+
 		// Set background color
 		Callable<Object> exe = new Callable<Object>() {
 			public Object call() {
@@ -169,27 +330,215 @@ public class InGameState extends BasicGameState implements UpdateManager {
 	/**
 	 * the update Method gets called once per Frame. Spawn Random Asteroids with the Earth as target. Updates the
 	 * position of the skybox/stardust. Updates the chasecam.
+	 * <p>
+	 * With a fixed time step (see {@link EngineConfig#isFixedTimestep()}) the frame runs as many whole simulation steps
+	 * as fit in the time that has passed, and the scene is shown between the last two. With a simulation thread (see
+	 * {@link EngineConfig#isSimulationThread()}) this only applies the latest state the simulation handed over.
 	 * 
 	 * @param tpf
 	 *            time since last frame in ms.
 	 */
 	@Override
 	public final void update(float tpf) {
-		if (Engine.isPaused()) {
+		if (snapshots != null) {
+			Throwable failure = simulationFailure;
+			if (failure != null) {
+				simulationFailure = null;
+				if (failure instanceof Error) {
+					throw (Error) failure;
+				}
+				throw failure instanceof RuntimeException ? (RuntimeException) failure : new RuntimeException(failure);
+			}
+			if (simulationThread == null) {
+				startSimulation();
+			}
+			long start = profiler.start();
+			snapshots.apply();
+			profiler.end(snapshotSection, start);
+		} else {
+			advance(tpf);
+		}
+
+		long start = profiler.start();
+		if (transforms != null) {
+			transforms.update(rootNode, tpf);
+		} else if (parallel != null) {
+			parallel.updateGeometricState(rootNode, tpf);
+		} else {
+			rootNode.updateGeometricState(tpf, true);
+		}
+		start = profiler.split(worldSection, start);
+
+		if (spatialIndex != null) {
+			spatialIndex.update();
+			start = profiler.split(indexSection, start);
+		}
+		if (spriteBatch != null) {
+			spriteBatch.build(rootNode);
+			profiler.end(batchSection, start);
+		}
+
+		// A headless game is never rendered, so its frames end here
+		if (Env.getInstance().isHeadless()) {
+			start = profiler.start();
+			jobs.awaitPhase(FramePhase.RENDER);
+			profiler.end(jobsSection, start);
+			profiler.endFrame();
+		}
+	}
+
+	/**
+	 * Advances the game by the time that has passed since the last call.
+	 */
+	private void advance(float tpf) {
+		boolean paused = Engine.isPaused();
+		if (paused) {
 			tpf = 0;
 		}
 
+		if (timestep == null) {
+			simulate(tpf, timeBase.advance(tpf), true);
+		} else {
+			int steps = timestep.advance(timeBase.advance(tpf));
+			if (paused) {
+				// Keep handling input, so that the game can be resumed
+				input.update(0);
+			}
+			for (int i = 0; i < steps; i++) {
+				simulate(timestep.getStepSeconds(), timestep.getStepNanos(), i == 0);
+			}
+			long start = simulationProfiler.start();
+			scheduler.interpolate(timestep.getAlpha());
+			simulationProfiler.end(interpolateSection, start);
+		}
+
+		long start = simulationProfiler.start();
+		jobs.awaitPhase(FramePhase.SIMULATION);
+		simulationProfiler.end(simulationJobsSection, start);
+	}
+
+	/**
+	 * Advances the game by a frame, or by a step when the time step is fixed.
+	 * 
+	 * @param pollInput
+	 *            <code>true</code> to handle input. With a fixed time step input is handled by the first step of each
+	 *            frame, so every step sees input the same way however the frames fall.
+	 */
+	private void simulate(float tpf, long nanos, boolean pollInput) {
 		Env env = Env.getInstance();
-		input.update(tpf);
+		Profiler profiler = this.simulationProfiler;
+		long start = profiler.start();
+		if (pollInput) {
+			input.update(tpf);
+			start = profiler.split(inputSection, start);
+		}
 		eventManager.update(tpf);
+		start = profiler.split(eventSection, start);
 		synchronized (updatables) {
 			int len = updatables.size();
-			for (int i = 0; i < len; i++) {
-				updatables.get(i).update(env, tpf);
+			if (start == 0) {
+				for (int i = 0; i < len; i++) {
+					updatables.get(i).update(env, tpf);
+				}
+			} else {
+				for (int i = 0; i < len; i++) {
+					Updatable u = updatables.get(i);
+					long s = profiler.start();
+					u.update(env, tpf);
+					profiler.end(profiler.getSection(u.getClass()), s);
+				}
 			}
 		}
+		start = profiler.split(updatableSection, start);
+		animationSystem.updateNanos(nanos);
+		start = profiler.split(animationSection, start);
+		scheduler.update(env, tpf);
+		profiler.end(sceneSection, start);
+	}
 
-		rootNode.updateGeometricState(tpf, true);
+	//
+	// ======== THE SIMULATION THREAD
+	//
+
+	private void startSimulation() {
+		simulating = true;
+		simulationThread = new Thread(new Runnable() {
+			public void run() {
+				runSimulation();
+			}
+		}, "Simulation");
+		simulationThread.setDaemon(true);
+		simulationThread.start();
+	}
+
+	/**
+	 * Advances the game and hands the scene to the render thread, once per step with a fixed time step, or at the
+	 * configured frame rate. Without either the simulation runs at most once every
+	 * {@link #MIN_SIMULATION_FRAME_NANOS}.
+	 * <p>
+	 * An exception thrown by the game stops the simulation, and is rethrown by the render thread on its next update, as
+	 * if the game had been updated there.
+	 */
+	private void runSimulation() {
+		int framerate = Engine.getInstance().getConfig().getFramerate();
+		long frameNanos = timestep != null ? timestep.getStepNanos() : framerate > 0 ? 1000000000L / framerate
+				: MIN_SIMULATION_FRAME_NANOS;
+
+		long last = System.nanoTime();
+		while (simulating) {
+			long now = System.nanoTime();
+			try {
+				advance((now - last) / 1e9f);
+				snapshots.publish();
+				simulationProfiler.endFrame();
+			} catch (Throwable t) {
+				logger.log(Level.SEVERE, "The simulation stopped", t);
+				simulating = false;
+				simulationFailure = t;
+				return;
+			}
+			last = now;
+
+			long wait = frameNanos - (System.nanoTime() - now);
+			try {
+				if (wait > 0) {
+					Thread.sleep(wait / 1000000L, (int) (wait % 1000000L));
+				} else {
+					Thread.yield();
+				}
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Stops the simulation thread and the update threads, if any.
+	 */
+	@Override
+	public void cleanup() {
+		super.cleanup();
+
+		simulating = false;
+		if (simulationThread != null) {
+			simulationThread.interrupt();
+			try {
+				simulationThread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			simulationThread = null;
+		}
+		if (parallel != null) {
+			parallel.shutdown();
+		}
+	}
+
+	/**
+	 * Returns the time step the game is simulated with, or <code>null</code> if it is simulated a frame at a time.
+	 */
+	public FixedTimestep getTimestep() {
+		return timestep;
 	}
 
 	public void updatableWasAdded(Updatable updatable) {
@@ -198,11 +547,9 @@ public class InGameState extends BasicGameState implements UpdateManager {
 			return;
 		}
 
-		synchronized (updatables) {
-			updatables.add(updatable);
-		}
+		updatableWasAdded(updatable, true);
 		if (updatable instanceof Positioned && SGEvent.isRooted((Positioned) updatable)) {
-			eventManager.dispatchEvent("nodeAdded", new SGEvent((Positioned) updatable));
+			dispatchNodeEvent("nodeAdded", (Positioned) updatable);
 		}
 	}
 
@@ -211,22 +558,51 @@ public class InGameState extends BasicGameState implements UpdateManager {
 			groupWasRemoved((Group) updatable, false);
 			return;
 		}
-		synchronized (updatables) {
-			updatables.remove(updatable);
-		}
+		updatableWasRemoved(updatable, true);
 
 		if (updatable instanceof Positioned) {
-			eventManager.dispatchEvent("nodeRemoved", new SGEvent((Positioned) updatable));
+			dispatchNodeEvent("nodeRemoved", (Positioned) updatable);
 		}
 	}
 
 	void updatableWasAdded(Updatable updatable, boolean noTypeCheck) {
+		if (updatable instanceof Positioned) {
+			Positioned p = (Positioned) updatable;
+			if (snapshots != null) {
+				snapshots.register(p);
+			}
+			TransformStore store = Env.getInstance().getTransformStore();
+			if (store != null) {
+				p.attachTransformStore(store);
+			}
+			p.attachAnimationSystem(animationSystem);
+			scheduler.register(p);
+			return;
+		}
+		if (updatable instanceof Timeline) {
+			animationSystem.add((Timeline) updatable);
+			return;
+		}
 		synchronized (updatables) {
 			updatables.add(updatable);
 		}
 	}
 
 	void updatableWasRemoved(Updatable updatable, boolean noTypeCheck) {
+		if (updatable instanceof Positioned) {
+			Positioned p = (Positioned) updatable;
+			scheduler.unregister(p);
+			if (snapshots != null) {
+				snapshots.unregister(p);
+			}
+			p.detachAnimationSystem();
+			p.detachTransformStore();
+			return;
+		}
+		if (updatable instanceof Timeline) {
+			animationSystem.remove((Timeline) updatable);
+			return;
+		}
 		synchronized (updatables) {
 			updatables.remove(updatable);
 		}
@@ -244,7 +620,7 @@ public class InGameState extends BasicGameState implements UpdateManager {
 		updatableWasAdded(updatable, true);
 
 		if (SGEvent.isRooted((Positioned) updatable)) {
-			eventManager.dispatchEvent("nodeAdded", new SGEvent((Positioned) updatable));
+			dispatchNodeEvent("nodeAdded", (Positioned) updatable);
 		}
 	}
 
@@ -260,7 +636,7 @@ public class InGameState extends BasicGameState implements UpdateManager {
 		updatableWasAdded(updatable, true);
 
 		if (!noEvent && SGEvent.isRooted((Positioned) updatable)) {
-			eventManager.dispatchEvent("nodeAdded", new SGEvent((Positioned) updatable));
+			dispatchNodeEvent("nodeAdded", (Positioned) updatable);
 		}
 	}
 
@@ -275,7 +651,7 @@ public class InGameState extends BasicGameState implements UpdateManager {
 		}
 		updatableWasRemoved(updatable, true);
 
-		eventManager.dispatchEvent("nodeRemoved", new SGEvent((Positioned) updatable));
+		dispatchNodeEvent("nodeRemoved", (Positioned) updatable);
 	}
 
 	public void groupWasRemoved(Group updatable, boolean noEvent) {
@@ -290,7 +666,16 @@ public class InGameState extends BasicGameState implements UpdateManager {
 		updatableWasRemoved(updatable, true);
 
 		if (!noEvent) {
-			eventManager.dispatchEvent("nodeRemoved", new SGEvent((Positioned) updatable));
+			dispatchNodeEvent("nodeRemoved", (Positioned) updatable);
+		}
+	}
+
+	/**
+	 * Tells the event handlers that a node was added or removed, if any are listening.
+	 */
+	private void dispatchNodeEvent(String eventName, Positioned node) {
+		if (eventManager.hasHandlers(eventName)) {
+			eventManager.dispatchEvent(eventName, new SGEvent(node));
 		}
 	}
 
@@ -303,10 +688,17 @@ public class InGameState extends BasicGameState implements UpdateManager {
 	 */
 	@Override
 	public void render(float tpf) {
-		if (Engine.isPaused()) {
-			tpf = 0;
+		// A headless game ends its frames in update()
+		if (Env.getInstance().isHeadless()) {
+			return;
 		}
-		super.render(tpf);
+
+		long start = profiler.start();
+		jobs.awaitPhase(FramePhase.RENDER);
+		start = profiler.split(jobsSection, start);
+		super.render(Engine.isPaused() ? 0 : tpf);
+		profiler.end(renderSection, start);
+		profiler.endFrame();
 	}
 
 }
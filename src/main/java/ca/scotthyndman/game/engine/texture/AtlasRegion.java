@@ -0,0 +1,101 @@
+package ca.scotthyndman.game.engine.texture;
+
+import com.jme.image.Texture;
+
+/**
+ * A texture packed into a {@link TextureAtlas}: the page it is on, where it is on the page, and the texture coordinates
+ * of its corners.
+ * 
+ * @author scottyhyndman
+ */
+public final class AtlasRegion {
+
+	private final TextureAtlas atlas;
+	private final String name;
+	private final int page;
+	private final int x, y, width, height;
+
+	/* package-private */AtlasRegion(TextureAtlas atlas, String name, int page, int x, int y, int width, int height) {
+		this.atlas = atlas;
+		this.name = name;
+		this.page = page;
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Returns the name of the texture, relative to the texture directory.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public TextureAtlas getAtlas() {
+		return atlas;
+	}
+
+	/**
+	 * Returns the index of the page the texture is on.
+	 */
+	public int getPage() {
+		return page;
+	}
+
+	/**
+	 * Returns the texture of the page the texture is on.
+	 */
+	public Texture getTexture() {
+		return atlas.getPageTexture(page);
+	}
+
+	/**
+	 * Returns the left of the texture on its page, in pixels.
+	 */
+	public int getX() {
+		return x;
+	}
+
+	/**
+	 * Returns the top of the texture on its page, in pixels.
+	 */
+	public int getY() {
+		return y;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	//
+	// ======== TEXTURE COORDINATES
+	//
+	// Pages are loaded upside down, like every jME texture, so v runs up from the bottom of the page.
+	//
+
+	public float getU0() {
+		return (float) x / atlas.getPageSize();
+	}
+
+	public float getU1() {
+		return (float) (x + width) / atlas.getPageSize();
+	}
+
+	public float getV0() {
+		return 1f - (float) (y + height) / atlas.getPageSize();
+	}
+
+	public float getV1() {
+		return 1f - (float) y / atlas.getPageSize();
+	}
+
+	@Override
+	public String toString() {
+		return name + " [page " + page + ", " + x + "," + y + " " + width + "x" + height + "]";
+	}
+}
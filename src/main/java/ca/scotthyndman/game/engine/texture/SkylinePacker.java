@@ -0,0 +1,162 @@
+package ca.scotthyndman.game.engine.texture;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+
+/**
+ * Places rectangles on a page with the skyline bottom-left heuristic. The packer keeps the outline of the tops of the
+ * rectangles placed so far, as segments from left to right, and puts each new rectangle where its top ends up lowest,
+ * breaking ties with the narrowest segment. Space under the skyline is never reused, which wastes a little room on
+ * mixed sizes but keeps every placement linear in the number of segments.
+ * <p>
+ * Rectangles pack best when they go in tallest first.
+ * 
+ * @author scottyhyndman
+ */
+public class SkylinePacker {
+
+	private final int width;
+	private final int height;
+
+	/**
+	 * The skyline, from left to right. The segments cover the width of the page without gaps.
+	 */
+	private final ArrayList<Segment> skyline = new ArrayList<Segment>();
+
+	private long usedArea;
+
+	/**
+	 * Creates an empty page.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if either side is less than one
+	 */
+	public SkylinePacker(int width, int height) {
+		if (width < 1 || height < 1) {
+			throw new IllegalArgumentException("The page must be at least 1x1, was " + width + "x" + height);
+		}
+
+		this.width = width;
+		this.height = height;
+		skyline.add(new Segment(0, 0, width));
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the fraction of the page covered by rectangles.
+	 */
+	public float getOccupancy() {
+		return (float) ((double) usedArea / ((long) width * height));
+	}
+
+	/**
+	 * Places a rectangle on the page.
+	 * 
+	 * @return where the rectangle went, or <code>null</code> if it doesn't fit
+	 */
+	public Rectangle insert(int w, int h) {
+		int best = -1;
+		int bestTop = Integer.MAX_VALUE;
+		int bestWidth = Integer.MAX_VALUE;
+		int bestY = 0;
+		for (int i = 0, len = skyline.size(); i < len; i++) {
+			int y = fit(i, w, h);
+			if (y < 0) {
+				continue;
+			}
+			int segmentWidth = skyline.get(i).width;
+			if (y + h < bestTop || (y + h == bestTop && segmentWidth < bestWidth)) {
+				best = i;
+				bestTop = y + h;
+				bestWidth = segmentWidth;
+				bestY = y;
+			}
+		}
+		if (best < 0) {
+			return null;
+		}
+
+		Rectangle placed = new Rectangle(skyline.get(best).x, bestY, w, h);
+		raise(best, placed);
+		usedArea += (long) w * h;
+		return placed;
+	}
+
+	/**
+	 * Returns the lowest the rectangle can sit with its left side at the start of a segment, or -1 if it doesn't fit
+	 * there.
+	 */
+	private int fit(int index, int w, int h) {
+		int x = skyline.get(index).x;
+		if (x + w > width) {
+			return -1;
+		}
+
+		int y = 0;
+		int left = w;
+		for (int i = index; left > 0; i++) {
+			Segment segment = skyline.get(i);
+			y = Math.max(y, segment.y);
+			if (y + h > height) {
+				return -1;
+			}
+			left -= segment.width;
+		}
+		return y;
+	}
+
+	/**
+	 * Puts a segment on top of a placed rectangle, cutting back the segments it covers, and merges segments of the same
+	 * height.
+	 */
+	private void raise(int index, Rectangle placed) {
+		skyline.add(index, new Segment(placed.x, placed.y + placed.height, placed.width));
+
+		int right = placed.x + placed.width;
+		for (int i = index + 1; i < skyline.size();) {
+			Segment segment = skyline.get(i);
+			if (segment.x >= right) {
+				break;
+			}
+			int cut = right - segment.x;
+			if (cut >= segment.width) {
+				skyline.remove(i);
+			} else {
+				segment.x += cut;
+				segment.width -= cut;
+				break;
+			}
+		}
+
+		for (int i = 0; i < skyline.size() - 1;) {
+			Segment segment = skyline.get(i);
+			Segment next = skyline.get(i + 1);
+			if (segment.y == next.y) {
+				segment.width += next.width;
+				skyline.remove(i + 1);
+			} else {
+				i++;
+			}
+		}
+	}
+
+	private static final class Segment {
+
+		int x;
+		int y;
+		int width;
+
+		Segment(int x, int y, int width) {
+			this.x = x;
+			this.y = y;
+			this.width = width;
+		}
+	}
+}
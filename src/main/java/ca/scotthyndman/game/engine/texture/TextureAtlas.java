@@ -0,0 +1,563 @@
+package ca.scotthyndman.game.engine.texture;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.imageio.ImageIO;
+
+import ca.scotthyndman.game.engine.job.Job;
+import ca.scotthyndman.game.engine.job.JobSystem;
+
+import com.jme.image.Texture;
+import com.jme.util.TextureManager;
+
+/**
+ * Small textures packed into a few large pages, so that graphics showing different images can share a texture, and a
+ * {@link ca.scotthyndman.game.engine.scene.SpriteBatch} can draw them together. Textures are placed with a
+ * {@link SkylinePacker}, a pixel apart, and their edges are copied into the gap so that filtering doesn't bleed
+ * neighbours into each other. Textures with a side longer than half a page are left out, and are loaded on their own as
+ * before.
+ * <p>
+ * {@link #load(URL, File, int, JobSystem)} packs the textures of a directory when the game loads, decoding them on the
+ * job system's workers, and caches the pages and where each texture went on disk. The cache is used for as long as
+ * the textures don't change; the atlas can also be built ahead of time by running this class.
+ *
+ * @author scottyhyndman
+ */
+public class TextureAtlas {
+
+	private static final Logger logger = Logger.getLogger(TextureAtlas.class.getName());
+
+	public static final int DEFAULT_PAGE_SIZE = 1024;
+
+	/**
+	 * The gap around each texture, filled with copies of its edges.
+	 */
+	private static final int PADDING = 1;
+
+	private static final String INDEX_FILE = "atlas.txt";
+	private static final String INDEX_HEADER = "affinity-atlas 1";
+
+	private final int pageSize;
+	private final HashMap<String, AtlasRegion> regions = new HashMap<String, AtlasRegion>();
+
+	/**
+	 * The pages, as images and files. Images are read from the files when needed; files are only there once the atlas
+	 * is saved.
+	 */
+	private final ArrayList<BufferedImage> pageImages = new ArrayList<BufferedImage>();
+	private final ArrayList<File> pageFiles = new ArrayList<File>();
+	private Texture[] pageTextures;
+
+	private boolean fromCache;
+
+	private TextureAtlas(int pageSize) {
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("The page size must be at least 1, was " + pageSize);
+		}
+		this.pageSize = pageSize;
+	}
+
+	//
+	// ======== BUILDING
+	//
+
+	/**
+	 * Packs images into an atlas with square pages of the given size. Images with a side longer than half a page are
+	 * left out.
+	 */
+	public static TextureAtlas build(Map<String, BufferedImage> images, int pageSize) {
+		TextureAtlas atlas = new TextureAtlas(pageSize);
+
+		ArrayList<Map.Entry<String, BufferedImage>> entries = new ArrayList<Map.Entry<String, BufferedImage>>();
+		for (Map.Entry<String, BufferedImage> entry : images.entrySet()) {
+			if (atlas.fits(entry.getValue())) {
+				entries.add(entry);
+			}
+		}
+		Collections.sort(entries, new Comparator<Map.Entry<String, BufferedImage>>() {
+			public int compare(Map.Entry<String, BufferedImage> a, Map.Entry<String, BufferedImage> b) {
+				BufferedImage ia = a.getValue(), ib = b.getValue();
+				if (ia.getHeight() != ib.getHeight()) {
+					return ib.getHeight() - ia.getHeight();
+				}
+				if (ia.getWidth() != ib.getWidth()) {
+					return ib.getWidth() - ia.getWidth();
+				}
+				return a.getKey().compareTo(b.getKey());
+			}
+		});
+
+		ArrayList<SkylinePacker> packers = new ArrayList<SkylinePacker>();
+		for (Map.Entry<String, BufferedImage> entry : entries) {
+			BufferedImage image = entry.getValue();
+			int w = image.getWidth(), h = image.getHeight();
+
+			// The first page with room, or a new one
+			Rectangle placed = null;
+			int page = 0;
+			for (; page < packers.size(); page++) {
+				placed = packers.get(page).insert(w + 2 * PADDING, h + 2 * PADDING);
+				if (placed != null) {
+					break;
+				}
+			}
+			if (placed == null) {
+				SkylinePacker packer = new SkylinePacker(pageSize, pageSize);
+				packers.add(packer);
+				atlas.pageImages.add(new BufferedImage(pageSize, pageSize, BufferedImage.TYPE_INT_ARGB));
+				placed = packer.insert(w + 2 * PADDING, h + 2 * PADDING);
+			}
+
+			int x = placed.x + PADDING, y = placed.y + PADDING;
+			atlas.copy(image, atlas.pageImages.get(page), x, y);
+			atlas.regions.put(entry.getKey(), new AtlasRegion(atlas, entry.getKey(), page, x, y, w, h));
+		}
+		return atlas;
+	}
+
+	private boolean fits(BufferedImage image) {
+		int largest = pageSize / 2 - 2 * PADDING;
+		return image.getWidth() <= largest && image.getHeight() <= largest;
+	}
+
+	/**
+	 * Copies an image onto a page, and its edges into the padding around it.
+	 */
+	private void copy(BufferedImage image, BufferedImage page, int x, int y) {
+		int w = image.getWidth(), h = image.getHeight();
+		Graphics2D g = page.createGraphics();
+		try {
+			g.setComposite(AlphaComposite.Src);
+			g.drawImage(image, x, y, null);
+			g.drawImage(image, x - 1, y, x, y + h, 0, 0, 1, h, null);
+			g.drawImage(image, x + w, y, x + w + 1, y + h, w - 1, 0, w, h, null);
+			g.drawImage(image, x, y - 1, x + w, y, 0, 0, w, 1, null);
+			g.drawImage(image, x, y + h, x + w, y + h + 1, 0, h - 1, w, h, null);
+		} finally {
+			g.dispose();
+		}
+	}
+
+	//
+	// ======== LOADING AND CACHING
+	//
+
+	/**
+	 * Returns an atlas of the textures in a directory: from the cache directory if it holds an atlas of the same
+	 * textures, otherwise packed, and saved to the cache directory.
+	 *
+	 * @param directory
+	 *            the directory holding the textures, in the file system or in a jar
+	 * @throws IOException
+	 *             if the textures can't be listed or read, or the atlas can't be saved
+	 */
+	public static TextureAtlas load(URL directory, File cacheDirectory, int pageSize) throws IOException {
+		return load(directory, cacheDirectory, pageSize, new JobSystem(0));
+	}
+
+	/**
+	 * Returns an atlas of the textures in a directory, like {@link #load(URL, File, int)}, decoding the textures on the
+	 * workers of a job system when they need packing.
+	 */
+	public static TextureAtlas load(URL directory, File cacheDirectory, int pageSize, JobSystem jobs)
+			throws IOException {
+		TreeMap<String, Source> sources = listTextures(directory);
+		String key = key(sources, pageSize);
+
+		TextureAtlas atlas = read(cacheDirectory, key, pageSize);
+		if (atlas != null) {
+			return atlas;
+		}
+
+		long start = System.currentTimeMillis();
+		TreeMap<String, BufferedImage> images = decode(sources, jobs);
+		atlas = build(images, pageSize);
+		atlas.save(cacheDirectory, key);
+		logger.info("Packed " + atlas.regions.size() + " of " + images.size() + " textures into "
+				+ atlas.getPageCount() + " page(s) in " + (System.currentTimeMillis() - start) + "ms");
+		return atlas;
+	}
+
+	/**
+	 * Decodes the textures in parallel, one job each, and returns them by name. Files that aren't images are left out.
+	 *
+	 * @throws IOException
+	 *             if a texture can't be read
+	 */
+	private static TreeMap<String, BufferedImage> decode(TreeMap<String, Source> sources, JobSystem jobs)
+			throws IOException {
+		ArrayList<DecodeJob> decoding = new ArrayList<DecodeJob>(sources.size());
+		for (Source source : sources.values()) {
+			DecodeJob job = new DecodeJob(source);
+			decoding.add(job);
+			jobs.submit(job);
+		}
+
+		TreeMap<String, BufferedImage> images = new TreeMap<String, BufferedImage>();
+		for (DecodeJob job : decoding) {
+			jobs.await(job);
+			Throwable failure = job.getFailure();
+			if (failure instanceof IOException) {
+				throw (IOException) failure;
+			} else if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			} else if (failure instanceof Error) {
+				throw (Error) failure;
+			} else if (failure != null) {
+				throw new IOException("Can't read " + job.source.url + ": " + failure);
+			}
+			if (job.image != null) {
+				images.put(job.source.name, job.image);
+			}
+		}
+		return images;
+	}
+
+	/**
+	 * Reads one texture file.
+	 */
+	private static final class DecodeJob extends Job {
+
+		final Source source;
+		volatile BufferedImage image;
+
+		DecodeJob(Source source) {
+			super("texture decode");
+			this.source = source;
+		}
+
+		@Override
+		protected void run() throws IOException {
+			image = ImageIO.read(source.url);
+		}
+	}
+
+	/**
+	 * Saves the pages, and where each texture went, to a directory, replacing any atlas saved there before. The index is
+	 * removed first and written last, under a temporary name that is then renamed, so a save that fails part way leaves
+	 * no index behind, and the atlas is built again the next time it is loaded.
+	 *
+	 * @param key
+	 *            identifies the textures the atlas was built from
+	 */
+	public void save(File directory, String key) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Can't create " + directory);
+		}
+		File index = new File(directory, INDEX_FILE);
+		if (index.exists() && !index.delete()) {
+			throw new IOException("Can't replace " + index);
+		}
+
+		ArrayList<File> files = new ArrayList<File>();
+		for (int i = 0; i < pageImages.size(); i++) {
+			File file = new File(directory, "page-" + i + ".png");
+			ImageIO.write(getPageImage(i), "png", file);
+			files.add(file);
+		}
+		pageFiles.clear();
+		pageFiles.addAll(files);
+
+		// The pages of a larger atlas saved here before
+		for (int i = pageImages.size();; i++) {
+			File stale = new File(directory, "page-" + i + ".png");
+			if (!stale.exists()) {
+				break;
+			}
+			if (!stale.delete()) {
+				throw new IOException("Can't delete " + stale);
+			}
+		}
+
+		File temp = new File(directory, INDEX_FILE + ".tmp");
+		PrintWriter out = new PrintWriter(new FileWriter(temp));
+		try {
+			out.println(INDEX_HEADER + "\t" + key + "\t" + pageSize + "\t" + pageImages.size());
+			for (AtlasRegion r : regions.values()) {
+				out.println(r.getName() + "\t" + r.getPage() + "\t" + r.getX() + "\t" + r.getY() + "\t" + r.getWidth()
+						+ "\t" + r.getHeight());
+			}
+		} finally {
+			out.close();
+		}
+		if (out.checkError() || !temp.renameTo(index)) {
+			temp.delete();
+			throw new IOException("Can't write the atlas index in " + directory);
+		}
+	}
+
+	/**
+	 * Reads an atlas saved to a directory, or returns <code>null</code> if there isn't one, or it was built from other
+	 * textures.
+	 */
+	private static TextureAtlas read(File directory, String key, int pageSize) {
+		File index = new File(directory, INDEX_FILE);
+		if (!index.isFile()) {
+			return null;
+		}
+
+		try {
+			BufferedReader in = new BufferedReader(new FileReader(index));
+			try {
+				String[] header = in.readLine().split("\t");
+				if (header.length != 4 || !header[0].equals(INDEX_HEADER) || !header[1].equals(key)
+						|| Integer.parseInt(header[2]) != pageSize) {
+					return null;
+				}
+
+				TextureAtlas atlas = new TextureAtlas(pageSize);
+				int pageCount = Integer.parseInt(header[3]);
+				for (int i = 0; i < pageCount; i++) {
+					File file = new File(directory, "page-" + i + ".png");
+					if (!file.isFile()) {
+						return null;
+					}
+					atlas.pageImages.add(null);
+					atlas.pageFiles.add(file);
+				}
+				for (String line; (line = in.readLine()) != null;) {
+					String[] f = line.split("\t");
+					atlas.regions.put(f[0], new AtlasRegion(atlas, f[0], Integer.parseInt(f[1]), Integer
+							.parseInt(f[2]), Integer.parseInt(f[3]), Integer.parseInt(f[4]), Integer.parseInt(f[5])));
+				}
+				atlas.fromCache = true;
+				return atlas;
+			} finally {
+				in.close();
+			}
+		} catch (Exception e) {
+			logger.log(Level.WARNING, "Ignoring the damaged texture atlas in " + directory, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Returns a key that changes whenever a texture is added, removed or changed, or the page size changes.
+	 */
+	private static String key(TreeMap<String, Source> sources, int pageSize) {
+		StringBuilder text = new StringBuilder().append(pageSize);
+		for (Source source : sources.values()) {
+			text.append('\n').append(source.name).append('\t').append(source.size).append('\t').append(source.time);
+		}
+
+		try {
+			byte[] digest = MessageDigest.getInstance("MD5").digest(text.toString().getBytes("UTF-8"));
+			StringBuilder key = new StringBuilder();
+			for (byte b : digest) {
+				key.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+			}
+			return key.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Lists the images directly inside a directory, in the file system or in a jar, by name.
+	 */
+	private static TreeMap<String, Source> listTextures(URL directory) throws IOException {
+		TreeMap<String, Source> sources = new TreeMap<String, Source>();
+		if (directory == null) {
+			throw new IOException("No texture directory");
+		}
+
+		if ("file".equals(directory.getProtocol())) {
+			File dir;
+			try {
+				dir = new File(directory.toURI());
+			} catch (URISyntaxException e) {
+				throw new IOException("Bad texture directory " + directory);
+			}
+			File[] files = dir.listFiles();
+			if (files == null) {
+				throw new IOException("Can't list the textures in " + dir);
+			}
+			for (File file : files) {
+				if (file.isFile() && isImage(file.getName())) {
+					sources.put(file.getName(), new Source(file.getName(), file.toURI().toURL(), file.length(), file
+							.lastModified()));
+				}
+			}
+			return sources;
+		}
+
+		URLConnection connection = directory.openConnection();
+		if (!(connection instanceof JarURLConnection)) {
+			throw new IOException("Can't list the textures in " + directory);
+		}
+		String prefix = ((JarURLConnection) connection).getEntryName();
+		prefix = prefix == null ? "" : prefix.endsWith("/") ? prefix : prefix + "/";
+		JarFile jar = ((JarURLConnection) connection).getJarFile();
+		for (Enumeration<JarEntry> e = jar.entries(); e.hasMoreElements();) {
+			JarEntry entry = e.nextElement();
+			String name = entry.getName();
+			if (!entry.isDirectory() && name.startsWith(prefix) && name.indexOf('/', prefix.length()) < 0
+					&& isImage(name)) {
+				name = name.substring(prefix.length());
+				sources.put(name, new Source(name, new URL(directory, name), entry.getSize(), entry.getTime()));
+			}
+		}
+		return sources;
+	}
+
+	private static boolean isImage(String name) {
+		String lower = name.toLowerCase();
+		return lower.endsWith(".png") || lower.endsWith(".jpg") || lower.endsWith(".jpeg") || lower.endsWith(".gif")
+				|| lower.endsWith(".bmp");
+	}
+
+	/**
+	 * A texture file, and what is needed to tell if it changed.
+	 */
+	private static final class Source {
+
+		final String name;
+		final URL url;
+		final long size;
+		final long time;
+
+		Source(String name, URL url, long size, long time) {
+			this.name = name;
+			this.url = url;
+			this.size = size;
+			this.time = time;
+		}
+	}
+
+	//
+	// ======== PROPERTIES
+	//
+
+	/**
+	 * Returns the width and height of the pages, in pixels.
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	public int getPageCount() {
+		return pageImages.size();
+	}
+
+	/**
+	 * Returns the region holding a texture, or <code>null</code> if the texture isn't in the atlas.
+	 *
+	 * @param name
+	 *            the name of the texture, relative to the texture directory
+	 */
+	public AtlasRegion getRegion(String name) {
+		return regions.get(name);
+	}
+
+	public Collection<AtlasRegion> getRegions() {
+		return Collections.unmodifiableCollection(regions.values());
+	}
+
+	/**
+	 * Returns <code>true</code> if the atlas was read from the cache instead of being packed.
+	 */
+	public boolean isFromCache() {
+		return fromCache;
+	}
+
+	/**
+	 * Returns the fraction of the pages covered by textures.
+	 */
+	public float getEfficiency() {
+		if (pageImages.isEmpty()) {
+			return 0f;
+		}
+
+		long used = 0;
+		for (AtlasRegion r : regions.values()) {
+			used += (long) r.getWidth() * r.getHeight();
+		}
+		return (float) ((double) used / ((long) pageSize * pageSize * pageImages.size()));
+	}
+
+	/**
+	 * Returns the image of a page, reading it from the cache if need be.
+	 */
+	public synchronized BufferedImage getPageImage(int page) throws IOException {
+		BufferedImage image = pageImages.get(page);
+		if (image == null) {
+			image = ImageIO.read(pageFiles.get(page));
+			pageImages.set(page, image);
+		}
+		return image;
+	}
+
+	/**
+	 * Returns the texture of a page, loading it the first time.
+	 *
+	 * @throws IllegalStateException
+	 *             if the atlas hasn't been saved
+	 */
+	public synchronized Texture getPageTexture(int page) {
+		if (pageTextures == null) {
+			pageTextures = new Texture[pageImages.size()];
+		}
+		if (pageTextures[page] == null) {
+			if (pageFiles.isEmpty()) {
+				throw new IllegalStateException("The atlas must be saved before its pages can be loaded");
+			}
+			try {
+				pageTextures[page] = TextureManager.loadTexture(pageFiles.get(page).toURI().toURL(),
+						Texture.MinificationFilter.BilinearNoMipMaps, Texture.MagnificationFilter.Bilinear, 1.0f, true);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		return pageTextures[page];
+	}
+
+	//
+	// ======== BUILDING AHEAD OF TIME
+	//
+
+	/**
+	 * Builds the atlas of a texture directory into a cache directory, ahead of time.
+	 * <p>
+	 * Usage: <code>TextureAtlas &lt;texture directory&gt; &lt;cache directory&gt; [page size]</code>
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: TextureAtlas <texture directory> <cache directory> [page size]");
+			System.exit(1);
+		}
+
+		int pageSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PAGE_SIZE;
+		TextureAtlas atlas = load(new File(args[0]).toURI().toURL(), new File(args[1]), pageSize);
+		System.out.println(String.format("%d textures on %d page(s), %.1f%% used%s", atlas.regions.size(), atlas
+				.getPageCount(), atlas.getEfficiency() * 100, atlas.isFromCache() ? " (cached)" : ""));
+	}
+}
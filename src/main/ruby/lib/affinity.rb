@@ -58,7 +58,7 @@ module Affinity
       
       # Perform any init operations
       if self.class.methods.include? "init_methods" and not self.class.init_methods.nil?
-        self.class.init_methods.each do |name, method|
+        self.class.init_methods.each_value do |method|
           method.bind(self).call
         end
       end
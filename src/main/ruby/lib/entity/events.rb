@@ -103,7 +103,7 @@ module Affinity
         return if is_init_defined
 
         define_method :event_init do 
-          self.class.events.each do |action, info|
+          self.class.events.each_value do |info|
             @action_handlers = {}
             @action_handlers[info[:action]] = engine.add_action_handler info.merge(:object => self)
           end
@@ -1,6 +1,5 @@
 require 'thread'
 require 'fiber'
-require 'tracer'
 #
 # Redefined to include threading
 #
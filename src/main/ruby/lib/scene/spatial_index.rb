@@ -0,0 +1,42 @@
+import 'ca.scotthyndman.game.engine.scene.SpatialIndex'
+
+#
+# Ruby-friendly queries over the nodes in the scene. Turn the index on with the
+# engine config's spatialIndex setting, then use env.spatial_index.
+#
+class SpatialIndex
+  #
+  # The nodes at a point, as an array
+  #
+  def at(x, y)
+    query_point(x, y).to_a
+  end
+
+  #
+  # The nodes overlapping a rectangle, as an array
+  #
+  def in_rect(min_x, min_y, max_x, max_y)
+    query_rect(min_x, min_y, max_x, max_y).to_a
+  end
+
+  #
+  # The nodes within a distance of a point, as an array
+  #
+  def within(x, y, radius)
+    query_radius(x, y, radius).to_a
+  end
+
+  #
+  # The k nodes nearest a point, nearest first
+  #
+  def nearest_to(x, y, k = 1)
+    nearest(x, y, k).to_a
+  end
+
+  #
+  # The nodes under the mouse, for hover checks
+  #
+  def under_mouse
+    at(env.input_state.mouse_x, env.input_state.mouse_y)
+  end
+end
@@ -0,0 +1,59 @@
+package ca.scotthyndman.game.engine;
+
+import static org.junit.Assert.fail;
+
+import ca.scotthyndman.game.engine.profile.AllocationTracker;
+
+/**
+ * Base class for tests that hold a frame to an allocation budget. A test builds a scene, and passes one frame of it to
+ * {@link #assertFrameAllocatesAtMost(long, Runnable)}, which warms the frame up and then fails if any of the measured
+ * frames allocates more than the budget. On JVMs that can't measure allocations the assertion passes without checking.
+ */
+public abstract class AbstractAllocationTest {
+
+	/**
+	 * The frames run before measuring, so that first-time setup and compilation are out of the way.
+	 */
+	protected static final int WARMUP_FRAMES = 500;
+
+	/**
+	 * The frames measured.
+	 */
+	protected static final int MEASURED_FRAMES = 200;
+
+	/**
+	 * Fails if a steady-state frame allocates more than the budget.
+	 * 
+	 * @param bytes
+	 *            the most bytes a frame may allocate
+	 * @param frame
+	 *            runs one frame
+	 */
+	protected static void assertFrameAllocatesAtMost(long bytes, Runnable frame) {
+		if (!AllocationTracker.isSupported()) {
+			return;
+		}
+
+		long worst = measureFrameAllocation(frame, WARMUP_FRAMES, MEASURED_FRAMES);
+		if (worst > bytes) {
+			fail("A frame allocated " + worst + " bytes, more than the budget of " + bytes);
+		}
+	}
+
+	/**
+	 * Runs a frame a number of times to warm it up, then returns the most bytes a measured run allocated.
+	 */
+	protected static long measureFrameAllocation(Runnable frame, int warmup, int frames) {
+		for (int i = 0; i < warmup; i++) {
+			frame.run();
+		}
+
+		long worst = 0;
+		for (int i = 0; i < frames; i++) {
+			long before = AllocationTracker.getAllocatedBytes();
+			frame.run();
+			worst = Math.max(worst, AllocationTracker.between(before, AllocationTracker.getAllocatedBytes()));
+		}
+		return worst;
+	}
+}
@@ -0,0 +1,43 @@
+package ca.scotthyndman.game.engine;
+
+/**
+ * Base class for the engine's micro-benchmarks. Benchmarks are plain <code>main</code> programs that live next to the
+ * code they measure; this class takes care of warming up and timing the measured runs.
+ */
+public abstract class AbstractBenchmark {
+
+	/**
+	 * Runs an operation a number of times to warm it up, then returns the average time of a measured run.
+	 * 
+	 * @param operation
+	 *            the operation to time
+	 * @param warmup
+	 *            the number of unmeasured runs
+	 * @param iterations
+	 *            the number of measured runs
+	 * @return the average time of a run, in nanoseconds
+	 */
+	protected static long measure(Runnable operation, int warmup, int iterations) {
+		for (int i = 0; i < warmup; i++) {
+			operation.run();
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			operation.run();
+		}
+		return (System.nanoTime() - start) / iterations;
+	}
+
+	/**
+	 * Prints a single result line.
+	 * 
+	 * @param name
+	 *            what was measured
+	 * @param nanos
+	 *            the time of a run, in nanoseconds
+	 */
+	protected static void report(String name, long nanos) {
+		System.out.println(String.format("%-48s %12.3f us", name, nanos / 1000.0));
+	}
+}
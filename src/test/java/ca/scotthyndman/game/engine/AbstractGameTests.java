@@ -1,6 +1,7 @@
 package ca.scotthyndman.game.engine;
 
 import java.net.URISyntaxException;
+import java.net.URL;
 
 import ca.scotthyndman.game.engine.Engine;
 
@@ -12,15 +13,21 @@ public class AbstractGameTests {
 	static {
 		// Set locations to find resources
 		try {
-			ResourceLocatorTool.addResourceLocator(ResourceLocatorTool.TYPE_TEXTURE, new SimpleResourceLocator(
-					Engine.class.getClassLoader().getResource("textures/")));
-			ResourceLocatorTool.addResourceLocator(ResourceLocatorTool.TYPE_AUDIO, new SimpleResourceLocator(
-					Engine.class.getClassLoader().getResource("sounds/")));
-			ResourceLocatorTool.addResourceLocator("script", new SimpleResourceLocator(
-					Engine.class.getClassLoader().getResource("lib/")));
+			addResourceLocator(ResourceLocatorTool.TYPE_TEXTURE, "textures/");
+			addResourceLocator(ResourceLocatorTool.TYPE_AUDIO, "sounds/");
+			addResourceLocator("script", "lib/");
 		} catch (URISyntaxException e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * Adds a resource locator for a directory on the classpath, if the test classpath has it.
+	 */
+	private static void addResourceLocator(String type, String path) throws URISyntaxException {
+		URL url = Engine.class.getClassLoader().getResource(path);
+		if (url != null) {
+			ResourceLocatorTool.addResourceLocator(type, new SimpleResourceLocator(url));
+		}
+	}
 }
@@ -0,0 +1,57 @@
+package ca.scotthyndman.game.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.Engine.GameMode;
+import ca.scotthyndman.game.engine.config.EngineConfig;
+import ca.scotthyndman.game.engine.entity.Env;
+
+/**
+ * Boots the whole engine without a display, and checks that the game script gets its ticks and the config is left as
+ * it was.
+ */
+public class HeadlessEngineTests extends AbstractGameTests {
+
+	private static final CountDownLatch ticks = new CountDownLatch(3);
+
+	/**
+	 * Called by <code>headless_tick.rb</code> on each tick.
+	 */
+	public static void ticked(float tpf) {
+		ticks.countDown();
+	}
+
+	@Test
+	public void runsAScriptTickWithoutADisplay() throws Exception {
+		EngineConfig config = new EngineConfig();
+		config.setGameMode(GameMode.HEADLESS);
+		config.setGameScript("headless_tick.rb");
+		config.addScriptLoadPaths("src/test/ruby");
+		config.setFramerate(45);
+		// The script loads no textures or sounds
+		config.getResourcePaths().clear();
+
+		Engine engine = new Engine(config);
+		try {
+			assertTrue(engine.isHeadless());
+			assertTrue(Env.getInstance().isHeadless());
+
+			// No loading screen without a display
+			engine.start(null);
+			engine.runGame(null);
+			assertTrue("The game script wasn't ticked", ticks.await(30, TimeUnit.SECONDS));
+
+			// The game runs uncapped without changing the caller's config
+			assertEquals(-1, engine.getGame().getSettings().getFramerate());
+			assertEquals(45, config.getFramerate());
+		} finally {
+			Engine.shutDown();
+		}
+	}
+}
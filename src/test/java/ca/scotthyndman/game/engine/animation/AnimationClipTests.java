@@ -0,0 +1,76 @@
+package ca.scotthyndman.game.engine.animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks that one clip can be played on several sets of properties at once.
+ */
+public class AnimationClipTests {
+
+	private static final AnimationClip HOP = new AnimationClip.Builder()
+			.animate(1, -40, 0, 100, Easing.REGULAR_IN, 100)
+			.animate(1, 0, -40, 100)
+			.animateTo(0, 100, 200)
+			.build();
+
+	@Test
+	public void sortsChannels() {
+		assertEquals(2, HOP.getTargetCount());
+		assertEquals(3, HOP.getChannelCount());
+		assertEquals(200, HOP.getDuration());
+	}
+
+	@Test
+	public void playsIndependently() {
+		Real x1 = new Real(), y1 = new Real(), x2 = new Real(50), y2 = new Real();
+		ClipPlayback first = HOP.play(x1, y1);
+		ClipPlayback second = HOP.play(x2, y2);
+		assertSame(first.getClip(), second.getClip());
+
+		first.updateAnimation(50);
+		assertEquals(25, x1.get(), 0.0001);
+		assertEquals(-20, y1.get(), 0.0001);
+
+		second.updateAnimation(150);
+		assertEquals(87.5f, x2.get(), 0.0001);
+		assertEquals(-30, y2.get(), 0.0001);
+		assertEquals(25, x1.get(), 0.0001);
+
+		first.updateAnimation(500);
+		assertTrue(first.isFinished());
+		assertEquals(100, x1.get(), 0);
+		assertEquals(0, y1.get(), 0);
+	}
+
+	@Test
+	public void rewindsToEarlierTweens() {
+		Real x = new Real(), y = new Real();
+		Timeline timeline = new Timeline();
+		timeline.add(HOP.play(x, y));
+		timeline.updateAnimation(150);
+		assertEquals(-30, y.get(), 0.0001);
+
+		timeline.seek(50, false);
+		assertEquals(-20, y.get(), 0.0001);
+		assertEquals(25, x.get(), 0.0001);
+	}
+
+	@Test
+	public void loops() {
+		Real x = new Real(), y = new Real();
+		ClipPlayback playback = HOP.play(x, y);
+		playback.loop(2);
+		playback.updateAnimation(250);
+		assertEquals(25, x.get(), 0.0001);
+		assertEquals(-20, y.get(), 0.0001);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void needsEveryTarget() {
+		HOP.play(new Real());
+	}
+}
@@ -0,0 +1,72 @@
+package ca.scotthyndman.game.engine.animation;
+
+import ca.scotthyndman.game.engine.AbstractBenchmark;
+
+import com.jme.renderer.ColorRGBA;
+
+/**
+ * Measures the time to advance a number of running tweens by one frame, comparing each property updating its own
+ * behavior with an {@link AnimationSystem} updating them all. The tweens are a mix of {@link FloatTween},
+ * {@link IntTween}, {@link ColorTween} and {@link FloatConstantChange}, spread over as many properties.
+ */
+public class AnimationSystemBenchmark extends AbstractBenchmark {
+
+	private static final int[] TWEENS = { 1000, 10000, 100000 };
+	private static final int FRAME = 16;
+	private static final int DURATION = Integer.MAX_VALUE / 4;
+
+	public static void main(String[] args) {
+		for (int count : TWEENS) {
+			final Property[] properties = createProperties(count);
+			long perProperty = measure(new Runnable() {
+				public void run() {
+					for (int i = 0; i < properties.length; i++) {
+						properties[i].update(FRAME);
+					}
+				}
+			}, 1000, 1000);
+
+			final AnimationSystem system = new AnimationSystem();
+			for (Property p : createProperties(count)) {
+				system.add(p);
+			}
+			long batched = measure(new Runnable() {
+				public void run() {
+					system.update(FRAME);
+				}
+			}, 1000, 1000);
+
+			report("per property, " + count + " tweens", perProperty);
+			report("animation system, " + count + " tweens", batched);
+		}
+	}
+
+	private static Property[] createProperties(int count) {
+		Property[] properties = new Property[count];
+		for (int i = 0; i < count; i++) {
+			switch (i % 4) {
+			case 0:
+				Real real = new Real();
+				real.animate(0f, 1000f, DURATION);
+				properties[i] = real;
+				break;
+			case 1:
+				Int integer = new Int();
+				integer.animate(0, 1000000, DURATION);
+				properties[i] = integer;
+				break;
+			case 2:
+				Color color = new Color();
+				color.animateTo(ColorRGBA.white, DURATION);
+				properties[i] = color;
+				break;
+			default:
+				Real constant = new Real();
+				constant.constant(10f);
+				properties[i] = constant;
+				break;
+			}
+		}
+		return properties;
+	}
+}
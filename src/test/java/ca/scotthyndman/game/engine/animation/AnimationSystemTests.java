@@ -0,0 +1,120 @@
+package ca.scotthyndman.game.engine.animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks how the animation system runs the timelines and tweens added to it.
+ */
+public class AnimationSystemTests {
+
+	private static final long MILLIS = 1000000L;
+
+	@Test
+	public void finishedTimelinesPlayAgainOnceRewound() {
+		AnimationSystem system = new AnimationSystem();
+		Real x = new Real();
+		Timeline timeline = new Timeline();
+		timeline.add(x, new FloatTween(0, 100, 100));
+		system.add(timeline);
+
+		system.updateNanos(150 * MILLIS);
+		assertTrue(timeline.isFinished());
+		assertEquals(100, x.get(), 0);
+
+		// Left alone while finished
+		int time = timeline.getTime();
+		system.updateNanos(50 * MILLIS);
+		assertEquals(time, timeline.getTime());
+
+		timeline.rewind();
+		assertFalse(timeline.isFinished());
+		system.updateNanos(25 * MILLIS);
+		assertEquals(25, x.get(), 0);
+		system.updateNanos(100 * MILLIS);
+		assertTrue(timeline.isFinished());
+		assertEquals(100, x.get(), 0);
+	}
+
+	@Test
+	public void finishedTimelinesCanPlayBackwards() {
+		AnimationSystem system = new AnimationSystem();
+		Real x = new Real();
+		Timeline timeline = new Timeline();
+		timeline.add(x, new FloatTween(0, 100, 100));
+		system.add(timeline);
+		system.updateNanos(100 * MILLIS);
+		assertTrue(timeline.isFinished());
+
+		timeline.setPlaySpeed(-1);
+		system.updateNanos(40 * MILLIS);
+		assertEquals(60, x.get(), 0.0001);
+	}
+
+	@Test
+	public void removedTimelinesStop() {
+		AnimationSystem system = new AnimationSystem();
+		Real x = new Real();
+		Timeline timeline = new Timeline();
+		timeline.add(x, new FloatTween(0, 100, 100));
+		system.add(timeline);
+		system.updateNanos(10 * MILLIS);
+		system.remove(timeline);
+		system.updateNanos(10 * MILLIS);
+		assertEquals(10, x.get(), 0);
+	}
+
+	@Test
+	public void tweensStartedByListenersJoinTheBatchAfterThePass() {
+		final AnimationSystem system = new AnimationSystem();
+
+		// Enough tweens to fill the batch, half of them finishing in the first update
+		Real[] reals = new Real[64];
+		for (int i = 0; i < reals.length; i++) {
+			reals[i] = new Real();
+			system.add(reals[i]);
+			reals[i].animateTo(100, i % 2 == 0 ? 10 : 1000);
+		}
+
+		// The first change starts more tweens, which grow the batch while it is being walked
+		final Real[] started = new Real[100];
+		reals[0].addListener(new PropertyListener() {
+			public void onPropertyChange(Property property) {
+				if (started[0] == null) {
+					for (int i = 0; i < started.length; i++) {
+						started[i] = new Real();
+						system.add(started[i]);
+						started[i].animateTo(50, 100);
+					}
+				}
+			}
+		});
+
+		system.updateNanos(20 * MILLIS);
+		assertEquals(32 + started.length, system.getBehaviorCount());
+		for (int i = 0; i < reals.length; i++) {
+			assertEquals(i % 2 == 0 ? 100 : 2, reals[i].get(), 0.0001);
+		}
+		for (Real real : started) {
+			assertEquals(0, real.get(), 0);
+		}
+
+		system.updateNanos(50 * MILLIS);
+		for (int i = 1; i < reals.length; i += 2) {
+			assertEquals(7, reals[i].get(), 0.0001);
+		}
+		for (Real real : started) {
+			assertEquals(25, real.get(), 0.0001);
+		}
+
+		system.updateNanos(50 * MILLIS);
+		assertEquals(32, system.getBehaviorCount());
+		for (Real real : started) {
+			assertEquals(50, real.get(), 0);
+			assertFalse(real.isAnimating());
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package ca.scotthyndman.game.engine.animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks that a looping animation that has played all its loops stays at its end state.
+ */
+public class AnimationTests {
+
+	@Test
+	public void finishedLoopsStayAtTheirEndState() {
+		// Plays 0-100, 150-250 and 300-400
+		FloatTween tween = new FloatTween(0, 100, 100);
+		tween.loop(3, 50);
+		assertEquals(400, tween.getTotalDuration());
+
+		tween.updateAnimation(400);
+		assertTrue(tween.isFinished());
+		assertEquals(100, tween.getFloatValue(), 0);
+
+		// Including past the length of another loop and its delay
+		for (int i = 0; i < 40; i++) {
+			tween.updateAnimation(25);
+			assertEquals("at " + tween.getTime(), 100, tween.getFloatValue(), 0);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package ca.scotthyndman.game.engine.animation;
+
+import ca.scotthyndman.game.engine.AbstractBenchmark;
+
+/**
+ * Measures the time to propagate one change of a source property through its bindings, comparing the bindings pushing
+ * the value as soon as it changes with an {@link AnimationSystem} evaluating them in order once per frame. Covers one
+ * source bound to many targets, and long chains of properties each bound to the one before.
+ */
+public class BindingGraphBenchmark extends AbstractBenchmark {
+
+	private static final int FAN_OUT = 10000;
+	private static final int[] CHAINS = { 100, 1000 };
+	private static final int LONG_CHAIN = 10000;
+
+	private static float value;
+
+	public static void main(String[] args) {
+		for (int changes = 1; changes <= 4; changes *= 4) {
+			String suffix = ", " + changes + " set(s)";
+			report("immediate, fan-out to " + FAN_OUT + suffix, measure(frame(fanOut(FAN_OUT, null), null, changes),
+					1000, 1000));
+			AnimationSystem system = new AnimationSystem();
+			report("binding graph, fan-out to " + FAN_OUT + suffix, measure(frame(fanOut(FAN_OUT, system), system,
+					changes), 1000, 1000));
+		}
+
+		for (int length : CHAINS) {
+			report("immediate, chain of " + length, measure(frame(chain(length, null), null, 1), 20000, 20000));
+			AnimationSystem system = new AnimationSystem();
+			report("binding graph, chain of " + length, measure(frame(chain(length, system), system, 1), 20000,
+					20000));
+		}
+
+		// Deep enough that pushing the value down recursively can run out of stack
+		AnimationSystem system = new AnimationSystem();
+		report("binding graph, chain of " + LONG_CHAIN, measure(frame(chain(LONG_CHAIN, system), system, 1), 2000,
+				2000));
+	}
+
+	/**
+	 * Returns a frame that changes the source a number of times, then lets the system, if any, propagate it.
+	 */
+	private static Runnable frame(final Real source, final AnimationSystem system, final int changes) {
+		return new Runnable() {
+			public void run() {
+				for (int i = 0; i < changes; i++) {
+					source.set(++value);
+				}
+				if (system != null) {
+					system.update(16);
+				}
+			}
+		};
+	}
+
+	private static Real fanOut(int count, AnimationSystem system) {
+		Real source = create(system);
+		for (int i = 0; i < count; i++) {
+			create(system).bindTo(source);
+		}
+		return source;
+	}
+
+	private static Real chain(int length, AnimationSystem system) {
+		Real source = create(system);
+		Real previous = source;
+		for (int i = 1; i < length; i++) {
+			Real next = create(system);
+			next.bindTo(previous);
+			previous = next;
+		}
+		return source;
+	}
+
+	private static Real create(AnimationSystem system) {
+		Real real = new Real();
+		if (system != null) {
+			system.add(real);
+		}
+		return real;
+	}
+}
@@ -0,0 +1,176 @@
+package ca.scotthyndman.game.engine.animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks that bindings managed by an {@link AnimationSystem} are evaluated once per frame, sources first, and that
+ * cycles are refused.
+ */
+public class BindingGraphTests {
+
+	private int changes;
+
+	private PropertyListener counter = new PropertyListener() {
+		public void onPropertyChange(Property property) {
+			changes++;
+		}
+	};
+
+	@Test(expected = IllegalArgumentException.class)
+	public void refusesCycles() {
+		Real a = new Real(), b = new Real(), c = new Real();
+		b.bindTo(a);
+		c.bindTo(b);
+		a.bindTo(c);
+	}
+
+	@Test
+	public void allowsRebindingOnceTheCycleIsBroken() {
+		Real a = new Real(), b = new Real();
+		b.bindTo(a);
+		b.set(1f);
+		a.bindTo(b);
+		assertEquals(1f, a.get(), 0);
+	}
+
+	@Test
+	public void bidirectionalBindingsStillWork() {
+		Real a = new Real(), b = new Real();
+		a.bindWithInverse(b);
+		b.set(3f);
+		assertEquals(3f, a.get(), 0);
+		a.set(5f);
+		assertEquals(5f, b.get(), 0);
+	}
+
+	@Test
+	public void evaluatesChainsInOrder() {
+		AnimationSystem system = new AnimationSystem();
+		Real[] chain = new Real[50];
+		for (int i = 0; i < chain.length; i++) {
+			chain[i] = new Real();
+			system.add(chain[i]);
+		}
+		chain[chain.length - 1].addListener(counter);
+
+		// Bound from the end of the chain, so that the order they were added in is the wrong one
+		for (int i = chain.length - 1; i > 0; i--) {
+			chain[i].bindTo(chain[i - 1]);
+		}
+		system.update(0);
+
+		changes = 0;
+		chain[0].set(7f);
+		assertEquals(0f, chain[chain.length - 1].get(), 0);
+		system.update(16);
+		assertEquals(7f, chain[chain.length - 1].get(), 0);
+		assertEquals(1, changes);
+	}
+
+	@Test
+	public void bindingsDirtiedDownstreamDuringAnUpdateDontWaitForTheNext() {
+		AnimationSystem system = new AnimationSystem();
+		Real[] chain = new Real[10];
+		for (int i = 0; i < chain.length; i++) {
+			chain[i] = new Real();
+			system.add(chain[i]);
+		}
+		for (int i = 1; i < chain.length; i++) {
+			chain[i].bindTo(chain[i - 1]);
+		}
+		system.update(0);
+		assertFalse(system.getBindings().isChanged());
+
+		// Each binding the update evaluates dirties the one after it, which the same update evaluates
+		chain[0].set(3f);
+		assertTrue(system.getBindings().isChanged());
+		system.update(16);
+		assertEquals(3f, chain[chain.length - 1].get(), 0);
+		assertFalse(system.getBindings().isChanged());
+	}
+
+	@Test
+	public void bindingsDirtiedUpstreamDuringAnUpdateWaitForTheNext() {
+		AnimationSystem system = new AnimationSystem();
+		final Real source = new Real();
+		Real target = new Real();
+		final Real other = new Real();
+		Real otherTarget = new Real();
+		system.add(source);
+		system.add(target);
+		system.add(other);
+		system.add(otherTarget);
+		otherTarget.bindTo(other);
+		target.bindTo(source);
+		system.update(0);
+
+		// Setting the last binding's target changes the source of the first, which this update has already passed
+		target.addListener(new PropertyListener() {
+			public void onPropertyChange(Property property) {
+				other.set(source.get() * 2);
+			}
+		});
+		source.set(4f);
+		system.update(16);
+		assertEquals(4f, target.get(), 0);
+		assertTrue(system.getBindings().isChanged());
+		system.update(16);
+		assertEquals(8f, otherTarget.get(), 0);
+		assertFalse(system.getBindings().isChanged());
+	}
+
+	@Test
+	public void followsAnimatedSources() {
+		AnimationSystem system = new AnimationSystem();
+		Real source = new Real();
+		Real target = new Real();
+		system.add(source);
+		system.add(target);
+		target.bindTo(source);
+
+		source.animate(0f, 100f, 100);
+		system.update(50);
+		assertEquals(50f, target.get(), 0.0001);
+		assertEquals(2, system.getBehaviorCount());
+
+		// A new behavior drops the binding from the graph
+		target.set(1f);
+		system.update(50);
+		assertEquals(1f, target.get(), 0);
+		assertEquals(0, system.getBehaviorCount());
+	}
+
+	@Test
+	public void fansOut() {
+		AnimationSystem system = new AnimationSystem();
+		Real source = new Real();
+		system.add(source);
+		Real[] targets = new Real[100];
+		for (int i = 0; i < targets.length; i++) {
+			targets[i] = new Real(counter);
+			system.add(targets[i]);
+			targets[i].bindTo(source);
+		}
+
+		changes = 0;
+		source.set(2f);
+		source.set(3f);
+		system.update(16);
+		assertEquals(targets.length, changes);
+		for (int i = 0; i < targets.length; i++) {
+			assertEquals(3f, targets[i].get(), 0);
+		}
+	}
+
+	@Test
+	public void unmanagedBindingsStayImmediate() {
+		Real a = new Real(), b = new Real();
+		b.bindTo(a);
+		a.set(4f);
+		assertEquals(4f, b.get(), 0);
+	}
+}
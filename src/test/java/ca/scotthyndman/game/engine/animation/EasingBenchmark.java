@@ -0,0 +1,57 @@
+package ca.scotthyndman.game.engine.animation;
+
+import ca.scotthyndman.game.engine.AbstractBenchmark;
+
+/**
+ * Compares evaluating the built-in easing curves with reading them from their lookup tables, over a frame's worth of
+ * eased properties.
+ */
+public class EasingBenchmark extends AbstractBenchmark {
+
+	private static final int SAMPLES = 10000;
+
+	private static final String[] NAMES = { "REGULAR_IN_OUT", "STRONG_IN_OUT", "BACK_OUT", "ELASTIC_IN_OUT" };
+	private static final Easing[] CURVES = { Easing.REGULAR_IN_OUT, Easing.STRONG_IN_OUT, Easing.BACK_OUT,
+			Easing.ELASTIC_IN_OUT };
+
+	/**
+	 * Keeps the results alive.
+	 */
+	static volatile float sink;
+
+	public static void main(String[] args) {
+		for (int i = 0; i < CURVES.length; i++) {
+			Easing analytic = new Easing(CURVES[i], 1);
+			Easing baked = new Easing(CURVES[i], 1).bake();
+
+			report(NAMES[i] + ", analytic", measure(easeAll(analytic), 500, 2000));
+			report(NAMES[i] + ", lookup table", measure(easeAll(baked), 500, 2000));
+			report(NAMES[i] + ", ease(int, int) analytic", measure(easeAllMillis(analytic), 500, 2000));
+			report(NAMES[i] + ", ease(int, int) lookup table", measure(easeAllMillis(baked), 500, 2000));
+		}
+	}
+
+	private static Runnable easeAll(final Easing easing) {
+		return new Runnable() {
+			public void run() {
+				float sum = 0;
+				for (int i = 0; i < SAMPLES; i++) {
+					sum += easing.ease((float) i / SAMPLES);
+				}
+				sink = sum;
+			}
+		};
+	}
+
+	private static Runnable easeAllMillis(final Easing easing) {
+		return new Runnable() {
+			public void run() {
+				int sum = 0;
+				for (int i = 0; i < SAMPLES; i++) {
+					sum += easing.ease(i, SAMPLES);
+				}
+				sink = sum;
+			}
+		};
+	}
+}
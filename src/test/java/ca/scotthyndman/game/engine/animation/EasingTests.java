@@ -0,0 +1,113 @@
+package ca.scotthyndman.game.engine.animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks that baked easings follow their curves as closely as their resolution allows, and that unbaked easings,
+ * including custom ones, evaluate their curves.
+ */
+public class EasingTests {
+
+	private static final Easing[] EASINGS = { Easing.NONE, Easing.REGULAR_IN, Easing.REGULAR_OUT,
+			Easing.REGULAR_IN_OUT, Easing.STRONG_IN, Easing.STRONG_OUT, Easing.STRONG_IN_OUT, Easing.BACK_IN,
+			Easing.BACK_OUT, Easing.BACK_IN_OUT, Easing.ELASTIC_IN, Easing.ELASTIC_OUT, Easing.ELASTIC_IN_OUT };
+
+	private static final int STEPS = 10000;
+
+	@Test
+	public void bakedCurvesStayWithinTheInterpolationError() {
+		for (int e = 0; e < EASINGS.length; e++) {
+			Easing analytic = new Easing(EASINGS[e], 1);
+			float curvature = maxSecondDerivative(analytic);
+			for (int resolution : new int[] { 16, 64, Easing.DEFAULT_RESOLUTION }) {
+				Easing baked = new Easing(EASINGS[e], 1).bake(resolution);
+
+				// Linear interpolation between samples h apart is off by at most h^2 / 8 times the curvature
+				float h = 1f / resolution;
+				float tolerance = curvature * h * h / 8 + 1e-5f;
+				for (int i = 0; i <= STEPS; i++) {
+					float t = (float) i / STEPS;
+					assertEquals("easing " + e + " at resolution " + resolution + ", t = " + t, analytic.ease(t),
+							baked.ease(t), tolerance);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void bakedCurvesStartAtZeroAndEndAtOne() {
+		for (int e = 0; e < EASINGS.length; e++) {
+			for (int resolution : new int[] { 1, 7, Easing.DEFAULT_RESOLUTION }) {
+				Easing baked = new Easing(EASINGS[e], 1).bake(resolution);
+				assertEquals(0f, baked.ease(0f), 0);
+				assertEquals(1f, baked.ease(1f), 0);
+				assertEquals(0, baked.ease(0, 250));
+				assertEquals(250, baked.ease(250, 250));
+				assertEquals(250.0, baked.ease(250.0, 250.0), 0);
+			}
+		}
+
+		// The elastic curves are baked up front
+		assertTrue(Easing.ELASTIC_OUT.isBaked());
+		assertEquals(1f, Easing.ELASTIC_OUT.ease(1f), 0);
+	}
+
+	@Test
+	public void unbakingEvaluatesTheCurveAgain() {
+		for (int e = 0; e < EASINGS.length; e++) {
+			Easing analytic = new Easing(EASINGS[e], 1);
+			Easing easing = new Easing(EASINGS[e], 1);
+			assertFalse(easing.isBaked());
+
+			easing.bake(4);
+			assertTrue(easing.isBaked());
+			easing.unbake();
+			assertFalse(easing.isBaked());
+			for (int i = 0; i <= 1000; i++) {
+				float t = i / 1000f;
+				assertEquals(analytic.ease(t), easing.ease(t), 0);
+			}
+		}
+	}
+
+	@Test
+	public void customCurvesBakeOnDemand() {
+		Easing smooth = new SmoothStep();
+		assertFalse(smooth.isBaked());
+		assertEquals(0.15625f, smooth.ease(0.25f), 0);
+
+		assertTrue(smooth.bake(256).isBaked());
+		for (int i = 0; i <= 1000; i++) {
+			float t = i / 1000f;
+			float expected = t * t * (3 - 2 * t);
+			// The smooth step's curvature is at most 6
+			assertEquals(expected, smooth.ease(t), 6f / (8 * 256 * 256) + 1e-6f);
+		}
+	}
+
+	/**
+	 * Estimates the largest second derivative of a curve between 0 and 1 by finite differences.
+	 */
+	private static float maxSecondDerivative(Easing easing) {
+		double h = 1.0 / STEPS;
+		double max = 0;
+		for (int i = 1; i < STEPS; i++) {
+			double t = i * h;
+			double d = (easing.ease(t - h, 1) - 2 * easing.ease(t, 1) + easing.ease(t + h, 1)) / (h * h);
+			max = Math.max(max, Math.abs(d));
+		}
+		return (float) max;
+	}
+
+	private static final class SmoothStep extends Easing {
+
+		@Override
+		protected double ease(double t) {
+			return t * t * (3 - 2 * t);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package ca.scotthyndman.game.engine.animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that keyframe tracks and bezier easings pass through their keys and find the right segment in any order.
+ */
+public class KeyframeTrackTests {
+
+	@Test
+	public void passesThroughKeys() {
+		KeyframeTrack track = new KeyframeTrack(new int[] { 0, 100, 100, 300 }, new float[] { 0, 10, 50, 30 });
+		Real real = new Real();
+		real.setBehavior(track);
+		assertEquals(0, real.get(), 0);
+
+		real.update(50);
+		assertEquals(5, real.get(), 0.0001);
+
+		// Two keys at the same time jump
+		real.update(50);
+		assertEquals(50, real.get(), 0.0001);
+
+		real.update(100);
+		assertEquals(40, real.get(), 0.0001);
+
+		real.update(1000);
+		assertEquals(30, real.get(), 0);
+		assertTrue(track.isFinished());
+	}
+
+	@Test
+	public void findsSegmentsInAnyOrder() {
+		int keys = 200;
+		int[] times = new int[keys];
+		float[] values = new float[keys];
+		for (int i = 0; i < keys; i++) {
+			times[i] = i * 10;
+			values[i] = i * i;
+		}
+		KeyframeTrack track = new KeyframeTrack(times, values);
+
+		Random random = new Random(7);
+		for (int n = 0; n < 1000; n++) {
+			double time = random.nextDouble() * times[keys - 1];
+			track.updatePreciseState(time);
+
+			int i = (int) (time / 10);
+			float f = (float) ((time - times[i]) / 10);
+			assertEquals(values[i] + (values[i + 1] - values[i]) * f, track.getFloatValue(), 0.01);
+		}
+	}
+
+	@Test
+	public void easesEachSegment() {
+		KeyframeTrack track = new KeyframeTrack(new int[] { 0, 100, 200 }, new float[] { 0, 100, 200 }, new Easing[] {
+				Easing.REGULAR_IN, null, null });
+
+		track.updatePreciseState(50);
+		assertEquals(25, track.getFloatValue(), 0.0001);
+		track.updatePreciseState(150);
+		assertEquals(150, track.getFloatValue(), 0.0001);
+	}
+
+	@Test
+	public void bezierMatchesKnownCurves() {
+		CubicBezier linear = new CubicBezier(0, 0, 1, 1);
+		CubicBezier quadratic = new CubicBezier(1 / 3.0, 0, 2 / 3.0, 1 / 3.0);
+		for (int i = 0; i <= 100; i++) {
+			float t = i / 100f;
+			assertEquals(t, linear.ease(t), 0.0001);
+			assertEquals(t * t, quadratic.ease(t), 0.0001);
+		}
+
+		// Monotonic over the whole curve, including the flat ends of ease-in-out
+		float previous = 0;
+		for (int i = 0; i <= 1000; i++) {
+			float eased = CubicBezier.EASE_IN_OUT.ease(i / 1000f);
+			assertTrue(eased >= previous);
+			previous = eased;
+		}
+		assertEquals(0.5f, CubicBezier.EASE_IN_OUT.ease(0.5f), 0.0001);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsDecreasingTimes() {
+		new KeyframeTrack(new int[] { 0, 100, 50 }, new float[] { 0, 1, 2 });
+	}
+}
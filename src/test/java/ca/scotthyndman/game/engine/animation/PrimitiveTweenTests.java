@@ -0,0 +1,191 @@
+package ca.scotthyndman.game.engine.animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.AbstractAllocationTest;
+import ca.scotthyndman.game.engine.profile.AllocationTracker;
+
+import com.jme.renderer.ColorRGBA;
+
+/**
+ * Checks that animating {@link Real}, {@link Int} and {@link Color} properties doesn't allocate once the animation is
+ * running.
+ */
+public class PrimitiveTweenTests extends AbstractAllocationTest {
+
+	private static final int FRAMES = 10000;
+
+	private int changes;
+
+	private PropertyListener listener = new PropertyListener() {
+		public void onPropertyChange(Property property) {
+			changes++;
+		}
+	};
+
+	@Before
+	public void setUp() {
+		changes = 0;
+	}
+
+	@After
+	public void checkListenerWasCalled() {
+		assertTrue(changes > 0);
+	}
+
+	@Test
+	public void realTweenDoesNotAllocate() {
+		Real real = new Real(listener, 0f);
+		real.animate(0f, 1000f, FRAMES * 2, Easing.REGULAR_IN_OUT);
+		assertSteadyStateAllocations(real);
+	}
+
+	@Test
+	public void realConstantChangeDoesNotAllocate() {
+		Real real = new Real(listener, 0f);
+		real.constant(10f);
+		assertSteadyStateAllocations(real);
+	}
+
+	@Test
+	public void intTweenDoesNotAllocate() {
+		Int i = new Int(listener, 0);
+		i.animate(0, 1000000, FRAMES * 2);
+		assertSteadyStateAllocations(i);
+	}
+
+	@Test
+	public void colorTweenDoesNotAllocate() {
+		Color color = new Color(listener, ColorRGBA.black);
+		color.animateTo(ColorRGBA.white, FRAMES * 2);
+		assertSteadyStateAllocations(color);
+	}
+
+	@Test
+	public void colorFadeDoesNotAllocate() {
+		final Color color = new Color(listener, ColorRGBA.black);
+		ColorTween fade = new ColorTween(ColorRGBA.black, ColorRGBA.white, FRAMES);
+		fade.loopForever();
+		color.setBehavior(fade);
+
+		// Each run is one whole fade
+		Runnable frames = new Runnable() {
+			public void run() {
+				for (int i = 0; i < FRAMES; i++) {
+					color.update(1);
+				}
+			}
+		};
+		frames.run();
+		assertNoAllocations(frames);
+		assertEquals(new ColorRGBA(0f, 0f, 0f, 1f), ColorRGBA.black);
+		assertEquals(new ColorRGBA(1f, 1f, 1f, 1f), ColorRGBA.white);
+	}
+
+	@Test
+	public void genericColorTweenDoesNotAllocate() {
+		Color color = new Color(listener, ColorRGBA.black);
+		color.setBehavior(new Tween<ColorRGBA>(ColorRGBA.black, ColorRGBA.white, FRAMES * 2));
+		assertSteadyStateAllocations(color);
+		assertEquals(new ColorRGBA(0f, 0f, 0f, 1f), ColorRGBA.black);
+	}
+
+	@Test
+	public void colorConstantChangeDoesNotAllocate() {
+		Color color = new Color(listener, ColorRGBA.black);
+		color.constant(new ColorRGBA(0.01f, 0.01f, 0.01f, 0f));
+		assertSteadyStateAllocations(color);
+		assertEquals(new ColorRGBA(0f, 0f, 0f, 1f), ColorRGBA.black);
+	}
+
+	@Test
+	public void packedColorsDoNotAllocate() {
+		final Color color = new Color(listener, ColorRGBA.black);
+		Runnable frames = new Runnable() {
+			public void run() {
+				for (int i = 0; i < FRAMES; i++) {
+					int gray = i & 0xff;
+					color.set(0xff000000 | gray << 16 | gray << 8 | gray);
+				}
+			}
+		};
+		frames.run();
+		assertNoAllocations(frames);
+		assertEquals(0xff0f0f0f, color.getARGB());
+	}
+
+	@Test
+	public void timelineDoesNotAllocate() {
+		final Real real = new Real(listener, 0f);
+		final Timeline timeline = new Timeline();
+		timeline.animate(real, 0f, 1000f, FRAMES * 2);
+		timeline.animateTo(new Int(listener), 1000, FRAMES * 2);
+
+		Runnable frames = new Runnable() {
+			public void run() {
+				for (int i = 0; i < FRAMES / 2; i++) {
+					timeline.updateAnimation(1);
+				}
+			}
+		};
+		frames.run();
+		assertNoAllocations(frames);
+	}
+
+	@Test
+	public void tweensReachTheirEndValues() {
+		Real real = new Real(listener, 0f);
+		real.animateTo(5f, 100);
+		real.update(100);
+		assertEquals(5f, real.get(), 0f);
+
+		Int i = new Int(0);
+		i.animateTo(7, 100);
+		i.update(100);
+		assertEquals(7, i.get());
+
+		ColorRGBA from = new ColorRGBA(ColorRGBA.black);
+		Color color = new Color(from);
+		color.animateTo(ColorRGBA.white, 100);
+		color.update(50);
+		assertEquals(0.5f, color.get().r, 0.0001f);
+		assertEquals(ColorRGBA.black, from);
+		color.update(50);
+		assertEquals(ColorRGBA.white, color.get());
+	}
+
+	/**
+	 * Warms up a property's animation, then checks that the following frames don't allocate.
+	 */
+	private static void assertSteadyStateAllocations(final Property<?> property) {
+		Runnable frames = new Runnable() {
+			public void run() {
+				for (int i = 0; i < FRAMES / 2; i++) {
+					property.update(1);
+				}
+			}
+		};
+		frames.run();
+		assertNoAllocations(frames);
+	}
+
+	/**
+	 * Checks that a run of frames doesn't allocate. The JIT can allocate on the test's thread when it deoptimizes, so
+	 * the best of a few runs is taken.
+	 */
+	private static void assertNoAllocations(Runnable frames) {
+		if (!AllocationTracker.isSupported()) {
+			return;
+		}
+		long bytes = Long.MAX_VALUE;
+		for (int i = 0; i < 3 && bytes > 0; i++) {
+			bytes = Math.min(bytes, measureFrameAllocation(frames, 0, 1));
+		}
+		assertEquals("bytes allocated", 0, bytes);
+	}
+}
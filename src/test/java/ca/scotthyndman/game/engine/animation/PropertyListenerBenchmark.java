@@ -0,0 +1,95 @@
+package ca.scotthyndman.game.engine.animation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ca.scotthyndman.game.engine.AbstractBenchmark;
+
+/**
+ * Measures the time to notify the listeners of a property of 10000 changes, at 1, 2, 8 and 64 listeners. The
+ * properties' own notification is compared with copying the listener list before every notification, as the listener
+ * list used to, and with a {@link CoalescingListener} in front of each listener, flushed after the changes.
+ */
+public class PropertyListenerBenchmark extends AbstractBenchmark {
+
+	private static final int[] LISTENERS = { 1, 2, 8, 64 };
+	private static final int CHANGES = 10000;
+
+	/**
+	 * Counts notifications, to keep them from being optimized away.
+	 */
+	static int notifications;
+
+	private static final PropertyListener COUNTER = new PropertyListener() {
+		public void onPropertyChange(Property property) {
+			notifications++;
+		}
+	};
+
+	public static void main(String[] args) {
+		for (int count : LISTENERS) {
+			Real real = new Real();
+			for (int i = 0; i < count; i++) {
+				real.addListener(new Counter());
+			}
+			report("copy-on-write, " + count + " listener(s)", measure(changes(real), 1000, 1000));
+
+			Real copying = new Real(new CopyingListener(count));
+			report("copy per notification, " + count + " listener(s)", measure(changes(copying), 1000, 1000));
+
+			final CoalescingListener[] coalescing = new CoalescingListener[count];
+			final Real coalesced = new Real();
+			for (int i = 0; i < count; i++) {
+				coalescing[i] = new CoalescingListener(COUNTER);
+				coalesced.addListener(coalescing[i]);
+			}
+			final Runnable changes = changes(coalesced);
+			report("coalescing, " + count + " listener(s)", measure(new Runnable() {
+				public void run() {
+					changes.run();
+					for (int i = 0; i < coalescing.length; i++) {
+						coalescing[i].flush();
+					}
+				}
+			}, 1000, 1000));
+		}
+	}
+
+	private static Runnable changes(final Real real) {
+		return new Runnable() {
+			public void run() {
+				for (int i = 0; i < CHANGES; i++) {
+					real.set(i);
+				}
+			}
+		};
+	}
+
+	private static final class Counter implements PropertyListener {
+		public void onPropertyChange(Property property) {
+			notifications++;
+		}
+	}
+
+	/**
+	 * Notifies its listeners the way the listener list used to: by copying them into a new array first.
+	 */
+	private static final class CopyingListener implements PropertyListener {
+
+		private final List<PropertyListener> listeners = new ArrayList<PropertyListener>();
+
+		CopyingListener(int count) {
+			for (int i = 0; i < count; i++) {
+				listeners.add(new Counter());
+			}
+		}
+
+		public void onPropertyChange(Property property) {
+			PropertyListener[] list = new PropertyListener[listeners.size()];
+			listeners.toArray(list);
+			for (int i = 0; i < list.length; i++) {
+				list[i].onPropertyChange(property);
+			}
+		}
+	}
+}
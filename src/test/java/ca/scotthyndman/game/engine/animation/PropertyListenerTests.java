@@ -0,0 +1,154 @@
+package ca.scotthyndman.game.engine.animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.AbstractAllocationTest;
+import ca.scotthyndman.game.engine.profile.AllocationTracker;
+
+/**
+ * Checks that notifying several listeners, or asking for them, doesn't allocate, and that coalescing listeners deliver
+ * each change once.
+ */
+public class PropertyListenerTests extends AbstractAllocationTest {
+
+	private final List<Property> received = new ArrayList<Property>();
+
+	private final PropertyListener recorder = new PropertyListener() {
+		public void onPropertyChange(Property property) {
+			received.add(property);
+		}
+	};
+
+	@Test
+	public void listenersCanRemoveThemselves() {
+		final Real real = new Real();
+		final int[] calls = new int[3];
+		for (int i = 0; i < calls.length; i++) {
+			final int index = i;
+			real.addListener(new PropertyListener() {
+				public void onPropertyChange(Property property) {
+					calls[index]++;
+					property.removeListener(this);
+				}
+			});
+		}
+		real.set(1f);
+		real.set(2f);
+		assertEquals(1, calls[0]);
+		assertEquals(1, calls[1]);
+		assertEquals(1, calls[2]);
+		assertEquals(0, real.getListenerCount());
+	}
+
+	@Test
+	public void walksListenersWithoutCopying() {
+		Real real = new Real(recorder);
+		PropertyListener other = new CoalescingListener(recorder);
+		real.addListener(other);
+		assertEquals(2, real.getListenerCount());
+		assertSame(recorder, real.getListener(0));
+		assertSame(other, real.getListener(1));
+		assertEquals(2, real.getListeners().length);
+	}
+
+	@Test
+	public void getListenersSharesItsArrayUntilTheListenersChange() {
+		Real real = new Real();
+		assertEquals(0, real.getListeners().length);
+		assertSame(real.getListeners(), new Real().getListeners());
+
+		real.addListener(recorder);
+		PropertyListener[] single = real.getListeners();
+		assertSame(single, real.getListeners());
+		assertEquals(1, single.length);
+
+		PropertyListener other = new CoalescingListener(recorder);
+		real.addListener(other);
+		PropertyListener[] both = real.getListeners();
+		assertSame(both, real.getListeners());
+		assertEquals(2, both.length);
+
+		// Replaced, not changed, so arrays already handed out stay as they were
+		real.removeListener(recorder);
+		assertSame(recorder, single[0]);
+		assertSame(recorder, both[0]);
+		assertSame(other, both[1]);
+		assertEquals(1, real.getListeners().length);
+		assertSame(other, real.getListeners()[0]);
+	}
+
+	@Test
+	public void notifyingDoesNotAllocate() {
+		final Real real = new Real();
+		for (int i = 0; i < 8; i++) {
+			real.addListener(new PropertyListener() {
+				public void onPropertyChange(Property property) {
+				}
+			});
+		}
+		Runnable changes = new Runnable() {
+			public void run() {
+				for (int i = 0; i < 10000; i++) {
+					real.set(i);
+				}
+			}
+		};
+		changes.run();
+		if (AllocationTracker.isSupported()) {
+			// The best of a few runs, as the JIT can allocate on the test's thread when it deoptimizes
+			long bytes = Long.MAX_VALUE;
+			for (int i = 0; i < 3 && bytes > 0; i++) {
+				bytes = Math.min(bytes, measureFrameAllocation(changes, 0, 1));
+			}
+			assertEquals("bytes allocated", 0, bytes);
+		}
+	}
+
+	@Test
+	public void coalescesChangesUntilFlushed() {
+		CoalescingListener coalescing = new CoalescingListener(recorder);
+		Real[] reals = new Real[100];
+		for (int i = 0; i < reals.length; i++) {
+			reals[i] = new Real(coalescing);
+		}
+		for (int n = 0; n < 3; n++) {
+			for (int i = 0; i < reals.length; i++) {
+				reals[i].set(n + 1);
+			}
+		}
+		assertEquals(0, received.size());
+		assertEquals(reals.length, coalescing.getPendingCount());
+
+		coalescing.flush();
+		assertEquals(reals.length, received.size());
+		for (int i = 0; i < reals.length; i++) {
+			assertSame(reals[i], received.get(i));
+		}
+
+		received.clear();
+		coalescing.flush();
+		assertEquals(0, received.size());
+	}
+
+	@Test
+	public void flushesAfterEachSystemUpdate() {
+		AnimationSystem system = new AnimationSystem();
+		CoalescingListener coalescing = new CoalescingListener(recorder);
+		system.add(coalescing);
+		Real real = new Real(coalescing);
+		system.add(real);
+		real.animate(0f, 100f, 100);
+
+		system.update(10);
+		real.set(5f);
+		assertEquals(1, received.size());
+		system.update(10);
+		assertEquals(2, received.size());
+	}
+}
@@ -0,0 +1,63 @@
+package ca.scotthyndman.game.engine.animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks that animations driven through the nanosecond time path don't drift from the real frame time.
+ */
+public class TimeBaseTests {
+
+	private static final float TPF = 1f / 240;
+	private static final int FRAMES = 240 * 60 * 60;
+
+	@Test
+	public void oneHourAt240HzDoesNotDrift() {
+		TimeBase timeBase = new TimeBase();
+		Real real = new Real();
+		Timeline timeline = new Timeline();
+		timeline.animate(real, 0f, 1000f, 1000);
+		timeline.loopForever();
+
+		double exactMillis = 0;
+		for (int i = 0; i < FRAMES; i++) {
+			exactMillis += TPF * 1000.0;
+			timeline.updateAnimationNanos(timeBase.advance(TPF));
+		}
+
+		assertTrue(timeBase.getError() < 1);
+		assertEquals(exactMillis, timeBase.getTotalNanos() / 1e6, 0.000001);
+		assertEquals(exactMillis, timeline.getTimeNanos() / 1e6, 0.000001);
+
+		// The tween shows the fraction of a millisecond too
+		assertEquals(exactMillis % 1000, real.get(), 0.001);
+	}
+
+	@Test
+	public void millisecondsStillWork() {
+		Real a = new Real();
+		Real b = new Real();
+		a.animate(0f, 100f, 100, Easing.REGULAR_IN);
+		b.animate(0f, 100f, 100, Easing.REGULAR_IN);
+
+		for (int i = 0; i < 7; i++) {
+			a.update(16);
+			b.updateNanos(16000000L);
+			assertEquals(a.get(), b.get(), 0f);
+		}
+	}
+
+	@Test
+	public void fractionsAreCarriedOver() {
+		Real real = new Real();
+		real.animate(0f, 1000f, 1000);
+
+		// A quarter of a millisecond at a time
+		for (int i = 0; i < 10; i++) {
+			real.updateNanos(250000L);
+		}
+		assertEquals(2.5f, real.get(), 0.0001f);
+	}
+}
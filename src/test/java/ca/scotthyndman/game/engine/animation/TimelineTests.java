@@ -0,0 +1,414 @@
+package ca.scotthyndman.game.engine.animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.animation.event.TimelineEvent;
+
+/**
+ * Checks that the timeline's index of its children gives the same values as visiting every child, that finished loops
+ * hold their end values, and that seeking leaves the children as playing up to the same time would.
+ */
+public class TimelineTests {
+
+	private static final double[] PLAY_SPEEDS = { 1, -1, 1.5, 0.5, -1, 2 };
+
+	@Test
+	public void indexedChildrenMatchVisitingEveryChild() {
+		for (int seed = 0; seed < 40; seed++) {
+			List<Real> indexed = new ArrayList<Real>();
+			List<Real> reference = new ArrayList<Real>();
+			ReferenceTimeline b = new ReferenceTimeline(null, 0);
+			Timeline a = build(new Random(seed), indexed, true, b, reference);
+
+			Random random = new Random(seed * 31 + 7);
+			for (int frame = 0; frame < 600; frame++) {
+				if (frame % 100 == 0) {
+					double speed = PLAY_SPEEDS[(frame / 100 + seed) % PLAY_SPEEDS.length];
+					a.setPlaySpeed(speed);
+					b.setPlaySpeed(speed);
+				}
+				int elapsed = random.nextInt(60);
+				a.updateAnimation(elapsed);
+				b.updateAnimation(elapsed);
+
+				assertEquals(b.getTime(), a.getTime());
+				for (int i = 0; i < reference.size(); i++) {
+					assertEquals("seed " + seed + ", frame " + frame + ", child " + i, reference.get(i).get(), indexed
+							.get(i).get(), 0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void finishedLoopsHoldTheirEndValue() {
+		FloatTween tween = new FloatTween(0, 100, 100);
+		tween.loop(3, 50);
+		assertEquals(400, tween.getTotalDuration());
+
+		// In the first loop's delay, then in the third loop
+		tween.updateAnimation(130);
+		assertEquals(100, tween.getFloatValue(), 0);
+		tween.updateAnimation(195);
+		assertEquals(25, tween.getFloatValue(), 0.0001);
+
+		// Past the end, and far past it
+		tween.updateAnimation(125);
+		assertTrue(tween.isFinished());
+		assertEquals(100, tween.getFloatValue(), 0);
+		tween.updateAnimation(5000);
+		assertEquals(100, tween.getFloatValue(), 0);
+		assertEquals(Animation.SECTION_LOOP_DELAY, tween.getSection());
+
+		// Seeking a timeline past the end leaves the loop at its end, not back before its start
+		Real x = new Real();
+		FloatTween child = new FloatTween(0, 100, 100);
+		child.loop(3, 50);
+		Timeline timeline = new Timeline();
+		timeline.add(x, child);
+		timeline.add(new Real(), new FloatTween(0, 1, 1000));
+		timeline.seek(450, false);
+		assertEquals(100, x.get(), 0);
+		timeline.seek(900, false);
+		assertEquals(100, x.get(), 0);
+	}
+
+	@Test
+	public void seekTimeCoversEverySection() {
+		// Starts at 50, loops at 150, plays again from 180 and ends at 280
+		FloatTween tween = new FloatTween(0, 100, 100, null, 50);
+		tween.loop(2, 30);
+		assertEquals(280, tween.getTotalDuration());
+
+		assertEquals(0, tween.seekTime(20));
+		assertEquals(50, tween.seekTime(100));
+		assertEquals(100, tween.seekTime(160));
+		assertEquals(20, tween.seekTime(200));
+		assertEquals(100, tween.seekTime(280));
+		assertEquals(100, tween.seekTime(1000));
+		assertEquals(Animation.SECTION_LOOP_DELAY, tween.getSection());
+
+		// And back again
+		assertEquals(70, tween.seekTime(120));
+		assertEquals(0, tween.seekTime(10));
+		assertEquals(10, tween.getTime());
+	}
+
+	@Test
+	public void seekingMatchesPlayingToTheSameTime() {
+		int[] edges = { 0, 1, 49, 50, 51, 150, 399, 400, 999, 1000, 1500, 2100, 2600, 4000, 9000 };
+		for (int seed = 0; seed < 20; seed++) {
+			List<Real> sought = new ArrayList<Real>();
+			List<Real> played = new ArrayList<Real>();
+			Timeline timeline = build(new Random(seed), sought, false);
+			Timeline reference = build(new Random(seed), played, false);
+
+			// The edges, and random times between them, across start delays, loops and the end
+			Random random = new Random(seed);
+			List<Integer> times = new ArrayList<Integer>();
+			for (int i = 0; i < edges.length; i++) {
+				times.add(edges[i]);
+				if (i + 1 < edges.length) {
+					times.add(edges[i] + random.nextInt(edges[i + 1] - edges[i]));
+				}
+			}
+
+			for (int time : times) {
+				while (reference.getTime() < time) {
+					reference.updateAnimation(Math.min(17, time - reference.getTime()));
+				}
+
+				// Seeking from the last time, and straight from the start
+				timeline.seek(time, false);
+				List<Real> jumped = new ArrayList<Real>();
+				build(new Random(seed), jumped, false).seek(time, false);
+
+				assertEquals(reference.getTime(), timeline.getTime());
+				for (int i = 0; i < played.size(); i++) {
+					String message = "seed " + seed + ", time " + time + ", child " + i;
+					assertEquals(message, played.get(i).get(), sought.get(i).get(), 0.001);
+					assertEquals(message, played.get(i).get(), jumped.get(i).get(), 0.001);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void seekingOverStartAndLoopDelays() {
+		Real x = new Real();
+		Timeline timeline = new Timeline();
+		FloatTween tween = new FloatTween(0, 100, 100, null, 50);
+		tween.loop(2, 30);
+		timeline.add(x, tween);
+
+		timeline.seek(100, false);
+		assertEquals(50, x.get(), 0);
+		timeline.seek(160, false);
+		assertEquals(100, x.get(), 0);
+		timeline.seek(230, false);
+		assertEquals(50, x.get(), 0);
+		timeline.seek(500, false);
+		assertEquals(100, x.get(), 0);
+		assertTrue(timeline.isFinished());
+
+		// Back into the loop delay, the first loop, and the start delay
+		timeline.seek(170, false);
+		assertEquals(100, x.get(), 0);
+		timeline.seek(75, false);
+		assertEquals(25, x.get(), 0);
+		timeline.seek(20, false);
+		assertEquals(0, x.get(), 0);
+	}
+
+	@Test
+	public void eventsOnlyFireWhenAskedTo() {
+		final int[] fired = new int[1];
+		Timeline timeline = new Timeline();
+		timeline.addEvent(new TimelineEvent(100) {
+			public void run() {
+				fired[0]++;
+			}
+		});
+		timeline.add(new Real(), new FloatTween(0, 1, 300));
+
+		timeline.seek(150, false);
+		assertEquals(0, fired[0]);
+		timeline.seek(50, false);
+		timeline.seek(150, true);
+		assertEquals(1, fired[0]);
+
+		// Not again while already past it, and not when seeking back over it
+		timeline.seek(250, true);
+		assertEquals(1, fired[0]);
+		timeline.seek(50, true);
+		assertEquals(1, fired[0]);
+		timeline.seek(200, true);
+		assertEquals(2, fired[0]);
+	}
+
+	@Test
+	public void runningChildrenWinOverFinishedOnesOverUnstartedOnes() {
+		// Three tweens of one property: 0 to 150, 120 to 220 and 300 to 400
+		Real x = new Real();
+		Timeline timeline = new Timeline();
+		timeline.add(x, new FloatTween(0, 100, 150));
+		timeline.add(x, new FloatTween(500, 600, 100, null, 120));
+		timeline.add(x, new FloatTween(900, 1000, 100, null, 300));
+
+		// Running beats finished and not started
+		timeline.seek(170, false);
+		assertEquals(550, x.get(), 0);
+		// Finished beats not started, the later of two finished children winning
+		timeline.seek(250, false);
+		assertEquals(600, x.get(), 0);
+		timeline.seek(350, false);
+		assertEquals(950, x.get(), 0);
+		// Running beats not started, backwards too
+		timeline.seek(60, false);
+		assertEquals(40, x.get(), 0);
+
+		// As playing there gives
+		Real y = new Real();
+		Timeline played = new Timeline();
+		played.add(y, new FloatTween(0, 100, 150));
+		played.add(y, new FloatTween(500, 600, 100, null, 120));
+		played.add(y, new FloatTween(900, 1000, 100, null, 300));
+		for (int t = 0; t < 170; t += 10) {
+			played.updateAnimation(10);
+		}
+		assertEquals(550, y.get(), 0);
+		played.updateAnimation(80);
+		assertEquals(600, y.get(), 0);
+	}
+
+	/**
+	 * Builds a timeline of random children, each animating a property of its own: tweens with random start delays,
+	 * durations and loops, some inside child timelines, which may loop too.
+	 * 
+	 * @param loopTimelines
+	 *            <code>false</code> to keep the timelines themselves from looping, for comparing seeks with playing
+	 */
+	private static Timeline build(Random random, List<Real> properties, boolean loopTimelines) {
+		return build(random, properties, loopTimelines, null, null);
+	}
+
+	/**
+	 * Builds a timeline as above, and, unless <code>reference</code> is <code>null</code>, the same children into it,
+	 * animating properties of their own.
+	 */
+	private static Timeline build(Random random, List<Real> properties, boolean loopTimelines,
+			ReferenceTimeline reference, List<Real> referenceProperties) {
+		Timeline timeline = new Timeline();
+		for (int i = 0, count = 10 + random.nextInt(40); i < count; i++) {
+			Timeline parent = timeline;
+			ReferenceTimeline referenceParent = reference;
+			if (random.nextInt(5) == 0) {
+				int time = random.nextInt(1000);
+				parent = timeline.at(time);
+				if (reference != null) {
+					referenceParent = reference.at(time);
+				}
+				if (random.nextBoolean() && loopTimelines) {
+					int loops = 2 + random.nextInt(2);
+					int loopDelay = random.nextInt(100);
+					parent.loop(loops, loopDelay);
+					if (reference != null) {
+						referenceParent.loop(loops, loopDelay);
+					}
+				}
+			}
+
+			int from = random.nextInt(100);
+			int to = random.nextInt(100);
+			int duration = random.nextInt(400);
+			int startDelay = random.nextInt(2000);
+			int loops = random.nextInt(10);
+			int loopDelay = loops >= 7 ? random.nextInt(200) : 0;
+
+			Real property = new Real();
+			parent.add(property, tween(from, to, duration, startDelay, loops, loopDelay));
+			properties.add(property);
+			if (reference != null) {
+				Real referenceProperty = new Real();
+				referenceParent.add(referenceProperty, tween(from, to, duration, startDelay, loops, loopDelay));
+				referenceProperties.add(referenceProperty);
+			}
+		}
+		if (random.nextBoolean() && loopTimelines) {
+			int loopDelay = random.nextInt(300);
+			timeline.loop(3, loopDelay);
+			if (reference != null) {
+				reference.loop(3, loopDelay);
+			}
+		}
+		return timeline;
+	}
+
+	private static FloatTween tween(int from, int to, int duration, int startDelay, int loops, int loopDelay) {
+		FloatTween tween = new FloatTween(from, to, duration, null, startDelay);
+		if (loops >= 7) {
+			tween.loop(loops - 5, loopDelay);
+		}
+		return tween;
+	}
+
+	/**
+	 * A timeline that visits every child on every frame, as Timeline did before it indexed its children. It plays
+	 * like Timeline otherwise, so that the index can be checked against it.
+	 */
+	private static final class ReferenceTimeline extends Animation {
+
+		private final ReferenceTimeline parent;
+		private final List<Animation> animationList = new ArrayList<Animation>();
+		private final List<Real> propertyList = new ArrayList<Real>();
+
+		private double playSpeed = 1;
+		private double remainderNanos;
+
+		private int lastAnimTime;
+		private int lastTime;
+		private boolean lastParentLooped;
+
+		ReferenceTimeline(ReferenceTimeline parent, int startDelay) {
+			super(0, parent == null ? null : Easing.NONE, startDelay);
+			this.parent = parent;
+		}
+
+		ReferenceTimeline at(int time) {
+			ReferenceTimeline child = new ReferenceTimeline(this, time);
+			add(null, child);
+			return child;
+		}
+
+		void add(Real property, Animation animation) {
+			animationList.add(animation);
+			propertyList.add(property);
+			calcDuration();
+		}
+
+		void setPlaySpeed(double speed) {
+			playSpeed = speed;
+		}
+
+		private void calcDuration() {
+			int duration = 0;
+			for (Animation anim : animationList) {
+				int childDuration = anim.getTotalDuration();
+				if (childDuration == LOOP_FOREVER) {
+					duration = LOOP_FOREVER;
+					break;
+				} else if (childDuration > duration) {
+					duration = childDuration;
+				}
+			}
+			setDuration(duration);
+			if (parent != null) {
+				parent.calcDuration();
+			}
+		}
+
+		@Override
+		boolean updateAnimationNanos(long elapsedNanos, boolean parentLooped) {
+			if (playSpeed == 0) {
+				elapsedNanos = 0;
+			} else if (playSpeed == -1) {
+				elapsedNanos = -elapsedNanos;
+			} else if (playSpeed != 1) {
+				double timeNanos = elapsedNanos * playSpeed + remainderNanos;
+				elapsedNanos = (long) timeNanos;
+				remainderNanos = timeNanos - elapsedNanos;
+			}
+			lastParentLooped = parentLooped;
+			return super.updateAnimationNanos(elapsedNanos, parentLooped);
+		}
+
+		@Override
+		protected void updateState(int animTime) {
+			updatePreciseState(animTime);
+		}
+
+		@Override
+		protected void updatePreciseState(double preciseAnimTime) {
+			long target = Math.round(preciseAnimTime * NANOS_PER_MILLI);
+			int animTime = (int) Math.floor(preciseAnimTime);
+
+			int oldLoop = getAnimLoop(lastTime);
+			int newLoop = getAnimLoop(getTime());
+			if (lastParentLooped || (newLoop != oldLoop && oldLoop >= 0)) {
+				for (int i = 0; i < animationList.size(); i++) {
+					update(i, target, true);
+				}
+			} else {
+				// Those that were animating first, then all the others
+				for (int i = 0; i < animationList.size(); i++) {
+					if (animationList.get(i).getSection(lastAnimTime) == SECTION_ANIMATION) {
+						update(i, target, false);
+					}
+				}
+				for (int i = 0; i < animationList.size(); i++) {
+					if (animationList.get(i).getSection(lastAnimTime) != SECTION_ANIMATION) {
+						update(i, target, false);
+					}
+				}
+			}
+
+			lastAnimTime = animTime;
+			lastTime = getTime();
+		}
+
+		private void update(int i, long target, boolean looped) {
+			Animation anim = animationList.get(i);
+			boolean active = anim.updateAnimationNanos(target - anim.getTimeNanos(), looped);
+			if (active && anim instanceof FloatTween) {
+				propertyList.get(i).applyBehaviorValue((FloatTween) anim);
+			}
+		}
+	}
+}
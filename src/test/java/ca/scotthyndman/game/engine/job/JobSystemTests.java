@@ -0,0 +1,279 @@
+package ca.scotthyndman.game.engine.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Checks that jobs run after their dependencies, that failures carry over to dependents, and that the frame phases
+ * wait for their jobs.
+ */
+public class JobSystemTests {
+
+	private JobSystem jobs;
+
+	@After
+	public void tearDown() {
+		if (jobs != null) {
+			jobs.shutdown();
+		}
+	}
+
+	@Test
+	public void runsJobsAfterTheirDependencies() {
+		jobs = new JobSystem(4);
+		List<String> order = Collections.synchronizedList(new ArrayList<String>());
+
+		// A diamond: decode, then two halves, then upload
+		Job decode = new Recording("decode", order);
+		Job left = new Recording("left", order).after(decode);
+		Job right = new Recording("right", order).after(decode);
+		Job upload = new Recording("upload", order).after(left).after(right);
+
+		jobs.submit(upload);
+		jobs.submit(left);
+		jobs.submit(right);
+		jobs.submit(decode);
+		jobs.await(upload);
+
+		assertEquals(4, order.size());
+		assertEquals("decode", order.get(0));
+		assertEquals("upload", order.get(3));
+	}
+
+	@Test
+	public void dependentsOfAFailedJobFail() {
+		jobs = new JobSystem(2);
+		final RuntimeException problem = new RuntimeException("bad texture");
+		Job decode = new Job("decode") {
+			@Override
+			protected void run() {
+				throw problem;
+			}
+		};
+		final AtomicInteger uploads = new AtomicInteger();
+		Job upload = new Job("upload") {
+			@Override
+			protected void run() {
+				uploads.incrementAndGet();
+			}
+		}.after(decode);
+
+		jobs.submit(decode);
+		jobs.submit(upload);
+		jobs.await(upload);
+
+		assertSame(problem, decode.getFailure());
+		assertSame(problem, upload.getFailure());
+		assertEquals(0, uploads.get());
+		assertEquals(1, jobs.getStats("upload").getFailures());
+	}
+
+	@Test
+	public void phasesWaitForTheirJobs() {
+		jobs = new JobSystem(3);
+		final AtomicInteger finished = new AtomicInteger();
+		for (int i = 0; i < 100; i++) {
+			jobs.submit(new Job("event fan-out") {
+				@Override
+				protected void run() throws Exception {
+					Thread.sleep(1);
+					finished.incrementAndGet();
+				}
+			}.during(FramePhase.SIMULATION));
+		}
+
+		jobs.awaitPhase(FramePhase.SIMULATION);
+		assertEquals(100, finished.get());
+		assertEquals(0, jobs.getOutstanding(FramePhase.SIMULATION));
+
+		// Nothing to wait for in the other phase
+		jobs.awaitPhase(FramePhase.RENDER);
+	}
+
+	@Test
+	public void runsOnTheWaitingThreadWithoutWorkers() {
+		jobs = new JobSystem(0);
+		final Thread[] ranOn = new Thread[1];
+		Job job = new Job("broadphase") {
+			@Override
+			protected void run() {
+				ranOn[0] = Thread.currentThread();
+			}
+		}.during(FramePhase.RENDER);
+
+		jobs.submit(job);
+		assertFalse(job.isDone());
+		jobs.awaitPhase(FramePhase.RENDER);
+		assertTrue(job.isDone());
+		assertSame(Thread.currentThread(), ranOn[0]);
+	}
+
+	@Test
+	public void longChainsRunWithoutWorkers() {
+		jobs = new JobSystem(0);
+		final AtomicInteger ran = new AtomicInteger();
+		Job previous = null;
+		Job[] chain = new Job[20000];
+		for (int i = 0; i < chain.length; i++) {
+			chain[i] = new Job("link") {
+				@Override
+				protected void run() {
+					ran.incrementAndGet();
+				}
+			};
+			if (previous != null) {
+				chain[i].after(previous);
+			}
+			previous = chain[i];
+		}
+
+		// Each link is queued as the one before finishes, rather than run inside it
+		for (Job job : chain) {
+			jobs.submit(job);
+		}
+		jobs.await(previous);
+		assertEquals(chain.length, ran.get());
+	}
+
+	@Test
+	public void awaitPhaseThrowsTheFirstFailureOfThePhase() {
+		jobs = new JobSystem(2);
+		final RuntimeException problem = new RuntimeException("bad path");
+		final AtomicInteger finished = new AtomicInteger();
+		jobs.submit(new Job("pathfinding") {
+			@Override
+			protected void run() {
+				throw problem;
+			}
+		}.during(FramePhase.SIMULATION));
+		for (int i = 0; i < 10; i++) {
+			jobs.submit(new Job("steering") {
+				@Override
+				protected void run() {
+					finished.incrementAndGet();
+				}
+			}.during(FramePhase.SIMULATION));
+		}
+
+		try {
+			jobs.awaitPhase(FramePhase.SIMULATION);
+			fail("The failure wasn't thrown");
+		} catch (RuntimeException e) {
+			assertSame(problem, e);
+		}
+		assertEquals(10, finished.get());
+		assertEquals(0, jobs.getOutstanding(FramePhase.SIMULATION));
+
+		// Thrown once only, and not by the other phase
+		jobs.awaitPhase(FramePhase.SIMULATION);
+		jobs.awaitPhase(FramePhase.RENDER);
+	}
+
+	@Test
+	public void countsJobsByType() {
+		jobs = new JobSystem(4);
+		final AtomicInteger spawned = new AtomicInteger();
+		Job root = new Job("spawner") {
+			@Override
+			protected void run() {
+				JobSystem system = JobSystemTests.this.jobs;
+				// Jobs submitted by a worker go on its own queue, for the others to steal
+				for (int i = 0; i < 1000; i++) {
+					system.submit(new Job("child") {
+						@Override
+						protected void run() {
+							spawned.incrementAndGet();
+						}
+					}.during(FramePhase.SIMULATION));
+				}
+			}
+		}.during(FramePhase.SIMULATION);
+
+		jobs.submit(root);
+		jobs.awaitPhase(FramePhase.SIMULATION);
+
+		assertEquals(1000, spawned.get());
+		JobStats stats = jobs.getStats("child");
+		assertNotNull(stats);
+		assertEquals(1000, stats.getCount());
+		assertEquals(1, jobs.getStats("spawner").getCount());
+		assertTrue(stats.getMaxNanos() >= stats.getAverageNanos());
+	}
+
+	@Test
+	public void startsItsWorkersWithTheFirstJob() {
+		int before = workerThreads();
+		jobs = new JobSystem(3);
+		assertFalse(jobs.isStarted());
+		assertTrue(workerThreads() <= before);
+
+		Job job = new Recording("first", new ArrayList<String>());
+		jobs.submit(job);
+		jobs.await(job);
+		assertTrue(jobs.isStarted());
+		assertTrue(workerThreads() >= 3);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void refusesToSubmitAJobTwice() {
+		jobs = new JobSystem(1);
+		Job job = new Recording("once", new ArrayList<String>());
+		jobs.submit(job);
+		jobs.submit(job);
+	}
+
+	@Test
+	public void aJobCanDependOnAFinishedJob() {
+		jobs = new JobSystem(1);
+		Job first = new Recording("first", new ArrayList<String>());
+		jobs.submit(first);
+		jobs.await(first);
+
+		Job second = new Recording("second", new ArrayList<String>()).after(first);
+		assertFalse(second.isDone());
+		jobs.submit(second);
+		jobs.await(second);
+		assertTrue(second.isDone());
+	}
+
+	/**
+	 * Returns the number of live job worker threads. Those of job systems shut down by earlier tests may still be
+	 * finishing.
+	 */
+	public static int workerThreads() {
+		int count = 0;
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.isAlive() && thread.getName().startsWith("Job worker")) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static final class Recording extends Job {
+
+		private final List<String> order;
+
+		Recording(String name, List<String> order) {
+			super(name);
+			this.order = order;
+		}
+
+		@Override
+		protected void run() {
+			order.add(getType());
+		}
+	}
+}
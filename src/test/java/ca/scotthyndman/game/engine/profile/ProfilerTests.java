@@ -0,0 +1,195 @@
+package ca.scotthyndman.game.engine.profile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks the percentiles over the ring of frames, that a switched off profiler records nothing, and that the
+ * simulation timeline keeps frames, and an allocation count, of its own.
+ */
+public class ProfilerTests {
+
+	@Test
+	public void percentilesOfTheRecordedFrames() {
+		Profiler profiler = new Profiler(100);
+		ProfileSection section = profiler.getSection("physics");
+		for (int i = 1; i <= 100; i++) {
+			section.add(i);
+			section.endFrame();
+		}
+
+		assertEquals(100, section.getFrameCount());
+		assertEquals(50, section.getPercentile(0.5));
+		assertEquals(95, section.getPercentile(0.95));
+		assertEquals(99, section.getPercentile(0.99));
+		assertEquals(100, section.getLast());
+		assertEquals(50, section.getAverage());
+	}
+
+	@Test
+	public void keepsOnlyTheLastFrames() {
+		Profiler profiler = new Profiler(10);
+		ProfileSection section = profiler.getSection("physics");
+		for (int i = 1; i <= 25; i++) {
+			section.add(i * 1000);
+			section.endFrame();
+		}
+
+		assertEquals(10, section.getFrameCount());
+		long[] percentiles = section.getPercentiles();
+		assertEquals(20000, percentiles[0]);
+		assertEquals(25000, percentiles[2]);
+		assertEquals(20500, section.getAverage());
+	}
+
+	@Test
+	public void addsUpSpansWithinAFrame() {
+		Profiler profiler = new Profiler();
+		ProfileSection section = profiler.getSection("events");
+		section.add(300);
+		section.add(200);
+		section.endFrame();
+		assertEquals(500, section.getLast());
+	}
+
+	@Test
+	public void recordsNothingWhenOff() {
+		Profiler profiler = new Profiler();
+		ProfileSection section = profiler.getSection("input");
+		assertEquals(0, profiler.start());
+
+		profiler.end(section, profiler.start());
+		profiler.endFrame();
+		profiler.endFrame();
+		assertEquals(0, section.getFrameCount());
+
+		profiler.setEnabled(true);
+		long start = profiler.start();
+		assertTrue(start != 0);
+		profiler.end(section, start);
+		profiler.endFrame();
+		profiler.endFrame();
+		assertEquals(1, section.getFrameCount());
+	}
+
+	@Test
+	public void tracksTheBytesEachSectionAllocates() {
+		if (!AllocationTracker.isSupported()) {
+			return;
+		}
+		Profiler profiler = new Profiler();
+		profiler.setEnabled(true);
+		profiler.setTrackingAllocations(true);
+		ProfileSection allocating = profiler.getSection("allocating");
+		ProfileSection quiet = profiler.getSection("quiet");
+
+		profiler.endFrame();
+		long start = profiler.start();
+		garbage = new byte[64 * 1024];
+		start = profiler.split(allocating, start);
+		profiler.end(quiet, start);
+		profiler.endFrame();
+
+		assertTrue(allocating.getLastBytes() >= 64 * 1024);
+		assertTrue(quiet.getLastBytes() < 1024);
+	}
+
+	@Test
+	public void countsFramesOverTheAllocationBudget() {
+		if (!AllocationTracker.isSupported()) {
+			return;
+		}
+		Profiler profiler = new Profiler();
+		profiler.setEnabled(true);
+		profiler.setTrackingAllocations(true);
+		profiler.setAllocationBudget(16 * 1024);
+
+		profiler.endFrame();
+		garbage = new byte[64 * 1024];
+		profiler.endFrame();
+		profiler.endFrame();
+		assertEquals(1, profiler.getFramesOverBudget());
+	}
+
+	@Test
+	public void checksSimulationFramesAgainstTheBudget() throws InterruptedException {
+		if (!AllocationTracker.isSupported()) {
+			return;
+		}
+		Profiler profiler = new Profiler();
+		final Profiler simulation = profiler.getSimulationProfiler();
+		profiler.setEnabled(true);
+		profiler.setTrackingAllocations(true);
+		profiler.setAllocationBudget(16 * 1024);
+		assertTrue(simulation.isTrackingAllocations());
+		assertEquals(16 * 1024, simulation.getAllocationBudget());
+
+		profiler.endFrame();
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				simulation.endFrame();
+				garbage = new byte[64 * 1024];
+				simulation.endFrame();
+			}
+		};
+		thread.start();
+		thread.join();
+		profiler.endFrame();
+
+		assertEquals(1, simulation.getFramesOverBudget());
+		assertEquals(0, profiler.getFramesOverBudget());
+	}
+
+	/**
+	 * Keeps the test allocations from being optimized away.
+	 */
+	static byte[] garbage;
+
+	@Test
+	public void keepsTheSimulationFramesApart() {
+		Profiler profiler = new Profiler();
+		Profiler simulation = profiler.getSimulationProfiler();
+		assertSame(simulation, profiler.getSimulationProfiler());
+		assertSame(simulation, simulation.getSimulationProfiler());
+
+		profiler.setEnabled(true);
+		assertTrue(simulation.isEnabled());
+
+		ProfileSection render = profiler.getSection("render");
+		ProfileSection input = simulation.getSection("input");
+		assertTrue(input != profiler.getSection("input"));
+
+		// Two simulation frames to one render frame
+		simulation.endFrame();
+		profiler.endFrame();
+		for (int i = 0; i < 2; i++) {
+			simulation.end(input, simulation.start());
+			simulation.endFrame();
+		}
+		profiler.end(render, profiler.start());
+		profiler.endFrame();
+
+		assertEquals(2, input.getFrameCount());
+		assertEquals(1, render.getFrameCount());
+		assertTrue(profiler.report().contains("simulation thread"));
+
+		profiler.reset();
+		assertEquals(0, input.getFrameCount());
+
+		profiler.setEnabled(false);
+		assertEquals(0, simulation.start());
+	}
+
+	@Test
+	public void namesSectionsAfterUpdatableTypes() {
+		Profiler profiler = new Profiler();
+		ProfileSection section = profiler.getSection(ProfilerTests.class);
+		assertEquals("update ProfilerTests", section.getName());
+		assertSame(section, profiler.getSection(ProfilerTests.class));
+		assertSame(section, profiler.getSection("update ProfilerTests"));
+	}
+}
@@ -0,0 +1,115 @@
+package ca.scotthyndman.game.engine.scene;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.URL;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.Engine.GameMode;
+import ca.scotthyndman.game.engine.entity.Env;
+
+import com.jme.image.Image;
+import com.jme.image.Texture;
+import com.jme.image.Texture2D;
+import com.jme.scene.Node;
+import com.jme.util.TextureKey;
+
+/**
+ * Checks that fading a group fades the graphics under it, as the batch draws them.
+ */
+public class GroupAlphaTests {
+
+	private static final float TPF = 1 / 60f;
+
+	private GameMode mode;
+	private Env env = Env.getInstance();
+	private SpriteBatch batch;
+
+	@Before
+	public void setUp() {
+		mode = env.getGameMode();
+		env.setGameMode(GameMode.HEADLESS);
+		env.setUpdateManager(new UpdateManager() {
+			public void groupWasAdded(Group updatable) {
+			}
+
+			public void groupWasRemoved(Group updatable) {
+			}
+
+			public void updatableWasAdded(Updatable updatable) {
+			}
+
+			public void updatableWasRemoved(Updatable updatable) {
+			}
+		});
+		batch = new SpriteBatch();
+		env.setSpriteBatch(batch);
+	}
+
+	@After
+	public void tearDown() {
+		env.setSpriteBatch(null);
+		env.setUpdateManager(null);
+		env.setGameMode(mode);
+	}
+
+	@Test
+	public void fadingAGroupFadesTheGraphicsUnderIt() throws Exception {
+		Group outer = new Group();
+		Group group = new Group();
+		Graphic graphic = new Graphic(texture(), 0, 0);
+		group.add(graphic);
+		outer.add(group);
+
+		group.alpha.set(0.5f);
+		graphic.alpha.set(0.5f);
+		update(outer, group, graphic);
+		assertEquals(0.25f, drawnAlpha(outer), 0);
+
+		// Groups above multiply in, whichever order the nodes update in
+		outer.alpha.set(0.5f);
+		graphic.alpha.set(0.8f);
+		update(graphic, group, outer);
+		assertEquals(0.2f, drawnAlpha(outer), 1e-6f);
+
+		group.alpha.set(1f);
+		update(outer, group, graphic);
+		assertEquals(0.4f, drawnAlpha(outer), 1e-6f);
+
+		// Taken out of the groups, only its own alpha is left, and a new group fades it at once
+		group.remove(graphic);
+		assertEquals(0.8f, graphic.getShownAlpha(), 1e-6f);
+		Group faded = new Group();
+		faded.alpha.set(0.5f);
+		update(faded);
+		faded.add(graphic);
+		assertEquals(0.4f, drawnAlpha(faded), 1e-6f);
+	}
+
+	private void update(Positioned... nodes) {
+		for (Positioned node : nodes) {
+			node.update(env, TPF);
+		}
+	}
+
+	/**
+	 * Builds the batch for the scene under a group, which holds one graphic, and returns the alpha of its vertices.
+	 */
+	private float drawnAlpha(Group root) {
+		Node scene = new Node();
+		scene.attachChild(root.getTopNode());
+		batch.build(scene);
+		assertEquals(1, batch.getSpriteCount());
+		return batch.getColorBuffer(0).get(3);
+	}
+
+	private static Texture texture() throws Exception {
+		Texture texture = new Texture2D();
+		texture.setImage(new Image(Image.Format.RGBA8, 16, 16, null));
+		texture.setTextureKey(new TextureKey(new URL("file:/textures/fade.png"), false, Image.Format.RGBA8));
+		return texture;
+	}
+}
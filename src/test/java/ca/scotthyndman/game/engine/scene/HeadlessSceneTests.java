@@ -0,0 +1,45 @@
+package ca.scotthyndman.game.engine.scene;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.Engine.GameMode;
+import ca.scotthyndman.game.engine.entity.Env;
+
+/**
+ * Checks that the scene graph runs without a renderer when the game is headless.
+ */
+public class HeadlessSceneTests {
+
+	private GameMode mode;
+
+	@Before
+	public void setUp() {
+		mode = Env.getInstance().getGameMode();
+		Env.getInstance().setGameMode(GameMode.HEADLESS);
+	}
+
+	@After
+	public void tearDown() {
+		Env.getInstance().setGameMode(mode);
+	}
+
+	@Test
+	public void nodesUpdateWithoutARenderer() {
+		UpdateScheduler scheduler = new UpdateScheduler();
+		TestNode node = new TestNode();
+		assertNull(node.renderer);
+		// Asks for render states, like a graphic does
+		node.enableAlpha(node.getContent());
+		scheduler.register(node);
+
+		node.x.set(10);
+		node.alpha.set(0.5f);
+		scheduler.update(Env.getInstance(), 1 / 60f);
+		assertEquals(10f, node.getContent().getLocalTranslation().x, 0);
+	}
+}
@@ -0,0 +1,58 @@
+package ca.scotthyndman.game.engine.scene;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.entity.Env;
+
+/**
+ * Checks that with fixed steps, nodes are shown between their last two updates.
+ */
+public class InterpolationTests {
+
+	private static final float TPF = 1 / 60f;
+
+	@Test
+	public void interpolatesBetweenTheLastTwoUpdates() {
+		UpdateScheduler scheduler = new UpdateScheduler();
+		scheduler.setInterpolating(true);
+		TestNode node = new TestNode();
+		scheduler.register(node);
+		scheduler.update(Env.getInstance(), TPF);
+
+		node.x.set(10);
+		scheduler.update(Env.getInstance(), TPF);
+		scheduler.interpolate(0.25f);
+		assertEquals(2.5f, node.getContent().getLocalTranslation().x, 0);
+
+		// Once the node stops moving it is shown where the simulation left it
+		scheduler.update(Env.getInstance(), TPF);
+		scheduler.interpolate(0.5f);
+		assertEquals(10f, node.getContent().getLocalTranslation().x, 0);
+	}
+
+	@Test
+	public void firstMoveStartsFromWhereTheNodeWasBuilt() {
+		UpdateScheduler scheduler = new UpdateScheduler();
+		scheduler.setInterpolating(true);
+		TestNode node = new TestNode();
+		node.x.set(4);
+		node.y.set(8);
+		scheduler.register(node);
+
+		// The first update shows the node where it was put, without a move to interpolate
+		scheduler.update(Env.getInstance(), TPF);
+		scheduler.interpolate(0.5f);
+		assertEquals(4f, node.getContent().getLocalTranslation().x, 0);
+
+		// Several steps without a change, and then a move
+		scheduler.update(Env.getInstance(), TPF);
+		scheduler.update(Env.getInstance(), TPF);
+		node.x.set(8);
+		scheduler.update(Env.getInstance(), TPF);
+		scheduler.interpolate(0.5f);
+		assertEquals(6f, node.getContent().getLocalTranslation().x, 0);
+		assertEquals(8f, node.getContent().getLocalTranslation().y, 0);
+	}
+}
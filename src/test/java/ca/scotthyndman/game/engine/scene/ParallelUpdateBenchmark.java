@@ -0,0 +1,63 @@
+package ca.scotthyndman.game.engine.scene;
+
+import ca.scotthyndman.game.engine.AbstractBenchmark;
+import ca.scotthyndman.game.engine.animation.AnimationSystem;
+import ca.scotthyndman.game.engine.animation.Easing;
+import ca.scotthyndman.game.engine.entity.Env;
+
+import com.jme.scene.Node;
+
+/**
+ * Measures the time to update 20000 animating sprites, spread over 20 groups, on 1, 2, 4, 8 and 16 threads. As in the
+ * engine, the sprites' behaviors are evaluated by an {@link AnimationSystem} sharing the updater; each frame advances
+ * it, then updates the nodes through the {@link UpdateScheduler}, and then the world transforms in a
+ * {@link TransformPass} sharing the updater too.
+ * <p>
+ * Without a transform pass, a single thread brings each node's world transform and bounds up to date as it goes, which
+ * is much slower and would hide what the threads do.
+ */
+public class ParallelUpdateBenchmark extends AbstractBenchmark {
+
+	private static final int GROUPS = 20;
+	private static final int SPRITES_PER_GROUP = 1000;
+	private static final int[] THREADS = { 1, 2, 4, 8, 16 };
+	private static final float TPF = 1 / 60f;
+
+	public static void main(String[] args) {
+		final Env env = Env.getInstance();
+
+		for (int threads : THREADS) {
+			final ParallelUpdater parallel = new ParallelUpdater(threads, 256);
+			final UpdateScheduler scheduler = new UpdateScheduler();
+			scheduler.setParallelUpdater(parallel);
+			final AnimationSystem animations = new AnimationSystem();
+			animations.setParallelUpdater(parallel);
+			final TransformPass transforms = new TransformPass();
+			transforms.setParallelUpdater(parallel);
+			env.setTransformPass(transforms);
+
+			final Node root = new Node();
+			for (int i = 0; i < GROUPS; i++) {
+				Node group = new Node();
+				for (int j = 0; j < SPRITES_PER_GROUP; j++) {
+					TestNode node = new TestNode();
+					node.attachAnimationSystem(animations);
+					node.angle.animate(0, 360, 60000 + j, Easing.REGULAR_IN_OUT);
+					node.x.animate(0, 800, 60000 - j, Easing.STRONG_IN_OUT);
+					scheduler.register(node);
+					group.attachChild(node.getTopNode());
+				}
+				root.attachChild(group);
+			}
+
+			report(threads + " thread(s)", measure(new Runnable() {
+				public void run() {
+					animations.updateNanos((long) (TPF * 1e9));
+					scheduler.update(env, TPF);
+					transforms.update(root, TPF);
+				}
+			}, 100, 300));
+			parallel.shutdown();
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package ca.scotthyndman.game.engine.scene;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.animation.AnimationSystem;
+import ca.scotthyndman.game.engine.animation.Easing;
+import ca.scotthyndman.game.engine.entity.Env;
+import ca.scotthyndman.game.engine.job.JobSystemTests;
+
+import com.jme.scene.Node;
+import com.jme.scene.Spatial;
+
+/**
+ * Checks that updating the scene on several threads gives the same results as updating it on one, with the nodes'
+ * behaviors evaluated by the nodes themselves or, as in the engine, by an {@link AnimationSystem}.
+ */
+public class ParallelUpdateTests {
+
+	private static final int NODES = 2000;
+	private static final int FRAMES = 120;
+	private static final float TPF = 1 / 60f;
+
+	private static final Easing[] EASINGS = { Easing.NONE, Easing.REGULAR_IN_OUT, Easing.STRONG_IN_OUT,
+			Easing.ELASTIC_OUT };
+
+	@Test
+	public void resultsDoNotDependOnTheThreadCount() {
+		checkResultsDoNotDependOnTheThreadCount(false);
+	}
+
+	@Test
+	public void animationSystemResultsDoNotDependOnTheThreadCount() {
+		checkResultsDoNotDependOnTheThreadCount(true);
+	}
+
+	private static void checkResultsDoNotDependOnTheThreadCount(boolean animationSystem) {
+		int[] serial = simulate(null, animationSystem);
+		for (int threads : new int[] { 2, 4, 8 }) {
+			ParallelUpdater parallel = new ParallelUpdater(threads, 64);
+			try {
+				int[] result = simulate(parallel, animationSystem);
+				for (int i = 0; i < serial.length; i++) {
+					assertEquals(threads + " threads, value " + i, serial[i], result[i]);
+				}
+			} finally {
+				parallel.shutdown();
+			}
+		}
+	}
+
+	@Test
+	public void nodesThatOverrideUpdateRunOnTheCallingThread() {
+		ParallelUpdater parallel = new ParallelUpdater(4, 16);
+		try {
+			UpdateScheduler scheduler = new UpdateScheduler();
+			scheduler.setParallelUpdater(parallel);
+			TestNode[] plain = new TestNode[256];
+			ScriptedNode[] scripted = new ScriptedNode[16];
+			for (int i = 0; i < plain.length; i++) {
+				plain[i] = new TestNode();
+				scheduler.register(plain[i]);
+			}
+			for (int i = 0; i < scripted.length; i++) {
+				scripted[i] = new ScriptedNode();
+				scheduler.register(scripted[i]);
+			}
+
+			for (int i = 0; i < plain.length; i++) {
+				plain[i].x.set(i);
+			}
+			for (int i = 0; i < scripted.length; i++) {
+				scripted[i].x.set(i);
+			}
+			scheduler.update(Env.getInstance(), TPF);
+
+			for (int i = 0; i < plain.length; i++) {
+				assertEquals(i, plain[i].getContent().getLocalTranslation().x, 0);
+			}
+			for (int i = 0; i < scripted.length; i++) {
+				assertSame(Thread.currentThread(), scripted[i].updatedOn);
+				assertEquals(i, scripted[i].getContent().getLocalTranslation().x, 0);
+			}
+		} finally {
+			parallel.shutdown();
+		}
+	}
+
+	@Test
+	public void updatesGroupsSplitBetweenThreads() {
+		ParallelUpdater parallel = new ParallelUpdater(4, 8);
+		try {
+			Node root = new Node();
+			for (int i = 0; i < 4; i++) {
+				Node group = new Node();
+				for (int j = 0; j < 32; j++) {
+					group.attachChild(new Node());
+				}
+				root.attachChild(group);
+			}
+
+			// Doesn't trip over the nodes, and leaves the tree as it was
+			parallel.updateGeometricState(root, TPF);
+			parallel.updateGeometricState(root, TPF);
+			assertEquals(4, root.getQuantity());
+			assertEquals(32, ((Node) root.getChild(0)).getQuantity());
+		} finally {
+			parallel.shutdown();
+		}
+	}
+
+	@Test
+	public void aBadThresholdStartsNoThreads() {
+		int before = JobSystemTests.workerThreads();
+		try {
+			new ParallelUpdater(4, 0);
+			fail("A threshold of 0 was accepted");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertTrue(JobSystemTests.workerThreads() <= before);
+	}
+
+	/**
+	 * Animates nodes with tweens drawn from a fixed seed, and returns the bits of their properties and transforms after
+	 * every frame.
+	 * 
+	 * @param animationSystem
+	 *            <code>true</code> to hand the behaviors to an animation system sharing the updater, as the engine does
+	 */
+	private static int[] simulate(ParallelUpdater parallel, boolean animationSystem) {
+		Random random = new Random(17);
+		UpdateScheduler scheduler = new UpdateScheduler();
+		scheduler.setParallelUpdater(parallel);
+		AnimationSystem system = null;
+		if (animationSystem) {
+			system = new AnimationSystem();
+			system.setParallelUpdater(parallel);
+		}
+
+		TestNode[] nodes = new TestNode[NODES];
+		for (int i = 0; i < NODES; i++) {
+			TestNode node = new TestNode();
+			scheduler.register(node);
+			if (system != null) {
+				node.attachAnimationSystem(system);
+			}
+			int duration = 200 + random.nextInt(1800);
+			node.x.animate(random.nextFloat() * 100, random.nextFloat() * 800, duration, EASINGS[i % EASINGS.length]);
+			node.y.animate(random.nextFloat() * 100, random.nextFloat() * 600, duration);
+			node.angle.animate(0, random.nextFloat() * 360, 2000 - duration / 2, Easing.STRONG_IN_OUT);
+			node.alpha.animate(1, random.nextFloat(), duration);
+			if (i % 7 == 0) {
+				node.scaleX.constant(random.nextFloat());
+			}
+			nodes[i] = node;
+		}
+
+		int[] bits = new int[FRAMES * NODES * 6];
+		int k = 0;
+		for (int frame = 0; frame < FRAMES; frame++) {
+			if (system != null) {
+				system.updateNanos((long) (TPF * 1e9));
+			}
+			scheduler.update(Env.getInstance(), TPF);
+			for (TestNode node : nodes) {
+				Spatial spatial = node.getContent();
+				bits[k++] = Float.floatToIntBits(node.x.get());
+				bits[k++] = Float.floatToIntBits(node.angle.get());
+				bits[k++] = Float.floatToIntBits(node.alpha.get());
+				bits[k++] = Float.floatToIntBits(spatial.getLocalTranslation().x);
+				bits[k++] = Float.floatToIntBits(spatial.getLocalTranslation().y);
+				bits[k++] = Float.floatToIntBits(spatial.getLocalScale().x);
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * Stands in for a node written in Ruby, which overrides {@link #update(Env, float)}.
+	 */
+	private static class ScriptedNode extends TestNode {
+
+		Thread updatedOn;
+
+		@Override
+		public void update(Env env, float tpf) {
+			updatedOn = Thread.currentThread();
+			super.update(env, tpf);
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package ca.scotthyndman.game.engine.scene;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.jme.image.Texture;
+import com.jme.image.Texture2D;
+import com.jme.renderer.ColorRGBA;
+import com.jme.scene.state.BlendState;
+import com.jme.scene.state.MaterialState;
+import com.jme.scene.state.StateRecord;
+import com.jme.scene.state.TextureState;
+
+/**
+ * Checks that the render state cache creates each state once, however many nodes ask for it.
+ */
+public class RenderStateCacheTests {
+
+	@Test
+	public void sharesBlendStatesByMode() {
+		CountingCache cache = new CountingCache();
+		BlendState alpha = cache.getBlendState(BlendMode.ALPHA);
+		for (int i = 0; i < 500; i++) {
+			assertSame(alpha, cache.getBlendState(BlendMode.ALPHA));
+		}
+		assertNotSame(alpha, cache.getBlendState(BlendMode.ADDITIVE));
+		assertEquals(2, cache.created);
+	}
+
+	@Test
+	public void sharesMaterialsByParameters() {
+		CountingCache cache = new CountingCache();
+		MaterialState material = cache.getMaterialState();
+		assertSame(material, cache.getMaterialState());
+
+		ColorRGBA ambient = new ColorRGBA(0.2f, 0.2f, 0.2f, 1f);
+		MaterialState dim = cache.getMaterialState(ambient, ColorRGBA.white, ColorRGBA.black, 10f);
+		assertNotSame(material, dim);
+
+		// The key is a copy, so changing the color passed in doesn't change what it maps to
+		ambient.r = 1f;
+		assertNotSame(dim, cache.getMaterialState(ambient, ColorRGBA.white, ColorRGBA.black, 10f));
+		assertSame(dim, cache.getMaterialState(new ColorRGBA(0.2f, 0.2f, 0.2f, 1f), ColorRGBA.white,
+				ColorRGBA.black, 10f));
+		assertEquals(3, cache.created);
+	}
+
+	@Test
+	public void sharesTextureStatesByTexture() {
+		CountingCache cache = new CountingCache();
+		Texture a = new Texture2D(), b = new Texture2D();
+		TextureState state = cache.getTextureState(a);
+		assertSame(state, cache.getTextureState(a));
+		assertNotSame(state, cache.getTextureState(b));
+		assertEquals(2, cache.size());
+		assertEquals(2, cache.created);
+	}
+
+	/**
+	 * Counts the states it creates.
+	 */
+	private static class CountingCache extends RenderStateCache {
+
+		int created;
+
+		CountingCache() {
+			super(null);
+		}
+
+		@Override
+		protected BlendState createBlendState(BlendMode mode) {
+			created++;
+			return new BlendState() {
+				public void apply() {
+				}
+
+				public StateRecord createStateRecord() {
+					return null;
+				}
+			};
+		}
+
+		@Override
+		protected MaterialState createMaterialState() {
+			created++;
+			return new MaterialState() {
+				public void apply() {
+				}
+
+				public StateRecord createStateRecord() {
+					return null;
+				}
+			};
+		}
+
+		@Override
+		protected TextureState createTextureState() {
+			created++;
+			return new TextureState() {
+				{
+					// Made by the renderer's own texture state
+					texture = new ArrayList<Texture>();
+				}
+
+				public void apply() {
+				}
+
+				public StateRecord createStateRecord() {
+					return null;
+				}
+
+				public void load(int unit) {
+				}
+
+				public void delete(int unit) {
+				}
+
+				public void deleteAll() {
+				}
+
+				public void deleteAll(boolean removeFromCache) {
+				}
+			};
+		}
+	}
+}
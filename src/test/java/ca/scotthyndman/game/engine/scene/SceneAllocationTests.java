@@ -0,0 +1,42 @@
+package ca.scotthyndman.game.engine.scene;
+
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.AbstractAllocationTest;
+import ca.scotthyndman.game.engine.animation.AnimationSystem;
+import ca.scotthyndman.game.engine.animation.Easing;
+import ca.scotthyndman.game.engine.entity.Env;
+
+/**
+ * Checks that a frame of an animating scene, once running, allocates nothing.
+ */
+public class SceneAllocationTests extends AbstractAllocationTest {
+
+	private static final float TPF = 1 / 60f;
+
+	@Test
+	public void animatingNodesDoNotAllocate() {
+		final UpdateScheduler scheduler = new UpdateScheduler();
+		final AnimationSystem system = new AnimationSystem();
+		for (int i = 0; i < 200; i++) {
+			TestNode node = new TestNode();
+			scheduler.register(node);
+			// Long enough to keep going through the whole test
+			node.x.animate(0, 800, 1000000, Easing.REGULAR_IN_OUT);
+			node.scaleX.animate(1, 2, 1000000);
+			if (i % 2 == 0) {
+				system.add(node.angle);
+				node.angle.animate(0, 360, 1000000, Easing.STRONG_IN_OUT);
+				system.add(node.alpha);
+				node.alpha.bindTo(node.angle);
+			}
+		}
+
+		assertFrameAllocatesAtMost(0, new Runnable() {
+			public void run() {
+				system.updateNanos(16666667L);
+				scheduler.update(Env.getInstance(), TPF);
+			}
+		});
+	}
+}
@@ -0,0 +1,170 @@
+package ca.scotthyndman.game.engine.scene;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.entity.Env;
+
+import com.jme.scene.Node;
+import com.jme.scene.Spatial;
+
+/**
+ * Checks that the scene reaches the spatials only through snapshots, whole and in order.
+ */
+public class SnapshotBufferTests {
+
+	private static final float TPF = 1 / 60f;
+
+	@After
+	public void tearDown() {
+		Env.getInstance().setSnapshotBuffer(null);
+		Env.getInstance().setUpdateManager(null);
+	}
+
+	@Test
+	public void spatialsChangeOnlyWhenASnapshotIsApplied() {
+		SnapshotBuffer buffer = new SnapshotBuffer();
+		UpdateScheduler scheduler = new UpdateScheduler();
+		TestNode node = new TestNode();
+		buffer.register(node);
+		scheduler.register(node);
+
+		node.x.set(10);
+		node.visible.set(false);
+		scheduler.update(Env.getInstance(), TPF);
+		assertEquals(0f, x(node), 0);
+
+		buffer.publish();
+		assertTrue(buffer.apply());
+		assertEquals(10f, x(node), 0);
+		assertEquals(Spatial.CullHint.Always, node.getContent().getCullHint());
+
+		// Nothing new to apply
+		assertFalse(buffer.apply());
+	}
+
+	@Test
+	public void sceneChangesWaitForTheirFrame() {
+		SnapshotBuffer buffer = new SnapshotBuffer();
+		Env.getInstance().setSnapshotBuffer(buffer);
+		Env.getInstance().setUpdateManager(new UpdateManager() {
+			public void groupWasAdded(Group updatable) {
+			}
+
+			public void groupWasRemoved(Group updatable) {
+			}
+
+			public void updatableWasAdded(Updatable updatable) {
+			}
+
+			public void updatableWasRemoved(Updatable updatable) {
+			}
+		});
+
+		Group group = new Group();
+		group.add(new TestNode());
+		assertEquals(1, group.size());
+		assertEquals(0, ((Node) group.getContent()).getQuantity());
+
+		buffer.publish();
+		buffer.apply();
+		assertEquals(1, ((Node) group.getContent()).getQuantity());
+	}
+
+	@Test
+	public void snapshotsDoNotTear() throws Exception {
+		final int frames = 20000;
+		final SnapshotBuffer buffer = new SnapshotBuffer();
+		final UpdateScheduler scheduler = new UpdateScheduler();
+		final TestNode[] nodes = new TestNode[64];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new TestNode();
+			buffer.register(nodes[i]);
+			scheduler.register(nodes[i]);
+		}
+
+		Thread simulation = new Thread(new Runnable() {
+			public void run() {
+				for (int frame = 1; frame <= frames; frame++) {
+					for (TestNode node : nodes) {
+						node.x.set(frame);
+						node.alpha.set(frame);
+					}
+					scheduler.update(Env.getInstance(), TPF);
+					buffer.publish();
+				}
+			}
+		});
+		simulation.start();
+
+		float last = 0;
+		int applied = 0;
+		while (buffer.getAppliedSequence() < frames) {
+			if (!buffer.apply()) {
+				continue;
+			}
+			applied++;
+
+			float frame = x(nodes[0]);
+			assertTrue(frame >= last);
+			for (TestNode node : nodes) {
+				assertEquals(frame, x(node), 0);
+			}
+			last = frame;
+		}
+		simulation.join();
+
+		assertEquals(frames, last, 0);
+		assertTrue(applied > 0);
+	}
+
+	@Test
+	public void nodesCanBeRegisteredFromAnotherThreadWhilePublishing() throws Exception {
+		final SnapshotBuffer buffer = new SnapshotBuffer();
+		final TestNode[] nodes = new TestNode[2000];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new TestNode();
+		}
+		final Throwable[] failure = new Throwable[1];
+
+		// Like a console script adding and removing nodes
+		Thread scripts = new Thread(new Runnable() {
+			public void run() {
+				try {
+					for (int round = 0; round < 200; round++) {
+						for (TestNode node : nodes) {
+							buffer.register(node);
+						}
+						for (TestNode node : nodes) {
+							buffer.unregister(node);
+						}
+					}
+					for (TestNode node : nodes) {
+						buffer.register(node);
+					}
+				} catch (Throwable t) {
+					failure[0] = t;
+				}
+			}
+		});
+		scripts.start();
+		while (scripts.isAlive()) {
+			buffer.publish();
+			buffer.apply();
+		}
+		scripts.join();
+
+		assertEquals(null, failure[0]);
+		assertEquals(nodes.length, buffer.getNodeCount());
+		buffer.publish();
+		assertTrue(buffer.apply());
+	}
+
+	private static float x(Positioned node) {
+		return node.getContent().getLocalTranslation().x;
+	}
+}
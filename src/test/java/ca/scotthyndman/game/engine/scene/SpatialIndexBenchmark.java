@@ -0,0 +1,103 @@
+package ca.scotthyndman.game.engine.scene;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import ca.scotthyndman.game.engine.AbstractBenchmark;
+
+/**
+ * Measures the spatial index with 10000, 50000 and 100000 sprites of 8 to 40 units, spread over a world whose area
+ * grows with their number, all of them moving every frame: the time to refresh the index after they move, and the time
+ * of each kind of query, next to a search of every sprite.
+ */
+public class SpatialIndexBenchmark extends AbstractBenchmark {
+
+	private static final int[] SPRITE_COUNTS = { 10000, 50000, 100000 };
+	private static final int QUERIES = 1000;
+
+	public static void main(String[] args) {
+		for (int count : SPRITE_COUNTS) {
+			run(count);
+		}
+	}
+
+	private static void run(int count) {
+		final float worldSize = (float) Math.sqrt(count) * 40;
+		final Random random = new Random(1);
+		final SpatialIndex index = new SpatialIndex(64);
+		final ArrayList<TestNode> nodes = new ArrayList<TestNode>(count);
+		for (int i = 0; i < count; i++) {
+			TestNode node = new TestNode(4 + random.nextFloat() * 16, 4 + random.nextFloat() * 16);
+			node.moveTo(random.nextFloat() * worldSize, random.nextFloat() * worldSize);
+			index.add(node);
+			nodes.add(node);
+		}
+		index.update();
+
+		report(count + " sprites, move all and update", measure(new Runnable() {
+			public void run() {
+				for (int i = 0, len = nodes.size(); i < len; i++) {
+					TestNode node = nodes.get(i);
+					node.moveBy(random.nextFloat() * 4 - 2, random.nextFloat() * 4 - 2);
+					index.markDirty(node);
+				}
+				index.update();
+			}
+		}, 10, 20));
+
+		final float[] points = new float[QUERIES * 2];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = random.nextFloat() * worldSize;
+		}
+		final ArrayList<Positioned> results = new ArrayList<Positioned>();
+
+		report(count + " sprites, queryPoint", measure(new Runnable() {
+			public void run() {
+				for (int i = 0; i < points.length; i += 2) {
+					results.clear();
+					index.queryPoint(points[i], points[i + 1], results);
+				}
+			}
+		}, 20, 50) / QUERIES);
+		report(count + " sprites, queryRect 200x200", measure(new Runnable() {
+			public void run() {
+				for (int i = 0; i < points.length; i += 2) {
+					results.clear();
+					index.queryRect(points[i], points[i + 1], points[i] + 200, points[i + 1] + 200, results);
+				}
+			}
+		}, 20, 50) / QUERIES);
+		report(count + " sprites, queryRadius 100", measure(new Runnable() {
+			public void run() {
+				for (int i = 0; i < points.length; i += 2) {
+					results.clear();
+					index.queryRadius(points[i], points[i + 1], 100, results);
+				}
+			}
+		}, 20, 50) / QUERIES);
+		report(count + " sprites, nearest 8", measure(new Runnable() {
+			public void run() {
+				for (int i = 0; i < points.length; i += 2) {
+					results.clear();
+					index.nearest(points[i], points[i + 1], 8, results);
+				}
+			}
+		}, 20, 50) / QUERIES);
+		report(count + " sprites, radius 100 by searching all", measure(new Runnable() {
+			public void run() {
+				for (int i = 0; i < points.length; i += 20) {
+					results.clear();
+					float px = points[i], py = points[i + 1];
+					for (int j = 0, len = nodes.size(); j < len; j++) {
+						TestNode node = nodes.get(j);
+						float dx = node.getContent().getWorldTranslation().x - px;
+						float dy = node.getContent().getWorldTranslation().y - py;
+						if (dx * dx + dy * dy <= 100 * 100) {
+							results.add(node);
+						}
+					}
+				}
+			}
+		}, 2, 5) / (QUERIES / 10));
+	}
+}
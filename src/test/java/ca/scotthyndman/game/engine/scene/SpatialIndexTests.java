@@ -0,0 +1,250 @@
+package ca.scotthyndman.game.engine.scene;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.Engine.GameMode;
+import ca.scotthyndman.game.engine.entity.Env;
+
+/**
+ * Checks the spatial index's queries against a search of every node, and that it follows the nodes in the scene as
+ * they move.
+ */
+public class SpatialIndexTests {
+
+	private static final float TPF = 1 / 60f;
+
+	private GameMode mode;
+
+	@After
+	public void tearDown() {
+		if (mode != null) {
+			Env.getInstance().setGameMode(mode);
+		}
+		Env.getInstance().setSpatialIndex(null);
+		Env.getInstance().setUpdateManager(null);
+	}
+
+	@Test
+	public void findsNodesByPointRectAndRadius() {
+		SpatialIndex index = new SpatialIndex(64);
+		TestNode a = box(index, 0, 0, 10, 10);
+		TestNode b = box(index, 100, 0, 10, 10);
+		TestNode big = box(index, 0, 200, 500, 20);
+
+		assertEquals(3, index.size());
+		assertSet(index.queryPoint(5, 5), a);
+		assertSet(index.queryPoint(100, 0), b);
+		assertSet(index.queryPoint(-240, 195), big);
+		assertSet(index.queryPoint(100, 50));
+		assertSet(index.queryRect(20, -5, 95, 5), b);
+		assertSet(index.queryRect(20, 30, 95, 400), big);
+
+		// The corner of a's box is about 14.1 from (15, 15)
+		assertSet(index.queryRadius(15, 15, 15), a);
+		assertSet(index.queryRadius(15, 15, 14));
+
+		List<Positioned> nearest = index.nearest(80, 30, 2);
+		assertEquals(2, nearest.size());
+		assertEquals(b, nearest.get(0));
+		assertEquals(a, nearest.get(1));
+		assertEquals(big, index.nearest(80, 150, 1).get(0));
+
+		index.remove(big);
+		assertFalse(index.contains(big));
+		assertSet(index.queryPoint(-240, 195));
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	public void queriesMatchASearchOfEveryNode() {
+		Random random = new Random(7);
+		SpatialIndex index = new SpatialIndex(32);
+		ArrayList<TestNode> nodes = new ArrayList<TestNode>();
+		for (int i = 0; i < 500; i++) {
+			nodes.add(box(index, random.nextFloat() * 1000, random.nextFloat() * 1000, 1 + random.nextFloat() * 60,
+					1 + random.nextFloat() * 60));
+		}
+
+		for (int round = 0; round < 5; round++) {
+			for (int i = 0; i < nodes.size(); i += 3) {
+				TestNode node = nodes.get(i);
+				node.moveTo(random.nextFloat() * 1000, random.nextFloat() * 1000);
+				index.markDirty(node);
+			}
+			index.update();
+
+			for (int q = 0; q < 20; q++) {
+				float x = random.nextFloat() * 1000, y = random.nextFloat() * 1000;
+				float w = random.nextFloat() * 200, h = random.nextFloat() * 200, r = random.nextFloat() * 100;
+
+				assertSameNodes(search(nodes, x, y, x, y, -1), index.queryPoint(x, y));
+				assertSameNodes(search(nodes, x, y, x + w, y + h, -1), index.queryRect(x, y, x + w, y + h));
+				assertSameNodes(search(nodes, x - r, y - r, x + r, y + r, r), index.queryRadius(x, y, r));
+
+				List<Positioned> nearest = index.nearest(x, y, 10);
+				assertEquals(10, nearest.size());
+				float furthest = distance(nearest.get(9), x, y);
+				for (TestNode node : nodes) {
+					if (!nearest.contains(node)) {
+						assertTrue(distance(node, x, y) >= furthest);
+					}
+				}
+				for (int i = 1; i < 10; i++) {
+					assertTrue(distance(nearest.get(i - 1), x, y) <= distance(nearest.get(i), x, y));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void dropsTheCellsNodesHaveLeft() {
+		Random random = new Random(11);
+		SpatialIndex index = new SpatialIndex(16);
+		ArrayList<TestNode> nodes = new ArrayList<TestNode>();
+		for (int i = 0; i < 50; i++) {
+			nodes.add(box(index, random.nextFloat() * 100, random.nextFloat() * 100, 4, 4));
+		}
+
+		// The nodes wander off across thousands of cells, one step a frame
+		for (int frame = 0; frame < 1000; frame++) {
+			for (TestNode node : nodes) {
+				node.moveBy(16 + random.nextFloat() * 8, random.nextFloat() * 8 - 4);
+				index.markDirty(node);
+			}
+			index.update();
+			assertTrue(index.getCellCount() <= Math.max(64, 2 * nodes.size()) + nodes.size());
+		}
+
+		for (int q = 0; q < 50; q++) {
+			TestNode node = nodes.get(q);
+			float x = node.getContent().getWorldTranslation().x;
+			float y = node.getContent().getWorldTranslation().y;
+			assertSameNodes(search(nodes, x - 50, y - 50, x + 50, y + 50, -1), index.queryRect(x - 50, y - 50,
+					x + 50, y + 50));
+			assertEquals(node, index.nearest(x, y, 1).get(0));
+		}
+
+		// Removing the nodes empties the index, keeping a few empty cells at most
+		for (TestNode node : nodes) {
+			index.remove(node);
+		}
+		index.update();
+		assertTrue(index.getCellCount() <= 64);
+		assertSet(index.queryRect(-1e6f, -1e6f, 1e6f, 1e6f));
+		assertTrue(index.nearest(0, 0, 1).isEmpty());
+	}
+
+	@Test
+	public void followsNodesInTheScene() {
+		Env env = Env.getInstance();
+		mode = env.getGameMode();
+		env.setGameMode(GameMode.HEADLESS);
+		UpdateManager manager = new UpdateManager() {
+			public void groupWasAdded(Group updatable) {
+			}
+
+			public void groupWasRemoved(Group updatable) {
+			}
+
+			public void updatableWasAdded(Updatable updatable) {
+			}
+
+			public void updatableWasRemoved(Updatable updatable) {
+			}
+		};
+		env.setUpdateManager(manager);
+		SpatialIndex index = new SpatialIndex(64);
+		env.setSpatialIndex(index);
+		UpdateScheduler scheduler = new UpdateScheduler();
+
+		// Not indexed until its group is in the scene
+		Group group = new Group();
+		TestNode child = new TestNode(8, 8);
+		group.add(child);
+		scheduler.register(group);
+		scheduler.register(child);
+		assertFalse(index.contains(child));
+
+		RootNode root = new RootNode(manager);
+		root.attachChild(group);
+		assertTrue(index.contains(child));
+		assertFalse(index.contains(group));
+
+		// Moving the group moves the child's box
+		group.x.set(300);
+		scheduler.update(env, TPF);
+		index.update();
+		assertSet(index.queryPoint(300, 0), child);
+		assertSet(index.queryPoint(0, 0));
+
+		// A group built off the scene joins it with the nodes under it
+		Group inner = new Group();
+		TestNode deep = new TestNode(8, 8);
+		inner.add(deep);
+		assertFalse(index.contains(deep));
+		group.add(inner);
+		assertTrue(index.contains(deep));
+		assertEquals(2, index.size());
+
+		group.remove(child);
+		assertFalse(index.contains(child));
+		group.remove(inner);
+		assertFalse(index.contains(deep));
+		assertEquals(0, index.size());
+	}
+
+	//
+	// ======== HELPERS
+	//
+
+	private static TestNode box(SpatialIndex index, float x, float y, float width, float height) {
+		TestNode node = new TestNode(width / 2, height / 2);
+		node.moveTo(x, y);
+		index.add(node);
+		index.update();
+		return node;
+	}
+
+	private static List<Positioned> search(List<TestNode> nodes, float minX, float minY, float maxX, float maxY,
+			float radius) {
+		ArrayList<Positioned> found = new ArrayList<Positioned>();
+		for (TestNode node : nodes) {
+			float x = node.getContent().getWorldTranslation().x;
+			float y = node.getContent().getWorldTranslation().y;
+			if (x - node.hw <= maxX && x + node.hw >= minX && y - node.hh <= maxY && y + node.hh >= minY
+					&& (radius < 0 || distance(node, (minX + maxX) / 2, (minY + maxY) / 2) <= radius)) {
+				found.add(node);
+			}
+		}
+		return found;
+	}
+
+	private static float distance(Positioned positioned, float px, float py) {
+		TestNode node = (TestNode) positioned;
+		float x = node.getContent().getWorldTranslation().x;
+		float y = node.getContent().getWorldTranslation().y;
+		float dx = Math.max(0, Math.abs(px - x) - node.hw);
+		float dy = Math.max(0, Math.abs(py - y) - node.hh);
+		return (float) Math.sqrt(dx * dx + dy * dy);
+	}
+
+	private static void assertSet(List<Positioned> found, Positioned... expected) {
+		assertSameNodes(Arrays.asList(expected), found);
+	}
+
+	private static void assertSameNodes(List<? extends Positioned> expected, List<Positioned> found) {
+		assertEquals(expected.size(), found.size());
+		assertEquals(new HashSet<Positioned>(expected), new HashSet<Positioned>(found));
+	}
+}
@@ -0,0 +1,64 @@
+package ca.scotthyndman.game.engine.scene;
+
+import ca.scotthyndman.game.engine.AbstractBenchmark;
+import ca.scotthyndman.game.engine.Engine.GameMode;
+import ca.scotthyndman.game.engine.entity.Env;
+
+import com.jme.image.Texture;
+import com.jme.image.Texture2D;
+import com.jme.math.Quaternion;
+import com.jme.math.Vector3f;
+import com.jme.scene.Node;
+
+/**
+ * Measures the time to build the sprite batches for 501, 10000 and 50000 rotated graphics, spread over 20 groups, with
+ * one texture, with 8 textures each drawn together, and with 8 textures taking turns, which takes a draw per graphic.
+ * Runs headless, so only the work on the CPU is measured.
+ */
+public class SpriteBatchBenchmark extends AbstractBenchmark {
+
+	private static final int GROUPS = 20;
+	private static final int[] SPRITES = { 501, 10000, 50000 };
+	private static final int TEXTURES = 8;
+
+	public static void main(String[] args) {
+		Env.getInstance().setGameMode(GameMode.HEADLESS);
+		Texture[] textures = new Texture[TEXTURES];
+		for (int i = 0; i < textures.length; i++) {
+			textures[i] = new Texture2D();
+		}
+
+		for (int sprites : SPRITES) {
+			run(sprites + " sprites, 1 texture", sprites, textures, 1, false);
+			run(sprites + " sprites, " + TEXTURES + " textures in runs", sprites, textures, TEXTURES, false);
+			run(sprites + " sprites, " + TEXTURES + " textures alternating", sprites, textures, TEXTURES, true);
+		}
+	}
+
+	private static void run(String name, int sprites, Texture[] textures, int textureCount, boolean alternating) {
+		final Node root = new Node();
+		Quaternion rotation = new Quaternion();
+		for (int i = 0; i < GROUPS; i++) {
+			root.attachChild(new Node());
+		}
+		int perTexture = (sprites + textureCount - 1) / textureCount;
+		for (int i = 0; i < sprites; i++) {
+			SpriteQuad quad = new SpriteQuad("sprite", true);
+			quad.texture = textures[alternating ? i % textureCount : i / perTexture];
+			quad.resize(32, 32);
+			quad.setLocalTranslation(i % 800, i % 600, 0);
+			quad.setLocalRotation(new Quaternion(rotation.fromAngleAxis(i, Vector3f.UNIT_Z)));
+			quad.alpha = 0.5f;
+			((Node) root.getChild(i * GROUPS / sprites)).attachChild(quad);
+		}
+		root.updateGeometricState(0, true);
+
+		final SpriteBatch batch = new SpriteBatch();
+		long nanos = measure(new Runnable() {
+			public void run() {
+				batch.build(root);
+			}
+		}, 200, 500);
+		report(name + " (" + batch.getBatchCount() + " draws)", nanos);
+	}
+}
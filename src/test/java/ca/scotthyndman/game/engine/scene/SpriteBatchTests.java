@@ -0,0 +1,193 @@
+package ca.scotthyndman.game.engine.scene;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.nio.FloatBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.Engine.GameMode;
+import ca.scotthyndman.game.engine.entity.Env;
+
+import com.jme.image.Texture;
+import com.jme.image.Texture2D;
+import com.jme.math.FastMath;
+import com.jme.math.Quaternion;
+import com.jme.math.Vector3f;
+import com.jme.scene.Node;
+import com.jme.scene.Spatial;
+import com.jme.scene.shape.Quad;
+
+/**
+ * Checks that the sprite batch merges graphics into as few draws as it can while keeping their order, around the rest
+ * of the scene too, and that the quads it writes are where the graphics are.
+ */
+public class SpriteBatchTests {
+
+	private static final float EPSILON = 1e-4f;
+
+	private GameMode mode;
+	private Texture a = new Texture2D();
+	private Texture b = new Texture2D();
+
+	@Before
+	public void setUp() {
+		mode = Env.getInstance().getGameMode();
+		Env.getInstance().setGameMode(GameMode.HEADLESS);
+	}
+
+	@After
+	public void tearDown() {
+		Env.getInstance().setGameMode(mode);
+	}
+
+	@Test
+	public void mergesRunsOfTheSameTexture() {
+		Node root = new Node();
+		quad(root, a);
+		quad(root, a);
+		Node group = new Node();
+		root.attachChild(group);
+		quad(group, a);
+		quad(group, b);
+		quad(root, a).blendMode = BlendMode.ADDITIVE;
+		quad(root, a).blendMode = BlendMode.ADDITIVE;
+
+		SpriteBatch batch = new SpriteBatch();
+		batch.build(root);
+		assertEquals(6, batch.getSpriteCount());
+		assertEquals(3, batch.getBatchCount());
+		assertSame(a, batch.getBatchTexture(0));
+		assertEquals(3, batch.getBatchSize(0));
+		assertSame(b, batch.getBatchTexture(1));
+		assertEquals(1, batch.getBatchSize(1));
+		assertEquals(2, batch.getBatchSize(2));
+	}
+
+	@Test
+	public void skipsHiddenAndUnbatchedGraphics() {
+		Node root = new Node();
+		quad(root, a);
+		quad(root, a).setCullHint(Spatial.CullHint.Always);
+		quad(root, a).alpha = 0f;
+		Node hidden = new Node();
+		hidden.setCullHint(Spatial.CullHint.Always);
+		root.attachChild(hidden);
+		quad(hidden, a);
+		SpriteQuad unbatched = new SpriteQuad("unbatched", false);
+		unbatched.texture = a;
+		root.attachChild(unbatched);
+
+		SpriteBatch batch = new SpriteBatch();
+		batch.build(root);
+		assertEquals(1, batch.getSpriteCount());
+		assertEquals(1, batch.getBatchCount());
+	}
+
+	@Test
+	public void drawsTheRestOfTheSceneInBetweenItsBatches() {
+		Node root = new Node();
+		quad(root, a);
+		quad(root, a);
+		Quad text = new Quad("text");
+		root.attachChild(text);
+		quad(root, a);
+		Node group = new Node();
+		root.attachChild(group);
+		SpriteQuad unbatched = new SpriteQuad("unbatched", false);
+		group.attachChild(unbatched);
+		Quad hidden = new Quad("hidden");
+		hidden.setCullHint(Spatial.CullHint.Always);
+		root.attachChild(hidden);
+
+		// The same texture either side of the text still takes two draws, to keep the text between them
+		SpriteBatch batch = new SpriteBatch();
+		batch.build(root);
+		assertEquals(2, batch.getBatchCount());
+		assertEquals(2, batch.getBatchSize(0));
+		assertEquals(1, batch.getBatchSize(1));
+		assertEquals(4, batch.getDrawCount());
+		assertSame(batch.getBatchMesh(0), batch.getDrawn(0));
+		assertSame(text, batch.getDrawn(1));
+		assertSame(batch.getBatchMesh(1), batch.getDrawn(2));
+		assertSame(unbatched, batch.getDrawn(3));
+
+		// Rebuilt without the text, one draw is enough
+		root.detachChild(text);
+		batch.build(root);
+		assertEquals(1, batch.getBatchCount());
+		assertEquals(2, batch.getDrawCount());
+		assertSame(batch.getBatchMesh(0), batch.getDrawn(0));
+		assertSame(unbatched, batch.getDrawn(1));
+	}
+
+	@Test
+	public void writesWorldSpaceCornersAndAlpha() {
+		Node root = new Node();
+		Node parent = new Node();
+		parent.setLocalTranslation(100, 50, 0);
+		root.attachChild(parent);
+		SpriteQuad quad = quad(parent, a);
+		quad.resize(20, 10);
+		quad.setLocalTranslation(10, 0, 0);
+		quad.setLocalRotation(new Quaternion().fromAngleAxis(FastMath.HALF_PI, Vector3f.UNIT_Z));
+		quad.getLocalScale().set(2, 1, 1);
+		quad.alpha = 0.5f;
+		root.updateGeometricState(0, true);
+
+		SpriteBatch batch = new SpriteBatch();
+		batch.build(root);
+
+		// Rotated a quarter turn, the quad's 40 wide x axis runs up, and its 10 high y axis runs left
+		FloatBuffer v = batch.getVertexBuffer(0);
+		assertEquals(12, v.limit());
+		assertCorner(v, 0, 105, 30);
+		assertCorner(v, 1, 115, 30);
+		assertCorner(v, 2, 115, 70);
+		assertCorner(v, 3, 105, 70);
+
+		FloatBuffer c = batch.getColorBuffer(0);
+		for (int i = 0; i < 4; i++) {
+			assertEquals(1f, c.get(i * 4), 0);
+			assertEquals(0.5f, c.get(i * 4 + 3), 0);
+		}
+		FloatBuffer t = batch.getTexCoordBuffer(0);
+		assertEquals(0f, t.get(0), 0);
+		assertEquals(1f, t.get(1), 0);
+		assertEquals(1f, t.get(4), 0);
+		assertEquals(0f, t.get(5), 0);
+	}
+
+	@Test
+	public void reusesItsBuffers() {
+		Node root = new Node();
+		for (int i = 0; i < 300; i++) {
+			quad(root, a);
+		}
+		SpriteBatch batch = new SpriteBatch();
+		batch.build(root);
+		FloatBuffer vertices = batch.getVertexBuffer(0);
+		assertEquals(300 * 12, vertices.limit());
+
+		root.detachChildAt(0);
+		batch.build(root);
+		assertSame(vertices, batch.getVertexBuffer(0));
+		assertEquals(299 * 12, vertices.limit());
+	}
+
+	private static SpriteQuad quad(Node parent, Texture texture) {
+		SpriteQuad quad = new SpriteQuad("quad", true);
+		quad.texture = texture;
+		quad.resize(1, 1);
+		parent.attachChild(quad);
+		return quad;
+	}
+
+	private static void assertCorner(FloatBuffer v, int corner, float x, float y) {
+		assertEquals(x, v.get(corner * 3), EPSILON);
+		assertEquals(y, v.get(corner * 3 + 1), EPSILON);
+	}
+}
@@ -0,0 +1,59 @@
+package ca.scotthyndman.game.engine.scene;
+
+import ca.scotthyndman.game.engine.animation.Real;
+
+import com.jme.math.Vector3f;
+import com.jme.scene.Node;
+import com.jme.scene.Spatial;
+
+/**
+ * A node for the scene's tests and benchmarks, shown by an empty {@link Node}. It is a point to the spatial index
+ * unless it is given a size.
+ */
+/* package-private */class TestNode extends Positioned {
+
+	final float hw, hh;
+
+	TestNode() {
+		this(0, 0);
+	}
+
+	/**
+	 * @param hw
+	 *            half the node's width
+	 * @param hh
+	 *            half the node's height
+	 */
+	TestNode(float hw, float hh) {
+		this.hw = hw;
+		this.hh = hh;
+	}
+
+	/**
+	 * Places the node's spatial, leaving its properties alone, and brings its world transform up to date.
+	 */
+	void moveTo(float x, float y) {
+		getContent().setLocalTranslation(x, y, 0);
+		getContent().updateGeometricState(0, true);
+	}
+
+	void moveBy(float dx, float dy) {
+		Vector3f t = getContent().getLocalTranslation();
+		moveTo(t.x + dx, t.y + dy);
+	}
+
+	@Override
+	protected Spatial constructSpatial(Real x, Real y) {
+		return new Node();
+	}
+
+	@Override
+	protected float getHalfWidth() {
+		return hw;
+	}
+
+	@Override
+	protected float getHalfHeight() {
+		return hh;
+	}
+}
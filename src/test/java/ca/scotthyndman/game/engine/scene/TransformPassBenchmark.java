@@ -0,0 +1,105 @@
+package ca.scotthyndman.game.engine.scene;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import ca.scotthyndman.game.engine.AbstractBenchmark;
+import ca.scotthyndman.game.engine.entity.Env;
+
+import com.jme.scene.Node;
+
+/**
+ * Measures the time to move 1%, 10% and all of the nodes of a 20000 node tree, 10 groups deep, and bring the world
+ * transforms up to date: with every node updating its own subtree and a full pass over the tree afterwards, and with a
+ * {@link TransformPass}.
+ */
+public class TransformPassBenchmark extends AbstractBenchmark {
+
+	private static final int LEVELS = 10;
+	private static final int NODES_PER_LEVEL = 2000;
+	private static final int[] PERCENT_MOVING = { 1, 10, 100 };
+	private static final float TPF = 1 / 60f;
+
+	public static void main(String[] args) {
+		Env env = Env.getInstance();
+		env.setUpdateManager(new UpdateManager() {
+			public void groupWasAdded(Group updatable) {
+			}
+
+			public void groupWasRemoved(Group updatable) {
+			}
+
+			public void updatableWasAdded(Updatable updatable) {
+			}
+
+			public void updatableWasRemoved(Updatable updatable) {
+			}
+		});
+
+		for (int percent : PERCENT_MOVING) {
+			env.setTransformPass(null);
+			report(percent + "% moving, per node", run(null, percent));
+
+			TransformPass pass = new TransformPass();
+			env.setTransformPass(pass);
+			report(percent + "% moving, transform pass", run(pass, percent));
+		}
+		env.setTransformPass(null);
+	}
+
+	private static long run(final TransformPass pass, int percent) {
+		final Env env = Env.getInstance();
+		final UpdateScheduler scheduler = new UpdateScheduler();
+		final Node root = new Node();
+		final ArrayList<Positioned> nodes = new ArrayList<Positioned>();
+		Random random = new Random(1);
+
+		// Each level's nodes go into random groups of the level above; the last level holds plain nodes
+		ArrayList<Group> parents = new ArrayList<Group>();
+		for (int level = 0; level < LEVELS; level++) {
+			ArrayList<Group> groups = new ArrayList<Group>();
+			for (int i = 0; i < NODES_PER_LEVEL; i++) {
+				Positioned node;
+				if (level < LEVELS - 1) {
+					Group group = new Group();
+					groups.add(group);
+					node = group;
+				} else {
+					node = new TestNode();
+				}
+				if (parents.isEmpty()) {
+					root.attachChild(node.getTopNode());
+				} else {
+					parents.get(random.nextInt(parents.size())).add(node);
+				}
+				scheduler.register(node);
+				nodes.add(node);
+			}
+			parents = groups;
+		}
+		scheduler.update(env, TPF);
+		root.updateGeometricState(TPF, true);
+
+		final ArrayList<Positioned> moving = new ArrayList<Positioned>();
+		for (int i = 0, step = 100 / percent; i < nodes.size(); i += step) {
+			moving.add(nodes.get(i));
+		}
+
+		return measure(new Runnable() {
+			private int frame;
+
+			public void run() {
+				frame++;
+				for (int i = 0, len = moving.size(); i < len; i++) {
+					moving.get(i).x.set(frame % 100);
+				}
+				scheduler.update(env, TPF);
+				if (pass != null) {
+					pass.update(root, TPF);
+				} else {
+					root.updateGeometricState(TPF, true);
+				}
+			}
+		}, 50, 100);
+	}
+}
@@ -0,0 +1,170 @@
+package ca.scotthyndman.game.engine.scene;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.entity.Env;
+
+import com.jme.scene.Node;
+
+/**
+ * Checks that the transform pass updates each changed subtree once, and leaves the rest of the tree alone.
+ */
+public class TransformPassTests {
+
+	private static final float TPF = 1 / 60f;
+
+	@After
+	public void tearDown() {
+		Env.getInstance().setTransformPass(null);
+		Env.getInstance().setUpdateManager(null);
+	}
+
+	@Test
+	public void updatesOnlyTheDirtySubtrees() {
+		CountingNode root = new CountingNode();
+		CountingNode a = child(root), a1 = child(a), a2 = child(a);
+		CountingNode b = child(root), b1 = child(b);
+		TransformPass pass = new TransformPass();
+
+		// The first pass covers the whole tree
+		pass.update(root, TPF);
+		assertEquals(-1, pass.getLastSubtreeCount());
+		reset(root, a, a1, a2, b, b1);
+
+		a.setLocalTranslation(10, 0, 0);
+		pass.markDirty(a1);
+		pass.markDirty(a);
+		pass.update(root, TPF);
+
+		assertEquals(1, pass.getLastSubtreeCount());
+		assertEquals(1, a.vectors);
+		assertEquals(1, a1.vectors);
+		assertEquals(1, a2.vectors);
+		assertEquals(0, b.vectors);
+		assertEquals(0, b1.vectors);
+		assertEquals(0, root.vectors);
+		assertEquals(1, root.bounds);
+		assertEquals(0, b.bounds);
+		assertEquals(10f, a2.getWorldTranslation().x, 0);
+
+		// Nothing changed since
+		reset(root, a, a1, a2, b, b1);
+		pass.update(root, TPF);
+		assertEquals(0, a.vectors + a1.vectors + b.vectors + root.bounds);
+	}
+
+	@Test
+	public void refreshesSharedAncestorsOnce() {
+		CountingNode root = new CountingNode();
+		CountingNode a = child(root), a1 = child(a), a2 = child(a);
+		TransformPass pass = new TransformPass();
+		pass.update(root, TPF);
+		reset(root, a, a1, a2);
+
+		pass.markDirty(a1);
+		pass.markDirty(a2);
+		pass.update(root, TPF);
+
+		assertEquals(2, pass.getLastSubtreeCount());
+		assertEquals(0, a.vectors);
+		assertEquals(1, a.bounds);
+		assertEquals(1, root.bounds);
+	}
+
+	@Test
+	public void skipsSpatialsOutsideTheTree() {
+		CountingNode root = new CountingNode();
+		CountingNode detached = new CountingNode();
+		TransformPass pass = new TransformPass();
+		pass.update(root, TPF);
+
+		pass.markDirty(detached);
+		pass.update(root, TPF);
+		assertEquals(0, pass.getLastSubtreeCount());
+		assertEquals(0, detached.vectors);
+	}
+
+	@Test
+	public void nodesMarkTheirMoves() {
+		TransformPass pass = new TransformPass();
+		Env.getInstance().setTransformPass(pass);
+		Env.getInstance().setUpdateManager(new UpdateManager() {
+			public void groupWasAdded(Group updatable) {
+			}
+
+			public void groupWasRemoved(Group updatable) {
+			}
+
+			public void updatableWasAdded(Updatable updatable) {
+			}
+
+			public void updatableWasRemoved(Updatable updatable) {
+			}
+		});
+
+		Node root = new Node();
+		Group group = new Group();
+		root.attachChild(group.getTopNode());
+		TestNode moving = new TestNode();
+		TestNode still = new TestNode();
+		group.add(moving);
+		group.add(still);
+		UpdateScheduler scheduler = new UpdateScheduler();
+		scheduler.register(group);
+		scheduler.register(moving);
+		scheduler.register(still);
+		scheduler.update(Env.getInstance(), TPF);
+		pass.update(root, TPF);
+
+		group.x.set(100);
+		moving.x.set(5);
+		scheduler.update(Env.getInstance(), TPF);
+		pass.update(root, TPF);
+		assertEquals(1, pass.getLastSubtreeCount());
+		assertEquals(105f, moving.getContent().getWorldTranslation().x, 0);
+		assertEquals(100f, still.getContent().getWorldTranslation().x, 0);
+
+		moving.x.set(7);
+		scheduler.update(Env.getInstance(), TPF);
+		pass.update(root, TPF);
+		assertEquals(1, pass.getLastSubtreeCount());
+		assertEquals(107f, moving.getContent().getWorldTranslation().x, 0);
+	}
+
+	private static CountingNode child(Node parent) {
+		CountingNode child = new CountingNode();
+		parent.attachChild(child);
+		return child;
+	}
+
+	private static void reset(CountingNode... nodes) {
+		for (CountingNode node : nodes) {
+			node.vectors = 0;
+			node.bounds = 0;
+		}
+	}
+
+	/**
+	 * Counts the world transform and bound updates.
+	 */
+	private static class CountingNode extends Node {
+
+		int vectors;
+		int bounds;
+
+		@Override
+		public void updateWorldVectors() {
+			vectors++;
+			super.updateWorldVectors();
+		}
+
+		@Override
+		public void updateWorldBound() {
+			bounds++;
+			super.updateWorldBound();
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package ca.scotthyndman.game.engine.scene;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.animation.AnimationSystem;
+import ca.scotthyndman.game.engine.animation.Property;
+import ca.scotthyndman.game.engine.animation.PropertyListener;
+import ca.scotthyndman.game.engine.animation.Real;
+
+/**
+ * Checks that nodes' properties live in their store slots, that slots keep their place as the store grows, and that
+ * animated properties are written straight into the columns.
+ */
+public class TransformStoreTests {
+
+	private static final long MILLIS = 1000000L;
+
+	@Test
+	public void propertiesReadAndWriteTheirSlot() {
+		TransformStore store = new TransformStore(16);
+		TestNode node = new TestNode();
+		node.x.set(5);
+		node.alpha.set(0.5f);
+
+		node.attachTransformStore(store);
+		int slot = node.getTransformSlot();
+		assertTrue(node.x.isStorageAttached());
+		assertSame(node, store.getOwner(slot));
+		assertEquals(5, store.get(TransformStore.X, slot), 0);
+		assertEquals(0.5f, store.get(TransformStore.ALPHA, slot), 0);
+
+		node.y.set(7);
+		assertEquals(7, store.get(TransformStore.Y, slot), 0);
+		store.getChunkOf(slot)[TransformStore.index(TransformStore.ANGLE, slot)] = 90;
+		assertEquals(90, node.angle.get(), 0);
+
+		// The values come back out with the node
+		node.detachTransformStore();
+		assertFalse(node.x.isStorageAttached());
+		assertEquals(-1, node.getTransformSlot());
+		assertEquals(null, store.getOwner(slot));
+		assertEquals(7, node.y.get(), 0);
+		assertEquals(90, node.angle.get(), 0);
+		assertEquals(0, store.getSlotCount());
+	}
+
+	@Test
+	public void slotsKeepTheirChunksAsTheStoreGrows() {
+		TransformStore store = new TransformStore(1);
+		TestNode first = new TestNode();
+		first.attachTransformStore(store);
+		float[] chunk = store.getChunkOf(first.getTransformSlot());
+
+		TestNode[] nodes = new TestNode[TransformStore.CHUNK_SIZE * 3];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new TestNode();
+			nodes[i].attachTransformStore(store);
+			nodes[i].x.set(i);
+		}
+		assertEquals(4, store.getChunkCount());
+
+		// The first node's chunk is still the store's
+		first.x.set(42);
+		assertSame(chunk, store.getChunkOf(first.getTransformSlot()));
+		assertEquals(42, store.get(TransformStore.X, first.getTransformSlot()), 0);
+		for (int i = 0; i < nodes.length; i++) {
+			assertEquals(i, store.get(TransformStore.X, nodes[i].getTransformSlot()), 0);
+		}
+
+		// Freed slots are handed out again
+		int slot = nodes[10].getTransformSlot();
+		nodes[10].detachTransformStore();
+		TestNode reused = new TestNode();
+		reused.attachTransformStore(store);
+		assertEquals(slot, reused.getTransformSlot());
+		assertEquals(nodes.length + 1, store.getSize());
+	}
+
+	@Test
+	public void growingIsSeenByOtherThreads() throws Exception {
+		final TransformStore store = new TransformStore(1);
+		final int count = TransformStore.CHUNK_SIZE * 40;
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		Thread reader = new Thread() {
+			@Override
+			public void run() {
+				try {
+					while (store.getSize() < count) {
+						// Every slot handed out is in a published chunk
+						int size = store.getSize();
+						for (int c = 0, n = store.getChunkCount(); c < n; c++) {
+							float[] chunk = store.getChunk(c);
+							assertEquals(TransformStore.COLUMN_COUNT * TransformStore.CHUNK_SIZE, chunk.length);
+						}
+						if (size > 0) {
+							store.get(TransformStore.X, size - 1);
+						}
+					}
+				} catch (Throwable t) {
+					failure.set(t);
+				}
+			}
+		};
+		reader.start();
+
+		TestNode[] nodes = new TestNode[count];
+		for (int i = 0; i < count; i++) {
+			nodes[i] = new TestNode();
+			nodes[i].attachTransformStore(store);
+			nodes[i].x.set(i);
+		}
+		reader.join();
+		if (failure.get() != null) {
+			throw new AssertionError(failure.get());
+		}
+		for (int i = 0; i < count; i++) {
+			assertEquals(i, nodes[i].x.get(), 0);
+		}
+	}
+
+	@Test
+	public void tweensWriteStoredPropertiesAsTheyAdvance() {
+		ParallelUpdater parallel = new ParallelUpdater(2, 1);
+		try {
+			AnimationSystem system = new AnimationSystem();
+			system.setParallelUpdater(parallel);
+			TransformStore store = new TransformStore(16);
+
+			// Half the properties stored, half not
+			final int[] changes = new int[1];
+			PropertyListener listener = new PropertyListener() {
+				public void onPropertyChange(Property property) {
+					changes[0]++;
+				}
+			};
+			Real[] reals = new Real[100];
+			for (int i = 0; i < reals.length; i++) {
+				reals[i] = new Real(listener);
+				if (i % 2 == 0) {
+					reals[i].attachStorage(store, TransformStore.X, store.allocate(null));
+				}
+				system.add(reals[i]);
+				reals[i].animate(0, 100, 100);
+			}
+			changes[0] = 0;
+
+			system.updateNanos(25 * MILLIS);
+			assertEquals(reals.length, changes[0]);
+			for (int i = 0; i < reals.length; i++) {
+				assertEquals(25, reals[i].get(), 0.0001);
+			}
+			assertEquals(25, store.get(TransformStore.X, 0), 0.0001);
+
+			// Finished, and left alone after that
+			system.updateNanos(100 * MILLIS);
+			assertEquals(reals.length * 2, changes[0]);
+			system.updateNanos(100 * MILLIS);
+			assertEquals(reals.length * 2, changes[0]);
+			for (int i = 0; i < reals.length; i++) {
+				assertEquals(100, reals[i].get(), 0);
+				assertFalse(reals[i].isAnimating());
+			}
+		} finally {
+			parallel.shutdown();
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package ca.scotthyndman.game.engine.scene;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ca.scotthyndman.game.engine.AbstractBenchmark;
+import ca.scotthyndman.game.engine.entity.Env;
+
+/**
+ * Measures frame time against the number of idle sprites, comparing the old "update everything" loop with the
+ * {@link UpdateScheduler}. The number of animating sprites is the same in every run.
+ */
+public class UpdateSchedulerBenchmark extends AbstractBenchmark {
+
+	private static final int ANIMATING = 100;
+	private static final int[] IDLE = { 0, 1000, 10000, 50000 };
+	private static final float TPF = 1 / 60f;
+
+	public static void main(String[] args) {
+		final Env env = Env.getInstance();
+
+		for (int idle : IDLE) {
+			final List<Positioned> nodes = createNodes(ANIMATING, idle);
+
+			long flat = measure(new Runnable() {
+				public void run() {
+					for (int i = 0, len = nodes.size(); i < len; i++) {
+						nodes.get(i).update(env, TPF);
+					}
+				}
+			}, 200, 500);
+
+			final UpdateScheduler scheduler = new UpdateScheduler();
+			for (Positioned p : nodes) {
+				scheduler.register(p);
+			}
+			long scheduled = measure(new Runnable() {
+				public void run() {
+					scheduler.update(env, TPF);
+				}
+			}, 200, 500);
+
+			report("update all, " + idle + " idle", flat);
+			report("scheduler, " + idle + " idle", scheduled);
+		}
+	}
+
+	private static List<Positioned> createNodes(int animating, int idle) {
+		List<Positioned> nodes = new ArrayList<Positioned>(animating + idle);
+		for (int i = 0; i < animating + idle; i++) {
+			Positioned p = new TestNode();
+			if (i < animating) {
+				p.angle.constant(90);
+			}
+			nodes.add(p);
+		}
+		return nodes;
+	}
+}
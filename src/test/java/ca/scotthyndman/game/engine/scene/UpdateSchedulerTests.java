@@ -0,0 +1,151 @@
+package ca.scotthyndman.game.engine.scene;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.animation.FloatTween;
+import ca.scotthyndman.game.engine.entity.Env;
+
+/**
+ * Checks that the scheduler visits only the nodes that asked for an update, and keeps animating nodes until their
+ * behaviors finish.
+ */
+public class UpdateSchedulerTests {
+
+	private static final float TPF = 1 / 60f;
+
+	@Test
+	public void idleNodesAreNotVisited() {
+		UpdateScheduler scheduler = new UpdateScheduler();
+		CountingNode node = new CountingNode();
+		scheduler.register(node);
+
+		// A node is updated once when it is registered, and then left alone
+		update(scheduler, 10);
+		assertEquals(1, node.updates);
+		assertEquals(0, scheduler.getScheduledCount());
+	}
+
+	@Test
+	public void settingAPropertyOfAnIdleNodeSchedulesIt() {
+		UpdateScheduler scheduler = new UpdateScheduler();
+		CountingNode node = new CountingNode();
+		scheduler.register(node);
+		update(scheduler, 1);
+
+		node.x.set(10);
+		assertEquals(1, scheduler.getScheduledCount());
+		update(scheduler, 3);
+		assertEquals(2, node.updates);
+		assertEquals(10, node.getContent().getLocalTranslation().x, 0);
+	}
+
+	@Test
+	public void givingAnIdleNodeABehaviorSchedulesIt() {
+		UpdateScheduler scheduler = new UpdateScheduler();
+		CountingNode node = new CountingNode();
+		scheduler.register(node);
+		update(scheduler, 1);
+
+		node.y.setBehavior(new FloatTween(0, 20, 0));
+		assertEquals(1, scheduler.getScheduledCount());
+		update(scheduler, 3);
+		assertEquals(2, node.updates);
+		assertEquals(20, node.getContent().getLocalTranslation().y, 0);
+	}
+
+	@Test
+	public void tweeningNodesStayScheduledUntilTheTweenFinishes() {
+		UpdateScheduler scheduler = new UpdateScheduler();
+		CountingNode node = new CountingNode();
+		scheduler.register(node);
+		update(scheduler, 1);
+
+		// 100ms is six frames and a bit
+		node.x.animateTo(100, 100);
+		int frames = 0;
+		while (scheduler.getScheduledCount() > 0) {
+			update(scheduler, 1);
+			frames++;
+			if (frames < 7) {
+				assertEquals(1, scheduler.getScheduledCount());
+			}
+		}
+		assertEquals(7, frames);
+		assertEquals(100, node.getContent().getLocalTranslation().x, 0);
+
+		update(scheduler, 5);
+		assertEquals(1 + 7, node.updates);
+	}
+
+	@Test
+	public void unregisteredNodesAreNotVisited() {
+		UpdateScheduler scheduler = new UpdateScheduler();
+		CountingNode[] nodes = new CountingNode[5];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new CountingNode();
+			scheduler.register(nodes[i]);
+		}
+		assertEquals(5, scheduler.getScheduledCount());
+
+		// From the middle and the end of the scheduled list
+		scheduler.unregister(nodes[1]);
+		scheduler.unregister(nodes[4]);
+		assertEquals(3, scheduler.getScheduledCount());
+		assertEquals(3, scheduler.getRegisteredCount());
+
+		update(scheduler, 1);
+		assertEquals(1, nodes[0].updates);
+		assertEquals(0, nodes[1].updates);
+		assertEquals(1, nodes[2].updates);
+		assertEquals(1, nodes[3].updates);
+		assertEquals(0, nodes[4].updates);
+
+		// Changes no longer schedule the node
+		nodes[1].x.set(5);
+		assertEquals(0, scheduler.getScheduledCount());
+
+		// and it can come back
+		scheduler.register(nodes[1]);
+		update(scheduler, 1);
+		assertEquals(1, nodes[1].updates);
+	}
+
+	@Test
+	public void nodesUnregisteredDuringAnUpdateAreSkipped() {
+		final UpdateScheduler scheduler = new UpdateScheduler();
+		final CountingNode victim = new CountingNode();
+		CountingNode killer = new CountingNode() {
+			@Override
+			public void update(Env env, float tpf) {
+				super.update(env, tpf);
+				scheduler.unregister(victim);
+			}
+		};
+		scheduler.register(killer);
+		scheduler.register(victim);
+
+		update(scheduler, 1);
+		assertEquals(1, killer.updates);
+		assertEquals(0, victim.updates);
+		assertEquals(0, scheduler.getScheduledCount());
+	}
+
+	private static void update(UpdateScheduler scheduler, int frames) {
+		for (int i = 0; i < frames; i++) {
+			scheduler.update(Env.getInstance(), TPF);
+		}
+	}
+
+	private static class CountingNode extends TestNode {
+
+		int updates;
+
+		@Override
+		public void update(Env env, float tpf) {
+			updates++;
+			super.update(env, tpf);
+		}
+	}
+}
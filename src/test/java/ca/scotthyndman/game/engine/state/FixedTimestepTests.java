@@ -0,0 +1,106 @@
+package ca.scotthyndman.game.engine.state;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.animation.AnimationSystem;
+import ca.scotthyndman.game.engine.animation.Easing;
+import ca.scotthyndman.game.engine.animation.Real;
+
+/**
+ * Checks that frames are divided into whole steps, that slow frames can't run away, and that the simulation doesn't
+ * depend on how the frames fall.
+ */
+public class FixedTimestepTests {
+
+	private static final long MILLIS = 1000000L;
+
+	@Test
+	public void carriesPartialStepsOver() {
+		FixedTimestep timestep = new FixedTimestep(100, 5);
+		assertEquals(10 * MILLIS, timestep.getStepNanos());
+
+		assertEquals(0, timestep.advance(6 * MILLIS));
+		assertEquals(0.6f, timestep.getAlpha(), 1e-6f);
+		assertEquals(1, timestep.advance(6 * MILLIS));
+		assertEquals(0.2f, timestep.getAlpha(), 1e-6f);
+		assertEquals(3, timestep.advance(28 * MILLIS));
+		assertEquals(0f, timestep.getAlpha(), 0);
+		assertEquals(4, timestep.getStepCount());
+	}
+
+	@Test
+	public void limitsTheStepsPerFrame() {
+		FixedTimestep timestep = new FixedTimestep(100, 5);
+
+		// A one second hitch runs five steps, keeps the partial step, and drops the rest
+		assertEquals(5, timestep.advance(1003 * MILLIS));
+		assertEquals(0.3f, timestep.getAlpha(), 1e-6f);
+		assertEquals(950 * MILLIS, timestep.getDroppedNanos());
+
+		// And the following frames are back to normal
+		assertEquals(1, timestep.advance(10 * MILLIS));
+		assertEquals(0.3f, timestep.getAlpha(), 1e-6f);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void refusesAZeroRate() {
+		new FixedTimestep(0, 5);
+	}
+
+	@Test
+	public void simulationDoesNotDependOnFrameTimes() {
+		long frames = 5000;
+		float[] steady = simulate(new Random(1), frames, 0);
+		float[] jittery = simulate(new Random(2), frames, 12 * MILLIS);
+
+		assertEquals(steady.length, jittery.length);
+		for (int i = 0; i < steady.length; i++) {
+			assertEquals("step " + i, Float.floatToIntBits(steady[i]), Float.floatToIntBits(jittery[i]));
+		}
+	}
+
+	/**
+	 * Runs frames of about 16ms, give or take up to the jitter, and then pads the last frame so that both runs cover
+	 * the same time. Returns the value of an animated property after every step.
+	 */
+	private static float[] simulate(Random random, long frames, long jitter) {
+		FixedTimestep timestep = new FixedTimestep(60, 5);
+		AnimationSystem system = new AnimationSystem();
+		Real value = new Real();
+		Real follower = new Real();
+		system.add(value);
+		system.add(follower);
+		value.animate(0, 1000, 3000, Easing.STRONG_IN_OUT);
+		follower.bindTo(value);
+
+		long total = frames * 16 * MILLIS;
+		float[] values = new float[(int) (total / timestep.getStepNanos())];
+		int stepCount = 0;
+		long elapsed = 0;
+		while (elapsed < total) {
+			long frame = 16 * MILLIS;
+			if (jitter > 0) {
+				frame += (long) ((random.nextDouble() * 2 - 1) * jitter);
+			}
+			frame = Math.min(frame, total - elapsed);
+			elapsed += frame;
+
+			int steps = timestep.advance(frame);
+			for (int i = 0; i < steps; i++) {
+				system.updateNanos(timestep.getStepNanos());
+				if (!value.isAnimating()) {
+					value.animate(0, 1000, 3000, Easing.STRONG_IN_OUT);
+				}
+				values[stepCount++] = follower.get();
+			}
+		}
+
+		assertEquals(0, timestep.getDroppedNanos());
+		assertEquals(values.length, stepCount);
+		return values;
+	}
+}
@@ -0,0 +1,72 @@
+package ca.scotthyndman.game.engine.texture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that the skyline packer keeps rectangles on the page and apart, and fills the page.
+ */
+public class SkylinePackerTests {
+
+	@Test
+	public void fillsThePageWithEqualSquares() {
+		SkylinePacker packer = new SkylinePacker(64, 64);
+		for (int i = 0; i < 16; i++) {
+			assertNotNull(packer.insert(16, 16));
+		}
+		assertNull(packer.insert(16, 16));
+		assertEquals(1f, packer.getOccupancy(), 0);
+	}
+
+	@Test
+	public void placesLowestFirst() {
+		SkylinePacker packer = new SkylinePacker(100, 100);
+		assertEquals(new Rectangle(0, 0, 60, 50), packer.insert(60, 50));
+		assertEquals(new Rectangle(60, 0, 40, 20), packer.insert(40, 20));
+
+		// Lower on top of the short one than on top of the tall one
+		assertEquals(new Rectangle(60, 20, 40, 20), packer.insert(40, 20));
+		assertEquals(new Rectangle(0, 50, 100, 10), packer.insert(100, 10));
+	}
+
+	@Test
+	public void keepsRectanglesApartAndOnThePage() {
+		Random random = new Random(3);
+		SkylinePacker packer = new SkylinePacker(512, 512);
+		ArrayList<Rectangle> placed = new ArrayList<Rectangle>();
+		for (int i = 0; i < 500; i++) {
+			Rectangle r = packer.insert(1 + random.nextInt(64), 1 + random.nextInt(64));
+			if (r == null) {
+				continue;
+			}
+			assertTrue(new Rectangle(0, 0, 512, 512).contains(r));
+			for (Rectangle other : placed) {
+				assertFalse(r + " overlaps " + other, r.intersects(other));
+			}
+			placed.add(r);
+		}
+		assertTrue(placed.size() > 50);
+	}
+
+	@Test
+	public void refusesWhatDoesNotFit() {
+		SkylinePacker packer = new SkylinePacker(32, 32);
+		assertNull(packer.insert(33, 1));
+		assertNull(packer.insert(1, 33));
+		assertNotNull(packer.insert(32, 32));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void refusesAnEmptyPage() {
+		new SkylinePacker(0, 10);
+	}
+}
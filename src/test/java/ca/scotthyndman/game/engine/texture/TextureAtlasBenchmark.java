@@ -0,0 +1,40 @@
+package ca.scotthyndman.game.engine.texture;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.TreeMap;
+
+import ca.scotthyndman.game.engine.AbstractBenchmark;
+
+/**
+ * Measures how full the atlas pages end up, and how long packing takes, for 100, 500 and 2000 textures of random
+ * sizes from 8 to 128 pixels a side, on 1024 and 2048 pixel pages. The last page counts toward the fraction used
+ * like the others, so atlases of few textures look emptier than the packer leaves its pages.
+ */
+public class TextureAtlasBenchmark extends AbstractBenchmark {
+
+	private static final int[] TEXTURES = { 100, 500, 2000 };
+	private static final int[] PAGE_SIZES = { 1024, 2048 };
+
+	public static void main(String[] args) {
+		for (int count : TEXTURES) {
+			final TreeMap<String, BufferedImage> images = new TreeMap<String, BufferedImage>();
+			Random random = new Random(count);
+			for (int i = 0; i < count; i++) {
+				images.put("texture" + i + ".png", new BufferedImage(8 + random.nextInt(121), 8 + random.nextInt(121),
+						BufferedImage.TYPE_INT_ARGB));
+			}
+
+			for (final int pageSize : PAGE_SIZES) {
+				final TextureAtlas[] atlas = new TextureAtlas[1];
+				long nanos = measure(new Runnable() {
+					public void run() {
+						atlas[0] = TextureAtlas.build(images, pageSize);
+					}
+				}, 3, 10);
+				report(String.format("%d textures, %dpx pages: %d page(s), %.1f%% used", count, pageSize, atlas[0]
+						.getPageCount(), atlas[0].getEfficiency() * 100), nanos);
+			}
+		}
+	}
+}
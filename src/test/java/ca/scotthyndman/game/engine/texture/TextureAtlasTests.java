@@ -0,0 +1,189 @@
+package ca.scotthyndman.game.engine.texture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.TreeMap;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.scotthyndman.game.engine.job.JobSystem;
+
+/**
+ * Checks that the atlas packs textures where it says it did, pads them, and is cached until the textures change, and
+ * that saving over a cached atlas leaves nothing of it behind.
+ */
+public class TextureAtlasTests {
+
+	private File textures;
+	private File cache;
+
+	@Before
+	public void setUp() throws IOException {
+		textures = createTempDirectory("textures");
+		cache = createTempDirectory("cache");
+	}
+
+	@After
+	public void tearDown() {
+		delete(textures);
+		delete(cache);
+	}
+
+	@Test
+	public void copiesEachTextureToItsRegion() throws IOException {
+		TreeMap<String, BufferedImage> images = new TreeMap<String, BufferedImage>();
+		images.put("red.png", image(30, 20, 0xffff0000));
+		images.put("green.png", image(10, 40, 0xff00ff00));
+		images.put("huge.png", image(200, 10, 0xff0000ff));
+
+		TextureAtlas atlas = TextureAtlas.build(images, 128);
+		assertEquals(1, atlas.getPageCount());
+		assertNull(atlas.getRegion("huge.png"));
+
+		BufferedImage page = atlas.getPageImage(0);
+		AtlasRegion red = atlas.getRegion("red.png");
+		assertEquals(30, red.getWidth());
+		assertEquals(20, red.getHeight());
+		for (int x = red.getX() - 1; x <= red.getX() + red.getWidth(); x++) {
+			for (int y = red.getY() - 1; y <= red.getY() + red.getHeight(); y++) {
+				boolean corner = (x < red.getX() || x >= red.getX() + red.getWidth())
+						&& (y < red.getY() || y >= red.getY() + red.getHeight());
+				if (!corner) {
+					assertEquals(0xffff0000, page.getRGB(x, y));
+				}
+			}
+		}
+
+		// Pages are upside down in jME
+		assertEquals((float) red.getX() / 128, red.getU0(), 0);
+		assertEquals(1f - (float) red.getY() / 128, red.getV1(), 0);
+		assertEquals(1f - (float) (red.getY() + 20) / 128, red.getV0(), 0);
+
+		AtlasRegion green = atlas.getRegion("green.png");
+		assertFalse(rectangle(red).intersects(rectangle(green)));
+		assertEquals(0xff00ff00, page.getRGB(green.getX(), green.getY()));
+	}
+
+	@Test
+	public void opensNewPagesWhenFull() {
+		TreeMap<String, BufferedImage> images = new TreeMap<String, BufferedImage>();
+		for (int i = 0; i < 10; i++) {
+			images.put(i + ".png", image(30, 30, 0xffffffff));
+		}
+
+		// Four padded 32x32 squares to a page
+		TextureAtlas atlas = TextureAtlas.build(images, 64);
+		assertEquals(3, atlas.getPageCount());
+		assertEquals(10, atlas.getRegions().size());
+		assertEquals(10 * 30 * 30 / (3 * 64 * 64f), atlas.getEfficiency(), 1e-6f);
+	}
+
+	@Test
+	public void isCachedUntilTheTexturesChange() throws IOException {
+		ImageIO.write(image(16, 16, 0xff123456), "png", new File(textures, "a.png"));
+		ImageIO.write(image(8, 24, 0xff654321), "png", new File(textures, "b.png"));
+
+		TextureAtlas built = TextureAtlas.load(textures.toURI().toURL(), cache, 64);
+		assertFalse(built.isFromCache());
+
+		TextureAtlas cached = TextureAtlas.load(textures.toURI().toURL(), cache, 64);
+		assertTrue(cached.isFromCache());
+		AtlasRegion b = cached.getRegion("b.png");
+		assertNotNull(b);
+		assertEquals(built.getRegion("b.png").getX(), b.getX());
+		assertEquals(0xff654321, cached.getPageImage(0).getRGB(b.getX(), b.getY()));
+
+		// A new texture makes the cache stale, and so does another page size
+		ImageIO.write(image(4, 4, 0xff000000), "png", new File(textures, "c.png"));
+		TextureAtlas rebuilt = TextureAtlas.load(textures.toURI().toURL(), cache, 64);
+		assertFalse(rebuilt.isFromCache());
+		assertNotNull(rebuilt.getRegion("c.png"));
+		assertFalse(TextureAtlas.load(textures.toURI().toURL(), cache, 128).isFromCache());
+	}
+
+	@Test
+	public void savingOverALargerAtlasRemovesItsExtraPages() throws IOException {
+		TreeMap<String, BufferedImage> images = new TreeMap<String, BufferedImage>();
+		for (int i = 0; i < 10; i++) {
+			images.put(i + ".png", image(30, 30, 0xffffffff));
+		}
+		TextureAtlas.build(images, 64).save(cache, "large");
+		assertTrue(new File(cache, "page-2.png").isFile());
+
+		images.clear();
+		images.put("a.png", image(30, 30, 0xff123456));
+		TextureAtlas small = TextureAtlas.build(images, 64);
+		small.save(cache, "small");
+		assertTrue(new File(cache, "page-0.png").isFile());
+		assertFalse(new File(cache, "page-1.png").exists());
+		assertFalse(new File(cache, "page-2.png").exists());
+		assertTrue(new File(cache, "atlas.txt").isFile());
+		assertEquals(2, cache.list().length);
+
+		AtlasRegion a = small.getRegion("a.png");
+		assertEquals(0xff123456, small.getPageImage(0).getRGB(a.getX(), a.getY()));
+	}
+
+	@Test
+	public void decodesTheTexturesOnTheJobSystem() throws IOException {
+		for (int i = 0; i < 20; i++) {
+			ImageIO.write(image(4 + i, 8, 0xff000000 | i), "png", new File(textures, i + ".png"));
+		}
+
+		JobSystem jobs = new JobSystem(2);
+		try {
+			TextureAtlas atlas = TextureAtlas.load(textures.toURI().toURL(), cache, 128, jobs);
+			assertEquals(20, jobs.getStats("texture decode").getCount());
+			for (int i = 0; i < 20; i++) {
+				AtlasRegion region = atlas.getRegion(i + ".png");
+				assertEquals(4 + i, region.getWidth());
+				assertEquals(0xff000000 | i, atlas.getPageImage(region.getPage()).getRGB(region.getX(), region.getY()));
+			}
+		} finally {
+			jobs.shutdown();
+		}
+	}
+
+	private static BufferedImage image(int width, int height, int argb) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				image.setRGB(x, y, argb);
+			}
+		}
+		return image;
+	}
+
+	private static java.awt.Rectangle rectangle(AtlasRegion r) {
+		return new java.awt.Rectangle(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+	}
+
+	private static File createTempDirectory(String name) throws IOException {
+		File dir = File.createTempFile(name, "");
+		if (!dir.delete() || !dir.mkdir()) {
+			throw new IOException("Can't create " + dir);
+		}
+		return dir;
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+}
@@ -0,0 +1,14 @@
+import 'ca.scotthyndman.game.engine.HeadlessEngineTests'
+
+#
+# A game with one entity, which reports each tick back to the test that ran it
+#
+module HeadlessTick
+  class Ticker < Affinity::Entity
+    on_event :tick do |info|
+      HeadlessEngineTests.ticked info.time_per_frame
+    end
+  end
+
+  $ticker = Ticker.new :name => "ticker"
+end